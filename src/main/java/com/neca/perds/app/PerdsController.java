@@ -3,7 +3,11 @@ package com.neca.perds.app;
 import com.neca.perds.dispatch.DispatchCommand;
 import com.neca.perds.dispatch.DispatchDecision;
 import com.neca.perds.dispatch.DispatchEngine;
+import com.neca.perds.graph.Edge;
 import com.neca.perds.graph.Graph;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.graph.GraphChangeListener;
+import com.neca.perds.graph.GraphChangeSet;
 import com.neca.perds.metrics.MetricsCollector;
 import com.neca.perds.model.Assignment;
 import com.neca.perds.model.DispatchCentre;
@@ -17,9 +21,14 @@ import com.neca.perds.model.UnitId;
 import com.neca.perds.model.UnitStatus;
 import com.neca.perds.prediction.DemandPredictor;
 import com.neca.perds.prediction.PrepositioningStrategy;
+import com.neca.perds.prediction.RepositionMove;
 import com.neca.perds.prediction.RepositionPlan;
+import com.neca.perds.routing.AlternativeRouteFinder;
+import com.neca.perds.routing.BatchRouter;
+import com.neca.perds.routing.CachingRouter;
 import com.neca.perds.routing.CostFunctions;
-import com.neca.perds.routing.DijkstraRouter;
+import com.neca.perds.routing.CustomizableRouter;
+import com.neca.perds.routing.DynamicShortestPathRouter;
 import com.neca.perds.routing.EdgeCostFunction;
 import com.neca.perds.routing.Route;
 import com.neca.perds.routing.Router;
@@ -29,14 +38,18 @@ import com.neca.perds.system.SystemSnapshot;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 public final class PerdsController implements SystemCommandExecutor {
-    private static final Router REROUTE_ROUTER = new DijkstraRouter();
     private static final EdgeCostFunction REROUTE_COST_FUNCTION = CostFunctions.travelTimeSeconds();
 
     private final Graph graph;
@@ -44,6 +57,11 @@ public final class PerdsController implements SystemCommandExecutor {
     private final DemandPredictor demandPredictor;
     private final PrepositioningStrategy prepositioningStrategy;
     private final MetricsCollector metricsCollector;
+    private final Router router;
+    private final BatchRouter batchRouter;
+    private final DynamicShortestPathRouter rerouteRouter;
+    private final AlternativeRouteFinder alternativeRouteFinder;
+    private final List<GraphChangeListener> graphChangeListeners = new ArrayList<>();
 
     private final IncidentManager incidentManager = new IncidentManager();
     private final UnitManager unitManager = new UnitManager();
@@ -57,12 +75,79 @@ public final class PerdsController implements SystemCommandExecutor {
             DemandPredictor demandPredictor,
             PrepositioningStrategy prepositioningStrategy,
             MetricsCollector metricsCollector
+    ) {
+        this(
+                graph,
+                dispatchEngine,
+                demandPredictor,
+                prepositioningStrategy,
+                metricsCollector,
+                new CachingRouter(new CustomizableRouter(REROUTE_COST_FUNCTION))
+        );
+    }
+
+    /**
+     * Creates a controller that uses {@code router} for return-to-base and prepositioning. Reroutes of
+     * in-flight units after edge changes follow incrementally repaired shortest-path trees towards each
+     * assignment target, falling back to {@code router}. Prepositioning routes are solved as one parallel
+     * batch, so {@code router} must be thread-safe. If the router is a {@link GraphChangeListener} it is
+     * registered to receive graph changes. Failover alternatives for each assignment are searched on
+     * {@code router} with the default {@link AlternativeRouteFinder} limits.
+     */
+    public PerdsController(
+            Graph graph,
+            DispatchEngine dispatchEngine,
+            DemandPredictor demandPredictor,
+            PrepositioningStrategy prepositioningStrategy,
+            MetricsCollector metricsCollector,
+            Router router
+    ) {
+        this(
+                graph,
+                dispatchEngine,
+                demandPredictor,
+                prepositioningStrategy,
+                metricsCollector,
+                router,
+                new AlternativeRouteFinder(router)
+        );
+    }
+
+    /**
+     * Like {@link #PerdsController(Graph, DispatchEngine, DemandPredictor, PrepositioningStrategy,
+     * MetricsCollector, Router)}, but computes each assignment's failover alternatives with
+     * {@code alternativeRouteFinder}; pass {@link AlternativeRouteFinder#disabled()} to skip them, in which
+     * case closures on an assigned route always reroute by search.
+     */
+    public PerdsController(
+            Graph graph,
+            DispatchEngine dispatchEngine,
+            DemandPredictor demandPredictor,
+            PrepositioningStrategy prepositioningStrategy,
+            MetricsCollector metricsCollector,
+            Router router,
+            AlternativeRouteFinder alternativeRouteFinder
     ) {
         this.graph = Objects.requireNonNull(graph, "graph");
         this.dispatchEngine = Objects.requireNonNull(dispatchEngine, "dispatchEngine");
         this.demandPredictor = Objects.requireNonNull(demandPredictor, "demandPredictor");
         this.prepositioningStrategy = Objects.requireNonNull(prepositioningStrategy, "prepositioningStrategy");
         this.metricsCollector = Objects.requireNonNull(metricsCollector, "metricsCollector");
+        this.router = Objects.requireNonNull(router, "router");
+        this.alternativeRouteFinder = Objects.requireNonNull(alternativeRouteFinder, "alternativeRouteFinder");
+        this.batchRouter = new BatchRouter(router);
+        if (router instanceof GraphChangeListener listener) {
+            addGraphChangeListener(listener);
+        }
+        this.rerouteRouter = new DynamicShortestPathRouter(REROUTE_COST_FUNCTION, router);
+        addGraphChangeListener(rerouteRouter);
+    }
+
+    /**
+     * Registers a listener that is notified after every graph mutation applied by {@link #execute}.
+     */
+    public void addGraphChangeListener(GraphChangeListener listener) {
+        graphChangeListeners.add(Objects.requireNonNull(listener, "listener"));
     }
 
     public Graph graph() {
@@ -87,10 +172,7 @@ public final class PerdsController implements SystemCommandExecutor {
         Objects.requireNonNull(command, "command");
         Objects.requireNonNull(at, "at");
 
-        NodeId changedEdgeFrom = null;
-        NodeId changedEdgeTo = null;
-        boolean changedEdgeMayInvalidateRoutes = false;
-        String changedEdgeReason = null;
+        List<GraphChange.EdgeChanged> routeInvalidatingChanges = List.of();
 
         switch (command) {
             case SystemCommand.ReportIncidentCommand c -> {
@@ -100,22 +182,41 @@ public final class PerdsController implements SystemCommandExecutor {
             case SystemCommand.ResolveIncidentCommand c -> {
                 resolveIncident(c.incidentId(), at);
             }
-            case SystemCommand.AddNodeCommand c -> graph.addNode(c.node());
-            case SystemCommand.RemoveNodeCommand c -> graph.removeNode(c.nodeId());
-            case SystemCommand.PutEdgeCommand c -> graph.putEdge(c.edge());
+            case SystemCommand.AddNodeCommand c ->
+                    publishGraphChange(new GraphChange.NodeAdded(c.node(), graph.addNode(c.node())));
+            case SystemCommand.RemoveNodeCommand c ->
+                    publishGraphChange(new GraphChange.NodeRemoved(c.nodeId(), graph.removeNode(c.nodeId())));
+            case SystemCommand.PutEdgeCommand c -> {
+                Optional<Edge> before = graph.getEdge(c.edge().from(), c.edge().to());
+                long version = graph.putEdge(c.edge());
+                var change = new GraphChange.EdgeChanged(
+                        c.edge().from(), c.edge().to(), before, Optional.of(c.edge()), version);
+                publishGraphChange(change);
+                routeInvalidatingChanges = routeInvalidating(List.of(change));
+            }
             case SystemCommand.RemoveEdgeCommand c -> {
-                graph.removeEdge(c.from(), c.to());
-                changedEdgeFrom = c.from();
-                changedEdgeTo = c.to();
-                changedEdgeMayInvalidateRoutes = true;
-                changedEdgeReason = "Edge removed (" + c.from() + " -> " + c.to() + ")";
+                Optional<Edge> before = graph.getEdge(c.from(), c.to());
+                long version = graph.removeEdge(c.from(), c.to());
+                var change = new GraphChange.EdgeChanged(c.from(), c.to(), before, Optional.empty(), version);
+                publishGraphChange(change);
+                routeInvalidatingChanges = routeInvalidating(List.of(change));
             }
             case SystemCommand.UpdateEdgeCommand c -> {
-                graph.updateEdge(c.from(), c.to(), c.weights(), c.status());
-                changedEdgeFrom = c.from();
-                changedEdgeTo = c.to();
-                changedEdgeMayInvalidateRoutes = true;
-                changedEdgeReason = "Edge updated (" + c.from() + " -> " + c.to() + ") status=" + c.status();
+                Optional<Edge> before = graph.getEdge(c.from(), c.to());
+                long version = graph.updateEdge(c.from(), c.to(), c.weights(), c.status());
+                var change = new GraphChange.EdgeChanged(
+                        c.from(), c.to(), before, graph.getEdge(c.from(), c.to()), version);
+                publishGraphChange(change);
+                routeInvalidatingChanges = routeInvalidating(List.of(change));
+            }
+            case SystemCommand.ApplyGraphBatchCommand c -> {
+                GraphChangeSet changes = graph.applyBatch(c.mutations());
+                if (!changes.isEmpty()) {
+                    for (GraphChangeListener listener : graphChangeListeners) {
+                        listener.onGraphChanged(graph, changes);
+                    }
+                }
+                routeInvalidatingChanges = routeInvalidating(changes.edgeChanges());
             }
             case SystemCommand.RegisterUnitCommand c -> unitManager.register(c.unit());
             case SystemCommand.SetUnitStatusCommand c -> setUnitStatus(c.unitId(), c.status());
@@ -125,9 +226,7 @@ public final class PerdsController implements SystemCommandExecutor {
                     dispatchCentres.put(c.dispatchCentre().id(), c.dispatchCentre());
         }
 
-        if (changedEdgeMayInvalidateRoutes) {
-            rerouteOrCancelAssignmentsUsingEdge(changedEdgeFrom, changedEdgeTo, changedEdgeReason, at);
-        }
+        rerouteOrCancelAssignmentsUsingEdges(routeInvalidatingChanges, at);
 
         SystemSnapshot snapshot = snapshot(at);
         long startedNanos = System.nanoTime();
@@ -141,6 +240,22 @@ public final class PerdsController implements SystemCommandExecutor {
         }
     }
 
+    /**
+     * Changes to edges that existed before, whether updated, overwritten or removed, since only those can
+     * lie on an assigned route. The same rule applies to single commands and batches.
+     */
+    private static List<GraphChange.EdgeChanged> routeInvalidating(List<GraphChange.EdgeChanged> changes) {
+        return changes.stream()
+                .filter(change -> change.before().isPresent())
+                .toList();
+    }
+
+    private void publishGraphChange(GraphChange change) {
+        for (GraphChangeListener listener : graphChangeListeners) {
+            listener.onGraphChanged(graph, change);
+        }
+    }
+
     private void applyDispatchCommand(DispatchCommand command, Instant at) {
         switch (command) {
             case DispatchCommand.AssignUnitCommand c -> applyAssignment(c, at);
@@ -166,7 +281,13 @@ public final class PerdsController implements SystemCommandExecutor {
             return;
         }
 
-        Assignment assignment = new Assignment(command.incidentId(), command.unitId(), command.route(), at);
+        Assignment assignment = new Assignment(
+                command.incidentId(),
+                command.unitId(),
+                command.route(),
+                at,
+                alternativeRouteFinder.findAlternatives(graph, command.route(), REROUTE_COST_FUNCTION)
+        );
         assignments.put(command.incidentId(), assignment);
         assignmentRouteIndex.put(assignment.incidentId(), assignment.route());
 
@@ -193,9 +314,18 @@ public final class PerdsController implements SystemCommandExecutor {
             return;
         }
 
+        List<Route> alternatives = assignment.alternatives().stream()
+                .filter(alternative -> !alternative.nodes().equals(command.newRoute().nodes()))
+                .toList();
         assignments.put(
                 assignment.incidentId(),
-                new Assignment(assignment.incidentId(), assignment.unitId(), command.newRoute(), assignment.assignedAt())
+                new Assignment(
+                        assignment.incidentId(),
+                        assignment.unitId(),
+                        command.newRoute(),
+                        assignment.assignedAt(),
+                        alternatives
+                )
         );
         assignmentRouteIndex.put(assignment.incidentId(), command.newRoute());
     }
@@ -240,7 +370,7 @@ public final class PerdsController implements SystemCommandExecutor {
         }
 
         // Compute route home
-        Optional<Route> routeHome = REROUTE_ROUTER.findRoute(
+        Optional<Route> routeHome = router.findRoute(
                 graph, unit.currentNodeId(), homeNodeId, REROUTE_COST_FUNCTION);
         if (routeHome.isEmpty()) {
             return;
@@ -269,20 +399,38 @@ public final class PerdsController implements SystemCommandExecutor {
         unitManager.setStatus(unitId, status);
     }
 
-    private void rerouteOrCancelAssignmentsUsingEdge(NodeId from, NodeId to, String reason, Instant at) {
-        if (from == null || to == null) {
+    /**
+     * Reroutes or cancels every assignment whose route crosses one of {@code changes}, once per assignment
+     * even if its route crosses several of them.
+     */
+    private void rerouteOrCancelAssignmentsUsingEdges(List<GraphChange.EdgeChanged> changes, Instant at) {
+        Map<IncidentId, String> reasonByIncidentId = new TreeMap<>(Comparator.comparing(IncidentId::value));
+        for (GraphChange.EdgeChanged change : changes) {
+            for (IncidentId incidentId : assignmentRouteIndex.incidentIdsUsingEdge(change.from(), change.to())) {
+                reasonByIncidentId.putIfAbsent(incidentId, rerouteReason(change));
+            }
+        }
+        if (reasonByIncidentId.isEmpty()) {
             return;
         }
 
-        var affectedIncidentIds = assignmentRouteIndex.incidentIdsUsingEdge(from, to).stream()
-                .sorted(java.util.Comparator.comparing(IncidentId::value))
-                .toList();
+        rerouteRouter.retainGoals(assignments.keySet().stream()
+                .flatMap(incidentId -> incidentManager.get(incidentId).stream())
+                .map(Incident::locationNodeId)
+                .toList());
 
-        for (IncidentId incidentId : affectedIncidentIds) {
-            rerouteOrCancelAssignment(incidentId, reason, at);
+        for (var entry : reasonByIncidentId.entrySet()) {
+            rerouteOrCancelAssignment(entry.getKey(), entry.getValue(), at);
         }
     }
 
+    private static String rerouteReason(GraphChange.EdgeChanged change) {
+        String edge = "(" + change.from() + " -> " + change.to() + ")";
+        return change.after()
+                .map(after -> "Edge updated " + edge + " status=" + after.status())
+                .orElse("Edge removed " + edge);
+    }
+
     private void rerouteOrCancelAssignment(IncidentId incidentId, String reason, Instant at) {
         Objects.requireNonNull(incidentId, "incidentId");
         Objects.requireNonNull(at, "at");
@@ -309,12 +457,22 @@ public final class PerdsController implements SystemCommandExecutor {
             return;
         }
 
-        Optional<Route> newRoute = REROUTE_ROUTER.findRoute(
-                graph,
-                unit.currentNodeId(),
-                incident.locationNodeId(),
-                REROUTE_COST_FUNCTION
-        );
+        // A closure that leaves a precomputed alternative intact fails over to it without a search; other
+        // changes (e.g. congestion on a still-open route) search for the new best route.
+        Optional<Route> newRoute = Optional.empty();
+        if (AlternativeRouteFinder.bestValid(
+                graph, List.of(assignment.route()), unit.currentNodeId(), REROUTE_COST_FUNCTION).isEmpty()) {
+            newRoute = AlternativeRouteFinder.bestValid(
+                    graph, assignment.alternatives(), unit.currentNodeId(), REROUTE_COST_FUNCTION);
+        }
+        if (newRoute.isEmpty()) {
+            newRoute = rerouteRouter.findRoute(
+                    graph,
+                    unit.currentNodeId(),
+                    incident.locationNodeId(),
+                    REROUTE_COST_FUNCTION
+            );
+        }
 
         if (newRoute.isPresent()) {
             DispatchCommand reroute = new DispatchCommand.RerouteUnitCommand(
@@ -347,36 +505,44 @@ public final class PerdsController implements SystemCommandExecutor {
     private void prepositionUnits(Duration horizon, Instant at) {
         var forecast = demandPredictor.forecast(at, horizon);
         RepositionPlan plan = prepositioningStrategy.plan(snapshot(at), forecast);
+
+        List<RepositionMove> moves = new ArrayList<>();
+        List<BatchRouter.Request> requests = new ArrayList<>();
+        Set<UnitId> movedUnits = new HashSet<>();
         for (var move : plan.moves()) {
             ResponseUnit unit = unitManager.get(move.unitId()).orElse(null);
             if (unit == null || !unit.isAvailable()) {
                 continue;
             }
+            if (movedUnits.contains(unit.id())) {
+                continue; // Only the first move planned for a unit is carried out
+            }
             if (unit.currentNodeId().equals(move.targetNodeId())) {
                 continue;
             }
             if (graph.getNode(move.targetNodeId()).isEmpty()) {
                 continue;
             }
+            moves.add(move);
+            movedUnits.add(unit.id());
+            if (move.route().isEmpty()) {
+                requests.add(new BatchRouter.Request(unit.currentNodeId(), move.targetNodeId()));
+            }
+        }
 
-            // If route is available, use travel time; otherwise compute route
-            Route route;
-            if (move.route().isPresent()) {
-                route = move.route().get();
-            } else {
-                Optional<Route> computed = REROUTE_ROUTER.findRoute(
-                        graph, unit.currentNodeId(), move.targetNodeId(), REROUTE_COST_FUNCTION);
-                if (computed.isEmpty()) {
-                    continue; // No route available, skip this move
-                }
-                route = computed.get();
+        // Moves without a planned route are routed together; results come back in request order.
+        var computed = batchRouter.findRoutes(graph, requests, REROUTE_COST_FUNCTION).iterator();
+        for (var move : moves) {
+            Optional<Route> route = move.route().isPresent() ? move.route() : computed.next();
+            if (route.isEmpty()) {
+                continue; // No route available, skip this move
             }
 
             // Calculate arrival time based on travel time
-            Instant arrivalAt = at.plus(route.totalTravelTime());
+            Instant arrivalAt = at.plus(route.get().totalTravelTime());
 
             // Start repositioning via UnitManager
-            unitManager.startRepositioning(unit.id(), move.targetNodeId(), arrivalAt, move.reason());
+            unitManager.startRepositioning(move.unitId(), move.targetNodeId(), arrivalAt, move.reason());
         }
     }
 }
@@ -4,14 +4,18 @@ import com.neca.perds.model.DispatchCentre;
 import com.neca.perds.model.DispatchCentreId;
 import com.neca.perds.model.NodeId;
 import com.neca.perds.model.ResponseUnit;
+import com.neca.perds.routing.DistanceOracle;
 import com.neca.perds.routing.EdgeCostFunction;
-import com.neca.perds.routing.Route;
 import com.neca.perds.routing.Router;
+import com.neca.perds.routing.TravelTimeTable;
 import com.neca.perds.system.SystemSnapshot;
 
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Utility for computing dispatch centre preferences when selecting units.
@@ -57,29 +61,103 @@ public final class DispatchCentrePreference {
         Objects.requireNonNull(incidentLocation, "incidentLocation");
         Objects.requireNonNull(router, "router");
         Objects.requireNonNull(costFunction, "costFunction");
+        return computePreferenceScore(snapshot, unit, incidentLocation, DistanceOracle.fromRouter(router), costFunction);
+    }
 
-        if (unit.homeDispatchCentreId().isEmpty()) {
-            return 0.0; // Neutral score for units without home base
+    /**
+     * Same score as {@link #computePreferenceScore(SystemSnapshot, ResponseUnit, NodeId, Router, EdgeCostFunction)},
+     * reading the return cost from a {@link DistanceOracle} such as a hub-label index instead of routing.
+     *
+     * @param snapshot current system state
+     * @param unit the unit being considered
+     * @param incidentLocation the incident location
+     * @param oracle for computing return distance
+     * @param costFunction for the distance query
+     * @return preference score (lower is better, 0.0 for units without home base)
+     */
+    public static double computePreferenceScore(
+            SystemSnapshot snapshot,
+            ResponseUnit unit,
+            NodeId incidentLocation,
+            DistanceOracle oracle,
+            EdgeCostFunction costFunction
+    ) {
+        Objects.requireNonNull(snapshot, "snapshot");
+        Objects.requireNonNull(unit, "unit");
+        Objects.requireNonNull(incidentLocation, "incidentLocation");
+        Objects.requireNonNull(oracle, "oracle");
+        Objects.requireNonNull(costFunction, "costFunction");
+
+        Optional<NodeId> homeNodeId = getHomeNode(snapshot, unit);
+        if (homeNodeId.isEmpty()) {
+            return 0.0; // No home base, or home centre not found: neutral score
         }
 
-        DispatchCentreId homeCentreId = unit.homeDispatchCentreId().get();
-        Optional<DispatchCentre> homeCentre = findDispatchCentre(snapshot.dispatchCentres(), homeCentreId);
-        if (homeCentre.isEmpty()) {
-            return 0.0; // Home centre not found, neutral score
+        // Compute distance from incident location back to home
+        double returnCost = oracle.distance(snapshot.graph(), incidentLocation, homeNodeId.get(), costFunction);
+        return score(unit, homeNodeId.get(), Double.isInfinite(returnCost) ? Double.MAX_VALUE : returnCost);
+    }
+
+    /**
+     * Computes the cost from {@code incidentLocation} back to the home node of each of {@code units}
+     * with a single {@link Router#travelTimeTable} call, for use with
+     * {@link #computePreferenceScore(SystemSnapshot, ResponseUnit, TravelTimeTable)}.
+     *
+     * @param snapshot current system state
+     * @param units the candidate units
+     * @param incidentLocation the incident location
+     * @param router for computing return distances
+     * @param costFunction for route computation
+     * @return a one-row table whose single source is {@code incidentLocation}
+     */
+    public static TravelTimeTable returnCostTable(
+            SystemSnapshot snapshot,
+            Collection<ResponseUnit> units,
+            NodeId incidentLocation,
+            Router router,
+            EdgeCostFunction costFunction
+    ) {
+        Objects.requireNonNull(snapshot, "snapshot");
+        Objects.requireNonNull(units, "units");
+        Objects.requireNonNull(incidentLocation, "incidentLocation");
+        Objects.requireNonNull(router, "router");
+        Objects.requireNonNull(costFunction, "costFunction");
+
+        Set<NodeId> homeNodes = new LinkedHashSet<>();
+        for (ResponseUnit unit : units) {
+            getHomeNode(snapshot, unit).ifPresent(homeNodes::add);
         }
+        return router.travelTimeTable(snapshot.graph(), List.of(incidentLocation), homeNodes, costFunction);
+    }
 
-        NodeId homeNodeId = homeCentre.get().nodeId();
+    /**
+     * Same score as {@link #computePreferenceScore(SystemSnapshot, ResponseUnit, NodeId, Router, EdgeCostFunction)},
+     * reading the return cost from a table built by {@link #returnCostTable}.
+     *
+     * @param snapshot current system state
+     * @param unit the unit being considered
+     * @param returnCosts table from the incident location to the units' home nodes
+     * @return preference score (lower is better, 0.0 for units without home base)
+     */
+    public static double computePreferenceScore(
+            SystemSnapshot snapshot,
+            ResponseUnit unit,
+            TravelTimeTable returnCosts
+    ) {
+        Objects.requireNonNull(snapshot, "snapshot");
+        Objects.requireNonNull(unit, "unit");
+        Objects.requireNonNull(returnCosts, "returnCosts");
 
-        // Compute distance from incident location back to home
-        Optional<Route> returnRoute = router.findRoute(
-                snapshot.graph(),
-                incidentLocation,
-                homeNodeId,
-                costFunction
-        );
+        Optional<NodeId> homeNodeId = getHomeNode(snapshot, unit);
+        if (homeNodeId.isEmpty()) {
+            return 0.0; // No home base, or home centre not found: neutral score
+        }
 
-        double returnCost = returnRoute.map(Route::totalCost).orElse(Double.MAX_VALUE);
+        double returnCost = returnCosts.cost(returnCosts.sources().getFirst(), homeNodeId.get());
+        return score(unit, homeNodeId.get(), Double.isInfinite(returnCost) ? Double.MAX_VALUE : returnCost);
+    }
 
+    private static double score(ResponseUnit unit, NodeId homeNodeId, double returnCost) {
         // Bonus: prefer units NOT currently at home (they're already out, so use them)
         // This helps maintain home base coverage
         boolean atHome = unit.currentNodeId().equals(homeNodeId);
@@ -14,7 +14,6 @@ import com.neca.perds.routing.DijkstraRouter;
 import com.neca.perds.routing.EdgeCostFunction;
 import com.neca.perds.routing.Route;
 import com.neca.perds.routing.Router;
-import com.neca.perds.routing.VirtualSourceGraphView;
 import com.neca.perds.system.SystemSnapshot;
 
 import java.util.ArrayList;
@@ -111,15 +110,13 @@ public final class MultiSourceNearestAvailableUnitPolicy implements DispatchPoli
             return Optional.empty();
         }
 
-        NodeId virtualSourceId = VirtualSourceGraphView.allocateVirtualSourceId(snapshot.graph(), eligibleUnitsByNodeId.keySet());
-        var graph = new VirtualSourceGraphView(snapshot.graph(), virtualSourceId, eligibleUnitsByNodeId.keySet());
-
-        Optional<Route> virtualRoute = router.findRoute(graph, virtualSourceId, incident.locationNodeId(), costFunction);
-        if (virtualRoute.isEmpty()) {
+        Optional<Route> nearest = router.findNearest(
+                snapshot.graph(), eligibleUnitsByNodeId.keySet(), incident.locationNodeId(), costFunction);
+        if (nearest.isEmpty()) {
             return Optional.empty();
         }
 
-        Route route = VirtualSourceGraphView.stripVirtualSource(virtualRoute.get(), virtualSourceId);
+        Route route = nearest.get();
         NodeId startNodeId = route.nodes().getFirst();
 
         ResponseUnit chosenUnit = chooseUnitAtStartNode(
@@ -5,14 +5,17 @@ import com.neca.perds.model.Incident;
 import com.neca.perds.model.IncidentId;
 import com.neca.perds.model.IncidentSeverity;
 import com.neca.perds.model.IncidentStatus;
+import com.neca.perds.model.NodeId;
 import com.neca.perds.model.ResponseUnit;
 import com.neca.perds.model.UnitId;
 import com.neca.perds.model.UnitType;
+import com.neca.perds.routing.BidirectionalDijkstraRouter;
+import com.neca.perds.routing.CachingRouter;
 import com.neca.perds.routing.CostFunctions;
-import com.neca.perds.routing.DijkstraRouter;
 import com.neca.perds.routing.EdgeCostFunction;
 import com.neca.perds.routing.Route;
 import com.neca.perds.routing.Router;
+import com.neca.perds.routing.TravelTimeTable;
 import com.neca.perds.system.SystemSnapshot;
 
 import java.util.ArrayList;
@@ -29,7 +32,7 @@ public final class NearestAvailableUnitPolicy implements DispatchPolicy {
     private final EdgeCostFunction costFunction;
 
     public NearestAvailableUnitPolicy() {
-        this(new DijkstraRouter(), CostFunctions.travelTimeSeconds());
+        this(new CachingRouter(new BidirectionalDijkstraRouter()), CostFunctions.travelTimeSeconds());
     }
 
     public NearestAvailableUnitPolicy(Router router, EdgeCostFunction costFunction) {
@@ -61,6 +64,27 @@ public final class NearestAvailableUnitPolicy implements DispatchPolicy {
             return List.of();
         }
 
+        // Available units of a needed type that meet capacity and specialization requirements
+        List<ResponseUnit> eligibleUnits = new ArrayList<>();
+        for (ResponseUnit unit : snapshot.units()) {
+            if (unit.isAvailable()
+                    && neededTypes.contains(unit.type())
+                    && unit.meetsRequirements(incident.requiredCapacity(), incident.requiredSpecializationLevel())) {
+                eligibleUnits.add(unit);
+            }
+        }
+        if (eligibleUnits.isEmpty()) {
+            return List.of();
+        }
+
+        // One table query for every unit's cost to the incident, one for the return trips home;
+        // routes are only materialised for the units that win.
+        List<NodeId> unitNodes = eligibleUnits.stream().map(ResponseUnit::currentNodeId).distinct().toList();
+        TravelTimeTable toIncident = router.travelTimeTable(
+                snapshot.graph(), unitNodes, List.of(incident.locationNodeId()), costFunction);
+        TravelTimeTable returnCosts = DispatchCentrePreference.returnCostTable(
+                snapshot, eligibleUnits, incident.locationNodeId(), router, costFunction);
+
         // Track units we've already selected in this round to avoid double-selection
         Set<UnitId> selectedUnitIds = new HashSet<>();
         List<DispatchDecision> decisions = new ArrayList<>();
@@ -68,34 +92,27 @@ public final class NearestAvailableUnitPolicy implements DispatchPolicy {
         // For each needed type, find the best available unit
         for (UnitType neededType : neededTypes) {
             Candidate best = null;
-            for (ResponseUnit unit : snapshot.units()) {
-                if (!unit.isAvailable()) {
-                    continue;
-                }
+            for (ResponseUnit unit : eligibleUnits) {
                 if (unit.type() != neededType) {
                     continue;
                 }
                 if (selectedUnitIds.contains(unit.id())) {
                     continue;
                 }
-                // Check capacity and specialization requirements
-                if (!unit.meetsRequirements(incident.requiredCapacity(), incident.requiredSpecializationLevel())) {
-                    continue;
-                }
 
-                Optional<Route> route = router.findRoute(
-                        snapshot.graph(),
-                        unit.currentNodeId(),
-                        incident.locationNodeId(),
-                        costFunction
-                );
-                if (route.isEmpty()) {
+                int source = toIncident.sourceIndex(unit.currentNodeId());
+                if (!toIncident.isReachable(source, 0)) {
                     continue;
                 }
 
-                double dcScore = DispatchCentrePreference.computePreferenceScore(
-                        snapshot, unit, incident.locationNodeId(), router, costFunction);
-                Candidate candidate = new Candidate(unit, route.get(), dcScore);
+                double dcScore = DispatchCentrePreference.computePreferenceScore(snapshot, unit, returnCosts);
+                Candidate candidate = new Candidate(
+                        unit,
+                        source,
+                        toIncident.cost(source, 0),
+                        toIncident.distanceKm(source, 0),
+                        dcScore
+                );
                 if (best == null || candidate.isBetterThan(best, incident)) {
                     best = candidate;
                 }
@@ -103,27 +120,28 @@ public final class NearestAvailableUnitPolicy implements DispatchPolicy {
 
             if (best != null) {
                 selectedUnitIds.add(best.unit.id());
-                decisions.add(createDecision(incident, best, snapshot));
+                Route route = toIncident.route(best.source, 0).orElseThrow();
+                decisions.add(createDecision(incident, best.unit, route, snapshot));
             }
         }
 
         return List.copyOf(decisions);
     }
 
-    private DispatchDecision createDecision(Incident incident, Candidate candidate, SystemSnapshot snapshot) {
+    private DispatchDecision createDecision(Incident incident, ResponseUnit unit, Route route, SystemSnapshot snapshot) {
         var assignment = new Assignment(
                 incident.id(),
-                candidate.unit.id(),
-                candidate.route,
+                unit.id(),
+                route,
                 snapshot.now()
         );
 
         Map<String, Double> components = new LinkedHashMap<>();
-        components.put("travelTimeSeconds", (double) candidate.route.totalTravelTime().toSeconds());
-        components.put("distanceKm", candidate.route.totalDistanceKm());
+        components.put("travelTimeSeconds", (double) route.totalTravelTime().toSeconds());
+        components.put("distanceKm", route.totalDistanceKm());
         components.put("severityLevel", (double) incident.severity().level());
 
-        DispatchRationale rationale = new DispatchRationale(-candidate.route.totalCost(), Map.copyOf(components));
+        DispatchRationale rationale = new DispatchRationale(-route.totalCost(), Map.copyOf(components));
         return new DispatchDecision(assignment, rationale);
     }
 
@@ -150,7 +168,13 @@ public final class NearestAvailableUnitPolicy implements DispatchPolicy {
         return assignedTypes;
     }
 
-    private record Candidate(ResponseUnit unit, Route route, double dispatchCentreScore) {
+    private record Candidate(
+            ResponseUnit unit,
+            int source,
+            double cost,
+            double distanceKm,
+            double dispatchCentreScore
+    ) {
         /**
          * Compares candidates considering travel cost, specialization preference for severe incidents,
          * distance, dispatch centre preference, and unit ID as tiebreaker.
@@ -160,7 +184,7 @@ public final class NearestAvailableUnitPolicy implements DispatchPolicy {
          * and will be closer to home after the incident.
          */
         private boolean isBetterThan(Candidate other, Incident incident) {
-            int costComparison = Double.compare(route.totalCost(), other.route.totalCost());
+            int costComparison = Double.compare(cost, other.cost);
             if (costComparison != 0) {
                 return costComparison < 0;
             }
@@ -173,7 +197,7 @@ public final class NearestAvailableUnitPolicy implements DispatchPolicy {
                 }
             }
             
-            int distanceComparison = Double.compare(route.totalDistanceKm(), other.route.totalDistanceKm());
+            int distanceComparison = Double.compare(distanceKm, other.distanceKm);
             if (distanceComparison != 0) {
                 return distanceComparison < 0;
             }
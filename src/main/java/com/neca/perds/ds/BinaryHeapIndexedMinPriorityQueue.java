@@ -77,6 +77,14 @@ public final class BinaryHeapIndexedMinPriorityQueue implements IndexedMinPriori
         return minIndex;
     }
 
+    @Override
+    public int peekMin() {
+        if (size == 0) {
+            throw new IllegalStateException("Queue is empty");
+        }
+        return heap[1];
+    }
+
     @Override
     public void decreaseKey(int index, double newPriority) {
         requireValidIndex(index);
@@ -104,6 +112,14 @@ public final class BinaryHeapIndexedMinPriorityQueue implements IndexedMinPriori
         return priorities[index];
     }
 
+    @Override
+    public void clear() {
+        for (int k = 1; k <= size; k++) {
+            positions[heap[k]] = NOT_PRESENT;
+        }
+        size = 0;
+    }
+
     private void swim(int heapPosition) {
         int k = heapPosition;
         while (k > 1) {
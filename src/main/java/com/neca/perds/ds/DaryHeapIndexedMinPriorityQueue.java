@@ -0,0 +1,216 @@
+package com.neca.perds.ds;
+
+import java.util.Arrays;
+
+/**
+ * Indexed min-heap with {@code d} children per node.
+ *
+ * <p>A wider heap is shallower, so {@link #insert} and {@link #decreaseKey} (which only swim) are cheaper
+ * than in a binary heap, while {@link #extractMin} compares more children per level. With frequent
+ * decrease-key, as in Dijkstra, {@code d = 4} is usually a better trade-off than {@code d = 2}.
+ */
+public final class DaryHeapIndexedMinPriorityQueue implements IndexedMinPriorityQueue {
+    private static final int NOT_PRESENT = -1;
+    private static final int DEFAULT_ARITY = 4;
+
+    private final int arity;
+    private int size;
+    private int[] heap;
+    private int[] positions;
+    private double[] priorities;
+
+    public DaryHeapIndexedMinPriorityQueue() {
+        this(DEFAULT_ARITY, 16);
+    }
+
+    public DaryHeapIndexedMinPriorityQueue(int arity, int maxIndex) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("arity must be >= 2");
+        }
+        if (maxIndex < 0) {
+            throw new IllegalArgumentException("maxIndex must be >= 0");
+        }
+        this.arity = arity;
+        heap = new int[Math.max(1, maxIndex + 1)];
+        positions = new int[Math.max(1, maxIndex + 1)];
+        priorities = new double[Math.max(1, maxIndex + 1)];
+        Arrays.fill(positions, NOT_PRESENT);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int index) {
+        requireValidIndex(index);
+        return index < positions.length && positions[index] != NOT_PRESENT;
+    }
+
+    @Override
+    public void insert(int index, double priority) {
+        requireValidIndex(index);
+        requireValidPriority(priority);
+
+        if (contains(index)) {
+            throw new IllegalStateException("Index already present: " + index);
+        }
+
+        ensureIndexCapacity(index);
+        ensureHeapCapacity(size + 1);
+
+        heap[size] = index;
+        positions[index] = size;
+        priorities[index] = priority;
+        size++;
+        swim(size - 1);
+    }
+
+    @Override
+    public int extractMin() {
+        if (size == 0) {
+            throw new IllegalStateException("Queue is empty");
+        }
+
+        int minIndex = heap[0];
+        size--;
+        positions[minIndex] = NOT_PRESENT;
+        if (size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            sink(0);
+        }
+
+        return minIndex;
+    }
+
+    @Override
+    public int peekMin() {
+        if (size == 0) {
+            throw new IllegalStateException("Queue is empty");
+        }
+        return heap[0];
+    }
+
+    @Override
+    public void decreaseKey(int index, double newPriority) {
+        requireValidIndex(index);
+        requireValidPriority(newPriority);
+
+        if (!contains(index)) {
+            throw new IllegalStateException("Index not present: " + index);
+        }
+
+        double current = priorities[index];
+        if (newPriority > current) {
+            throw new IllegalArgumentException("newPriority must be <= current priority");
+        }
+
+        priorities[index] = newPriority;
+        swim(positions[index]);
+    }
+
+    @Override
+    public double priorityOf(int index) {
+        requireValidIndex(index);
+        if (!contains(index)) {
+            throw new IllegalStateException("Index not present: " + index);
+        }
+        return priorities[index];
+    }
+
+    @Override
+    public void clear() {
+        for (int k = 0; k < size; k++) {
+            positions[heap[k]] = NOT_PRESENT;
+        }
+        size = 0;
+    }
+
+    private void swim(int heapPosition) {
+        int index = heap[heapPosition];
+        double priority = priorities[index];
+        int k = heapPosition;
+        while (k > 0) {
+            int parent = (k - 1) / arity;
+            int parentIndex = heap[parent];
+            if (priority >= priorities[parentIndex]) {
+                break;
+            }
+            heap[k] = parentIndex;
+            positions[parentIndex] = k;
+            k = parent;
+        }
+        heap[k] = index;
+        positions[index] = k;
+    }
+
+    private void sink(int heapPosition) {
+        int index = heap[heapPosition];
+        double priority = priorities[index];
+        int k = heapPosition;
+        while (true) {
+            int first = k * arity + 1;
+            if (first >= size) {
+                break;
+            }
+            int end = Math.min(first + arity, size);
+            int child = first;
+            double childPriority = priorities[heap[first]];
+            for (int c = first + 1; c < end; c++) {
+                double candidate = priorities[heap[c]];
+                if (candidate < childPriority) {
+                    child = c;
+                    childPriority = candidate;
+                }
+            }
+            if (priority <= childPriority) {
+                break;
+            }
+            int childIndex = heap[child];
+            heap[k] = childIndex;
+            positions[childIndex] = k;
+            k = child;
+        }
+        heap[k] = index;
+        positions[index] = k;
+    }
+
+    private void ensureIndexCapacity(int index) {
+        if (index < positions.length) {
+            return;
+        }
+
+        int newLength = Math.max(index + 1, positions.length * 2);
+        int[] newPositions = Arrays.copyOf(positions, newLength);
+        Arrays.fill(newPositions, positions.length, newLength, NOT_PRESENT);
+        positions = newPositions;
+        priorities = Arrays.copyOf(priorities, newLength);
+    }
+
+    private void ensureHeapCapacity(int requiredSize) {
+        if (requiredSize <= heap.length) {
+            return;
+        }
+        heap = Arrays.copyOf(heap, Math.max(requiredSize, heap.length * 2));
+    }
+
+    private static void requireValidIndex(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("index must be >= 0");
+        }
+    }
+
+    private static void requireValidPriority(double priority) {
+        if (Double.isNaN(priority)) {
+            throw new IllegalArgumentException("priority must not be NaN");
+        }
+    }
+}
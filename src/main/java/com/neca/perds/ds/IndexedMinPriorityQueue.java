@@ -11,8 +11,19 @@ public interface IndexedMinPriorityQueue {
 
     int extractMin();
 
+    /**
+     * Returns the index with the smallest priority without removing it.
+     */
+    int peekMin();
+
     void decreaseKey(int index, double newPriority);
 
     double priorityOf(int index);
+
+    /**
+     * Removes all entries. Implementations should run in time proportional to {@link #size()},
+     * not to the index capacity, so a queue can be reused across searches.
+     */
+    void clear();
 }
 
@@ -0,0 +1,230 @@
+package com.neca.perds.ds;
+
+import java.util.Arrays;
+
+/**
+ * Monotone indexed priority queue (radix heap) for non-negative integer priorities.
+ *
+ * <p>Entries sit in 65 buckets by the highest bit in which their key differs from the last minimum.
+ * {@link #extractMin()} takes from bucket 0 and, when it is empty, redistributes the first non-empty
+ * bucket into lower ones; every entry moves down at most 64 times, so extract-min is amortised
+ * {@code O(log C)} for keys up to {@code C} with no comparisons between keys. Insert and decrease-key are
+ * {@code O(1)}.
+ *
+ * <p>The queue is <em>monotone</em>: every inserted or decreased priority must be a whole number no smaller
+ * than the most recent minimum returned by {@link #extractMin()} or {@link #peekMin()}. Dijkstra's algorithm
+ * with integral, non-negative edge costs satisfies this; otherwise an {@link IllegalArgumentException} is
+ * thrown. Priorities must be at most {@code 2^53} so that they are exact as doubles.
+ */
+public final class RadixHeapIndexedMinPriorityQueue implements IndexedMinPriorityQueue {
+    private static final int NOT_PRESENT = -1;
+    private static final int NONE = -1;
+    private static final int BUCKETS = Long.SIZE + 1;
+    private static final double MAX_EXACT_PRIORITY = 0x1p53;
+
+    private final int[] heads = new int[BUCKETS];
+    private int size;
+    private long last;
+    private long[] keys;
+    private int[] bucketOf;
+    private int[] next;
+    private int[] previous;
+
+    public RadixHeapIndexedMinPriorityQueue() {
+        this(16);
+    }
+
+    public RadixHeapIndexedMinPriorityQueue(int maxIndex) {
+        if (maxIndex < 0) {
+            throw new IllegalArgumentException("maxIndex must be >= 0");
+        }
+        int capacity = Math.max(1, maxIndex + 1);
+        keys = new long[capacity];
+        bucketOf = new int[capacity];
+        next = new int[capacity];
+        previous = new int[capacity];
+        Arrays.fill(bucketOf, NOT_PRESENT);
+        Arrays.fill(heads, NONE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int index) {
+        requireValidIndex(index);
+        return index < bucketOf.length && bucketOf[index] != NOT_PRESENT;
+    }
+
+    @Override
+    public void insert(int index, double priority) {
+        requireValidIndex(index);
+        long key = toKey(priority);
+
+        if (contains(index)) {
+            throw new IllegalStateException("Index already present: " + index);
+        }
+
+        ensureIndexCapacity(index);
+        keys[index] = key;
+        link(index, bucketFor(key));
+        size++;
+    }
+
+    @Override
+    public int extractMin() {
+        if (size == 0) {
+            throw new IllegalStateException("Queue is empty");
+        }
+        fillBucketZero();
+        int minIndex = heads[0];
+        unlink(minIndex);
+        bucketOf[minIndex] = NOT_PRESENT;
+        size--;
+        return minIndex;
+    }
+
+    @Override
+    public int peekMin() {
+        if (size == 0) {
+            throw new IllegalStateException("Queue is empty");
+        }
+        fillBucketZero();
+        return heads[0];
+    }
+
+    @Override
+    public void decreaseKey(int index, double newPriority) {
+        requireValidIndex(index);
+        long key = toKey(newPriority);
+
+        if (!contains(index)) {
+            throw new IllegalStateException("Index not present: " + index);
+        }
+        if (key > keys[index]) {
+            throw new IllegalArgumentException("newPriority must be <= current priority");
+        }
+
+        unlink(index);
+        keys[index] = key;
+        link(index, bucketFor(key));
+    }
+
+    @Override
+    public double priorityOf(int index) {
+        requireValidIndex(index);
+        if (!contains(index)) {
+            throw new IllegalStateException("Index not present: " + index);
+        }
+        return keys[index];
+    }
+
+    /**
+     * Removes all entries and resets the monotonicity bound to zero.
+     */
+    @Override
+    public void clear() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            for (int item = heads[bucket]; item != NONE; item = next[item]) {
+                bucketOf[item] = NOT_PRESENT;
+            }
+            heads[bucket] = NONE;
+        }
+        size = 0;
+        last = 0L;
+    }
+
+    /**
+     * Makes bucket 0 non-empty by advancing {@code last} to the current minimum and redistributing the
+     * first non-empty bucket. Requires a non-empty queue.
+     */
+    private void fillBucketZero() {
+        if (heads[0] != NONE) {
+            return;
+        }
+        int bucket = 1;
+        while (heads[bucket] == NONE) {
+            bucket++;
+        }
+
+        long min = Long.MAX_VALUE;
+        for (int item = heads[bucket]; item != NONE; item = next[item]) {
+            min = Math.min(min, keys[item]);
+        }
+        last = min;
+
+        int item = heads[bucket];
+        heads[bucket] = NONE;
+        while (item != NONE) {
+            int following = next[item];
+            link(item, bucketFor(keys[item]));
+            item = following;
+        }
+    }
+
+    private int bucketFor(long key) {
+        return key == last ? 0 : Long.SIZE - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void link(int index, int bucket) {
+        int head = heads[bucket];
+        bucketOf[index] = bucket;
+        previous[index] = NONE;
+        next[index] = head;
+        if (head != NONE) {
+            previous[head] = index;
+        }
+        heads[bucket] = index;
+    }
+
+    private void unlink(int index) {
+        int before = previous[index];
+        int after = next[index];
+        if (before == NONE) {
+            heads[bucketOf[index]] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != NONE) {
+            previous[after] = before;
+        }
+    }
+
+    private long toKey(double priority) {
+        if (!(priority >= 0.0) || priority > MAX_EXACT_PRIORITY || priority != Math.rint(priority)) {
+            throw new IllegalArgumentException("priority must be a non-negative whole number <= 2^53");
+        }
+        long key = (long) priority;
+        if (key < last) {
+            throw new IllegalArgumentException("priority must be >= the last minimum (" + last + ")");
+        }
+        return key;
+    }
+
+    private void ensureIndexCapacity(int index) {
+        if (index < bucketOf.length) {
+            return;
+        }
+
+        int oldLength = bucketOf.length;
+        int newLength = Math.max(index + 1, oldLength * 2);
+        keys = Arrays.copyOf(keys, newLength);
+        bucketOf = Arrays.copyOf(bucketOf, newLength);
+        Arrays.fill(bucketOf, oldLength, newLength, NOT_PRESENT);
+        next = Arrays.copyOf(next, newLength);
+        previous = Arrays.copyOf(previous, newLength);
+    }
+
+    private static void requireValidIndex(int index) {
+        if (index < 0) {
+            throw new IllegalArgumentException("index must be >= 0");
+        }
+    }
+}
@@ -3,19 +3,42 @@ package com.neca.perds.graph;
 import com.neca.perds.model.Node;
 import com.neca.perds.model.NodeId;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public final class AdjacencyMapGraph implements Graph {
+    private static final int DEFAULT_JOURNAL_CAPACITY = 1_024;
+    private static final Consumer<Runnable> DISCARD_UNDO = ignored -> {
+    };
+
     private final Map<NodeId, Node> nodes = new HashMap<>();
     private final Map<NodeId, Map<NodeId, Edge>> outgoing = new HashMap<>();
+    /** Mirror of {@link #outgoing} keyed by target, then source. */
+    private final Map<NodeId, Map<NodeId, Edge>> incoming = new HashMap<>();
+    private final NodeIndexRegistry nodeIndex = new NodeIndexRegistry();
+    private final GraphChangeJournal journal;
     private long version;
 
+    public AdjacencyMapGraph() {
+        this(DEFAULT_JOURNAL_CAPACITY);
+    }
+
+    /**
+     * @param journalCapacity number of recent changes kept for {@link #changesSince}
+     */
+    public AdjacencyMapGraph(int journalCapacity) {
+        this.journal = new GraphChangeJournal(journalCapacity, 0L);
+    }
+
     @Override
     public Optional<Node> getNode(NodeId id) {
         Objects.requireNonNull(id, "id");
@@ -37,6 +60,16 @@ public final class AdjacencyMapGraph implements Graph {
         return Collections.unmodifiableCollection(edges.values());
     }
 
+    @Override
+    public Collection<Edge> incomingEdges(NodeId to) {
+        Objects.requireNonNull(to, "to");
+        var edges = incoming.get(to);
+        if (edges == null) {
+            return List.of();
+        }
+        return Collections.unmodifiableCollection(edges.values());
+    }
+
     @Override
     public Optional<Edge> getEdge(NodeId from, NodeId to) {
         Objects.requireNonNull(from, "from");
@@ -53,68 +86,189 @@ public final class AdjacencyMapGraph implements Graph {
         return version;
     }
 
+    @Override
+    public NodeIndex nodeIndex() {
+        return nodeIndex;
+    }
+
     @Override
     public long addNode(Node node) {
         Objects.requireNonNull(node, "node");
-        nodes.put(node.id(), node);
-        outgoing.computeIfAbsent(node.id(), ignored -> new HashMap<>());
-        return bumpVersion();
+        return commit(apply(new GraphMutation.AddNode(node), DISCARD_UNDO));
     }
 
     @Override
     public long removeNode(NodeId id) {
         Objects.requireNonNull(id, "id");
-        nodes.remove(id);
-        outgoing.remove(id);
-        for (var entry : outgoing.entrySet()) {
-            entry.getValue().remove(id);
-        }
-        return bumpVersion();
+        return commit(apply(new GraphMutation.RemoveNode(id), DISCARD_UNDO));
     }
 
     @Override
     public long putEdge(Edge edge) {
         Objects.requireNonNull(edge, "edge");
-        if (!nodes.containsKey(edge.from()) || !nodes.containsKey(edge.to())) {
-            throw new IllegalStateException("Unknown node in edge: " + edge.from() + " -> " + edge.to());
-        }
-        outgoing.computeIfAbsent(edge.from(), ignored -> new HashMap<>()).put(edge.to(), edge);
-        return bumpVersion();
+        return commit(apply(new GraphMutation.PutEdge(edge), DISCARD_UNDO));
     }
 
     @Override
     public long removeEdge(NodeId from, NodeId to) {
-        Objects.requireNonNull(from, "from");
-        Objects.requireNonNull(to, "to");
-        var edges = outgoing.get(from);
-        if (edges != null) {
-            edges.remove(to);
-        }
-        return bumpVersion();
+        return commit(apply(new GraphMutation.RemoveEdge(from, to), DISCARD_UNDO));
     }
 
     @Override
     public long updateEdge(NodeId from, NodeId to, EdgeWeights weights, EdgeStatus status) {
-        Objects.requireNonNull(from, "from");
-        Objects.requireNonNull(to, "to");
-        Objects.requireNonNull(weights, "weights");
-        Objects.requireNonNull(status, "status");
+        return commit(apply(new GraphMutation.UpdateEdge(from, to, weights, status), DISCARD_UNDO));
+    }
 
-        if (!nodes.containsKey(from) || !nodes.containsKey(to)) {
-            throw new IllegalStateException("Unknown node in edge: " + from + " -> " + to);
+    @Override
+    public GraphChangeSet applyBatch(List<? extends GraphMutation> mutations) {
+        Objects.requireNonNull(mutations, "mutations");
+        List<GraphChange> applied = new ArrayList<>(mutations.size());
+        Deque<Runnable> undo = new ArrayDeque<>();
+        try {
+            for (GraphMutation mutation : mutations) {
+                applied.add(apply(Objects.requireNonNull(mutation, "mutation"), undo::push));
+            }
+        } catch (RuntimeException e) {
+            while (!undo.isEmpty()) {
+                undo.pop().run();
+            }
+            throw e;
+        }
+        GraphChangeSet changes = GraphChangeSet.compact(version, applied);
+        for (GraphChange change : changes.changes()) {
+            journal.append(change);
         }
+        version = changes.version();
+        return changes;
+    }
+
+    /**
+     * Returns the journalled changes since {@code version}; empty once more than the journal capacity of
+     * changes have been applied after it.
+     */
+    @Override
+    public Optional<GraphChangeSet> changesSince(long version) {
+        return journal.changesSince(version);
+    }
+
+    /**
+     * Applies one mutation without bumping the version, handing the action that reverts it to
+     * {@code undo}. The returned change carries the next version.
+     */
+    private GraphChange apply(GraphMutation mutation, Consumer<Runnable> undo) {
+        long next = version + 1;
+        return switch (mutation) {
+            case GraphMutation.AddNode m -> {
+                Node previous = nodes.get(m.node().id());
+                insertNode(m.node());
+                undo.accept(previous == null
+                        ? () -> deleteNode(m.node().id())
+                        : () -> nodes.put(previous.id(), previous));
+                yield new GraphChange.NodeAdded(m.node(), next);
+            }
+            case GraphMutation.RemoveNode m -> {
+                Node previous = nodes.get(m.nodeId());
+                if (previous != null) {
+                    List<Edge> edges = new ArrayList<>(outgoing.get(m.nodeId()).values());
+                    edges.addAll(incoming.get(m.nodeId()).values());
+                    undo.accept(() -> {
+                        insertNode(previous);
+                        edges.forEach(this::insertEdge);
+                    });
+                }
+                deleteNode(m.nodeId());
+                yield new GraphChange.NodeRemoved(m.nodeId(), next);
+            }
+            case GraphMutation.PutEdge m -> {
+                Edge edge = m.edge();
+                requireNodes(edge.from(), edge.to());
+                Optional<Edge> before = getEdge(edge.from(), edge.to());
+                insertEdge(edge);
+                undo.accept(() -> restoreEdge(edge.from(), edge.to(), before));
+                yield new GraphChange.EdgeChanged(edge.from(), edge.to(), before, Optional.of(edge), next);
+            }
+            case GraphMutation.RemoveEdge m -> {
+                Optional<Edge> before = Optional.ofNullable(deleteEdge(m.from(), m.to()));
+                before.ifPresent(edge -> undo.accept(() -> insertEdge(edge)));
+                yield new GraphChange.EdgeChanged(m.from(), m.to(), before, Optional.empty(), next);
+            }
+            case GraphMutation.UpdateEdge m -> {
+                Edge before = requireEdge(m.from(), m.to());
+                Edge after = new Edge(m.from(), m.to(), m.weights(), m.status());
+                insertEdge(after);
+                undo.accept(() -> insertEdge(before));
+                yield new GraphChange.EdgeChanged(m.from(), m.to(), Optional.of(before), Optional.of(after), next);
+            }
+        };
+    }
+
+    private long commit(GraphChange change) {
+        journal.append(change);
+        version = change.version();
+        return version;
+    }
+
+    private void insertNode(Node node) {
+        nodes.put(node.id(), node);
+        nodeIndex.register(node.id());
+        outgoing.computeIfAbsent(node.id(), ignored -> new HashMap<>());
+        incoming.computeIfAbsent(node.id(), ignored -> new HashMap<>());
+    }
+
+    private void deleteNode(NodeId id) {
+        nodes.remove(id);
+        nodeIndex.release(id);
+        var out = outgoing.remove(id);
+        if (out != null) {
+            for (NodeId to : out.keySet()) {
+                incoming.get(to).remove(id);
+            }
+        }
+        var in = incoming.remove(id);
+        if (in != null) {
+            for (NodeId from : in.keySet()) {
+                if (!from.equals(id)) {
+                    outgoing.get(from).remove(id);
+                }
+            }
+        }
+    }
+
+    private void insertEdge(Edge edge) {
+        outgoing.computeIfAbsent(edge.from(), ignored -> new HashMap<>()).put(edge.to(), edge);
+        incoming.computeIfAbsent(edge.to(), ignored -> new HashMap<>()).put(edge.from(), edge);
+    }
 
+    /** Removes the edge if present and returns it, or {@code null}. */
+    private Edge deleteEdge(NodeId from, NodeId to) {
         var edges = outgoing.get(from);
-        if (edges == null || !edges.containsKey(to)) {
-            throw new IllegalStateException("Edge does not exist: " + from + " -> " + to);
+        Edge removed = edges == null ? null : edges.remove(to);
+        if (removed != null) {
+            incoming.get(to).remove(from);
+        }
+        return removed;
+    }
+
+    private void restoreEdge(NodeId from, NodeId to, Optional<Edge> edge) {
+        if (edge.isPresent()) {
+            insertEdge(edge.get());
+        } else {
+            deleteEdge(from, to);
         }
+    }
 
-        edges.put(to, new Edge(from, to, weights, status));
-        return bumpVersion();
+    private void requireNodes(NodeId from, NodeId to) {
+        if (!nodes.containsKey(from) || !nodes.containsKey(to)) {
+            throw new IllegalStateException("Unknown node in edge: " + from + " -> " + to);
+        }
     }
 
-    private long bumpVersion() {
-        version++;
-        return version;
+    private Edge requireEdge(NodeId from, NodeId to) {
+        requireNodes(from, to);
+        Edge edge = outgoing.get(from).get(to);
+        if (edge == null) {
+            throw new IllegalStateException("Edge does not exist: " + from + " -> " + to);
+        }
+        return edge;
     }
 }
@@ -0,0 +1,413 @@
+package com.neca.perds.graph;
+
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Multi-version graph: every version is an immutable {@link Snapshot} that readers {@link #pin()} and use
+ * without locks while a single writer publishes newer versions.
+ *
+ * <p>Nodes, the node index and the outgoing and incoming adjacency are persistent hash maps whose buckets
+ * are shared between versions, and each node's adjacency is an immutable map copied only when one of its
+ * edges changes. A mutation therefore costs {@code O(sqrt(N) + degree)} and never disturbs a pinned
+ * snapshot. A {@link #applyBatch batch} is built on a private chain of snapshots and published once, so a
+ * failed batch is simply discarded.
+ *
+ * <p>The {@link GraphReadView} methods of the graph itself read whichever version is current at each call.
+ * A reader that makes several calls, as every router does, and may run concurrently with the writer must
+ * pin a snapshot and read that instead. Writes and {@link #changesSince} are serialized; reads of a
+ * snapshot never block.
+ */
+public final class CopyOnWriteGraph implements Graph {
+    private static final int DEFAULT_JOURNAL_CAPACITY = 1_024;
+
+    private final GraphChangeJournal journal;
+    private volatile Snapshot current = Snapshot.EMPTY;
+
+    public CopyOnWriteGraph() {
+        this(DEFAULT_JOURNAL_CAPACITY);
+    }
+
+    /**
+     * @param journalCapacity number of recent changes kept for {@link #changesSince}
+     */
+    public CopyOnWriteGraph(int journalCapacity) {
+        this.journal = new GraphChangeJournal(journalCapacity, 0L);
+    }
+
+    /** Returns the current version as an immutable snapshot. */
+    public Snapshot pin() {
+        return current;
+    }
+
+    @Override
+    public Optional<Node> getNode(NodeId id) {
+        return current.getNode(id);
+    }
+
+    @Override
+    public Collection<NodeId> nodeIds() {
+        return current.nodeIds();
+    }
+
+    @Override
+    public Collection<Edge> outgoingEdges(NodeId from) {
+        return current.outgoingEdges(from);
+    }
+
+    @Override
+    public Collection<Edge> incomingEdges(NodeId to) {
+        return current.incomingEdges(to);
+    }
+
+    @Override
+    public Optional<Edge> getEdge(NodeId from, NodeId to) {
+        return current.getEdge(from, to);
+    }
+
+    @Override
+    public long version() {
+        return current.version();
+    }
+
+    /** The index of the current snapshot; indices of live nodes are stable across versions. */
+    @Override
+    public NodeIndex nodeIndex() {
+        return current;
+    }
+
+    @Override
+    public synchronized Optional<GraphChangeSet> changesSince(long version) {
+        return journal.changesSince(version);
+    }
+
+    @Override
+    public synchronized long addNode(Node node) {
+        Objects.requireNonNull(node, "node");
+        return publish(apply(current, new GraphMutation.AddNode(node)));
+    }
+
+    @Override
+    public synchronized long removeNode(NodeId id) {
+        Objects.requireNonNull(id, "id");
+        return publish(apply(current, new GraphMutation.RemoveNode(id)));
+    }
+
+    @Override
+    public synchronized long putEdge(Edge edge) {
+        Objects.requireNonNull(edge, "edge");
+        return publish(apply(current, new GraphMutation.PutEdge(edge)));
+    }
+
+    @Override
+    public synchronized long removeEdge(NodeId from, NodeId to) {
+        return publish(apply(current, new GraphMutation.RemoveEdge(from, to)));
+    }
+
+    @Override
+    public synchronized long updateEdge(NodeId from, NodeId to, EdgeWeights weights, EdgeStatus status) {
+        return publish(apply(current, new GraphMutation.UpdateEdge(from, to, weights, status)));
+    }
+
+    @Override
+    public synchronized GraphChangeSet applyBatch(List<? extends GraphMutation> mutations) {
+        Objects.requireNonNull(mutations, "mutations");
+        Snapshot base = current;
+        Snapshot working = base;
+        List<GraphChange> applied = new ArrayList<>(mutations.size());
+        for (GraphMutation mutation : mutations) {
+            Step step = apply(working, Objects.requireNonNull(mutation, "mutation"));
+            working = step.graph();
+            applied.add(step.change());
+        }
+
+        GraphChangeSet changes = GraphChangeSet.compact(base.version(), applied);
+        if (!changes.isEmpty()) {
+            for (GraphChange change : changes.changes()) {
+                journal.append(change);
+            }
+            current = working.at(changes.version());
+        }
+        return changes;
+    }
+
+    private long publish(Step step) {
+        journal.append(step.change());
+        current = step.graph().at(step.change().version());
+        return step.change().version();
+    }
+
+    /** Applies one mutation to {@code graph}; the result keeps its version and the change carries the next one. */
+    private static Step apply(Snapshot graph, GraphMutation mutation) {
+        long next = graph.version() + 1;
+        return switch (mutation) {
+            case GraphMutation.AddNode m ->
+                    new Step(graph.withNode(m.node()), new GraphChange.NodeAdded(m.node(), next));
+            case GraphMutation.RemoveNode m ->
+                    new Step(graph.withoutNode(m.nodeId()), new GraphChange.NodeRemoved(m.nodeId(), next));
+            case GraphMutation.PutEdge m -> {
+                Edge edge = m.edge();
+                graph.requireNodes(edge.from(), edge.to());
+                yield new Step(graph.withEdge(edge), new GraphChange.EdgeChanged(
+                        edge.from(), edge.to(), graph.getEdge(edge.from(), edge.to()), Optional.of(edge), next));
+            }
+            case GraphMutation.RemoveEdge m -> new Step(graph.withoutEdge(m.from(), m.to()), new GraphChange.EdgeChanged(
+                    m.from(), m.to(), graph.getEdge(m.from(), m.to()), Optional.empty(), next));
+            case GraphMutation.UpdateEdge m -> {
+                graph.requireNodes(m.from(), m.to());
+                Edge before = graph.getEdge(m.from(), m.to()).orElseThrow(
+                        () -> new IllegalStateException("Edge does not exist: " + m.from() + " -> " + m.to()));
+                Edge after = new Edge(m.from(), m.to(), m.weights(), m.status());
+                yield new Step(graph.withEdge(after), new GraphChange.EdgeChanged(
+                        m.from(), m.to(), Optional.of(before), Optional.of(after), next));
+            }
+        };
+    }
+
+    private record Step(Snapshot graph, GraphChange change) {
+    }
+
+    /**
+     * One immutable version of a {@link CopyOnWriteGraph}. It is its own {@link NodeIndex}, consistent with
+     * its node set, and safe to share between threads.
+     */
+    public static final class Snapshot implements GraphReadView, NodeIndex {
+        private static final Snapshot EMPTY = new Snapshot(
+                0L,
+                PersistentHashMap.empty(),
+                PersistentHashMap.empty(),
+                PersistentHashMap.empty(),
+                PersistentHashMap.empty(),
+                PersistentHashMap.empty(),
+                0,
+                null
+        );
+
+        private final long version;
+        private final PersistentHashMap<NodeId, Node> nodes;
+        /** Per source, an immutable map from target to edge; absent when the node has no outgoing edges. */
+        private final PersistentHashMap<NodeId, Map<NodeId, Edge>> outgoing;
+        /** Mirror of {@link #outgoing} keyed by target, then source. */
+        private final PersistentHashMap<NodeId, Map<NodeId, Edge>> incoming;
+        private final PersistentHashMap<NodeId, Integer> indexByNodeId;
+        private final PersistentHashMap<Integer, NodeId> nodeIdByIndex;
+        private final int capacity;
+        private final FreeIndex freeIndices;
+
+        private Snapshot(
+                long version,
+                PersistentHashMap<NodeId, Node> nodes,
+                PersistentHashMap<NodeId, Map<NodeId, Edge>> outgoing,
+                PersistentHashMap<NodeId, Map<NodeId, Edge>> incoming,
+                PersistentHashMap<NodeId, Integer> indexByNodeId,
+                PersistentHashMap<Integer, NodeId> nodeIdByIndex,
+                int capacity,
+                FreeIndex freeIndices
+        ) {
+            this.version = version;
+            this.nodes = nodes;
+            this.outgoing = outgoing;
+            this.incoming = incoming;
+            this.indexByNodeId = indexByNodeId;
+            this.nodeIdByIndex = nodeIdByIndex;
+            this.capacity = capacity;
+            this.freeIndices = freeIndices;
+        }
+
+        @Override
+        public Optional<Node> getNode(NodeId id) {
+            Objects.requireNonNull(id, "id");
+            return Optional.ofNullable(nodes.get(id));
+        }
+
+        @Override
+        public Collection<NodeId> nodeIds() {
+            return nodes.keys();
+        }
+
+        @Override
+        public Collection<Edge> outgoingEdges(NodeId from) {
+            Objects.requireNonNull(from, "from");
+            return edges(outgoing.get(from));
+        }
+
+        @Override
+        public Collection<Edge> incomingEdges(NodeId to) {
+            Objects.requireNonNull(to, "to");
+            return edges(incoming.get(to));
+        }
+
+        @Override
+        public Optional<Edge> getEdge(NodeId from, NodeId to) {
+            Objects.requireNonNull(from, "from");
+            Objects.requireNonNull(to, "to");
+            Map<NodeId, Edge> edges = outgoing.get(from);
+            return edges == null ? Optional.empty() : Optional.ofNullable(edges.get(to));
+        }
+
+        @Override
+        public long version() {
+            return version;
+        }
+
+        @Override
+        public NodeIndex nodeIndex() {
+            return this;
+        }
+
+        @Override
+        public int indexOf(NodeId id) {
+            Objects.requireNonNull(id, "id");
+            Integer index = indexByNodeId.get(id);
+            return index == null ? -1 : index;
+        }
+
+        @Override
+        public NodeId nodeIdAt(int index) {
+            if (index < 0 || index >= capacity) {
+                throw new IndexOutOfBoundsException("index out of range: " + index);
+            }
+            return nodeIdByIndex.get(index);
+        }
+
+        @Override
+        public int capacity() {
+            return capacity;
+        }
+
+        private Snapshot at(long version) {
+            return new Snapshot(version, nodes, outgoing, incoming, indexByNodeId, nodeIdByIndex, capacity, freeIndices);
+        }
+
+        private void requireNodes(NodeId from, NodeId to) {
+            if (!nodes.containsKey(from) || !nodes.containsKey(to)) {
+                throw new IllegalStateException("Unknown node in edge: " + from + " -> " + to);
+            }
+        }
+
+        private Snapshot withNode(Node node) {
+            NodeId id = node.id();
+            if (indexByNodeId.containsKey(id)) {
+                return new Snapshot(version, nodes.with(id, node), outgoing, incoming,
+                        indexByNodeId, nodeIdByIndex, capacity, freeIndices);
+            }
+            // Reuse the most recently released index, like NodeIndexRegistry.
+            int index = freeIndices == null ? capacity : freeIndices.index();
+            return new Snapshot(
+                    version,
+                    nodes.with(id, node),
+                    outgoing,
+                    incoming,
+                    indexByNodeId.with(id, index),
+                    nodeIdByIndex.with(index, id),
+                    freeIndices == null ? capacity + 1 : capacity,
+                    freeIndices == null ? null : freeIndices.next()
+            );
+        }
+
+        private Snapshot withoutNode(NodeId id) {
+            Integer index = indexByNodeId.get(id);
+            if (index == null) {
+                return this;
+            }
+            var nextOutgoing = outgoing.without(id);
+            var nextIncoming = incoming.without(id);
+            Map<NodeId, Edge> out = outgoing.get(id);
+            if (out != null) {
+                for (NodeId to : out.keySet()) {
+                    if (!to.equals(id)) {
+                        nextIncoming = put(nextIncoming, to, without(nextIncoming.get(to), id));
+                    }
+                }
+            }
+            Map<NodeId, Edge> in = incoming.get(id);
+            if (in != null) {
+                for (NodeId from : in.keySet()) {
+                    if (!from.equals(id)) {
+                        nextOutgoing = put(nextOutgoing, from, without(nextOutgoing.get(from), id));
+                    }
+                }
+            }
+            return new Snapshot(
+                    version,
+                    nodes.without(id),
+                    nextOutgoing,
+                    nextIncoming,
+                    indexByNodeId.without(id),
+                    nodeIdByIndex.without(index),
+                    capacity,
+                    new FreeIndex(index, freeIndices)
+            );
+        }
+
+        private Snapshot withEdge(Edge edge) {
+            return new Snapshot(
+                    version,
+                    nodes,
+                    outgoing.with(edge.from(), with(outgoing.get(edge.from()), edge.to(), edge)),
+                    incoming.with(edge.to(), with(incoming.get(edge.to()), edge.from(), edge)),
+                    indexByNodeId,
+                    nodeIdByIndex,
+                    capacity,
+                    freeIndices
+            );
+        }
+
+        private Snapshot withoutEdge(NodeId from, NodeId to) {
+            if (getEdge(from, to).isEmpty()) {
+                return this;
+            }
+            return new Snapshot(
+                    version,
+                    nodes,
+                    put(outgoing, from, without(outgoing.get(from), to)),
+                    put(incoming, to, without(incoming.get(to), from)),
+                    indexByNodeId,
+                    nodeIdByIndex,
+                    capacity,
+                    freeIndices
+            );
+        }
+
+        private static Collection<Edge> edges(Map<NodeId, Edge> adjacency) {
+            return adjacency == null ? List.of() : adjacency.values();
+        }
+
+        private static Map<NodeId, Edge> with(Map<NodeId, Edge> adjacency, NodeId key, Edge edge) {
+            Map<NodeId, Edge> copy = adjacency == null ? new HashMap<>() : new HashMap<>(adjacency);
+            copy.put(key, edge);
+            return Collections.unmodifiableMap(copy);
+        }
+
+        /** Returns {@code adjacency} without {@code key}, or {@code null} if nothing is left. */
+        private static Map<NodeId, Edge> without(Map<NodeId, Edge> adjacency, NodeId key) {
+            if (adjacency == null || adjacency.size() == 1 && adjacency.containsKey(key)) {
+                return null;
+            }
+            Map<NodeId, Edge> copy = new HashMap<>(adjacency);
+            copy.remove(key);
+            return Collections.unmodifiableMap(copy);
+        }
+
+        private static PersistentHashMap<NodeId, Map<NodeId, Edge>> put(
+                PersistentHashMap<NodeId, Map<NodeId, Edge>> adjacency,
+                NodeId key,
+                Map<NodeId, Edge> edges
+        ) {
+            return edges == null ? adjacency.without(key) : adjacency.with(key, edges);
+        }
+    }
+
+    /** Immutable stack of released node indices, shared between snapshots. */
+    private record FreeIndex(int index, FreeIndex next) {
+    }
+}
@@ -0,0 +1,397 @@
+package com.neca.perds.graph;
+
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Immutable compressed sparse row (CSR) snapshot of a graph at a single {@link #version()}.
+ *
+ * <p>Nodes are numbered densely {@code 0..nodeCount()-1} and the outgoing edges of node {@code i}
+ * occupy the edge index range {@code [edgesStart(i), edgesEnd(i))}; its incoming edges are
+ * {@code incomingEdge(k)} for {@code k} in {@code [incomingStart(i), incomingEnd(i))}. Edge attributes are
+ * stored in primitive parallel arrays, so algorithms that use the index-based API avoid hash lookups and
+ * boxed {@link Edge} records entirely.
+ *
+ * <p>The snapshot is its own {@link NodeIndex}, so {@link #nodeIndex()} is free.
+ *
+ * <p>The {@link GraphReadView} methods are provided for compatibility; {@link #outgoingEdges(NodeId)} and
+ * {@link #incomingEdges(NodeId)} materialise {@link Edge} records on each call and are slower than the
+ * index-based API.
+ */
+public final class CsrGraph implements GraphReadView, NodeIndex {
+    private static final EdgeStatus[] STATUSES = EdgeStatus.values();
+
+    private final long version;
+    private final Node[] nodes;
+    private final List<NodeId> nodeIds;
+    private final Map<NodeId, Integer> indexByNodeId;
+    private final int[] offsets;
+    private final int[] sources;
+    private final int[] targets;
+    private final int[] incomingOffsets;
+    private final int[] incomingEdges;
+    private final double[] distanceKm;
+    private final long[] travelTimeNanos;
+    private final double[] resourceAvailability;
+    private final byte[] statuses;
+
+    private CsrGraph(
+            long version,
+            Node[] nodes,
+            List<NodeId> nodeIds,
+            Map<NodeId, Integer> indexByNodeId,
+            int[] offsets,
+            int[] sources,
+            int[] targets,
+            int[] incomingOffsets,
+            int[] incomingEdges,
+            double[] distanceKm,
+            long[] travelTimeNanos,
+            double[] resourceAvailability,
+            byte[] statuses
+    ) {
+        this.version = version;
+        this.nodes = nodes;
+        this.nodeIds = nodeIds;
+        this.indexByNodeId = indexByNodeId;
+        this.offsets = offsets;
+        this.sources = sources;
+        this.targets = targets;
+        this.incomingOffsets = incomingOffsets;
+        this.incomingEdges = incomingEdges;
+        this.distanceKm = distanceKm;
+        this.travelTimeNanos = travelTimeNanos;
+        this.resourceAvailability = resourceAvailability;
+        this.statuses = statuses;
+    }
+
+    /**
+     * Builds a CSR snapshot of {@code graph} at its current version.
+     * Returns {@code graph} itself if it is already a {@link CsrGraph}.
+     */
+    public static CsrGraph of(GraphReadView graph) {
+        Objects.requireNonNull(graph, "graph");
+        if (graph instanceof CsrGraph csr) {
+            return csr;
+        }
+
+        long version = graph.version();
+        List<Node> nodeList = new ArrayList<>(graph.nodeIds().size());
+        for (NodeId id : graph.nodeIds()) {
+            nodeList.add(graph.getNode(id)
+                    .orElseThrow(() -> new IllegalStateException("Node listed but not present: " + id)));
+        }
+
+        int n = nodeList.size();
+        Node[] nodes = nodeList.toArray(new Node[0]);
+        NodeId[] ids = new NodeId[n];
+        Map<NodeId, Integer> indexByNodeId = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            ids[i] = nodes[i].id();
+            indexByNodeId.put(ids[i], i);
+        }
+
+        int[] offsets = new int[n + 1];
+        List<Edge> edges = new ArrayList<>();
+        List<Integer> edgeTargets = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            offsets[i] = edges.size();
+            for (Edge edge : graph.outgoingEdges(nodes[i].id())) {
+                Integer target = indexByNodeId.get(edge.to());
+                if (target == null) {
+                    continue;
+                }
+                edges.add(edge);
+                edgeTargets.add(target);
+            }
+        }
+        offsets[n] = edges.size();
+
+        int m = edges.size();
+        int[] sources = new int[m];
+        int[] targets = new int[m];
+        double[] distanceKm = new double[m];
+        long[] travelTimeNanos = new long[m];
+        double[] resourceAvailability = new double[m];
+        byte[] statuses = new byte[m];
+        for (int i = 0; i < n; i++) {
+            for (int e = offsets[i]; e < offsets[i + 1]; e++) {
+                Edge edge = edges.get(e);
+                sources[e] = i;
+                targets[e] = edgeTargets.get(e);
+                distanceKm[e] = edge.weights().distanceKm();
+                travelTimeNanos[e] = edge.weights().travelTime().toNanos();
+                resourceAvailability[e] = edge.weights().resourceAvailability();
+                statuses[e] = (byte) edge.status().ordinal();
+            }
+        }
+
+        int[] incomingOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            incomingOffsets[targets[e] + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            incomingOffsets[i + 1] += incomingOffsets[i];
+        }
+        int[] incomingEdges = new int[m];
+        int[] fill = Arrays.copyOf(incomingOffsets, n);
+        for (int e = 0; e < m; e++) {
+            incomingEdges[fill[targets[e]]++] = e;
+        }
+
+        return new CsrGraph(
+                version,
+                nodes,
+                List.of(ids),
+                Map.copyOf(indexByNodeId),
+                offsets,
+                sources,
+                targets,
+                incomingOffsets,
+                incomingEdges,
+                distanceKm,
+                travelTimeNanos,
+                resourceAvailability,
+                statuses
+        );
+    }
+
+    /**
+     * Returns a snapshot with {@code changes} applied on top of this one, or empty if any change alters the
+     * topology (a node change, or an edge added or removed). Metric-only changes reuse this snapshot's node
+     * and topology arrays, and the edge attribute arrays are copied once for the whole batch.
+     *
+     * @param changes consecutive changes starting at {@code version() + 1}
+     */
+    public Optional<CsrGraph> derive(List<? extends GraphChange> changes) {
+        Objects.requireNonNull(changes, "changes");
+        if (changes.isEmpty()) {
+            return Optional.of(this);
+        }
+
+        double[] newDistanceKm = distanceKm.clone();
+        long[] newTravelTimeNanos = travelTimeNanos.clone();
+        double[] newResourceAvailability = resourceAvailability.clone();
+        byte[] newStatuses = statuses.clone();
+        long expectedVersion = version + 1;
+        for (GraphChange change : changes) {
+            if (change.version() != expectedVersion) {
+                throw new IllegalArgumentException(
+                        "Expected change for version " + expectedVersion + " but got " + change.version());
+            }
+            expectedVersion++;
+            if (!(change instanceof GraphChange.EdgeChanged edgeChange) || !edgeChange.isMetricOnly()) {
+                return Optional.empty();
+            }
+            int from = indexOf(edgeChange.from());
+            int to = indexOf(edgeChange.to());
+            int e = from < 0 || to < 0 ? -1 : edgeIndex(from, to);
+            if (e < 0) {
+                return Optional.empty();
+            }
+            Edge edge = edgeChange.after().orElseThrow();
+            newDistanceKm[e] = edge.weights().distanceKm();
+            newTravelTimeNanos[e] = edge.weights().travelTime().toNanos();
+            newResourceAvailability[e] = edge.weights().resourceAvailability();
+            newStatuses[e] = (byte) edge.status().ordinal();
+        }
+
+        return Optional.of(new CsrGraph(
+                expectedVersion - 1,
+                nodes,
+                nodeIds,
+                indexByNodeId,
+                offsets,
+                sources,
+                targets,
+                incomingOffsets,
+                incomingEdges,
+                newDistanceKm,
+                newTravelTimeNanos,
+                newResourceAvailability,
+                newStatuses
+        ));
+    }
+
+    public int nodeCount() {
+        return nodes.length;
+    }
+
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * Returns the dense index of {@code id}, or {@code -1} if the node is not in this snapshot.
+     */
+    @Override
+    public int indexOf(NodeId id) {
+        Objects.requireNonNull(id, "id");
+        Integer index = indexByNodeId.get(id);
+        return index == null ? -1 : index;
+    }
+
+    @Override
+    public NodeId nodeIdAt(int index) {
+        return nodes[index].id();
+    }
+
+    @Override
+    public int capacity() {
+        return nodes.length;
+    }
+
+    public Node nodeAt(int index) {
+        return nodes[index];
+    }
+
+    /** First edge index (inclusive) of the outgoing edges of {@code node}. */
+    public int edgesStart(int node) {
+        return offsets[node];
+    }
+
+    /** Last edge index (exclusive) of the outgoing edges of {@code node}. */
+    public int edgesEnd(int node) {
+        return offsets[node + 1];
+    }
+
+    /** First position (inclusive) of the incoming edges of {@code node}; see {@link #incomingEdge(int)}. */
+    public int incomingStart(int node) {
+        return incomingOffsets[node];
+    }
+
+    /** Last position (exclusive) of the incoming edges of {@code node}. */
+    public int incomingEnd(int node) {
+        return incomingOffsets[node + 1];
+    }
+
+    /** Edge index at {@code position} of the incoming edge list. */
+    public int incomingEdge(int position) {
+        return incomingEdges[position];
+    }
+
+    public int edgeSource(int edge) {
+        return sources[edge];
+    }
+
+    public int edgeTarget(int edge) {
+        return targets[edge];
+    }
+
+    public double edgeDistanceKm(int edge) {
+        return distanceKm[edge];
+    }
+
+    public long edgeTravelTimeNanos(int edge) {
+        return travelTimeNanos[edge];
+    }
+
+    public double edgeResourceAvailability(int edge) {
+        return resourceAvailability[edge];
+    }
+
+    public EdgeStatus edgeStatus(int edge) {
+        return STATUSES[statuses[edge]];
+    }
+
+    /**
+     * Returns the edge index of {@code from -> to}, or {@code -1} if there is no such edge.
+     */
+    public int edgeIndex(int from, int to) {
+        for (int e = offsets[from]; e < offsets[from + 1]; e++) {
+            if (targets[e] == to) {
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Materialises the {@link Edge} record for an edge index.
+     */
+    public Edge edge(int edge) {
+        return new Edge(
+                nodes[sources[edge]].id(),
+                nodes[targets[edge]].id(),
+                new EdgeWeights(
+                        distanceKm[edge],
+                        Duration.ofNanos(travelTimeNanos[edge]),
+                        resourceAvailability[edge]
+                ),
+                STATUSES[statuses[edge]]
+        );
+    }
+
+    @Override
+    public Optional<Node> getNode(NodeId id) {
+        int index = indexOf(id);
+        return index < 0 ? Optional.empty() : Optional.of(nodes[index]);
+    }
+
+    @Override
+    public Collection<NodeId> nodeIds() {
+        return nodeIds;
+    }
+
+    @Override
+    public Collection<Edge> outgoingEdges(NodeId from) {
+        int index = indexOf(from);
+        if (index < 0) {
+            return List.of();
+        }
+        Edge[] edges = new Edge[offsets[index + 1] - offsets[index]];
+        for (int e = offsets[index]; e < offsets[index + 1]; e++) {
+            edges[e - offsets[index]] = edge(e);
+        }
+        return List.of(edges);
+    }
+
+    @Override
+    public Collection<Edge> incomingEdges(NodeId to) {
+        int index = indexOf(to);
+        if (index < 0) {
+            return List.of();
+        }
+        Edge[] edges = new Edge[incomingOffsets[index + 1] - incomingOffsets[index]];
+        for (int k = incomingOffsets[index]; k < incomingOffsets[index + 1]; k++) {
+            edges[k - incomingOffsets[index]] = edge(incomingEdges[k]);
+        }
+        return List.of(edges);
+    }
+
+    @Override
+    public Optional<Edge> getEdge(NodeId from, NodeId to) {
+        int fromIndex = indexOf(from);
+        int toIndex = indexOf(Objects.requireNonNull(to, "to"));
+        if (fromIndex < 0 || toIndex < 0) {
+            return Optional.empty();
+        }
+        int e = edgeIndex(fromIndex, toIndex);
+        return e < 0 ? Optional.empty() : Optional.of(edge(e));
+    }
+
+    @Override
+    public long version() {
+        return version;
+    }
+
+    @Override
+    public NodeIndex nodeIndex() {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "CsrGraph{version=" + version + ", nodes=" + nodes.length + ", edges=" + targets.length + "}";
+    }
+}
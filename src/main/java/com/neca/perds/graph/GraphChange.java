@@ -0,0 +1,46 @@
+package com.neca.perds.graph;
+
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A single mutation applied to a graph, tagged with the graph {@link GraphReadView#version()} it produced.
+ */
+public sealed interface GraphChange {
+    /** The graph version immediately after this change was applied. */
+    long version();
+
+    record NodeAdded(Node node, long version) implements GraphChange {
+        public NodeAdded {
+            Objects.requireNonNull(node, "node");
+        }
+    }
+
+    record NodeRemoved(NodeId nodeId, long version) implements GraphChange {
+        public NodeRemoved {
+            Objects.requireNonNull(nodeId, "nodeId");
+        }
+    }
+
+    /**
+     * An edge was added, removed, or had its weights or status changed.
+     * {@code before} is empty for a new edge and {@code after} is empty for a removed one.
+     */
+    record EdgeChanged(NodeId from, NodeId to, Optional<Edge> before, Optional<Edge> after, long version)
+            implements GraphChange {
+        public EdgeChanged {
+            Objects.requireNonNull(from, "from");
+            Objects.requireNonNull(to, "to");
+            Objects.requireNonNull(before, "before");
+            Objects.requireNonNull(after, "after");
+        }
+
+        /** True if the edge existed both before and after, i.e. only its weights or status changed. */
+        public boolean isMetricOnly() {
+            return before.isPresent() && after.isPresent();
+        }
+    }
+}
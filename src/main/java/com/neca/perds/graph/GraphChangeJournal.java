@@ -0,0 +1,90 @@
+package com.neca.perds.graph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Bounded ring buffer of the most recent {@link GraphChange}s of one graph, addressable by version.
+ *
+ * <p>A consumer that last saw version {@code v} asks for {@link #changesSince(long) changesSince(v)} and
+ * replays the result instead of rebuilding. Once more than {@link #capacity()} changes have been recorded
+ * after {@code v}, the oldest are overwritten and the query reports the overflow with an empty result.
+ *
+ * <p>Not thread-safe; it is owned and guarded by its graph.
+ */
+public final class GraphChangeJournal {
+    private final GraphChange[] ring;
+    private long latestVersion;
+    private int size;
+
+    /**
+     * @param capacity number of changes retained; {@code 0} keeps none
+     * @param version the graph version before the first recorded change
+     */
+    public GraphChangeJournal(int capacity, long version) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must be >= 0");
+        }
+        this.ring = new GraphChange[capacity];
+        this.latestVersion = version;
+    }
+
+    public int capacity() {
+        return ring.length;
+    }
+
+    /** The version of the most recent change, or the starting version if none was recorded. */
+    public long latestVersion() {
+        return latestVersion;
+    }
+
+    /** The oldest version that {@link #changesSince} can still bring forward. */
+    public long oldestVersion() {
+        return latestVersion - size;
+    }
+
+    /**
+     * Records {@code change}, evicting the oldest change when full.
+     *
+     * @throws IllegalArgumentException if {@code change} does not directly follow the latest version
+     */
+    public void append(GraphChange change) {
+        Objects.requireNonNull(change, "change");
+        if (change.version() != latestVersion + 1) {
+            throw new IllegalArgumentException(
+                    "change version " + change.version() + " does not follow " + latestVersion);
+        }
+        latestVersion = change.version();
+        if (ring.length == 0) {
+            return;
+        }
+        ring[slot(latestVersion)] = change;
+        size = Math.min(size + 1, ring.length);
+    }
+
+    /**
+     * Returns the changes from {@code version} to {@link #latestVersion()}, or empty if some of them have
+     * already been evicted and the caller must rebuild.
+     *
+     * @throws IllegalArgumentException if {@code version} is newer than {@link #latestVersion()}
+     */
+    public Optional<GraphChangeSet> changesSince(long version) {
+        if (version > latestVersion) {
+            throw new IllegalArgumentException("version " + version + " is ahead of " + latestVersion);
+        }
+        if (version < oldestVersion()) {
+            return Optional.empty();
+        }
+        List<GraphChange> changes = new ArrayList<>((int) (latestVersion - version));
+        for (long v = version + 1; v <= latestVersion; v++) {
+            changes.add(ring[slot(v)]);
+        }
+        return Optional.of(new GraphChangeSet(version, changes));
+    }
+
+    private int slot(long version) {
+        return (int) Math.floorMod(version, (long) ring.length);
+    }
+}
@@ -0,0 +1,28 @@
+package com.neca.perds.graph;
+
+/**
+ * Receives graph mutations as they are applied, so derived structures (routing overlays, caches)
+ * can be updated incrementally instead of rebuilt.
+ *
+ * <p>Each change carries the version it produced and consecutive changes differ by one, so a listener
+ * that sees a gap between the version it last observed and {@code change.version() - 1} has missed
+ * changes and must treat its state as stale. A {@link GraphWriteOps#applyBatch batch} is delivered once
+ * as a {@link GraphChangeSet} whose changes keep that property.
+ */
+@FunctionalInterface
+public interface GraphChangeListener {
+    /**
+     * Called after {@code change} has been applied to {@code graph}.
+     */
+    void onGraphChanged(GraphReadView graph, GraphChange change);
+
+    /**
+     * Called once after a whole batch has been applied to {@code graph}. The default forwards each change
+     * in order; listeners that can absorb a batch more cheaply than change by change may override it.
+     */
+    default void onGraphChanged(GraphReadView graph, GraphChangeSet changes) {
+        for (GraphChange change : changes.changes()) {
+            onGraphChanged(graph, change);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.neca.perds.graph;
+
+import com.neca.perds.model.NodeId;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The net effect of one {@link GraphWriteOps#applyBatch batch}: the graph went from {@code baseVersion} to
+ * {@link #version()} in a single step, and {@code changes} replays that step as individual changes.
+ *
+ * <p>Changes carry the consecutive versions {@code baseVersion + 1 .. version()}, so consumers of single
+ * {@link GraphChange}s keep their gap detection; no reader ever observes the intermediate versions.
+ */
+public record GraphChangeSet(long baseVersion, List<GraphChange> changes) {
+    public GraphChangeSet {
+        Objects.requireNonNull(changes, "changes");
+        changes = List.copyOf(changes);
+        for (int i = 0; i < changes.size(); i++) {
+            if (changes.get(i).version() != baseVersion + i + 1) {
+                throw new IllegalArgumentException("changes must have consecutive versions after baseVersion");
+            }
+        }
+    }
+
+    /**
+     * Compacts {@code applied} into a change set after {@code baseVersion}. Repeated changes to one edge
+     * between node changes are coalesced into one (first {@code before}, last {@code after}), edges that end
+     * where they started are dropped, and the result is re-versioned; the versions of {@code applied} are
+     * ignored.
+     */
+    public static GraphChangeSet compact(long baseVersion, List<? extends GraphChange> applied) {
+        Objects.requireNonNull(applied, "applied");
+        List<GraphChange> net = new ArrayList<>(applied.size());
+        Map<EdgeKey, GraphChange.EdgeChanged> run = new LinkedHashMap<>();
+        for (GraphChange change : applied) {
+            if (change instanceof GraphChange.EdgeChanged edge) {
+                run.merge(new EdgeKey(edge.from(), edge.to()), edge, (first, last) -> new GraphChange.EdgeChanged(
+                        first.from(), first.to(), first.before(), last.after(), 0L));
+            } else {
+                flush(run, net);
+                net.add(change);
+            }
+        }
+        flush(run, net);
+
+        List<GraphChange> versioned = new ArrayList<>(net.size());
+        long version = baseVersion;
+        for (GraphChange change : net) {
+            version++;
+            versioned.add(switch (change) {
+                case GraphChange.NodeAdded c -> new GraphChange.NodeAdded(c.node(), version);
+                case GraphChange.NodeRemoved c -> new GraphChange.NodeRemoved(c.nodeId(), version);
+                case GraphChange.EdgeChanged c -> new GraphChange.EdgeChanged(
+                        c.from(), c.to(), c.before(), c.after(), version);
+            });
+        }
+        return new GraphChangeSet(baseVersion, versioned);
+    }
+
+    /** The graph version after the batch; equal to {@code baseVersion} for an empty set. */
+    public long version() {
+        return baseVersion + changes.size();
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    /** True if every change only altered the weights or status of an existing edge. */
+    public boolean isMetricOnly() {
+        for (GraphChange change : changes) {
+            if (!(change instanceof GraphChange.EdgeChanged edge) || !edge.isMetricOnly()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<GraphChange.EdgeChanged> edgeChanges() {
+        List<GraphChange.EdgeChanged> edges = new ArrayList<>();
+        for (GraphChange change : changes) {
+            if (change instanceof GraphChange.EdgeChanged edge) {
+                edges.add(edge);
+            }
+        }
+        return edges;
+    }
+
+    /** Nodes added or removed by the batch, in change order. */
+    public Set<NodeId> touchedNodes() {
+        Set<NodeId> nodes = new LinkedHashSet<>();
+        for (GraphChange change : changes) {
+            if (change instanceof GraphChange.NodeAdded added) {
+                nodes.add(added.node().id());
+            } else if (change instanceof GraphChange.NodeRemoved removed) {
+                nodes.add(removed.nodeId());
+            }
+        }
+        return nodes;
+    }
+
+    private static void flush(Map<EdgeKey, GraphChange.EdgeChanged> run, List<GraphChange> net) {
+        for (GraphChange.EdgeChanged edge : run.values()) {
+            if (!edge.before().equals(edge.after())) {
+                net.add(edge);
+            }
+        }
+        run.clear();
+    }
+
+    private record EdgeKey(NodeId from, NodeId to) {
+    }
+}
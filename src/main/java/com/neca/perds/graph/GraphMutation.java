@@ -0,0 +1,46 @@
+package com.neca.perds.graph;
+
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+
+import java.util.Objects;
+
+/**
+ * One write to apply as part of a {@link GraphWriteOps#applyBatch batch}; each record mirrors the
+ * {@link GraphWriteOps} method of the same name.
+ */
+public sealed interface GraphMutation {
+    record AddNode(Node node) implements GraphMutation {
+        public AddNode {
+            Objects.requireNonNull(node, "node");
+        }
+    }
+
+    record RemoveNode(NodeId nodeId) implements GraphMutation {
+        public RemoveNode {
+            Objects.requireNonNull(nodeId, "nodeId");
+        }
+    }
+
+    record PutEdge(Edge edge) implements GraphMutation {
+        public PutEdge {
+            Objects.requireNonNull(edge, "edge");
+        }
+    }
+
+    record RemoveEdge(NodeId from, NodeId to) implements GraphMutation {
+        public RemoveEdge {
+            Objects.requireNonNull(from, "from");
+            Objects.requireNonNull(to, "to");
+        }
+    }
+
+    record UpdateEdge(NodeId from, NodeId to, EdgeWeights weights, EdgeStatus status) implements GraphMutation {
+        public UpdateEdge {
+            Objects.requireNonNull(from, "from");
+            Objects.requireNonNull(to, "to");
+            Objects.requireNonNull(weights, "weights");
+            Objects.requireNonNull(status, "status");
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.neca.perds.model.Node;
 import com.neca.perds.model.NodeId;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface GraphReadView {
@@ -13,8 +14,40 @@ public interface GraphReadView {
 
     Collection<Edge> outgoingEdges(NodeId from);
 
+    /**
+     * Returns the edges whose {@link Edge#to()} is {@code to}, for backward traversal such as searching from
+     * an incident towards units. Implementations keep an incoming index, so this runs in time proportional
+     * to the in-degree of {@code to}.
+     */
+    Collection<Edge> incomingEdges(NodeId to);
+
     Optional<Edge> getEdge(NodeId from, NodeId to);
 
     long version();
+
+    /**
+     * Returns the changes that took this graph from {@code version} to {@link #version()}, so an incremental
+     * consumer can catch up without rebuilding, or empty if they are no longer known. The default keeps no
+     * history and only answers for the current version.
+     *
+     * @throws IllegalArgumentException if {@code version} is newer than {@link #version()}
+     */
+    default Optional<GraphChangeSet> changesSince(long version) {
+        long current = version();
+        if (version > current) {
+            throw new IllegalArgumentException("version " + version + " is ahead of " + current);
+        }
+        return version == current ? Optional.of(new GraphChangeSet(version, List.of())) : Optional.empty();
+    }
+
+    /**
+     * Returns a dense index over {@link #nodeIds()} that routers can use to size primitive arrays.
+     *
+     * <p>The default implementation builds a fresh index on every call, which is {@code O(N)};
+     * implementations that own a persistent index should override it.
+     */
+    default NodeIndex nodeIndex() {
+        return NodeIndexRegistry.of(nodeIds());
+    }
 }
 
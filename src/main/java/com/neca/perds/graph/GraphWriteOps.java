@@ -3,6 +3,8 @@ package com.neca.perds.graph;
 import com.neca.perds.model.Node;
 import com.neca.perds.model.NodeId;
 
+import java.util.List;
+
 public interface GraphWriteOps {
     long addNode(Node node);
 
@@ -13,5 +15,13 @@ public interface GraphWriteOps {
     long removeEdge(NodeId from, NodeId to);
 
     long updateEdge(NodeId from, NodeId to, EdgeWeights weights, EdgeStatus status);
-}
 
+    /**
+     * Applies {@code mutations} in order as one atomic step: readers see the graph either before the batch
+     * or after all of it, and the version advances once, straight to {@link GraphChangeSet#version()}.
+     * If any mutation fails the graph is left unchanged and the exception is rethrown.
+     *
+     * @return the compacted net changes of the batch
+     */
+    GraphChangeSet applyBatch(List<? extends GraphMutation> mutations);
+}
@@ -0,0 +1,46 @@
+package com.neca.perds.graph;
+
+import com.neca.perds.model.NodeId;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Dense mapping between {@link NodeId}s and small non-negative integers.
+ *
+ * <p>Indices lie in {@code [0, capacity())}. A node keeps its index for as long as it is part of
+ * the graph; indices of removed nodes may be reused by nodes added later, so algorithms can size
+ * primitive arrays by {@link #capacity()} instead of building their own id-to-index map per query.
+ */
+public interface NodeIndex {
+    /**
+     * Returns the index of {@code id}, or {@code -1} if the node is not indexed.
+     */
+    int indexOf(NodeId id);
+
+    /**
+     * Returns the node at {@code index}, or {@code null} if the slot is currently unused.
+     */
+    NodeId nodeIdAt(int index);
+
+    /**
+     * Returns an exclusive upper bound on all indices handed out so far.
+     */
+    int capacity();
+
+    /**
+     * Returns the distinct indices of the indexed nodes in {@code ids}, in first-seen order; unknown ids are
+     * skipped.
+     */
+    default int[] indicesOf(Collection<NodeId> ids) {
+        int[] indices = new int[ids.size()];
+        int count = 0;
+        for (NodeId id : ids) {
+            int index = indexOf(id);
+            if (index >= 0) {
+                indices[count++] = index;
+            }
+        }
+        return Arrays.stream(indices, 0, count).distinct().toArray();
+    }
+}
@@ -0,0 +1,95 @@
+package com.neca.perds.graph;
+
+import com.neca.perds.model.NodeId;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Mutable {@link NodeIndex} that hands out stable indices and reuses released ones via a free list.
+ */
+public final class NodeIndexRegistry implements NodeIndex {
+    private final Map<NodeId, Integer> indexByNodeId = new HashMap<>();
+    private NodeId[] nodeIds = new NodeId[16];
+    private int capacity;
+    private int[] freeIndices = new int[4];
+    private int freeCount;
+
+    public static NodeIndexRegistry of(Collection<NodeId> nodeIds) {
+        Objects.requireNonNull(nodeIds, "nodeIds");
+        var registry = new NodeIndexRegistry();
+        for (NodeId id : nodeIds) {
+            registry.register(id);
+        }
+        return registry;
+    }
+
+    /**
+     * Returns the index of {@code id}, assigning one (reusing a released index if possible) when absent.
+     */
+    public int register(NodeId id) {
+        Objects.requireNonNull(id, "id");
+        Integer existing = indexByNodeId.get(id);
+        if (existing != null) {
+            return existing;
+        }
+
+        int index;
+        if (freeCount > 0) {
+            index = freeIndices[--freeCount];
+        } else {
+            index = capacity++;
+            if (index == nodeIds.length) {
+                nodeIds = Arrays.copyOf(nodeIds, nodeIds.length * 2);
+            }
+        }
+        nodeIds[index] = id;
+        indexByNodeId.put(id, index);
+        return index;
+    }
+
+    /**
+     * Releases the index of {@code id} so it can be reused. Returns the released index, or {@code -1}
+     * if the node was not registered.
+     */
+    public int release(NodeId id) {
+        Objects.requireNonNull(id, "id");
+        Integer index = indexByNodeId.remove(id);
+        if (index == null) {
+            return -1;
+        }
+        nodeIds[index] = null;
+        if (freeCount == freeIndices.length) {
+            freeIndices = Arrays.copyOf(freeIndices, freeIndices.length * 2);
+        }
+        freeIndices[freeCount++] = index;
+        return index;
+    }
+
+    public int size() {
+        return indexByNodeId.size();
+    }
+
+    @Override
+    public int indexOf(NodeId id) {
+        Objects.requireNonNull(id, "id");
+        Integer index = indexByNodeId.get(id);
+        return index == null ? -1 : index;
+    }
+
+    @Override
+    public NodeId nodeIdAt(int index) {
+        if (index < 0 || index >= capacity) {
+            throw new IndexOutOfBoundsException("index out of range: " + index);
+        }
+        return nodeIds[index];
+    }
+
+    @Override
+    public int capacity() {
+        return capacity;
+    }
+}
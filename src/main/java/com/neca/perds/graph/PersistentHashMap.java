@@ -0,0 +1,153 @@
+package com.neca.perds.graph;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Immutable hash map whose updates return a new map sharing all but one bucket with the old one.
+ *
+ * <p>Entries are spread over a power-of-two number of buckets, each a {@link HashMap} that is never modified
+ * once the map holding it is built. An update copies the bucket array and the single bucket it touches, and
+ * the bucket count is kept near {@code sqrt(size)}, so updates cost {@code O(sqrt(size))} and every earlier
+ * map stays valid. Null keys and values are not supported.
+ */
+final class PersistentHashMap<K, V> {
+    private static final int MIN_BUCKETS = 16;
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(newBuckets(MIN_BUCKETS), 0);
+
+    /** {@code null} for an empty bucket. */
+    private final HashMap<K, V>[] buckets;
+    private final int shift;
+    private final int size;
+
+    private PersistentHashMap(HashMap<K, V>[] buckets, int size) {
+        this.buckets = buckets;
+        this.shift = Integer.SIZE - Integer.numberOfTrailingZeros(buckets.length);
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    int size() {
+        return size;
+    }
+
+    V get(Object key) {
+        HashMap<K, V> bucket = buckets[slot(key)];
+        return bucket == null ? null : bucket.get(key);
+    }
+
+    boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    PersistentHashMap<K, V> with(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        int slot = slot(key);
+        HashMap<K, V> bucket = buckets[slot];
+        if (bucket != null && bucket.get(key) == value) {
+            return this;
+        }
+        HashMap<K, V> copy = bucket == null ? new HashMap<>() : new HashMap<>(bucket);
+        boolean added = copy.put(key, value) == null;
+        HashMap<K, V>[] next = buckets.clone();
+        next[slot] = copy;
+        int nextSize = added ? size + 1 : size;
+        if (nextSize > next.length * next.length) {
+            return rehash(next, nextSize, next.length * 2);
+        }
+        return new PersistentHashMap<>(next, nextSize);
+    }
+
+    PersistentHashMap<K, V> without(Object key) {
+        int slot = slot(key);
+        HashMap<K, V> bucket = buckets[slot];
+        if (bucket == null || !bucket.containsKey(key)) {
+            return this;
+        }
+        HashMap<K, V>[] next = buckets.clone();
+        if (bucket.size() == 1) {
+            next[slot] = null;
+        } else {
+            HashMap<K, V> copy = new HashMap<>(bucket);
+            copy.remove(key);
+            next[slot] = copy;
+        }
+        return new PersistentHashMap<>(next, size - 1);
+    }
+
+    /** Unmodifiable view of the keys. */
+    Collection<K> keys() {
+        return new View<K, V, K>(this, Map::keySet) {
+            @Override
+            public boolean contains(Object o) {
+                return o != null && containsKey(o);
+            }
+        };
+    }
+
+    /** Unmodifiable view of the values. */
+    Collection<V> values() {
+        return new View<>(this, Map::values);
+    }
+
+    private int slot(Object key) {
+        // Take the high bits of a multiplicative hash: HashMap indexes each bucket by the low bits.
+        return (key.hashCode() * 0x9E3779B9) >>> shift;
+    }
+
+    private static <K, V> PersistentHashMap<K, V> rehash(HashMap<K, V>[] buckets, int size, int bucketCount) {
+        PersistentHashMap<K, V> map = new PersistentHashMap<>(newBuckets(bucketCount), size);
+        for (HashMap<K, V> bucket : buckets) {
+            if (bucket == null) {
+                continue;
+            }
+            for (Map.Entry<K, V> entry : bucket.entrySet()) {
+                int slot = map.slot(entry.getKey());
+                if (map.buckets[slot] == null) {
+                    map.buckets[slot] = new HashMap<>();
+                }
+                map.buckets[slot].put(entry.getKey(), entry.getValue());
+            }
+        }
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> HashMap<K, V>[] newBuckets(int count) {
+        return (HashMap<K, V>[]) new HashMap<?, ?>[count];
+    }
+
+    private static class View<K, V, T> extends AbstractCollection<T> {
+        private final PersistentHashMap<K, V> map;
+        private final Function<HashMap<K, V>, Collection<T>> part;
+
+        private View(PersistentHashMap<K, V> map, Function<HashMap<K, V>, Collection<T>> part) {
+            this.map = map;
+            this.part = part;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return Arrays.stream(map.buckets)
+                    .filter(Objects::nonNull)
+                    .flatMap(bucket -> part.apply(bucket).stream())
+                    .iterator();
+        }
+
+        @Override
+        public int size() {
+            return map.size;
+        }
+    }
+}
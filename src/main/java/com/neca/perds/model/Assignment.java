@@ -3,14 +3,31 @@ package com.neca.perds.model;
 import com.neca.perds.routing.Route;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Objects;
 
-public record Assignment(IncidentId incidentId, UnitId unitId, Route route, Instant assignedAt) {
+/**
+ * A unit committed to an incident along {@code route}.
+ *
+ * @param alternatives precomputed diverse routes to the same incident, used to fail over when a closure hits
+ *                     {@code route} without running a new search; may be empty
+ */
+public record Assignment(
+        IncidentId incidentId,
+        UnitId unitId,
+        Route route,
+        Instant assignedAt,
+        List<Route> alternatives
+) {
     public Assignment {
         Objects.requireNonNull(incidentId, "incidentId");
         Objects.requireNonNull(unitId, "unitId");
         Objects.requireNonNull(route, "route");
         Objects.requireNonNull(assignedAt, "assignedAt");
+        alternatives = List.copyOf(Objects.requireNonNull(alternatives, "alternatives"));
     }
-}
 
+    public Assignment(IncidentId incidentId, UnitId unitId, Route route, Instant assignedAt) {
+        this(incidentId, unitId, route, assignedAt, List.of());
+    }
+}
@@ -9,7 +9,6 @@ import com.neca.perds.routing.DijkstraRouter;
 import com.neca.perds.routing.EdgeCostFunction;
 import com.neca.perds.routing.Route;
 import com.neca.perds.routing.Router;
-import com.neca.perds.routing.VirtualSourceGraphView;
 import com.neca.perds.system.SystemSnapshot;
 
 import java.util.ArrayList;
@@ -172,15 +171,13 @@ public final class MultiHotspotPrepositioningStrategy implements PrepositioningS
     }
 
     private Optional<UnitRouteSelection> chooseNearestUnitTo(SystemSnapshot snapshot, Map<NodeId, List<ResponseUnit>> availableUnitsByNodeId, NodeId targetNodeId) {
-        NodeId virtualSourceId = VirtualSourceGraphView.allocateVirtualSourceId(snapshot.graph(), availableUnitsByNodeId.keySet());
-        var graph = new VirtualSourceGraphView(snapshot.graph(), virtualSourceId, availableUnitsByNodeId.keySet());
-
-        Optional<Route> virtualRoute = router.findRoute(graph, virtualSourceId, targetNodeId, costFunction);
-        if (virtualRoute.isEmpty()) {
+        Optional<Route> nearest = router.findNearest(
+                snapshot.graph(), availableUnitsByNodeId.keySet(), targetNodeId, costFunction);
+        if (nearest.isEmpty()) {
             return Optional.empty();
         }
 
-        Route route = VirtualSourceGraphView.stripVirtualSource(virtualRoute.get(), virtualSourceId);
+        Route route = nearest.get();
         NodeId startNodeId = route.nodes().getFirst();
 
         List<ResponseUnit> candidates = availableUnitsByNodeId.get(startNodeId);
@@ -1,23 +1,35 @@
 package com.neca.perds.routing;
 
-import com.neca.perds.ds.BinaryHeapIndexedMinPriorityQueue;
+import com.neca.perds.graph.CsrGraph;
 import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.graph.NodeIndex;
 import com.neca.perds.model.NodeId;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
 public final class AStarRouter implements Router {
     private final Heuristic heuristic;
+    private final ArcFlags arcFlags;
 
     public AStarRouter(Heuristic heuristic) {
         this.heuristic = Objects.requireNonNull(heuristic, "heuristic");
+        this.arcFlags = null;
+    }
+
+    /**
+     * Creates a router that searches the cost layer of {@code arcFlags} and skips edges not flagged for the
+     * goal's region, on top of the heuristic. Queries with another cost function fall back to the plain
+     * search.
+     */
+    public AStarRouter(Heuristic heuristic, ArcFlags arcFlags) {
+        this.heuristic = Objects.requireNonNull(heuristic, "heuristic");
+        this.arcFlags = Objects.requireNonNull(arcFlags, "arcFlags");
     }
 
     @Override
@@ -38,103 +50,211 @@ public final class AStarRouter implements Router {
             ));
         }
 
-        List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
-        Map<NodeId, Integer> indexByNodeId = new HashMap<>(nodeIds.size() * 2);
-        for (int i = 0; i < nodeIds.size(); i++) {
-            indexByNodeId.put(nodeIds.get(i), i);
-        }
-
-        Integer startIndex = indexByNodeId.get(start);
-        Integer goalIndex = indexByNodeId.get(goal);
-        if (startIndex == null || goalIndex == null) {
+        ArcFlags.Pruning pruning = arcFlags == null ? null : arcFlags.pruningFor(graph, costFunction, goal);
+        NodeIndex nodeIndex = pruning == null ? graph.nodeIndex() : pruning.layer().graph();
+        int startIndex = nodeIndex.indexOf(start);
+        int goalIndex = nodeIndex.indexOf(goal);
+        if (startIndex < 0 || goalIndex < 0) {
             return Optional.empty();
         }
+        int[] sourceIndices = {startIndex};
+        return pruning == null
+                ? search(graph, nodeIndex, sourceIndices, goal, goalIndex, costFunction)
+                : search(graph, pruning, sourceIndices, goal, goalIndex);
+    }
 
-        double[] gScore = new double[nodeIds.size()];
-        int[] prev = new int[nodeIds.size()];
-        double[] totalDistanceKm = new double[nodeIds.size()];
-        Duration[] totalTravelTime = new Duration[nodeIds.size()];
-        for (int i = 0; i < nodeIds.size(); i++) {
-            gScore[i] = Double.POSITIVE_INFINITY;
-            prev[i] = -1;
-            totalDistanceKm[i] = 0.0;
-            totalTravelTime[i] = Duration.ZERO;
-        }
+    /**
+     * Seeds one search with every source, each keyed by its own estimate to the goal.
+     */
+    @Override
+    public Optional<Route> findNearest(
+            GraphReadView graph,
+            Collection<NodeId> sources,
+            NodeId goal,
+            EdgeCostFunction costFunction
+    ) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(sources, "sources");
+        Objects.requireNonNull(goal, "goal");
+        Objects.requireNonNull(costFunction, "costFunction");
 
-        gScore[startIndex] = 0.0;
-        totalDistanceKm[startIndex] = 0.0;
-        totalTravelTime[startIndex] = Duration.ZERO;
-        double startEstimate = heuristic.estimate(graph, start, goal);
-        if (Double.isNaN(startEstimate) || startEstimate < 0.0) {
-            throw new IllegalArgumentException("Heuristic estimate must be non-negative and not NaN");
+        if (sources.contains(goal)) {
+            return Optional.of(new Route(List.of(goal), 0.0, 0.0, Duration.ZERO, graph.version()));
         }
+        ArcFlags.Pruning pruning = arcFlags == null ? null : arcFlags.pruningFor(graph, costFunction, goal);
+        NodeIndex nodeIndex = pruning == null ? graph.nodeIndex() : pruning.layer().graph();
+        int goalIndex = nodeIndex.indexOf(goal);
+        int[] sourceIndices = nodeIndex.indicesOf(sources);
+        if (goalIndex < 0 || sourceIndices.length == 0) {
+            return Optional.empty();
+        }
+        return pruning == null
+                ? search(graph, nodeIndex, sourceIndices, goal, goalIndex, costFunction)
+                : search(graph, pruning, sourceIndices, goal, goalIndex);
+    }
 
-        var openSet = new BinaryHeapIndexedMinPriorityQueue(nodeIds.size());
-        openSet.insert(startIndex, startEstimate);
-
-        while (!openSet.isEmpty()) {
-            int u = openSet.extractMin();
-            if (u == goalIndex) {
-                break;
-            }
-
-            NodeId from = nodeIds.get(u);
-            for (var edge : graph.outgoingEdges(from)) {
-                Integer v = indexByNodeId.get(edge.to());
-                if (v == null) {
-                    continue;
+    private Optional<Route> search(
+            GraphReadView graph,
+            NodeIndex nodeIndex,
+            int[] sourceIndices,
+            NodeId goal,
+            int goalIndex,
+            EdgeCostFunction costFunction
+    ) {
+        long graphVersion = graph.version();
+        try (var workspace = SearchWorkspace.acquire(nodeIndex.capacity())) {
+            var openSet = workspace.queue();
+            for (int source : sourceIndices) {
+                double startEstimate = heuristic.estimate(graph, nodeIndex.nodeIdAt(source), goal);
+                if (Double.isNaN(startEstimate) || startEstimate < 0.0) {
+                    throw new IllegalArgumentException("Heuristic estimate must be non-negative and not NaN");
                 }
+                workspace.label(source, 0.0, -1, 0.0, 0L);
+                openSet.insert(source, startEstimate);
+            }
 
-                double edgeCost = costFunction.cost(edge);
-                if (Double.isNaN(edgeCost) || edgeCost < 0.0) {
-                    throw new IllegalArgumentException("Edge cost must be non-negative and not NaN");
-                }
-                if (Double.isInfinite(edgeCost)) {
-                    continue;
+            while (!openSet.isEmpty()) {
+                int u = openSet.extractMin();
+                if (u == goalIndex) {
+                    break;
                 }
 
-                double tentativeG = gScore[u] + edgeCost;
-                if (tentativeG < gScore[v]) {
-                    gScore[v] = tentativeG;
-                    prev[v] = u;
-                    totalDistanceKm[v] = totalDistanceKm[u] + edge.weights().distanceKm();
-                    totalTravelTime[v] = totalTravelTime[u].plus(edge.weights().travelTime());
+                NodeId from = nodeIndex.nodeIdAt(u);
+                double gU = workspace.cost(u);
+                for (var edge : graph.outgoingEdges(from)) {
+                    int v = nodeIndex.indexOf(edge.to());
+                    if (v < 0) {
+                        continue;
+                    }
 
-                    double estimate = heuristic.estimate(graph, nodeIds.get(v), goal);
-                    if (Double.isNaN(estimate) || estimate < 0.0) {
-                        throw new IllegalArgumentException("Heuristic estimate must be non-negative and not NaN");
+                    double edgeCost = costFunction.cost(edge);
+                    if (Double.isNaN(edgeCost) || edgeCost < 0.0) {
+                        throw new IllegalArgumentException("Edge cost must be non-negative and not NaN");
                     }
-                    double fScore = tentativeG + estimate;
+                    if (Double.isInfinite(edgeCost)) {
+                        continue;
+                    }
+
+                    double tentativeG = gU + edgeCost;
+                    if (tentativeG < workspace.cost(v)) {
+                        workspace.label(
+                                v,
+                                tentativeG,
+                                u,
+                                workspace.distanceKm(u) + edge.weights().distanceKm(),
+                                workspace.travelTimeNanos(u) + edge.weights().travelTime().toNanos()
+                        );
+
+                        double estimate = heuristic.estimate(graph, edge.to(), goal);
+                        if (Double.isNaN(estimate) || estimate < 0.0) {
+                            throw new IllegalArgumentException("Heuristic estimate must be non-negative and not NaN");
+                        }
+                        double fScore = tentativeG + estimate;
 
-                    if (openSet.contains(v)) {
-                        openSet.decreaseKey(v, fScore);
-                    } else {
-                        openSet.insert(v, fScore);
+                        if (openSet.contains(v)) {
+                            openSet.decreaseKey(v, fScore);
+                        } else {
+                            openSet.insert(v, fScore);
+                        }
                     }
                 }
             }
+
+            if (!workspace.isLabelled(goalIndex)) {
+                return Optional.empty();
+            }
+
+            List<NodeId> path = reconstructPath(nodeIndex, workspace, goalIndex);
+            return Optional.of(new Route(
+                    List.copyOf(path),
+                    workspace.cost(goalIndex),
+                    workspace.distanceKm(goalIndex),
+                    Duration.ofNanos(workspace.travelTimeNanos(goalIndex)),
+                    graphVersion
+            ));
         }
+    }
 
-        if (Double.isInfinite(gScore[goalIndex])) {
-            return Optional.empty();
+    /**
+     * Same search over the cost layer of {@code pruning}, skipping edges not flagged for the goal's region.
+     * The heuristic is still evaluated against {@code graph}.
+     */
+    private Optional<Route> search(
+            GraphReadView graph,
+            ArcFlags.Pruning pruning,
+            int[] sourceIndices,
+            NodeId goal,
+            int goalIndex
+    ) {
+        CostLayer layer = pruning.layer();
+        CsrGraph csr = layer.graph();
+        try (var workspace = SearchWorkspace.acquire(csr.nodeCount())) {
+            var openSet = workspace.queue();
+            for (int source : sourceIndices) {
+                workspace.label(source, 0.0, -1, 0.0, 0L);
+                openSet.insert(source, estimate(graph, csr.nodeIdAt(source), goal));
+            }
+
+            while (!openSet.isEmpty()) {
+                int u = openSet.extractMin();
+                if (u == goalIndex) {
+                    break;
+                }
+
+                double gU = workspace.cost(u);
+                for (int e = csr.edgesStart(u); e < csr.edgesEnd(u); e++) {
+                    if (!pruning.allows(e)) {
+                        continue;
+                    }
+                    double tentativeG = gU + layer.cost(e);
+                    int v = csr.edgeTarget(e);
+                    if (tentativeG < workspace.cost(v)) {
+                        workspace.label(
+                                v,
+                                tentativeG,
+                                u,
+                                workspace.distanceKm(u) + csr.edgeDistanceKm(e),
+                                workspace.travelTimeNanos(u) + csr.edgeTravelTimeNanos(e)
+                        );
+                        double fScore = tentativeG + estimate(graph, csr.nodeIdAt(v), goal);
+                        if (openSet.contains(v)) {
+                            openSet.decreaseKey(v, fScore);
+                        } else {
+                            openSet.insert(v, fScore);
+                        }
+                    }
+                }
+            }
+
+            if (!workspace.isLabelled(goalIndex)) {
+                return Optional.empty();
+            }
+
+            List<NodeId> path = reconstructPath(csr, workspace, goalIndex);
+            return Optional.of(new Route(
+                    List.copyOf(path),
+                    workspace.cost(goalIndex),
+                    workspace.distanceKm(goalIndex),
+                    Duration.ofNanos(workspace.travelTimeNanos(goalIndex)),
+                    layer.version()
+            ));
         }
+    }
 
-        List<NodeId> path = reconstructPath(nodeIds, prev, goalIndex);
-        return Optional.of(new Route(
-                List.copyOf(path),
-                gScore[goalIndex],
-                totalDistanceKm[goalIndex],
-                totalTravelTime[goalIndex],
-                graphVersion
-        ));
+    private double estimate(GraphReadView graph, NodeId node, NodeId goal) {
+        double estimate = heuristic.estimate(graph, node, goal);
+        if (Double.isNaN(estimate) || estimate < 0.0) {
+            throw new IllegalArgumentException("Heuristic estimate must be non-negative and not NaN");
+        }
+        return estimate;
     }
 
-    private static List<NodeId> reconstructPath(List<NodeId> nodeIds, int[] prev, int goalIndex) {
+    private static List<NodeId> reconstructPath(NodeIndex nodeIndex, SearchWorkspace workspace, int goalIndex) {
         List<NodeId> reversed = new ArrayList<>();
         int current = goalIndex;
         while (current != -1) {
-            reversed.add(nodeIds.get(current));
-            current = prev[current];
+            reversed.add(nodeIndex.nodeIdAt(current));
+            current = workspace.previous(current);
         }
         Collections.reverse(reversed);
         return reversed;
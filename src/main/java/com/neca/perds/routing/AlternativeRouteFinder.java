@@ -0,0 +1,259 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.model.NodeId;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Finds diverse alternatives to a route with the penalty method.
+ *
+ * <p>After each search, the cost of every edge on the routes found so far is multiplied by the penalty
+ * factor, and the search is repeated between the same endpoints. A result is accepted as an alternative
+ * when its true cost is within {@code maxStretch} of the primary route and at most {@code maxSharing} of
+ * that cost runs over edges of routes already accepted. Alternatives are stored with an assignment so that
+ * a closure on its route can be handled by {@link #bestValid} in time linear in the alternatives' length,
+ * without a search.
+ *
+ * <p>Penalised searches use a cost function created per call whose costs grow as penalties accumulate, so
+ * it reports itself as not {@linkplain EdgeCostFunction#isTimeInvariant() time-invariant}; routers that
+ * cache or precompute per-edge costs then search it directly. Penalties are looked up by the edge's source
+ * node first, so edges leaving nodes off every route found so far cost one map miss and no allocation.
+ * A finder with no alternatives ({@link #disabled()}) returns immediately without searching.
+ */
+public final class AlternativeRouteFinder {
+    private static final int DEFAULT_MAX_ALTERNATIVES = 2;
+    private static final double DEFAULT_PENALTY_FACTOR = 2.0;
+    private static final double DEFAULT_MAX_STRETCH = 1.5;
+    private static final double DEFAULT_MAX_SHARING = 0.8;
+    /** Searches per requested alternative before giving up on finding a diverse enough one. */
+    private static final int ATTEMPTS_PER_ALTERNATIVE = 3;
+
+    private final Router router;
+    private final int maxAlternatives;
+    private final double penaltyFactor;
+    private final double maxStretch;
+    private final double maxSharing;
+
+    public AlternativeRouteFinder() {
+        this(new DijkstraRouter());
+    }
+
+    /** Creates a finder with the default limits that runs its penalised searches on {@code router}. */
+    public AlternativeRouteFinder(Router router) {
+        this(router, DEFAULT_MAX_ALTERNATIVES, DEFAULT_PENALTY_FACTOR, DEFAULT_MAX_STRETCH, DEFAULT_MAX_SHARING);
+    }
+
+    /** Returns a finder that never searches and always returns no alternatives. */
+    public static AlternativeRouteFinder disabled() {
+        return new AlternativeRouteFinder(new DijkstraRouter(), 0, DEFAULT_PENALTY_FACTOR, DEFAULT_MAX_STRETCH,
+                DEFAULT_MAX_SHARING);
+    }
+
+    /**
+     * @param maxAlternatives maximum number of alternatives returned per route
+     * @param penaltyFactor cost multiplier applied to an edge each time a found route uses it
+     * @param maxStretch maximum ratio of an alternative's cost to the primary route's cost
+     * @param maxSharing maximum fraction of an alternative's cost on edges of already accepted routes
+     */
+    public AlternativeRouteFinder(
+            Router router,
+            int maxAlternatives,
+            double penaltyFactor,
+            double maxStretch,
+            double maxSharing
+    ) {
+        this.router = Objects.requireNonNull(router, "router");
+        if (maxAlternatives < 0) {
+            throw new IllegalArgumentException("maxAlternatives must be >= 0");
+        }
+        if (!(penaltyFactor > 1.0) || Double.isInfinite(penaltyFactor)) {
+            throw new IllegalArgumentException("penaltyFactor must be finite and > 1");
+        }
+        if (!(maxStretch >= 1.0)) {
+            throw new IllegalArgumentException("maxStretch must be >= 1");
+        }
+        if (!(maxSharing >= 0.0 && maxSharing <= 1.0)) {
+            throw new IllegalArgumentException("maxSharing must be in [0, 1]");
+        }
+        this.maxAlternatives = maxAlternatives;
+        this.penaltyFactor = penaltyFactor;
+        this.maxStretch = maxStretch;
+        this.maxSharing = maxSharing;
+    }
+
+    /**
+     * Returns up to {@code maxAlternatives} routes between the endpoints of {@code primary}, each different
+     * from {@code primary} and from one another, in the order found. Totals are evaluated under
+     * {@code costFunction} on {@code graph}'s current edges.
+     */
+    public List<Route> findAlternatives(GraphReadView graph, Route primary, EdgeCostFunction costFunction) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(primary, "primary");
+        Objects.requireNonNull(costFunction, "costFunction");
+
+        List<NodeId> primaryNodes = primary.nodes();
+        if (maxAlternatives == 0 || primaryNodes.size() < 2) {
+            return List.of();
+        }
+        NodeId start = primaryNodes.getFirst();
+        NodeId goal = primaryNodes.getLast();
+        double maxCost = routeAlong(graph, primaryNodes, costFunction)
+                .map(route -> route.totalCost() * maxStretch)
+                .orElse(Double.POSITIVE_INFINITY);
+
+        Map<NodeId, Map<NodeId, Integer>> penalties = new HashMap<>();
+        Set<EdgeKey> acceptedEdges = new HashSet<>();
+        Set<List<NodeId>> seen = new HashSet<>();
+        seen.add(primaryNodes);
+        penalise(primaryNodes, penalties);
+        acceptedEdges.addAll(edgesOf(primaryNodes));
+
+        EdgeCostFunction penalised = new EdgeCostFunction() {
+            @Override
+            public double cost(Edge edge) {
+                double cost = costFunction.cost(edge);
+                Map<NodeId, Integer> fromPenalties = penalties.get(edge.from());
+                Integer times = fromPenalties == null ? null : fromPenalties.get(edge.to());
+                return times == null ? cost : cost * Math.pow(penaltyFactor, times);
+            }
+
+            @Override
+            public boolean isTimeInvariant() {
+                return false;
+            }
+        };
+
+        List<Route> alternatives = new ArrayList<>(maxAlternatives);
+        for (int attempt = 0; attempt < maxAlternatives * ATTEMPTS_PER_ALTERNATIVE; attempt++) {
+            Optional<Route> found = router.findRoute(graph, start, goal, penalised);
+            if (found.isEmpty()) {
+                break;
+            }
+            List<NodeId> nodes = found.get().nodes();
+            Optional<Route> route = routeAlong(graph, nodes, costFunction);
+            if (route.isEmpty() || route.get().totalCost() > maxCost) {
+                break;
+            }
+            if (seen.add(nodes) && sharedCost(graph, nodes, costFunction, acceptedEdges)
+                    <= maxSharing * route.get().totalCost()) {
+                alternatives.add(route.get());
+                acceptedEdges.addAll(edgesOf(nodes));
+                if (alternatives.size() == maxAlternatives) {
+                    break;
+                }
+            }
+            penalise(nodes, penalties);
+        }
+        return List.copyOf(alternatives);
+    }
+
+    /**
+     * Returns the cheapest of {@code alternatives} that still leads from {@code from} to its goal on
+     * {@code graph}'s current edges, cut to start at {@code from} and re-evaluated under {@code costFunction}.
+     * Alternatives that do not pass through {@code from}, or that use a missing or infinite-cost edge after
+     * it, are skipped.
+     */
+    public static Optional<Route> bestValid(
+            GraphReadView graph,
+            List<Route> alternatives,
+            NodeId from,
+            EdgeCostFunction costFunction
+    ) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(alternatives, "alternatives");
+        Objects.requireNonNull(from, "from");
+        Objects.requireNonNull(costFunction, "costFunction");
+
+        Optional<Route> best = Optional.empty();
+        for (Route alternative : alternatives) {
+            int offset = alternative.nodes().indexOf(from);
+            if (offset < 0) {
+                continue;
+            }
+            Optional<Route> route = routeAlong(
+                    graph,
+                    alternative.nodes().subList(offset, alternative.nodes().size()),
+                    costFunction
+            );
+            if (route.isPresent() && (best.isEmpty() || route.get().totalCost() < best.get().totalCost())) {
+                best = route;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Evaluates the path {@code nodes} on {@code graph}'s current edges, or returns empty if an edge is missing
+     * or has infinite cost.
+     */
+    static Optional<Route> routeAlong(GraphReadView graph, List<NodeId> nodes, EdgeCostFunction costFunction) {
+        double totalCost = 0.0;
+        double totalDistanceKm = 0.0;
+        long totalTravelTimeNanos = 0L;
+        for (int i = 1; i < nodes.size(); i++) {
+            Optional<Edge> edge = graph.getEdge(nodes.get(i - 1), nodes.get(i));
+            if (edge.isEmpty()) {
+                return Optional.empty();
+            }
+            double cost = costFunction.cost(edge.get());
+            if (Double.isNaN(cost) || cost < 0.0) {
+                throw new IllegalArgumentException("Edge cost must be non-negative and not NaN");
+            }
+            if (Double.isInfinite(cost)) {
+                return Optional.empty();
+            }
+            totalCost += cost;
+            totalDistanceKm += edge.get().weights().distanceKm();
+            totalTravelTimeNanos += edge.get().weights().travelTime().toNanos();
+        }
+        return Optional.of(new Route(
+                List.copyOf(nodes),
+                totalCost,
+                totalDistanceKm,
+                Duration.ofNanos(totalTravelTimeNanos),
+                graph.version()
+        ));
+    }
+
+    private static void penalise(List<NodeId> nodes, Map<NodeId, Map<NodeId, Integer>> penalties) {
+        for (int i = 1; i < nodes.size(); i++) {
+            penalties.computeIfAbsent(nodes.get(i - 1), ignored -> new HashMap<>()).merge(nodes.get(i), 1, Integer::sum);
+        }
+    }
+
+    private static List<EdgeKey> edgesOf(List<NodeId> nodes) {
+        List<EdgeKey> edges = new ArrayList<>(nodes.size() - 1);
+        for (int i = 1; i < nodes.size(); i++) {
+            edges.add(new EdgeKey(nodes.get(i - 1), nodes.get(i)));
+        }
+        return edges;
+    }
+
+    private static double sharedCost(
+            GraphReadView graph,
+            List<NodeId> nodes,
+            EdgeCostFunction costFunction,
+            Set<EdgeKey> acceptedEdges
+    ) {
+        double shared = 0.0;
+        for (int i = 1; i < nodes.size(); i++) {
+            if (acceptedEdges.contains(new EdgeKey(nodes.get(i - 1), nodes.get(i)))) {
+                shared += costFunction.cost(graph.getEdge(nodes.get(i - 1), nodes.get(i)).orElseThrow());
+            }
+        }
+        return shared;
+    }
+
+    private record EdgeKey(NodeId from, NodeId to) {
+    }
+}
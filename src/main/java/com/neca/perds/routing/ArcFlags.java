@@ -0,0 +1,215 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.CsrGraph;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.graph.GraphChangeListener;
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.model.NodeId;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Arc-flag pruning for one cost function over a partition of the graph into regions.
+ *
+ * <p>Nodes are grouped into connected regions of at most {@code regionSize} nodes (one level of a
+ * {@link MultiLevelPartition}). An edge's flag for region {@code R} is set if both its endpoints lie in
+ * {@code R}, or if it is on the shortest-path tree into some boundary node of {@code R}, found by a backward
+ * Dijkstra from that node. A search towards a goal in {@code R} may skip every edge whose flag is off and
+ * still finds a shortest route, because every shortest route reaches the goal through such a tree edge
+ * path followed by edges inside {@code R}.
+ *
+ * <p>Flags are kept as one edge bitset per region and computed lazily the first time a query targets the
+ * region. Registered as a {@link GraphChangeListener}, the instance applies metric-only edge changes to its
+ * {@link CostLayer} and invalidates only the affected regions: a more expensive or closed edge invalidates
+ * the regions whose flag it carries, while a cheaper edge can open shortcuts into any region and invalidates
+ * them all. Changes that were not notified are replayed from {@link GraphReadView#changesSince} on the next
+ * query. Topology changes, changes the graph no longer has and another graph instance cause a full rebuild.
+ *
+ * <p>Use it through {@link DijkstraRouter#DijkstraRouter(ArcFlags)} or {@link AStarRouter#AStarRouter(Heuristic, ArcFlags)}.
+ * Instances are thread-safe; region computations are serialized.
+ */
+public final class ArcFlags implements GraphChangeListener {
+    private static final int DEFAULT_REGION_SIZE = 256;
+
+    private final EdgeCostFunction costFunction;
+    private final int regionSize;
+
+    private GraphReadView graph;
+    private boolean stale = true;
+    private CostLayer layer;
+    private MultiLevelPartition partition;
+    /** Edge bitset per region; {@code null} until computed and after invalidation. */
+    private long[][] flagsByRegion;
+    private long regionsComputed;
+
+    public ArcFlags(EdgeCostFunction costFunction) {
+        this(costFunction, DEFAULT_REGION_SIZE);
+    }
+
+    /**
+     * @param regionSize maximum nodes per region
+     * @throws IllegalArgumentException if {@code costFunction} is not time-invariant, since flags and costs
+     *         are computed once per edge
+     */
+    public ArcFlags(EdgeCostFunction costFunction, int regionSize) {
+        this.costFunction = Objects.requireNonNull(costFunction, "costFunction");
+        if (!costFunction.isTimeInvariant()) {
+            throw new IllegalArgumentException("Arc flags require a time-invariant cost function");
+        }
+        if (regionSize < 1) {
+            throw new IllegalArgumentException("regionSize must be >= 1");
+        }
+        this.regionSize = regionSize;
+    }
+
+    public EdgeCostFunction costFunction() {
+        return costFunction;
+    }
+
+    /** Number of region flag sets computed so far, for tests and diagnostics. */
+    synchronized long regionsComputed() {
+        return regionsComputed;
+    }
+
+    /**
+     * Returns the cost layer and flags to search {@code graph} towards {@code goal}, or {@code null} if this
+     * instance cannot serve the query (another cost function or an unknown goal).
+     */
+    synchronized Pruning pruningFor(GraphReadView graph, EdgeCostFunction costFunction, NodeId goal) {
+        if (costFunction != this.costFunction) {
+            return null;
+        }
+        if (graph != this.graph) {
+            this.graph = graph;
+            stale = true;
+        }
+        if (!stale && layer.version() < graph.version()) {
+            graph.changesSince(layer.version())
+                    .ifPresent(changes -> changes.changes().forEach(change -> onGraphChanged(graph, change)));
+        }
+        if (stale || layer.version() != graph.version()) {
+            rebuild(graph);
+        }
+
+        int goalIndex = layer.graph().indexOf(goal);
+        if (goalIndex < 0) {
+            return null;
+        }
+        int region = partition.cell(1, goalIndex);
+        if (flagsByRegion[region] == null) {
+            flagsByRegion[region] = computeRegion(region);
+            regionsComputed++;
+        }
+        return new Pruning(layer, flagsByRegion[region]);
+    }
+
+    @Override
+    public synchronized void onGraphChanged(GraphReadView graph, GraphChange change) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(change, "change");
+        if (graph != this.graph || stale) {
+            return;
+        }
+        boolean metricOnly = change instanceof GraphChange.EdgeChanged edgeChange && edgeChange.isMetricOnly();
+        if (change.version() != layer.version() + 1 || !metricOnly) {
+            stale = true;
+            return;
+        }
+        CsrGraph csr = layer.graph();
+        Optional<CsrGraph> derived = csr.derive(List.of(change));
+        if (derived.isEmpty()) {
+            stale = true;
+            return;
+        }
+
+        var edgeChange = (GraphChange.EdgeChanged) change;
+        int edge = csr.edgeIndex(csr.indexOf(edgeChange.from()), csr.indexOf(edgeChange.to()));
+        double before = layer.cost(edge);
+        layer = layer.derive(derived.get(), List.of(change));
+        double after = layer.cost(edge);
+        if (after < before) {
+            Arrays.fill(flagsByRegion, null);
+        } else if (after > before) {
+            for (int region = 0; region < flagsByRegion.length; region++) {
+                if (flagsByRegion[region] != null && isSet(flagsByRegion[region], edge)) {
+                    flagsByRegion[region] = null;
+                }
+            }
+        }
+    }
+
+    private void rebuild(GraphReadView graph) {
+        CsrGraph csr = CsrGraph.of(graph);
+        layer = CostLayer.of(csr, costFunction);
+        partition = MultiLevelPartition.build(csr, new int[] {regionSize});
+        flagsByRegion = new long[partition.cellCount(1)][];
+        stale = false;
+    }
+
+    private long[] computeRegion(int region) {
+        CsrGraph csr = layer.graph();
+        long[] flags = new long[(csr.edgeCount() + 63) >>> 6];
+        for (int u = 0; u < csr.nodeCount(); u++) {
+            if (partition.cell(1, u) != region) {
+                continue;
+            }
+            for (int e = csr.edgesStart(u); e < csr.edgesEnd(u); e++) {
+                if (partition.cell(1, csr.edgeTarget(e)) == region) {
+                    set(flags, e);
+                }
+            }
+        }
+
+        for (int boundaryNode : partition.boundary(1, region)) {
+            // Backward Dijkstra; each label's predecessor slot holds the tree edge towards the boundary node.
+            try (var workspace = SearchWorkspace.acquire(csr.nodeCount(), costFunction.hasIntegralCosts())) {
+                var queue = workspace.queue();
+                workspace.label(boundaryNode, 0.0, -1, 0.0, 0L);
+                queue.insert(boundaryNode, 0.0);
+                while (!queue.isEmpty()) {
+                    int x = queue.extractMin();
+                    int treeEdge = workspace.previous(x);
+                    if (treeEdge >= 0) {
+                        set(flags, treeEdge);
+                    }
+                    double costX = workspace.cost(x);
+                    for (int k = csr.incomingStart(x); k < csr.incomingEnd(x); k++) {
+                        int e = csr.incomingEdge(k);
+                        int w = csr.edgeSource(e);
+                        double alt = costX + layer.cost(e);
+                        if (alt < workspace.cost(w)) {
+                            workspace.label(w, alt, e, 0.0, 0L);
+                            if (queue.contains(w)) {
+                                queue.decreaseKey(w, alt);
+                            } else {
+                                queue.insert(w, alt);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return flags;
+    }
+
+    private static void set(long[] flags, int edge) {
+        flags[edge >>> 6] |= 1L << edge;
+    }
+
+    private static boolean isSet(long[] flags, int edge) {
+        return (flags[edge >>> 6] & (1L << edge)) != 0;
+    }
+
+    /**
+     * A cost layer together with the flags of one target region. Both are immutable once handed out:
+     * invalidation replaces a region's bitset rather than clearing it.
+     */
+    record Pruning(CostLayer layer, long[] flags) {
+        boolean allows(int edge) {
+            return isSet(flags, edge);
+        }
+    }
+}
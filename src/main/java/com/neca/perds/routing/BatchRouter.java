@@ -0,0 +1,110 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.model.NodeId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Solves a batch of independent point-to-point queries in parallel.
+ *
+ * <p>Requests are split into contiguous chunks, one per worker; the calling thread solves the first chunk
+ * itself and the rest run on the executor. Each result is exactly what the underlying router returns for
+ * that request, so output is deterministic and in request order regardless of scheduling. Workers reuse
+ * their thread's pooled search workspace, so an executor with long-lived platform threads (the default
+ * {@link ForkJoinPool#commonPool()}) avoids reallocating per-query arrays.
+ *
+ * <p>The router must be thread-safe and the graph must not be mutated while a batch runs. Routers that
+ * serialize their queries are still correct here but gain nothing from the extra threads.
+ */
+public final class BatchRouter {
+    private static final int MIN_CHUNK_SIZE = 4;
+
+    private final Router router;
+    private final Executor executor;
+    private final int parallelism;
+
+    public BatchRouter(Router router) {
+        this(router, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism() + 1);
+    }
+
+    /**
+     * @param parallelism maximum number of chunks per batch, counting the one run by the calling thread
+     */
+    public BatchRouter(Router router, Executor executor, int parallelism) {
+        this.router = Objects.requireNonNull(router, "router");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be >= 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    public record Request(NodeId start, NodeId goal) {
+        public Request {
+            Objects.requireNonNull(start, "start");
+            Objects.requireNonNull(goal, "goal");
+        }
+    }
+
+    /**
+     * Returns one result per request, in request order.
+     */
+    public List<Optional<Route>> findRoutes(
+            GraphReadView graph,
+            List<Request> requests,
+            EdgeCostFunction costFunction
+    ) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(costFunction, "costFunction");
+        List<Request> batch = List.copyOf(requests);
+
+        int chunks = Math.min(parallelism, (batch.size() + MIN_CHUNK_SIZE - 1) / MIN_CHUNK_SIZE);
+        if (chunks <= 1) {
+            return solve(graph, batch, costFunction);
+        }
+
+        int chunkSize = (batch.size() + chunks - 1) / chunks;
+        List<CompletableFuture<List<Optional<Route>>>> forked = new ArrayList<>(chunks - 1);
+        for (int from = chunkSize; from < batch.size(); from += chunkSize) {
+            List<Request> chunk = batch.subList(from, Math.min(batch.size(), from + chunkSize));
+            forked.add(CompletableFuture.supplyAsync(() -> solve(graph, chunk, costFunction), executor));
+        }
+
+        List<Optional<Route>> results = new ArrayList<>(batch.size());
+        results.addAll(solve(graph, batch.subList(0, chunkSize), costFunction));
+        for (CompletableFuture<List<Optional<Route>>> future : forked) {
+            results.addAll(join(future));
+        }
+        return List.copyOf(results);
+    }
+
+    private List<Optional<Route>> solve(GraphReadView graph, List<Request> requests, EdgeCostFunction costFunction) {
+        List<Optional<Route>> results = new ArrayList<>(requests.size());
+        for (Request request : requests) {
+            results.add(router.findRoute(graph, request.start(), request.goal(), costFunction));
+        }
+        return results;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
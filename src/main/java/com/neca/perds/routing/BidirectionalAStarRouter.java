@@ -0,0 +1,34 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.model.NodeId;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Bidirectional A* with average potentials. The heuristic must be consistent (e.g. {@link LandmarkHeuristic},
+ * or {@link EuclideanHeuristic} with a distance cost) for routes to be optimal.
+ */
+public final class BidirectionalAStarRouter implements Router {
+    private final BidirectionalSearch search;
+
+    public BidirectionalAStarRouter(Heuristic heuristic) {
+        this.search = new BidirectionalSearch(heuristic);
+    }
+
+    @Override
+    public Optional<Route> findRoute(GraphReadView graph, NodeId start, NodeId goal, EdgeCostFunction costFunction) {
+        return search.findRoute(graph, start, goal, costFunction);
+    }
+
+    @Override
+    public Optional<Route> findNearest(
+            GraphReadView graph,
+            Collection<NodeId> sources,
+            NodeId goal,
+            EdgeCostFunction costFunction
+    ) {
+        return search.findNearest(graph, sources, goal, costFunction);
+    }
+}
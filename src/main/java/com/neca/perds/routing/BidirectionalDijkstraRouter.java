@@ -0,0 +1,44 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.model.NodeId;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Dijkstra run simultaneously from the start and, over incoming edges, from the goal. Returns the same
+ * route costs as {@link DijkstraRouter} while settling roughly half as many nodes on grid-like networks.
+ */
+public final class BidirectionalDijkstraRouter implements Router {
+    private final BidirectionalSearch search = new BidirectionalSearch();
+    private final OneToManySearch oneToMany = new OneToManySearch();
+
+    @Override
+    public Optional<Route> findRoute(GraphReadView graph, NodeId start, NodeId goal, EdgeCostFunction costFunction) {
+        return search.findRoute(graph, start, goal, costFunction);
+    }
+
+    @Override
+    public Optional<Route> findNearest(
+            GraphReadView graph,
+            Collection<NodeId> sources,
+            NodeId goal,
+            EdgeCostFunction costFunction
+    ) {
+        return search.findNearest(graph, sources, goal, costFunction);
+    }
+
+    /**
+     * Runs one search per source, or one backward search per target when there are fewer targets.
+     */
+    @Override
+    public TravelTimeTable travelTimeTable(
+            GraphReadView graph,
+            Collection<NodeId> sources,
+            Collection<NodeId> targets,
+            EdgeCostFunction costFunction
+    ) {
+        return oneToMany.compute(graph, sources, targets, costFunction);
+    }
+}
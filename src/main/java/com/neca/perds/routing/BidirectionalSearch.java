@@ -0,0 +1,212 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.graph.NodeIndex;
+import com.neca.perds.model.NodeId;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Shared implementation of {@link BidirectionalDijkstraRouter} and {@link BidirectionalAStarRouter}.
+ *
+ * <p>A forward search from the start over outgoing edges and a backward search from the goal over
+ * incoming edges alternate by smaller queue key. Every relaxed edge that reaches a node labelled by the
+ * other side updates the best known path cost {@code mu}; the search stops once the two queue minima sum
+ * to at least {@code mu}.
+ *
+ * <p>With a heuristic {@code h}, both searches use the average potential
+ * {@code p(v) = (h(v, goal) - h(start, v)) / 2}: forward keys are {@code d(s, v) + p(v)} and backward keys
+ * are {@code d(v, t) - p(v)}, so the same stopping rule stays exact as long as {@code h} is consistent.
+ *
+ * <p>Without a heuristic and with {@link EdgeCostFunction#hasIntegralCosts()}, both queues are radix heaps.
+ *
+ * <p>A multi-source query with a heuristic runs as a forward-only {@link AStarRouter} search instead, since
+ * the backward potential would need an estimate from every source at every relaxation.
+ *
+ * <p>The backward search reads {@link GraphReadView#incomingEdges(NodeId)} directly.
+ */
+final class BidirectionalSearch {
+    private static final Heuristic NO_HEURISTIC = (graph, from, to) -> 0.0;
+
+    private final Heuristic heuristic;
+    private final AStarRouter forwardOnly;
+
+    BidirectionalSearch() {
+        this(NO_HEURISTIC);
+    }
+
+    BidirectionalSearch(Heuristic heuristic) {
+        this.heuristic = Objects.requireNonNull(heuristic, "heuristic");
+        this.forwardOnly = new AStarRouter(heuristic);
+    }
+
+    Optional<Route> findRoute(GraphReadView graph, NodeId start, NodeId goal, EdgeCostFunction costFunction) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(start, "start");
+        Objects.requireNonNull(goal, "goal");
+        Objects.requireNonNull(costFunction, "costFunction");
+
+        long graphVersion = graph.version();
+        if (start.equals(goal)) {
+            return Optional.of(new Route(List.of(start), 0.0, 0.0, Duration.ZERO, graphVersion));
+        }
+
+        NodeIndex nodeIndex = graph.nodeIndex();
+        int startIndex = nodeIndex.indexOf(start);
+        int goalIndex = nodeIndex.indexOf(goal);
+        if (startIndex < 0 || goalIndex < 0) {
+            return Optional.empty();
+        }
+        return search(graph, nodeIndex, new int[] {startIndex}, goalIndex, costFunction);
+    }
+
+    /**
+     * Seeds the forward search with every source. With a heuristic and more than one known source, delegates
+     * to a forward-only A* search keyed by the estimate to the goal.
+     */
+    Optional<Route> findNearest(
+            GraphReadView graph,
+            Collection<NodeId> sources,
+            NodeId goal,
+            EdgeCostFunction costFunction
+    ) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(sources, "sources");
+        Objects.requireNonNull(goal, "goal");
+        Objects.requireNonNull(costFunction, "costFunction");
+
+        if (sources.contains(goal)) {
+            return Optional.of(new Route(List.of(goal), 0.0, 0.0, Duration.ZERO, graph.version()));
+        }
+        NodeIndex nodeIndex = graph.nodeIndex();
+        int goalIndex = nodeIndex.indexOf(goal);
+        int[] startIndices = nodeIndex.indicesOf(sources);
+        if (goalIndex < 0 || startIndices.length == 0) {
+            return Optional.empty();
+        }
+        if (heuristic != NO_HEURISTIC && startIndices.length > 1) {
+            return forwardOnly.findNearest(graph, sources, goal, costFunction);
+        }
+        return search(graph, nodeIndex, startIndices, goalIndex, costFunction);
+    }
+
+    private Optional<Route> search(
+            GraphReadView graph,
+            NodeIndex nodeIndex,
+            int[] startIndices,
+            int goalIndex,
+            EdgeCostFunction costFunction
+    ) {
+        long graphVersion = graph.version();
+        // Only single-source searches use a heuristic, so the first start is the only one it sees.
+        NodeId start = nodeIndex.nodeIdAt(startIndices[0]);
+        NodeId goal = nodeIndex.nodeIdAt(goalIndex);
+        boolean integerKeys = heuristic == NO_HEURISTIC && costFunction.hasIntegralCosts();
+
+        try (var forward = SearchWorkspace.acquire(nodeIndex.capacity(), integerKeys);
+             var backward = SearchWorkspace.acquire(nodeIndex.capacity(), integerKeys)) {
+            var forwardQueue = forward.queue();
+            var backwardQueue = backward.queue();
+            for (int startIndex : startIndices) {
+                forward.label(startIndex, 0.0, -1, 0.0, 0L);
+                forwardQueue.insert(startIndex, potential(graph, nodeIndex.nodeIdAt(startIndex), start, goal));
+            }
+            backward.label(goalIndex, 0.0, -1, 0.0, 0L);
+            backwardQueue.insert(goalIndex, -potential(graph, goal, start, goal));
+
+            double best = Double.POSITIVE_INFINITY;
+            int meeting = -1;
+            while (!forwardQueue.isEmpty() && !backwardQueue.isEmpty()) {
+                double forwardTop = forwardQueue.priorityOf(forwardQueue.peekMin());
+                double backwardTop = backwardQueue.priorityOf(backwardQueue.peekMin());
+                if (forwardTop + backwardTop >= best) {
+                    break;
+                }
+
+                boolean scanForward = forwardTop <= backwardTop;
+                SearchWorkspace self = scanForward ? forward : backward;
+                SearchWorkspace other = scanForward ? backward : forward;
+                var queue = self.queue();
+                int u = queue.extractMin();
+                NodeId uId = nodeIndex.nodeIdAt(u);
+                double costU = self.cost(u);
+
+                for (Edge edge : scanForward ? graph.outgoingEdges(uId) : graph.incomingEdges(uId)) {
+                    NodeId vId = scanForward ? edge.to() : edge.from();
+                    int v = nodeIndex.indexOf(vId);
+                    if (v < 0) {
+                        continue;
+                    }
+                    double edgeCost = costFunction.cost(edge);
+                    if (Double.isNaN(edgeCost) || edgeCost < 0.0) {
+                        throw new IllegalArgumentException("Edge cost must be non-negative and not NaN");
+                    }
+                    if (Double.isInfinite(edgeCost)) {
+                        continue;
+                    }
+
+                    double alt = costU + edgeCost;
+                    if (alt < self.cost(v)) {
+                        self.label(
+                                v,
+                                alt,
+                                u,
+                                self.distanceKm(u) + edge.weights().distanceKm(),
+                                self.travelTimeNanos(u) + edge.weights().travelTime().toNanos()
+                        );
+                        double p = potential(graph, vId, start, goal);
+                        double key = scanForward ? alt + p : alt - p;
+                        if (queue.contains(v)) {
+                            queue.decreaseKey(v, key);
+                        } else {
+                            queue.insert(v, key);
+                        }
+                    }
+                    if (other.isLabelled(v) && self.cost(v) + other.cost(v) < best) {
+                        best = self.cost(v) + other.cost(v);
+                        meeting = v;
+                    }
+                }
+            }
+
+            if (meeting < 0) {
+                return Optional.empty();
+            }
+
+            List<NodeId> path = new ArrayList<>();
+            for (int node = meeting; node != -1; node = forward.previous(node)) {
+                path.add(nodeIndex.nodeIdAt(node));
+            }
+            Collections.reverse(path);
+            for (int node = backward.previous(meeting); node != -1; node = backward.previous(node)) {
+                path.add(nodeIndex.nodeIdAt(node));
+            }
+            return Optional.of(new Route(
+                    List.copyOf(path),
+                    forward.cost(meeting) + backward.cost(meeting),
+                    forward.distanceKm(meeting) + backward.distanceKm(meeting),
+                    Duration.ofNanos(forward.travelTimeNanos(meeting) + backward.travelTimeNanos(meeting)),
+                    graphVersion
+            ));
+        }
+    }
+
+    private double potential(GraphReadView graph, NodeId node, NodeId start, NodeId goal) {
+        if (heuristic == NO_HEURISTIC) {
+            return 0.0;
+        }
+        double toGoal = heuristic.estimate(graph, node, goal);
+        double fromStart = heuristic.estimate(graph, start, node);
+        if (Double.isNaN(toGoal) || toGoal < 0.0 || Double.isNaN(fromStart) || fromStart < 0.0) {
+            throw new IllegalArgumentException("Heuristic estimate must be non-negative and not NaN");
+        }
+        return (toGoal - fromStart) / 2.0;
+    }
+}
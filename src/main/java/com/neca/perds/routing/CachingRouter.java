@@ -0,0 +1,308 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.graph.GraphChangeListener;
+import com.neca.perds.graph.GraphChangeSet;
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.model.NodeId;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * {@link Router} decorator that caches results by (start, goal, cost function identity) with LRU eviction.
+ *
+ * <p>Cached results stay valid across graph versions as long as the cache is told about each change via
+ * {@link #onGraphChanged}. When an edge changes in any way, routes that cross it are evicted, found through
+ * an edge-to-route reverse index (as in {@code app.AssignmentRouteIndex}); this also covers changes the cost
+ * function does not see, which would otherwise leave a stale distance or travel time on the cached route.
+ * Every other cached route is still optimal unless the edge became cheaper or was added under some cost
+ * function, in which case every entry for that cost function is evicted, because any pair may now have a
+ * shorter route. Removing a node clears everything. Changes the cache was not told about are replayed from
+ * {@link GraphReadView#changesSince} on the next lookup; if the graph no longer has them, everything is cleared.
+ * Unreachable results are cached too and follow the same rules.
+ *
+ * <p>Queries with a cost function that is not {@linkplain EdgeCostFunction#isTimeInvariant() time-invariant}
+ * (e.g. one that depends on the time of day) bypass the cache and go straight to the delegate. Changes are forwarded to the delegate if it is itself a {@link GraphChangeListener}.
+ * Instances are thread-safe; route computation on a miss runs outside the lock.
+ */
+public final class CachingRouter implements Router, GraphChangeListener {
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private final Router delegate;
+    private final int maxEntries;
+
+    private final LinkedHashMap<Key, Optional<Route>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<EdgeKey, Set<Key>> keysByEdge = new HashMap<>();
+    private final Map<EdgeCostFunction, Set<Key>> keysByCostFunction = new HashMap<>();
+    private GraphReadView graph;
+    private long validVersion;
+    private long hits;
+    private long misses;
+
+    public CachingRouter(Router delegate) {
+        this(delegate, DEFAULT_MAX_ENTRIES);
+    }
+
+    public CachingRouter(Router delegate, int maxEntries) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be >= 1");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    @Override
+    public Optional<Route> findRoute(GraphReadView graph, NodeId start, NodeId goal, EdgeCostFunction costFunction) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(start, "start");
+        Objects.requireNonNull(goal, "goal");
+        Objects.requireNonNull(costFunction, "costFunction");
+        if (!costFunction.isTimeInvariant()) {
+            return delegate.findRoute(graph, start, goal, costFunction);
+        }
+
+        Key key = new Key(start, goal, costFunction);
+        long version = graph.version();
+        synchronized (this) {
+            Optional<Route> cached = lookup(graph, key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        Optional<Route> computed = delegate.findRoute(graph, start, goal, costFunction);
+        synchronized (this) {
+            store(graph, version, key, computed);
+        }
+        return computed;
+    }
+
+    /**
+     * Not cached; delegates directly.
+     */
+    @Override
+    public Optional<Route> findNearest(
+            GraphReadView graph,
+            Collection<NodeId> sources,
+            NodeId goal,
+            EdgeCostFunction costFunction
+    ) {
+        return delegate.findNearest(graph, sources, goal, costFunction);
+    }
+
+    /**
+     * Answers from the cache if every pair is cached; otherwise delegates and caches every pair of the result.
+     */
+    @Override
+    public TravelTimeTable travelTimeTable(
+            GraphReadView graph,
+            Collection<NodeId> sources,
+            Collection<NodeId> targets,
+            EdgeCostFunction costFunction
+    ) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(sources, "sources");
+        Objects.requireNonNull(targets, "targets");
+        Objects.requireNonNull(costFunction, "costFunction");
+        if (!costFunction.isTimeInvariant()) {
+            return delegate.travelTimeTable(graph, sources, targets, costFunction);
+        }
+
+        List<NodeId> sourceList = List.copyOf(sources);
+        List<NodeId> targetList = List.copyOf(targets);
+        long version = graph.version();
+        synchronized (this) {
+            List<Optional<Route>> cached = new ArrayList<>(sourceList.size() * targetList.size());
+            boolean complete = true;
+            for (int s = 0; s < sourceList.size() && complete; s++) {
+                for (int t = 0; t < targetList.size() && complete; t++) {
+                    Optional<Route> route = lookup(graph, new Key(sourceList.get(s), targetList.get(t), costFunction));
+                    complete = route != null;
+                    cached.add(route);
+                }
+            }
+            if (complete) {
+                return TravelTimeTable.ofRoutes(sourceList, targetList, cached, graph.version());
+            }
+        }
+
+        TravelTimeTable table = delegate.travelTimeTable(graph, sourceList, targetList, costFunction);
+        synchronized (this) {
+            for (int s = 0; s < sourceList.size(); s++) {
+                for (int t = 0; t < targetList.size(); t++) {
+                    store(graph, version, new Key(sourceList.get(s), targetList.get(t), costFunction), table.route(s, t));
+                }
+            }
+        }
+        return table;
+    }
+
+    @Override
+    public void onGraphChanged(GraphReadView graph, GraphChange change) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(change, "change");
+        if (delegate instanceof GraphChangeListener listener) {
+            listener.onGraphChanged(graph, change);
+        }
+        synchronized (this) {
+            apply(graph, change);
+        }
+    }
+
+    /** Forwards the batch to the delegate as one unit, then applies its changes to the cache in order. */
+    @Override
+    public void onGraphChanged(GraphReadView graph, GraphChangeSet changes) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(changes, "changes");
+        if (delegate instanceof GraphChangeListener listener) {
+            listener.onGraphChanged(graph, changes);
+        }
+        synchronized (this) {
+            for (GraphChange change : changes.changes()) {
+                apply(graph, change);
+            }
+        }
+    }
+
+    /** Must hold the lock. */
+    private void apply(GraphReadView graph, GraphChange change) {
+        if (graph != this.graph || change.version() != validVersion + 1) {
+            clear(graph, change.version());
+            return;
+        }
+        validVersion = change.version();
+        switch (change) {
+            case GraphChange.NodeAdded ignored -> {
+            }
+            case GraphChange.NodeRemoved ignored -> clear(graph, change.version());
+            case GraphChange.EdgeChanged edgeChange -> invalidate(edgeChange);
+        }
+    }
+
+    private void invalidate(GraphChange.EdgeChanged change) {
+        if (change.before().equals(change.after())) {
+            return;
+        }
+        Set<Key> crossing = keysByEdge.get(new EdgeKey(change.from(), change.to()));
+        if (crossing != null) {
+            for (Key key : List.copyOf(crossing)) {
+                remove(key);
+            }
+        }
+        for (EdgeCostFunction costFunction : List.copyOf(keysByCostFunction.keySet())) {
+            double before = change.before().map(costFunction::cost).orElse(Double.POSITIVE_INFINITY);
+            double after = change.after().map(costFunction::cost).orElse(Double.POSITIVE_INFINITY);
+            if (after < before) {
+                for (Key key : List.copyOf(keysByCostFunction.get(costFunction))) {
+                    remove(key);
+                }
+            }
+        }
+    }
+
+    /** Returns the cached result, or {@code null} on a miss. Must hold the lock. */
+    private Optional<Route> lookup(GraphReadView graph, Key key) {
+        if (graph == this.graph && validVersion < graph.version()) {
+            graph.changesSince(validVersion)
+                    .ifPresent(changes -> changes.changes().forEach(change -> apply(graph, change)));
+        }
+        if (graph != this.graph || graph.version() != validVersion) {
+            clear(graph, graph.version());
+        }
+        Optional<Route> cached = entries.get(key);
+        if (cached == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        long version = graph.version();
+        return cached.map(route -> route.graphVersionUsed() == version
+                ? route
+                : new Route(route.nodes(), route.totalCost(), route.totalDistanceKm(), route.totalTravelTime(), version));
+    }
+
+    /** Caches a result computed at {@code version}, unless the graph has changed since. Must hold the lock. */
+    private void store(GraphReadView graph, long version, Key key, Optional<Route> route) {
+        if (graph != this.graph || version != validVersion || graph.version() != version) {
+            return;
+        }
+        remove(key);
+        entries.put(key, route);
+        keysByCostFunction.computeIfAbsent(key.costFunction(), ignored -> new HashSet<>()).add(key);
+        route.ifPresent(r -> {
+            for (EdgeKey edge : edgesOf(r)) {
+                keysByEdge.computeIfAbsent(edge, ignored -> new HashSet<>()).add(key);
+            }
+        });
+
+        if (entries.size() > maxEntries) {
+            remove(entries.keySet().iterator().next());
+        }
+    }
+
+    private void remove(Key key) {
+        Optional<Route> removed = entries.remove(key);
+        if (removed == null) {
+            return;
+        }
+        removeFromIndex(keysByCostFunction, key.costFunction(), key);
+        removed.ifPresent(route -> {
+            for (EdgeKey edge : edgesOf(route)) {
+                removeFromIndex(keysByEdge, edge, key);
+            }
+        });
+    }
+
+    private void clear(GraphReadView graph, long version) {
+        entries.clear();
+        keysByEdge.clear();
+        keysByCostFunction.clear();
+        this.graph = graph;
+        this.validVersion = version;
+    }
+
+    private static <K> void removeFromIndex(Map<K, Set<Key>> index, K indexKey, Key key) {
+        Set<Key> keys = index.get(indexKey);
+        if (keys == null) {
+            return;
+        }
+        keys.remove(key);
+        if (keys.isEmpty()) {
+            index.remove(indexKey);
+        }
+    }
+
+    private static Set<EdgeKey> edgesOf(Route route) {
+        List<NodeId> nodes = route.nodes();
+        Set<EdgeKey> edges = new HashSet<>();
+        for (int i = 0; i < nodes.size() - 1; i++) {
+            edges.add(new EdgeKey(nodes.get(i), nodes.get(i + 1)));
+        }
+        return edges;
+    }
+
+    private record Key(NodeId start, NodeId goal, EdgeCostFunction costFunction) {}
+
+    private record EdgeKey(NodeId from, NodeId to) {}
+}
@@ -0,0 +1,403 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.graph.GraphChangeListener;
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.graph.NodeIndex;
+import com.neca.perds.graph.NodeIndexRegistry;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Read-only view of a graph in which chains of pass-through nodes are collapsed into single super-edges.
+ *
+ * <p>A node passes through if it has exactly one predecessor and one other successor (a one-way road), or
+ * exactly two neighbours, each connected in both directions (a two-way road). Nodes that are not
+ * {@link NodeType#CITY} are always kept, as are nodes accepted by the keep predicate; routes can only start
+ * and end at kept nodes. Each maximal chain of pass-through nodes between two kept nodes becomes one edge
+ * with the summed distance and travel time, the lowest resource availability, and status
+ * {@link EdgeStatus#CLOSED} if any segment is closed. A chain stays uncompressed if its super-edge would
+ * duplicate another edge or loop back to its start.
+ *
+ * <p>Super-edge costs equal the sum of their segment costs for cost functions that are additive over edges,
+ * such as {@link CostFunctions#distanceKm()}, or {@link CostFunctions#travelTimeSeconds()} on whole-second
+ * travel times. Any {@link Router} over the view then finds exact routes while settling only kept nodes;
+ * {@link #expand(Route)} restores the hidden nodes.
+ *
+ * <p>The view shares the graph's version. Registered as a {@link GraphChangeListener}, it applies metric-only
+ * edge changes in time proportional to the length of the affected chain: an update to a hidden segment
+ * recomputes the super-edge that owns it. Any other change, or one the view was not notified about, rebuilds
+ * the view in {@code O(N + E)} on next access. Like the graphs it wraps, the view must not be read while the
+ * graph is being changed.
+ */
+public final class ChainCompressedGraphView implements GraphReadView, GraphChangeListener {
+    private final GraphReadView graph;
+    private final Predicate<NodeId> keep;
+    private volatile Snapshot snapshot;
+
+    private ChainCompressedGraphView(GraphReadView graph, Predicate<NodeId> keep) {
+        this.graph = graph;
+        this.keep = keep;
+        this.snapshot = build();
+    }
+
+    /** Compresses {@code graph}, keeping every node that is not {@link NodeType#CITY}. */
+    public static ChainCompressedGraphView of(GraphReadView graph) {
+        return of(graph, ignored -> false);
+    }
+
+    /**
+     * Compresses {@code graph}, additionally keeping every node accepted by {@code keep}, such as the nodes
+     * units are stationed at. The predicate is re-evaluated on every rebuild.
+     */
+    public static ChainCompressedGraphView of(GraphReadView graph, Predicate<NodeId> keep) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(keep, "keep");
+        return new ChainCompressedGraphView(graph, keep);
+    }
+
+    @Override
+    public Optional<Node> getNode(NodeId id) {
+        Objects.requireNonNull(id, "id");
+        return Optional.ofNullable(current().nodes.get(id));
+    }
+
+    @Override
+    public Collection<NodeId> nodeIds() {
+        return Collections.unmodifiableSet(current().nodes.keySet());
+    }
+
+    @Override
+    public Collection<Edge> outgoingEdges(NodeId from) {
+        Objects.requireNonNull(from, "from");
+        Map<NodeId, Edge> edges = current().outgoing.get(from);
+        return edges == null ? List.of() : Collections.unmodifiableCollection(edges.values());
+    }
+
+    @Override
+    public Collection<Edge> incomingEdges(NodeId to) {
+        Objects.requireNonNull(to, "to");
+        Map<NodeId, Edge> edges = current().incoming.get(to);
+        return edges == null ? List.of() : Collections.unmodifiableCollection(edges.values());
+    }
+
+    @Override
+    public Optional<Edge> getEdge(NodeId from, NodeId to) {
+        Objects.requireNonNull(from, "from");
+        Objects.requireNonNull(to, "to");
+        return Optional.ofNullable(current().edge(from, to));
+    }
+
+    @Override
+    public long version() {
+        return current().version;
+    }
+
+    @Override
+    public NodeIndex nodeIndex() {
+        return current().nodeIndex;
+    }
+
+    /** Number of graph nodes hidden inside super-edges. */
+    public int hiddenNodeCount() {
+        Snapshot current = current();
+        return current.graphNodeCount - current.nodes.size();
+    }
+
+    /**
+     * Returns the edge of this view that carries the graph edge {@code from -> to}: the owning super-edge for
+     * a hidden segment, the edge itself otherwise, or empty if the graph has no such edge.
+     */
+    public Optional<Edge> viewEdgeFor(NodeId from, NodeId to) {
+        Objects.requireNonNull(from, "from");
+        Objects.requireNonNull(to, "to");
+        Snapshot current = current();
+        Segment owner = current.ownerBySegment.get(new Segment(from, to));
+        return owner == null
+                ? Optional.ofNullable(current.edge(from, to))
+                : Optional.of(current.edge(owner.from(), owner.to()));
+    }
+
+    /**
+     * Replaces every super-edge hop of {@code route} with the graph nodes it passes through. Totals and the
+     * graph version are kept. Hops are matched against the view's current chains.
+     */
+    public Route expand(Route route) {
+        Objects.requireNonNull(route, "route");
+        Snapshot current = current();
+        List<NodeId> nodes = route.nodes();
+        List<NodeId> expanded = new ArrayList<>(nodes.size());
+        expanded.add(nodes.get(0));
+        for (int i = 1; i < nodes.size(); i++) {
+            List<NodeId> chain = current.chains.get(new Segment(nodes.get(i - 1), nodes.get(i)));
+            if (chain == null) {
+                expanded.add(nodes.get(i));
+            } else {
+                expanded.addAll(chain.subList(1, chain.size()));
+            }
+        }
+        return new Route(
+                List.copyOf(expanded),
+                route.totalCost(),
+                route.totalDistanceKm(),
+                route.totalTravelTime(),
+                route.graphVersionUsed()
+        );
+    }
+
+    @Override
+    public synchronized void onGraphChanged(GraphReadView graph, GraphChange change) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(change, "change");
+        Snapshot current = snapshot;
+        if (graph != this.graph || change.version() != current.version + 1) {
+            return;
+        }
+        // Topology changes can make or break chains; the version gap triggers a rebuild on next access.
+        if (!(change instanceof GraphChange.EdgeChanged c) || !c.isMetricOnly()) {
+            return;
+        }
+        Segment owner = current.ownerBySegment.get(new Segment(c.from(), c.to()));
+        if (owner != null) {
+            current.put(superEdge(current.chains.get(owner)));
+        } else if (current.edge(c.from(), c.to()) != null) {
+            current.put(c.after().orElseThrow());
+        } else {
+            return;
+        }
+        current.version = change.version();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current.version == graph.version()) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot.version != graph.version()) {
+                snapshot = build();
+            }
+            return snapshot;
+        }
+    }
+
+    private Snapshot build() {
+        long version = graph.version();
+        Set<NodeId> hidden = new HashSet<>();
+        for (NodeId id : graph.nodeIds()) {
+            if (!isKept(id) && passesThrough(id)) {
+                hidden.add(id);
+            }
+        }
+
+        // Group each chain with its reverse so a two-way road is either compressed in both directions or not at all.
+        Map<NodeId, Integer> groupOf = new HashMap<>();
+        List<List<List<NodeId>>> groups = new ArrayList<>();
+        for (NodeId head : graph.nodeIds()) {
+            if (hidden.contains(head)) {
+                continue;
+            }
+            for (Edge edge : graph.outgoingEdges(head)) {
+                if (!hidden.contains(edge.to())) {
+                    continue;
+                }
+                List<NodeId> chain = walk(head, edge.to(), hidden);
+                Integer group = groupOf.get(edge.to());
+                if (group == null) {
+                    group = groups.size();
+                    groups.add(new ArrayList<>());
+                    for (NodeId inner : chain.subList(1, chain.size() - 1)) {
+                        groupOf.put(inner, group);
+                    }
+                }
+                groups.get(group).add(chain);
+            }
+        }
+
+        Set<Segment> occupied = new HashSet<>();
+        for (NodeId from : graph.nodeIds()) {
+            if (hidden.contains(from)) {
+                continue;
+            }
+            for (Edge edge : graph.outgoingEdges(from)) {
+                if (!hidden.contains(edge.to())) {
+                    occupied.add(new Segment(from, edge.to()));
+                }
+            }
+        }
+        Map<Segment, List<NodeId>> chains = new HashMap<>();
+        Set<NodeId> chained = new HashSet<>();
+        for (List<List<NodeId>> group : groups) {
+            boolean compressible = true;
+            for (List<NodeId> chain : group) {
+                Segment key = new Segment(chain.get(0), chain.get(chain.size() - 1));
+                compressible &= !key.from().equals(key.to()) && !occupied.contains(key);
+            }
+            if (!compressible) {
+                continue;
+            }
+            for (List<NodeId> chain : group) {
+                Segment key = new Segment(chain.get(0), chain.get(chain.size() - 1));
+                occupied.add(key);
+                chains.put(key, List.copyOf(chain));
+                chained.addAll(chain.subList(1, chain.size() - 1));
+            }
+        }
+        // Pass-through nodes left out of an accepted chain, including those on isolated cycles, stay visible.
+        hidden.retainAll(chained);
+
+        Map<NodeId, Node> nodes = new HashMap<>();
+        for (NodeId id : graph.nodeIds()) {
+            if (!hidden.contains(id)) {
+                graph.getNode(id).ifPresent(node -> nodes.put(id, node));
+            }
+        }
+        var snapshot = new Snapshot(
+                version,
+                graph.nodeIds().size(),
+                nodes,
+                chains,
+                NodeIndexRegistry.of(nodes.keySet())
+        );
+        for (NodeId id : nodes.keySet()) {
+            snapshot.outgoing.put(id, new HashMap<>());
+            snapshot.incoming.put(id, new HashMap<>());
+        }
+        for (NodeId id : nodes.keySet()) {
+            for (Edge edge : graph.outgoingEdges(id)) {
+                if (!hidden.contains(edge.to())) {
+                    snapshot.put(edge);
+                }
+            }
+        }
+        for (var entry : chains.entrySet()) {
+            Segment key = entry.getKey();
+            List<NodeId> chain = entry.getValue();
+            snapshot.put(superEdge(chain));
+            for (int i = 1; i < chain.size(); i++) {
+                snapshot.ownerBySegment.put(new Segment(chain.get(i - 1), chain.get(i)), key);
+            }
+        }
+        return snapshot;
+    }
+
+    private boolean isKept(NodeId id) {
+        return keep.test(id) || graph.getNode(id).map(node -> node.type() != NodeType.CITY).orElse(true);
+    }
+
+    private boolean passesThrough(NodeId id) {
+        Collection<Edge> out = graph.outgoingEdges(id);
+        Collection<Edge> in = graph.incomingEdges(id);
+        if (out.size() == 1 && in.size() == 1) {
+            NodeId predecessor = in.iterator().next().from();
+            NodeId successor = out.iterator().next().to();
+            return !predecessor.equals(successor) && !predecessor.equals(id) && !successor.equals(id);
+        }
+        if (out.size() == 2 && in.size() == 2) {
+            Set<NodeId> successors = new HashSet<>();
+            out.forEach(edge -> successors.add(edge.to()));
+            Set<NodeId> predecessors = new HashSet<>();
+            in.forEach(edge -> predecessors.add(edge.from()));
+            return successors.equals(predecessors) && !successors.contains(id);
+        }
+        return false;
+    }
+
+    /** Follows pass-through nodes from {@code head} via {@code first} to the next kept node. */
+    private List<NodeId> walk(NodeId head, NodeId first, Set<NodeId> hidden) {
+        List<NodeId> chain = new ArrayList<>();
+        chain.add(head);
+        NodeId previous = head;
+        NodeId current = first;
+        while (hidden.contains(current)) {
+            chain.add(current);
+            NodeId next = null;
+            for (Edge edge : graph.outgoingEdges(current)) {
+                if (!edge.to().equals(previous)) {
+                    next = edge.to();
+                }
+            }
+            previous = current;
+            current = next;
+        }
+        chain.add(current);
+        return chain;
+    }
+
+    private Edge superEdge(List<NodeId> chain) {
+        double distanceKm = 0.0;
+        Duration travelTime = Duration.ZERO;
+        double resourceAvailability = 1.0;
+        EdgeStatus status = EdgeStatus.OPEN;
+        for (int i = 1; i < chain.size(); i++) {
+            Edge segment = graph.getEdge(chain.get(i - 1), chain.get(i)).orElseThrow(
+                    () -> new IllegalStateException("Chain segment missing from graph"));
+            distanceKm += segment.weights().distanceKm();
+            travelTime = travelTime.plus(segment.weights().travelTime());
+            resourceAvailability = Math.min(resourceAvailability, segment.weights().resourceAvailability());
+            if (segment.status() == EdgeStatus.CLOSED) {
+                status = EdgeStatus.CLOSED;
+            }
+        }
+        return new Edge(
+                chain.get(0),
+                chain.get(chain.size() - 1),
+                new EdgeWeights(distanceKm, travelTime, resourceAvailability),
+                status
+        );
+    }
+
+    private record Segment(NodeId from, NodeId to) {}
+
+    private static final class Snapshot {
+        private volatile long version;
+        private final int graphNodeCount;
+        private final Map<NodeId, Node> nodes;
+        private final Map<NodeId, Map<NodeId, Edge>> outgoing = new HashMap<>();
+        private final Map<NodeId, Map<NodeId, Edge>> incoming = new HashMap<>();
+        private final Map<Segment, List<NodeId>> chains;
+        private final Map<Segment, Segment> ownerBySegment = new HashMap<>();
+        private final NodeIndex nodeIndex;
+
+        private Snapshot(
+                long version,
+                int graphNodeCount,
+                Map<NodeId, Node> nodes,
+                Map<Segment, List<NodeId>> chains,
+                NodeIndex nodeIndex
+        ) {
+            this.version = version;
+            this.graphNodeCount = graphNodeCount;
+            this.nodes = nodes;
+            this.chains = chains;
+            this.nodeIndex = nodeIndex;
+        }
+
+        private Edge edge(NodeId from, NodeId to) {
+            Map<NodeId, Edge> edges = outgoing.get(from);
+            return edges == null ? null : edges.get(to);
+        }
+
+        private void put(Edge edge) {
+            outgoing.get(edge.from()).put(edge.to(), edge);
+            incoming.get(edge.to()).put(edge.from(), edge);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.neca.perds.routing;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A {@link CongestionProfile} precompiled into minute-of-day lookup tables.
+ *
+ * <p>{@link #multiplierAt(LocalTime)} is a single array read instead of a scan over the periods. Period
+ * bounds are resolved to whole minutes: each minute takes the multiplier in effect at its first second, so
+ * results match the source profile exactly whenever every period starts and ends on a whole minute.
+ *
+ * <p>The profile also defines a FIFO travel-time function per edge. Traffic is modelled as a speed that
+ * varies with the time of day: an edge with free-flow traversal time {@code tau} is crossed at rate
+ * {@code 1 / multiplier}, so within a single period it takes {@code tau * multiplier}, and a trip that
+ * runs into rush hour slows down only from the moment the period starts. The resulting arrival time is a
+ * continuous, piecewise-linear and strictly increasing function of the departure time, so departing later
+ * never means arriving earlier. It is evaluated from a prefix table of free-flow progress per minute.
+ */
+public final class CompiledCongestionProfile {
+    static final int SECONDS_PER_DAY = 86_400;
+    private static final int MINUTES_PER_DAY = 1_440;
+    private static final int SECONDS_PER_MINUTE = 60;
+
+    private final CongestionProfile profile;
+    private final double[] multipliers;
+    private final double[] progress;
+    private final double minMultiplier;
+
+    private CompiledCongestionProfile(CongestionProfile profile) {
+        this.profile = profile;
+        this.multipliers = new double[MINUTES_PER_DAY];
+        this.progress = new double[MINUTES_PER_DAY + 1];
+        double min = Double.POSITIVE_INFINITY;
+        for (int minute = 0; minute < MINUTES_PER_DAY; minute++) {
+            double multiplier = profile.multiplierAt(LocalTime.ofSecondOfDay((long) minute * SECONDS_PER_MINUTE));
+            multipliers[minute] = multiplier;
+            progress[minute + 1] = progress[minute] + SECONDS_PER_MINUTE / multiplier;
+            min = Math.min(min, multiplier);
+        }
+        this.minMultiplier = min;
+    }
+
+    /**
+     * Compiles {@code profile}; the result is immutable and can be shared between threads.
+     */
+    public static CompiledCongestionProfile compile(CongestionProfile profile) {
+        return new CompiledCongestionProfile(Objects.requireNonNull(profile, "profile"));
+    }
+
+    /**
+     * Returns the profile this table was compiled from.
+     */
+    public CongestionProfile profile() {
+        return profile;
+    }
+
+    /**
+     * Returns the congestion multiplier for the given time of day.
+     */
+    public double multiplierAt(LocalTime time) {
+        Objects.requireNonNull(time, "time");
+        return multipliers[time.toSecondOfDay() / SECONDS_PER_MINUTE];
+    }
+
+    /**
+     * Returns the multiplier for the minute of day in {@code [0, 1440)}.
+     */
+    public double multiplierAtMinute(int minuteOfDay) {
+        if (minuteOfDay < 0 || minuteOfDay >= MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("minuteOfDay must be in [0, " + MINUTES_PER_DAY + ")");
+        }
+        return multipliers[minuteOfDay];
+    }
+
+    /**
+     * Returns the smallest multiplier of the day; {@code tau * minMultiplier()} is a lower bound on every
+     * traversal time, which keeps free-flow heuristics admissible.
+     */
+    public double minMultiplier() {
+        return minMultiplier;
+    }
+
+    /**
+     * Returns how long it takes to cross an edge with free-flow traversal time {@code freeFlowSeconds} when
+     * entering it {@code departureSecond} seconds after some midnight. Departure times past one day wrap;
+     * infinite free-flow times stay infinite.
+     */
+    public double traversalSeconds(double departureSecond, double freeFlowSeconds) {
+        if (Double.isNaN(departureSecond) || Double.isInfinite(departureSecond)) {
+            throw new IllegalArgumentException("departureSecond must be finite");
+        }
+        if (Double.isNaN(freeFlowSeconds) || freeFlowSeconds < 0.0) {
+            throw new IllegalArgumentException("freeFlowSeconds must be non-negative and not NaN");
+        }
+        if (Double.isInfinite(freeFlowSeconds) || freeFlowSeconds == 0.0) {
+            return freeFlowSeconds;
+        }
+
+        double dayStart = Math.floor(departureSecond / SECONDS_PER_DAY) * SECONDS_PER_DAY;
+        double target = progressAt(departureSecond - dayStart) + freeFlowSeconds;
+        double progressPerDay = progress[MINUTES_PER_DAY];
+        double fullDays = Math.floor(target / progressPerDay);
+        target -= fullDays * progressPerDay;
+
+        int minute = Arrays.binarySearch(progress, target);
+        if (minute < 0) {
+            minute = -minute - 2;
+        }
+        minute = Math.min(minute, MINUTES_PER_DAY - 1);
+        double arrival = dayStart
+                + fullDays * SECONDS_PER_DAY
+                + (double) minute * SECONDS_PER_MINUTE
+                + (target - progress[minute]) * multipliers[minute];
+        return Math.max(0.0, arrival - departureSecond);
+    }
+
+    /** Free-flow seconds of progress accumulated from midnight to {@code secondOfDay}. */
+    private double progressAt(double secondOfDay) {
+        int minute = Math.min((int) (secondOfDay / SECONDS_PER_MINUTE), MINUTES_PER_DAY - 1);
+        return progress[minute] + (secondOfDay - (double) minute * SECONDS_PER_MINUTE) / multipliers[minute];
+    }
+
+    @Override
+    public String toString() {
+        return "CompiledCongestionProfile{" + profile + "}";
+    }
+}
@@ -0,0 +1,665 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.ds.BinaryHeapIndexedMinPriorityQueue;
+import com.neca.perds.graph.CsrGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.model.NodeId;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Preprocessed contraction hierarchy (CH) for one graph version and one cost function.
+ *
+ * <p>Nodes are contracted in order of increasing importance (edge difference plus contracted
+ * neighbours, with lazy priority updates). Contracting a node adds a shortcut between each pair of
+ * its remaining neighbours unless a bounded witness search finds a path that is no longer. The
+ * result is stored as two CSR arc sets: <em>up</em> arcs towards higher-ranked nodes, scanned by the
+ * forward search, and <em>down</em> arcs from higher-ranked nodes, scanned backwards by the reverse
+ * search. Every shortcut records its middle node so paths can be unpacked to original edges.
+ *
+ * <p>A hierarchy can be written to disk with {@link #save(Path)} and restored with {@link #load(Path)};
+ * {@link #loadOrBuild(Path, GraphReadView, EdgeCostFunction)} only re-contracts when the stored
+ * {@link #fingerprint(GraphReadView, EdgeCostFunction) fingerprint} no longer matches the graph or the
+ * stored file cannot be read. Saving writes a sibling temporary file and moves it into place, so a crash
+ * mid-write never leaves a truncated hierarchy behind.
+ */
+public final class ContractionHierarchy {
+    private static final int FILE_MAGIC = 0x50434831; // "PCH1"
+    private static final int FILE_FORMAT_VERSION = 1;
+    /** Maximum nodes a witness search may settle before a shortcut is added conservatively. */
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final long graphVersion;
+    private final long fingerprint;
+    private final NodeId[] nodeIds;
+    private final Map<NodeId, Integer> indexByNodeId;
+    private final int[] rank;
+    private final ArcSet up;
+    private final ArcSet down;
+
+    private ContractionHierarchy(long graphVersion, long fingerprint, NodeId[] nodeIds, int[] rank, ArcSet up, ArcSet down) {
+        this.graphVersion = graphVersion;
+        this.fingerprint = fingerprint;
+        this.nodeIds = nodeIds;
+        this.rank = rank;
+        this.up = up;
+        this.down = down;
+        Map<NodeId, Integer> index = new HashMap<>(nodeIds.length * 2);
+        for (int i = 0; i < nodeIds.length; i++) {
+            index.put(nodeIds[i], i);
+        }
+        this.indexByNodeId = Map.copyOf(index);
+    }
+
+    /**
+     * Contracts {@code graph} under {@code costFunction}. Edges with infinite cost (e.g. closed roads)
+     * are left out of the hierarchy.
+     *
+     * @throws IllegalArgumentException if the cost function returns a negative or NaN cost
+     */
+    public static ContractionHierarchy build(GraphReadView graph, EdgeCostFunction costFunction) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(costFunction, "costFunction");
+
+        CsrGraph csr = CsrGraph.of(graph);
+        int n = csr.nodeCount();
+        WorkingArcs[] out = new WorkingArcs[n];
+        WorkingArcs[] in = new WorkingArcs[n];
+        for (int i = 0; i < n; i++) {
+            out[i] = new WorkingArcs();
+            in[i] = new WorkingArcs();
+        }
+        for (int e = 0; e < csr.edgeCount(); e++) {
+            int from = csr.edgeSource(e);
+            int to = csr.edgeTarget(e);
+            if (from == to) {
+                continue;
+            }
+            double cost = requireValidCost(costFunction.cost(csr.edge(e)));
+            if (Double.isInfinite(cost)) {
+                continue;
+            }
+            out[from].addOrImprove(to, cost, -1);
+            in[to].addOrImprove(from, cost, -1);
+        }
+
+        var contractor = new Contractor(n, out, in);
+        int[] rank = contractor.contractAll();
+
+        NodeId[] nodeIds = new NodeId[n];
+        for (int i = 0; i < n; i++) {
+            nodeIds[i] = csr.nodeIdAt(i);
+        }
+        return new ContractionHierarchy(
+                csr.version(),
+                fingerprint(csr, costFunction),
+                nodeIds,
+                rank,
+                ArcSet.of(contractor.upArcs),
+                ArcSet.of(contractor.downArcs)
+        );
+    }
+
+    /**
+     * Loads the hierarchy at {@code path} if it matches the graph and cost function; otherwise builds a
+     * new one and saves it to {@code path}. A stored file that cannot be read is treated like a stale one.
+     */
+    public static ContractionHierarchy loadOrBuild(Path path, GraphReadView graph, EdgeCostFunction costFunction)
+            throws IOException {
+        Objects.requireNonNull(path, "path");
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(costFunction, "costFunction");
+
+        if (Files.exists(path)) {
+            ContractionHierarchy stored = loadIfReadable(path);
+            if (stored != null
+                    && stored.graphVersion == graph.version()
+                    && stored.fingerprint == fingerprint(graph, costFunction)) {
+                return stored;
+            }
+        }
+        ContractionHierarchy built = build(graph, costFunction);
+        built.save(path);
+        return built;
+    }
+
+    /** Returns the hierarchy at {@code path}, or {@code null} if the file is truncated or not a hierarchy. */
+    private static ContractionHierarchy loadIfReadable(Path path) {
+        try {
+            return load(path);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Order-independent 64-bit fingerprint of the graph's nodes and edge costs under {@code costFunction}.
+     */
+    public static long fingerprint(GraphReadView graph, EdgeCostFunction costFunction) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(costFunction, "costFunction");
+        long hash = graph.nodeIds().size();
+        for (NodeId id : graph.nodeIds()) {
+            hash += mix(id.hashCode());
+            for (Edge edge : graph.outgoingEdges(id)) {
+                long edgeHash = 31L * edge.from().hashCode() + edge.to().hashCode();
+                edgeHash = 31L * edgeHash + Double.hashCode(costFunction.cost(edge));
+                hash += mix(edgeHash ^ 0x9E3779B97F4A7C15L);
+            }
+        }
+        return hash;
+    }
+
+    public long graphVersion() {
+        return graphVersion;
+    }
+
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    public int nodeCount() {
+        return nodeIds.length;
+    }
+
+    /** Number of up and down arcs, including shortcuts. */
+    public int arcCount() {
+        return up.size() + down.size();
+    }
+
+    int indexOf(NodeId id) {
+        Integer index = indexByNodeId.get(id);
+        return index == null ? -1 : index;
+    }
+
+    NodeId nodeIdAt(int index) {
+        return nodeIds[index];
+    }
+
+    /**
+     * Runs the bidirectional upward query and returns the unpacked node-index path from
+     * {@code source} to {@code target}, or {@code null} if the target is unreachable.
+     */
+    int[] shortestPath(int source, int target) {
+        if (source == target) {
+            return new int[] {source};
+        }
+        try (var forward = SearchWorkspace.acquire(nodeIds.length);
+             var backward = SearchWorkspace.acquire(nodeIds.length)) {
+            forward.label(source, 0.0, -1, 0.0, 0L);
+            backward.label(target, 0.0, -1, 0.0, 0L);
+            var forwardQueue = forward.queue();
+            var backwardQueue = backward.queue();
+            forwardQueue.insert(source, 0.0);
+            backwardQueue.insert(target, 0.0);
+
+            double best = Double.POSITIVE_INFINITY;
+            int meeting = -1;
+            boolean forwardTurn = true;
+            while (true) {
+                boolean forwardActive = !forwardQueue.isEmpty()
+                        && forwardQueue.priorityOf(forwardQueue.peekMin()) < best;
+                boolean backwardActive = !backwardQueue.isEmpty()
+                        && backwardQueue.priorityOf(backwardQueue.peekMin()) < best;
+                if (!forwardActive && !backwardActive) {
+                    break;
+                }
+                boolean scanForward = forwardActive && (forwardTurn || !backwardActive);
+                forwardTurn = !forwardTurn;
+
+                SearchWorkspace self = scanForward ? forward : backward;
+                SearchWorkspace other = scanForward ? backward : forward;
+                ArcSet arcs = scanForward ? up : down;
+                var queue = self.queue();
+
+                int u = queue.extractMin();
+                double costU = self.cost(u);
+                if (other.isLabelled(u) && costU + other.cost(u) < best) {
+                    best = costU + other.cost(u);
+                    meeting = u;
+                }
+                for (int a = arcs.start(u); a < arcs.end(u); a++) {
+                    int v = arcs.endpoint(a);
+                    double alt = costU + arcs.cost(a);
+                    if (alt < self.cost(v)) {
+                        self.label(v, alt, u, 0.0, 0L);
+                        if (queue.contains(v)) {
+                            queue.decreaseKey(v, alt);
+                        } else {
+                            queue.insert(v, alt);
+                        }
+                    }
+                }
+            }
+
+            if (meeting < 0) {
+                return null;
+            }
+
+            List<Integer> chPath = new ArrayList<>();
+            for (int node = meeting; node != -1; node = forward.previous(node)) {
+                chPath.add(node);
+            }
+            Collections.reverse(chPath);
+            for (int node = backward.previous(meeting); node != -1; node = backward.previous(node)) {
+                chPath.add(node);
+            }
+            return unpack(chPath);
+        }
+    }
+
+    /** Rank of {@code node} in the contraction order; higher ranks were contracted later. */
+    int rank(int node) {
+        return rank[node];
+    }
+
+    /** Arcs from each node to higher-ranked nodes, indexed by the lower (tail) node. */
+    ArcSet upArcs() {
+        return up;
+    }
+
+    /** Arcs from higher-ranked nodes into each node, indexed by the lower (head) node. */
+    ArcSet downArcs() {
+        return down;
+    }
+
+    /**
+     * Expands a node-index path over hierarchy arcs (shortcuts included) into the path over original edges.
+     */
+    int[] unpack(List<Integer> chPath) {
+        List<Integer> nodes = new ArrayList<>();
+        nodes.add(chPath.getFirst());
+        ArrayDeque<int[]> stack = new ArrayDeque<>();
+        for (int i = 0; i < chPath.size() - 1; i++) {
+            stack.push(new int[] {chPath.get(i), chPath.get(i + 1)});
+            while (!stack.isEmpty()) {
+                int[] arc = stack.pop();
+                int middle = middleOf(arc[0], arc[1]);
+                if (middle < 0) {
+                    nodes.add(arc[1]);
+                } else {
+                    stack.push(new int[] {middle, arc[1]});
+                    stack.push(new int[] {arc[0], middle});
+                }
+            }
+        }
+        int[] path = new int[nodes.size()];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = nodes.get(i);
+        }
+        return path;
+    }
+
+    private int middleOf(int from, int to) {
+        if (rank[from] < rank[to]) {
+            for (int a = up.start(from); a < up.end(from); a++) {
+                if (up.endpoint(a) == to) {
+                    return up.middle(a);
+                }
+            }
+        } else {
+            for (int a = down.start(to); a < down.end(to); a++) {
+                if (down.endpoint(a) == from) {
+                    return down.middle(a);
+                }
+            }
+        }
+        throw new IllegalStateException("Missing hierarchy arc: " + nodeIds[from] + " -> " + nodeIds[to]);
+    }
+
+    /**
+     * Writes the hierarchy to a temporary file next to {@code path} and atomically moves it over
+     * {@code path}.
+     */
+    public void save(Path path) throws IOException {
+        Objects.requireNonNull(path, "path");
+        Path target = path.toAbsolutePath();
+        Path parent = target.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        try {
+            write(temp);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void write(Path path) throws IOException {
+        try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            output.writeInt(FILE_MAGIC);
+            output.writeInt(FILE_FORMAT_VERSION);
+            output.writeLong(graphVersion);
+            output.writeLong(fingerprint);
+            output.writeInt(nodeIds.length);
+            for (int i = 0; i < nodeIds.length; i++) {
+                output.writeUTF(nodeIds[i].value());
+                output.writeInt(rank[i]);
+            }
+            up.write(output);
+            down.write(output);
+        }
+    }
+
+    public static ContractionHierarchy load(Path path) throws IOException {
+        Objects.requireNonNull(path, "path");
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (input.readInt() != FILE_MAGIC) {
+                throw new IOException("Not a contraction hierarchy file: " + path);
+            }
+            int formatVersion = input.readInt();
+            if (formatVersion != FILE_FORMAT_VERSION) {
+                throw new IOException("Unsupported contraction hierarchy format " + formatVersion + ": " + path);
+            }
+            long graphVersion = input.readLong();
+            long fingerprint = input.readLong();
+            int n = input.readInt();
+            if (n < 0) {
+                throw new IOException("Corrupt contraction hierarchy file: " + path);
+            }
+            NodeId[] nodeIds = new NodeId[n];
+            int[] rank = new int[n];
+            for (int i = 0; i < n; i++) {
+                nodeIds[i] = new NodeId(input.readUTF());
+                rank[i] = input.readInt();
+            }
+            ArcSet up = ArcSet.read(input, n);
+            ArcSet down = ArcSet.read(input, n);
+            return new ContractionHierarchy(graphVersion, fingerprint, nodeIds, rank, up, down);
+        }
+    }
+
+    private static double requireValidCost(double cost) {
+        if (Double.isNaN(cost) || cost < 0.0) {
+            throw new IllegalArgumentException("Edge cost must be non-negative and not NaN");
+        }
+        return cost;
+    }
+
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Node contraction over mutable per-node arc lists.
+     */
+    private static final class Contractor {
+        private final int n;
+        private final WorkingArcs[] out;
+        private final WorkingArcs[] in;
+        private final int[] contractedNeighbours;
+        private final WorkingArcs[] upArcs;
+        private final WorkingArcs[] downArcs;
+
+        private Contractor(int n, WorkingArcs[] out, WorkingArcs[] in) {
+            this.n = n;
+            this.out = out;
+            this.in = in;
+            this.contractedNeighbours = new int[n];
+            this.upArcs = new WorkingArcs[n];
+            this.downArcs = new WorkingArcs[n];
+        }
+
+        private int[] contractAll() {
+            int[] rank = new int[n];
+            var queue = new BinaryHeapIndexedMinPriorityQueue(n);
+            for (int v = 0; v < n; v++) {
+                queue.insert(v, priority(v));
+            }
+
+            int nextRank = 0;
+            while (!queue.isEmpty()) {
+                int v = queue.extractMin();
+                double updated = priority(v);
+                if (!queue.isEmpty() && updated > queue.priorityOf(queue.peekMin())) {
+                    // Lazy update: the stored priority was stale, so requeue and try the next candidate.
+                    queue.insert(v, updated);
+                    continue;
+                }
+                rank[v] = nextRank++;
+                contract(v);
+            }
+            return rank;
+        }
+
+        private double priority(int v) {
+            int shortcuts = contractOrSimulate(v, false);
+            return shortcuts - (out[v].size + in[v].size) + contractedNeighbours[v];
+        }
+
+        private void contract(int v) {
+            contractOrSimulate(v, true);
+
+            upArcs[v] = out[v];
+            downArcs[v] = in[v];
+            for (int i = 0; i < in[v].size; i++) {
+                int u = in[v].nodes[i];
+                out[u].remove(v);
+                contractedNeighbours[u]++;
+            }
+            for (int i = 0; i < out[v].size; i++) {
+                int w = out[v].nodes[i];
+                in[w].remove(v);
+                contractedNeighbours[w]++;
+            }
+        }
+
+        /**
+         * Returns the number of shortcuts contracting {@code v} needs; adds them when {@code apply} is set.
+         */
+        private int contractOrSimulate(int v, boolean apply) {
+            WorkingArcs incoming = in[v];
+            WorkingArcs outgoing = out[v];
+            if (incoming.size == 0 || outgoing.size == 0) {
+                return 0;
+            }
+
+            double maxOut = 0.0;
+            for (int j = 0; j < outgoing.size; j++) {
+                maxOut = Math.max(maxOut, outgoing.costs[j]);
+            }
+
+            int shortcuts = 0;
+            for (int i = 0; i < incoming.size; i++) {
+                int u = incoming.nodes[i];
+                double viaCostIn = incoming.costs[i];
+                try (var witness = SearchWorkspace.acquire(n)) {
+                    witnessSearch(witness, u, v, viaCostIn + maxOut);
+                    for (int j = 0; j < outgoing.size; j++) {
+                        int w = outgoing.nodes[j];
+                        if (w == u) {
+                            continue;
+                        }
+                        double viaCost = viaCostIn + outgoing.costs[j];
+                        if (witness.cost(w) <= viaCost) {
+                            continue;
+                        }
+                        shortcuts++;
+                        if (apply) {
+                            out[u].addOrImprove(w, viaCost, v);
+                            in[w].addOrImprove(u, viaCost, v);
+                        }
+                    }
+                }
+            }
+            return shortcuts;
+        }
+
+        private void witnessSearch(SearchWorkspace workspace, int source, int excluded, double maxCost) {
+            workspace.label(source, 0.0, -1, 0.0, 0L);
+            var queue = workspace.queue();
+            queue.insert(source, 0.0);
+            int settled = 0;
+            while (!queue.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+                int u = queue.extractMin();
+                double costU = workspace.cost(u);
+                if (costU > maxCost) {
+                    break;
+                }
+                settled++;
+                WorkingArcs arcs = out[u];
+                for (int a = 0; a < arcs.size; a++) {
+                    int x = arcs.nodes[a];
+                    if (x == excluded) {
+                        continue;
+                    }
+                    double alt = costU + arcs.costs[a];
+                    if (alt < workspace.cost(x)) {
+                        workspace.label(x, alt, u, 0.0, 0L);
+                        if (queue.contains(x)) {
+                            queue.decreaseKey(x, alt);
+                        } else {
+                            queue.insert(x, alt);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Growable arc list keyed by neighbour; at most one arc per neighbour (the cheapest).
+     */
+    private static final class WorkingArcs {
+        private int[] nodes = new int[4];
+        private double[] costs = new double[4];
+        private int[] middles = new int[4];
+        private int size;
+
+        private void addOrImprove(int node, double cost, int middle) {
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    if (cost < costs[i]) {
+                        costs[i] = cost;
+                        middles[i] = middle;
+                    }
+                    return;
+                }
+            }
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                costs = Arrays.copyOf(costs, size * 2);
+                middles = Arrays.copyOf(middles, size * 2);
+            }
+            nodes[size] = node;
+            costs[size] = cost;
+            middles[size] = middle;
+            size++;
+        }
+
+        private void remove(int node) {
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    size--;
+                    nodes[i] = nodes[size];
+                    costs[i] = costs[size];
+                    middles[i] = middles[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Immutable CSR arc set: for node {@code u}, arcs {@code [start(u), end(u))} lead to (up) or come
+     * from (down) {@code endpoint(a)}.
+     */
+    record ArcSet(int[] offsets, int[] endpoints, double[] costs, int[] middles) {
+        private static ArcSet of(WorkingArcs[] arcsByNode) {
+            int n = arcsByNode.length;
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i < n; i++) {
+                offsets[i + 1] = offsets[i] + (arcsByNode[i] == null ? 0 : arcsByNode[i].size);
+            }
+            int[] endpoints = new int[offsets[n]];
+            double[] costs = new double[offsets[n]];
+            int[] middles = new int[offsets[n]];
+            for (int i = 0; i < n; i++) {
+                WorkingArcs arcs = arcsByNode[i];
+                if (arcs == null) {
+                    continue;
+                }
+                System.arraycopy(arcs.nodes, 0, endpoints, offsets[i], arcs.size);
+                System.arraycopy(arcs.costs, 0, costs, offsets[i], arcs.size);
+                System.arraycopy(arcs.middles, 0, middles, offsets[i], arcs.size);
+            }
+            return new ArcSet(offsets, endpoints, costs, middles);
+        }
+
+        int size() {
+            return endpoints.length;
+        }
+
+        int start(int node) {
+            return offsets[node];
+        }
+
+        int end(int node) {
+            return offsets[node + 1];
+        }
+
+        int endpoint(int arc) {
+            return endpoints[arc];
+        }
+
+        double cost(int arc) {
+            return costs[arc];
+        }
+
+        int middle(int arc) {
+            return middles[arc];
+        }
+
+        private void write(DataOutputStream output) throws IOException {
+            for (int offset : offsets) {
+                output.writeInt(offset);
+            }
+            for (int a = 0; a < endpoints.length; a++) {
+                output.writeInt(endpoints[a]);
+                output.writeDouble(costs[a]);
+                output.writeInt(middles[a]);
+            }
+        }
+
+        private static ArcSet read(DataInputStream input, int n) throws IOException {
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i <= n; i++) {
+                offsets[i] = input.readInt();
+            }
+            int m = offsets[n];
+            if (offsets[0] != 0 || m < 0) {
+                throw new IOException("Corrupt contraction hierarchy arcs");
+            }
+            int[] endpoints = new int[m];
+            double[] costs = new double[m];
+            int[] middles = new int[m];
+            for (int a = 0; a < m; a++) {
+                endpoints[a] = input.readInt();
+                costs[a] = input.readDouble();
+                middles[a] = input.readInt();
+            }
+            return new ArcSet(offsets, endpoints, costs, middles);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.model.NodeId;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * {@link Router} backed by a {@link ContractionHierarchy}.
+ *
+ * <p>The hierarchy is only valid for the graph, version and cost function it was built for. Queries
+ * against any other {@link GraphReadView#version()} or cost function are answered by the fallback
+ * router (a {@link DijkstraRouter} by default), so results never go stale after an edge update. Since
+ * different graphs (e.g. a view or snapshot of the original) can share a version, a graph is only
+ * served once its {@link ContractionHierarchy#fingerprint(GraphReadView, EdgeCostFunction) fingerprint}
+ * matches the hierarchy's; the check runs once per graph instance and version.
+ * Route totals are recomputed from the graph's original edges along the unpacked path.
+ */
+public final class ContractionHierarchyRouter implements Router {
+    private final ContractionHierarchy hierarchy;
+    private final EdgeCostFunction hierarchyCostFunction;
+    private final Router fallback;
+    private volatile Verified lastVerified;
+
+    public ContractionHierarchyRouter(ContractionHierarchy hierarchy, EdgeCostFunction hierarchyCostFunction) {
+        this(hierarchy, hierarchyCostFunction, new DijkstraRouter());
+    }
+
+    public ContractionHierarchyRouter(
+            ContractionHierarchy hierarchy,
+            EdgeCostFunction hierarchyCostFunction,
+            Router fallback
+    ) {
+        this.hierarchy = Objects.requireNonNull(hierarchy, "hierarchy");
+        this.hierarchyCostFunction = Objects.requireNonNull(hierarchyCostFunction, "hierarchyCostFunction");
+        this.fallback = Objects.requireNonNull(fallback, "fallback");
+    }
+
+    public ContractionHierarchy hierarchy() {
+        return hierarchy;
+    }
+
+    /**
+     * Returns true if queries against {@code graph} with {@code costFunction} are answered by the hierarchy.
+     */
+    public boolean canServe(GraphReadView graph, EdgeCostFunction costFunction) {
+        if (costFunction != hierarchyCostFunction) {
+            return false;
+        }
+        long version = graph.version();
+        if (version != hierarchy.graphVersion()) {
+            return false;
+        }
+        Verified verified = lastVerified;
+        if (verified == null || verified.graph() != graph || verified.version() != version) {
+            boolean matches = ContractionHierarchy.fingerprint(graph, costFunction) == hierarchy.fingerprint();
+            verified = new Verified(graph, version, matches);
+            lastVerified = verified;
+        }
+        return verified.matches();
+    }
+
+    @Override
+    public Optional<Route> findRoute(GraphReadView graph, NodeId start, NodeId goal, EdgeCostFunction costFunction) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(start, "start");
+        Objects.requireNonNull(goal, "goal");
+        Objects.requireNonNull(costFunction, "costFunction");
+
+        if (!canServe(graph, costFunction)) {
+            return fallback.findRoute(graph, start, goal, costFunction);
+        }
+
+        int source = hierarchy.indexOf(start);
+        int target = hierarchy.indexOf(goal);
+        if (source < 0 || target < 0) {
+            return fallback.findRoute(graph, start, goal, costFunction);
+        }
+
+        int[] path = hierarchy.shortestPath(source, target);
+        if (path == null) {
+            return Optional.empty();
+        }
+
+        List<NodeId> nodes = new ArrayList<>(path.length);
+        nodes.add(hierarchy.nodeIdAt(path[0]));
+        double totalCost = 0.0;
+        double totalDistanceKm = 0.0;
+        long totalTravelTimeNanos = 0L;
+        for (int i = 1; i < path.length; i++) {
+            NodeId from = hierarchy.nodeIdAt(path[i - 1]);
+            NodeId to = hierarchy.nodeIdAt(path[i]);
+            Edge edge = graph.getEdge(from, to)
+                    .orElseThrow(() -> new IllegalStateException("Hierarchy arc not in graph: " + from + " -> " + to));
+            totalCost += costFunction.cost(edge);
+            totalDistanceKm += edge.weights().distanceKm();
+            totalTravelTimeNanos += edge.weights().travelTime().toNanos();
+            nodes.add(to);
+        }
+
+        return Optional.of(new Route(
+                List.copyOf(nodes),
+                totalCost,
+                totalDistanceKm,
+                Duration.ofNanos(totalTravelTimeNanos),
+                graph.version()
+        ));
+    }
+
+    private record Verified(GraphReadView graph, long version, boolean matches) {}
+}
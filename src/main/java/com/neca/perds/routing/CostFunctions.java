@@ -1,5 +1,6 @@
 package com.neca.perds.routing;
 
+import com.neca.perds.graph.Edge;
 import com.neca.perds.graph.EdgeStatus;
 
 import java.time.Instant;
@@ -10,26 +11,42 @@ import java.util.function.Supplier;
  * Factory methods for common edge cost functions.
  */
 public final class CostFunctions {
+    private static final EdgeCostFunction TRAVEL_TIME_SECONDS = new EdgeCostFunction() {
+        @Override
+        public double cost(Edge edge) {
+            return edge.status() == EdgeStatus.CLOSED
+                    ? Double.POSITIVE_INFINITY
+                    : edge.weights().travelTime().toSeconds();
+        }
+
+        @Override
+        public boolean hasIntegralCosts() {
+            return true;
+        }
+    };
+    private static final EdgeCostFunction DISTANCE_KM = edge -> edge.status() == EdgeStatus.CLOSED
+            ? Double.POSITIVE_INFINITY
+            : edge.weights().distanceKm();
+
     private CostFunctions() {}
 
     /**
      * Returns a cost function based on travel time in seconds.
-     * Closed edges return {@link Double#POSITIVE_INFINITY}.
+     * Closed edges return {@link Double#POSITIVE_INFINITY}; other costs are whole seconds, so
+     * {@link EdgeCostFunction#hasIntegralCosts()} is {@code true}.
+     * Every call returns the same instance, so it can be matched by identity.
      */
     public static EdgeCostFunction travelTimeSeconds() {
-        return edge -> edge.status() == EdgeStatus.CLOSED
-                ? Double.POSITIVE_INFINITY
-                : edge.weights().travelTime().toSeconds();
+        return TRAVEL_TIME_SECONDS;
     }
 
     /**
      * Returns a cost function based on distance in kilometers.
      * Closed edges return {@link Double#POSITIVE_INFINITY}.
+     * Every call returns the same instance, so it can be matched by identity.
      */
     public static EdgeCostFunction distanceKm() {
-        return edge -> edge.status() == EdgeStatus.CLOSED
-                ? Double.POSITIVE_INFINITY
-                : edge.weights().distanceKm();
+        return DISTANCE_KM;
     }
 
     /**
@@ -0,0 +1,89 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.CsrGraph;
+import com.neca.perds.graph.GraphChange;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable per-edge costs of one {@link EdgeCostFunction} over a {@link CsrGraph} snapshot, in edge-index
+ * order.
+ *
+ * <p>The cost function is evaluated and validated once per edge when the layer is built, so search loops
+ * read a primitive array instead of calling the function, unpacking {@link com.neca.perds.graph.EdgeWeights}
+ * and checking the result on every relaxation. Closed edges and other infinite costs are stored as
+ * {@link Double#POSITIVE_INFINITY}. {@link #derive} moves a layer to a later snapshot by re-evaluating only
+ * the edges that changed.
+ */
+public final class CostLayer {
+    private final CsrGraph graph;
+    private final EdgeCostFunction costFunction;
+    private final double[] costs;
+
+    private CostLayer(CsrGraph graph, EdgeCostFunction costFunction, double[] costs) {
+        this.graph = graph;
+        this.costFunction = costFunction;
+        this.costs = costs;
+    }
+
+    /**
+     * Evaluates {@code costFunction} on every edge of {@code graph}.
+     *
+     * @throws IllegalArgumentException if any cost is negative or NaN
+     */
+    public static CostLayer of(CsrGraph graph, EdgeCostFunction costFunction) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(costFunction, "costFunction");
+        double[] costs = new double[graph.edgeCount()];
+        for (int e = 0; e < costs.length; e++) {
+            costs[e] = requireValidCost(costFunction.cost(graph.edge(e)));
+        }
+        return new CostLayer(graph, costFunction, costs);
+    }
+
+    /**
+     * Returns a layer over {@code derived}, a snapshot obtained from {@link #graph()} via
+     * {@link CsrGraph#derive} with {@code changes}; only the edges named in {@code changes} are re-evaluated.
+     */
+    public CostLayer derive(CsrGraph derived, List<? extends GraphChange> changes) {
+        Objects.requireNonNull(derived, "derived");
+        Objects.requireNonNull(changes, "changes");
+        if (derived.edgeCount() != graph.edgeCount() || derived.version() != graph.version() + changes.size()) {
+            throw new IllegalArgumentException("derived is not this layer's snapshot with changes applied");
+        }
+        double[] newCosts = costs.clone();
+        for (GraphChange change : changes) {
+            if (!(change instanceof GraphChange.EdgeChanged edgeChange) || !edgeChange.isMetricOnly()) {
+                throw new IllegalArgumentException("Only metric changes can be derived: " + change);
+            }
+            int e = derived.edgeIndex(derived.indexOf(edgeChange.from()), derived.indexOf(edgeChange.to()));
+            newCosts[e] = requireValidCost(costFunction.cost(derived.edge(e)));
+        }
+        return new CostLayer(derived, costFunction, newCosts);
+    }
+
+    public CsrGraph graph() {
+        return graph;
+    }
+
+    public EdgeCostFunction costFunction() {
+        return costFunction;
+    }
+
+    public long version() {
+        return graph.version();
+    }
+
+    /** Returns the cost of the edge at {@code edge} in {@link #graph()}'s edge order. */
+    public double cost(int edge) {
+        return costs[edge];
+    }
+
+    private static double requireValidCost(double cost) {
+        if (Double.isNaN(cost) || cost < 0.0) {
+            throw new IllegalArgumentException("Edge cost must be non-negative and not NaN");
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,155 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.CsrGraph;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.graph.GraphChangeListener;
+import com.neca.perds.graph.GraphChangeSet;
+import com.neca.perds.graph.GraphReadView;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Keeps one {@link CostLayer} per cost function (by identity) for the current version of one graph.
+ *
+ * <p>Registered as a {@link GraphChangeListener}, the cache records metric-only edge changes and brings a
+ * stale layer forward with {@link CsrGraph#derive} and {@link CostLayer#derive}, re-evaluating only the edges
+ * that changed. Topology changes, missed changes, another graph instance or a long backlog of changes fall
+ * back to a full rebuild on the next request. Without notifications the cache catches up from
+ * {@link GraphReadView#changesSince} and rebuilds only when the graph no longer has the changes.
+ *
+ * <p>A layer evaluates each edge once and keeps the result until the edge changes, so only
+ * {@linkplain EdgeCostFunction#isTimeInvariant() time-invariant} cost functions are accepted.
+ *
+ * <p>Instances are thread-safe; layers themselves are immutable.
+ */
+public final class CostLayerCache implements GraphChangeListener {
+    private static final int MAX_PENDING_CHANGES = 4_096;
+
+    private final Map<EdgeCostFunction, CostLayer> layers = new IdentityHashMap<>();
+    private final List<GraphChange> pending = new ArrayList<>();
+    private GraphReadView graph;
+    private CsrGraph snapshot;
+    private long rebuilds;
+
+    /**
+     * Returns the layer of {@code costFunction} at {@code graph}'s current version.
+     *
+     * @throws IllegalArgumentException if {@code costFunction} is not time-invariant
+     */
+    public synchronized CostLayer layer(GraphReadView graph, EdgeCostFunction costFunction) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(costFunction, "costFunction");
+        if (!costFunction.isTimeInvariant()) {
+            throw new IllegalArgumentException("Cost layers require a time-invariant cost function");
+        }
+
+        CsrGraph current = snapshot(graph);
+        CostLayer layer = layers.get(costFunction);
+        if (layer != null && layer.graph() == current) {
+            return layer;
+        }
+        // Layers are dropped whenever the snapshot is rebuilt, so a surviving layer shares its topology and
+        // the pending changes cover everything since its version.
+        layer = layer == null
+                ? CostLayer.of(current, costFunction)
+                : layer.derive(current, changes(layer.version(), current.version()));
+        layers.put(costFunction, layer);
+        trimPending();
+        return layer;
+    }
+
+    /** Number of full snapshot rebuilds, for tests and diagnostics. */
+    synchronized long rebuilds() {
+        return rebuilds;
+    }
+
+    @Override
+    public synchronized void onGraphChanged(GraphReadView graph, GraphChange change) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(change, "change");
+        if (graph != this.graph || snapshot == null) {
+            return;
+        }
+        long latest = pending.isEmpty() ? snapshot.version() : pending.getLast().version();
+        boolean metricOnly = change instanceof GraphChange.EdgeChanged edgeChange && edgeChange.isMetricOnly();
+        if (change.version() != latest + 1 || !metricOnly || pending.size() >= MAX_PENDING_CHANGES) {
+            invalidate();
+            return;
+        }
+        pending.add(change);
+    }
+
+    private CsrGraph snapshot(GraphReadView graph) {
+        if (graph != this.graph) {
+            this.graph = graph;
+            invalidate();
+        }
+        long version = graph.version();
+        if (snapshot != null && snapshot.version() == version) {
+            return snapshot;
+        }
+        catchUp(graph, version);
+        Optional<CsrGraph> derived = Optional.empty();
+        if (snapshot != null && !pending.isEmpty() && pending.getLast().version() == version) {
+            derived = snapshot.derive(changes(snapshot.version(), version));
+        }
+        if (derived.isPresent()) {
+            snapshot = derived.get();
+        } else {
+            invalidate();
+            snapshot = CsrGraph.of(graph);
+            rebuilds++;
+        }
+        return snapshot;
+    }
+
+    /** Appends journalled changes that were not notified, if they are all metric-only. */
+    private void catchUp(GraphReadView graph, long version) {
+        if (snapshot == null) {
+            return;
+        }
+        long latest = pending.isEmpty() ? snapshot.version() : pending.getLast().version();
+        if (latest >= version) {
+            return;
+        }
+        Optional<GraphChangeSet> changes = graph.changesSince(latest);
+        if (changes.isPresent()
+                && changes.get().isMetricOnly()
+                && pending.size() + changes.get().changes().size() <= MAX_PENDING_CHANGES) {
+            pending.addAll(changes.get().changes());
+        }
+    }
+
+    /** Recorded changes with versions in {@code (fromExclusive, toInclusive]}. */
+    private List<GraphChange> changes(long fromExclusive, long toInclusive) {
+        List<GraphChange> changes = new ArrayList<>();
+        for (GraphChange change : pending) {
+            if (change.version() > fromExclusive && change.version() <= toInclusive) {
+                changes.add(change);
+            }
+        }
+        return changes;
+    }
+
+    /** Drops changes that the snapshot and every layer have already absorbed. */
+    private void trimPending() {
+        long oldest = snapshot.version();
+        for (CostLayer layer : layers.values()) {
+            oldest = Math.min(oldest, layer.version());
+        }
+        while (!pending.isEmpty() && pending.getFirst().version() <= oldest) {
+            pending.removeFirst();
+        }
+    }
+
+    private void invalidate() {
+        pending.clear();
+        layers.clear();
+        snapshot = null;
+    }
+}
@@ -0,0 +1,420 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.CsrGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.graph.GraphChangeListener;
+import com.neca.perds.graph.GraphChangeSet;
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.model.NodeId;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Customizable route planning (CRP) router for graphs whose edge weights change frequently.
+ *
+ * <p>Preprocessing is split in two. A {@link MultiLevelPartition} depends only on the topology and is
+ * built once. <em>Customization</em> then computes, for every cell at every level, the shortest cost
+ * between each pair of the cell's boundary nodes (a clique), bottom-up using the cliques of the level
+ * below. A query runs Dijkstra over the overlay: inside the source's and target's cells it scans
+ * original edges, and elsewhere it scans the cliques of the highest level that separates a node from
+ * both endpoints. Clique arcs are unpacked by a search restricted to their cell.
+ *
+ * <p>Registered as a {@link GraphChangeListener}, the router absorbs weight and status changes of existing
+ * edges (including removals) by re-customizing only the cells that contain the edge, one per level; a
+ * batch re-customizes each affected cell once.
+ * Changes it was not told about are replayed from {@link GraphReadView#changesSince} on the next query.
+ * Topology changes and changes the graph no longer has cause a full rebuild instead.
+ * Queries with a different cost function or graph instance are answered by a {@link DijkstraRouter}.
+ *
+ * <p>Instances are thread-safe. The customized state is immutable once published, so queries run
+ * concurrently without locking; only customization and catching up with the graph are serialized, and
+ * an update copies the edge costs and replaces only the cliques of the cells it re-customizes.
+ */
+public final class CustomizableRouter implements Router, GraphChangeListener {
+    private static final int[] DEFAULT_CELL_SIZES = {64, 1024};
+
+    private final EdgeCostFunction costFunction;
+    private final int[] cellSizes;
+    private final Router fallback = new DijkstraRouter();
+
+    /** {@code null} until first prepared; replaced, never mutated, once published. */
+    private volatile Customization current;
+    private long cellsCustomized;
+
+    public CustomizableRouter(EdgeCostFunction costFunction) {
+        this(costFunction, DEFAULT_CELL_SIZES);
+    }
+
+    /**
+     * @param cellSizes maximum nodes per cell for each partition level, strictly increasing
+     */
+    public CustomizableRouter(EdgeCostFunction costFunction, int... cellSizes) {
+        this.costFunction = Objects.requireNonNull(costFunction, "costFunction");
+        Objects.requireNonNull(cellSizes, "cellSizes");
+        if (cellSizes.length == 0) {
+            throw new IllegalArgumentException("cellSizes must not be empty");
+        }
+        for (int i = 0; i < cellSizes.length; i++) {
+            if (cellSizes[i] < 1 || (i > 0 && cellSizes[i] <= cellSizes[i - 1])) {
+                throw new IllegalArgumentException("cellSizes must be positive and strictly increasing");
+            }
+        }
+        this.cellSizes = cellSizes.clone();
+    }
+
+    /**
+     * Binds the router to {@code graph} and runs partitioning and full customization now rather than on
+     * the first query.
+     */
+    public synchronized void prepare(GraphReadView graph) {
+        Objects.requireNonNull(graph, "graph");
+        rebuild(graph);
+    }
+
+    /** Total number of cell customizations performed, including full rebuilds. */
+    synchronized long cellsCustomized() {
+        return cellsCustomized;
+    }
+
+    @Override
+    public Optional<Route> findRoute(
+            GraphReadView graph,
+            NodeId start,
+            NodeId goal,
+            EdgeCostFunction costFunction
+    ) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(start, "start");
+        Objects.requireNonNull(goal, "goal");
+        Objects.requireNonNull(costFunction, "costFunction");
+
+        Customization customization = current;
+        if (costFunction != this.costFunction || (customization != null && graph != customization.graph())) {
+            return fallback.findRoute(graph, start, goal, costFunction);
+        }
+        long graphVersion = graph.version();
+        if (customization == null || customization.version() != graphVersion) {
+            customization = catchUp(graph);
+            graphVersion = customization.version();
+        }
+
+        if (start.equals(goal)) {
+            return Optional.of(new Route(List.of(start), 0.0, 0.0, Duration.ZERO, graphVersion));
+        }
+        CsrGraph topology = customization.topology();
+        int source = topology.indexOf(start);
+        int target = topology.indexOf(goal);
+        if (source < 0 || target < 0) {
+            return Optional.empty();
+        }
+
+        List<Integer> path = customization.shortestPath(source, target);
+        if (path == null) {
+            return Optional.empty();
+        }
+
+        List<NodeId> nodes = new ArrayList<>(path.size());
+        nodes.add(start);
+        double totalCost = 0.0;
+        double totalDistanceKm = 0.0;
+        long totalTravelTimeNanos = 0L;
+        for (int i = 1; i < path.size(); i++) {
+            NodeId from = topology.nodeIdAt(path.get(i - 1));
+            NodeId to = topology.nodeIdAt(path.get(i));
+            Edge edge = graph.getEdge(from, to)
+                    .orElseThrow(() -> new IllegalStateException("Overlay arc not in graph: " + from + " -> " + to));
+            totalCost += costFunction.cost(edge);
+            totalDistanceKm += edge.weights().distanceKm();
+            totalTravelTimeNanos += edge.weights().travelTime().toNanos();
+            nodes.add(to);
+        }
+
+        return Optional.of(new Route(
+                List.copyOf(nodes),
+                totalCost,
+                totalDistanceKm,
+                Duration.ofNanos(totalTravelTimeNanos),
+                graphVersion
+        ));
+    }
+
+    @Override
+    public synchronized void onGraphChanged(GraphReadView graph, GraphChange change) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(change, "change");
+        applyChanges(graph, List.of(change));
+    }
+
+    /**
+     * Applies all edge costs of the batch first and then re-customizes each affected cell once, so edges
+     * sharing a cell cost one customization rather than one each.
+     */
+    @Override
+    public synchronized void onGraphChanged(GraphReadView graph, GraphChangeSet changes) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(changes, "changes");
+        applyChanges(graph, changes.changes());
+    }
+
+    /**
+     * Brings the customization up to {@code graph}'s current version, replaying journalled changes when
+     * possible and rebuilding otherwise.
+     */
+    private synchronized Customization catchUp(GraphReadView graph) {
+        Customization customization = current;
+        if (customization != null && graph == customization.graph() && customization.version() < graph.version()) {
+            graph.changesSince(customization.version()).ifPresent(changes -> applyChanges(graph, changes.changes()));
+            customization = current;
+        }
+        if (customization == null || graph != customization.graph() || customization.version() != graph.version()) {
+            customization = rebuild(graph);
+        }
+        return customization;
+    }
+
+    /**
+     * Publishes a customization with {@code changes} applied, or leaves the current one in place if any of
+     * them cannot be absorbed incrementally, so the next query rebuilds.
+     */
+    private void applyChanges(GraphReadView graph, List<GraphChange> changes) {
+        Customization customization = current;
+        if (customization == null || graph != customization.graph()) {
+            return;
+        }
+        CsrGraph topology = customization.topology();
+        MultiLevelPartition partition = customization.partition();
+
+        double[] edgeCosts = customization.edgeCosts().clone();
+        long version = customization.version();
+        var dirtyCells = new BitSet[partition.levels()];
+        for (GraphChange change : changes) {
+            if (version != change.version() - 1) {
+                return;
+            }
+            if (!(change instanceof GraphChange.EdgeChanged edgeChange)) {
+                return;
+            }
+            int from = topology.indexOf(edgeChange.from());
+            int to = topology.indexOf(edgeChange.to());
+            int edge = from < 0 || to < 0 ? -1 : topology.edgeIndex(from, to);
+            if (edge < 0) {
+                if (edgeChange.after().isPresent()) {
+                    return;
+                }
+            } else {
+                edgeCosts[edge] = edgeChange.after()
+                        .map(after -> requireValidCost(costFunction.cost(after)))
+                        .orElse(Double.POSITIVE_INFINITY);
+                for (int level = 1; level <= partition.levels(); level++) {
+                    int cell = partition.cell(level, from);
+                    if (cell == partition.cell(level, to)) {
+                        if (dirtyCells[level - 1] == null) {
+                            dirtyCells[level - 1] = new BitSet();
+                        }
+                        dirtyCells[level - 1].set(cell);
+                    }
+                }
+            }
+            version = change.version();
+        }
+
+        double[][][] cliques = new double[partition.levels()][][];
+        for (int level = 1; level <= partition.levels(); level++) {
+            cliques[level - 1] = customization.cliques()[level - 1].clone();
+        }
+        var next = new Customization(graph, version, topology, partition, edgeCosts, cliques,
+                costFunction.hasIntegralCosts());
+        // Bottom-up, since a cell's clique is built from the cliques of the level below.
+        for (int level = 1; level <= partition.levels(); level++) {
+            BitSet cells = dirtyCells[level - 1];
+            if (cells == null) {
+                continue;
+            }
+            for (int cell = cells.nextSetBit(0); cell >= 0; cell = cells.nextSetBit(cell + 1)) {
+                next.customizeCell(level, cell);
+                cellsCustomized++;
+            }
+        }
+        current = next;
+    }
+
+    private Customization rebuild(GraphReadView graph) {
+        CsrGraph topology = CsrGraph.of(graph);
+        MultiLevelPartition partition = MultiLevelPartition.build(topology, cellSizes);
+        double[] edgeCosts = new double[topology.edgeCount()];
+        for (int e = 0; e < edgeCosts.length; e++) {
+            edgeCosts[e] = requireValidCost(costFunction.cost(topology.edge(e)));
+        }
+        double[][][] cliques = new double[partition.levels()][][];
+        var next = new Customization(graph, topology.version(), topology, partition, edgeCosts, cliques,
+                costFunction.hasIntegralCosts());
+        for (int level = 1; level <= partition.levels(); level++) {
+            cliques[level - 1] = new double[partition.cellCount(level)][];
+            for (int cell = 0; cell < partition.cellCount(level); cell++) {
+                next.customizeCell(level, cell);
+                cellsCustomized++;
+            }
+        }
+        current = next;
+        return next;
+    }
+
+    private static double requireValidCost(double cost) {
+        if (Double.isNaN(cost) || cost < 0.0) {
+            throw new IllegalArgumentException("Edge cost must be non-negative and not NaN");
+        }
+        return cost;
+    }
+
+    /**
+     * One customized state of the overlay for {@code graph} at {@code version}. Only
+     * {@link #customizeCell} writes to it, and only before it is published.
+     */
+    private record Customization(
+            GraphReadView graph,
+            long version,
+            CsrGraph topology,
+            MultiLevelPartition partition,
+            double[] edgeCosts,
+            double[][][] cliques,
+            boolean integralCosts
+    ) {
+        /**
+         * Recomputes the boundary-to-boundary costs of one cell from the level below into a fresh array.
+         * Lower levels must already be up to date.
+         */
+        void customizeCell(int level, int cell) {
+            int[] boundary = partition.boundary(level, cell);
+            int size = boundary.length;
+            double[] clique = new double[size * size];
+            for (int i = 0; i < size; i++) {
+                try (var workspace = SearchWorkspace.acquire(topology.nodeCount(), integralCosts)) {
+                    search(workspace, boundary[i], -1, level - 1, level, cell);
+                    for (int j = 0; j < size; j++) {
+                        clique[i * size + j] = workspace.cost(boundary[j]);
+                    }
+                }
+            }
+            cliques[level - 1][cell] = clique;
+        }
+
+        List<Integer> shortestPath(int source, int target) {
+            List<Integer> overlayPath = new ArrayList<>();
+            try (var workspace = SearchWorkspace.acquire(topology.nodeCount(), integralCosts)) {
+                workspace.label(source, 0.0, -1, 0.0, 0L);
+                var queue = workspace.queue();
+                queue.insert(source, 0.0);
+                while (!queue.isEmpty()) {
+                    int u = queue.extractMin();
+                    if (u == target) {
+                        break;
+                    }
+                    relax(workspace, u, partition.queryLevel(u, source, target), 0, -1);
+                }
+                if (!workspace.isLabelled(target)) {
+                    return null;
+                }
+                for (int node = target; node != -1; node = workspace.previous(node)) {
+                    overlayPath.add(node);
+                }
+            }
+            Collections.reverse(overlayPath);
+
+            List<Integer> path = new ArrayList<>();
+            path.add(source);
+            for (int i = 1; i < overlayPath.size(); i++) {
+                int u = overlayPath.get(i - 1);
+                appendUnpacked(path, u, overlayPath.get(i), partition.queryLevel(u, source, target));
+            }
+            return path;
+        }
+
+        /**
+         * Appends the original-edge path for the arc {@code u -> v} scanned at {@code level}, excluding {@code u}.
+         */
+        void appendUnpacked(List<Integer> path, int u, int v, int level) {
+            if (level == 0 || partition.cell(level, u) != partition.cell(level, v)) {
+                path.add(v);
+                return;
+            }
+            int cell = partition.cell(level, u);
+            List<Integer> inner = new ArrayList<>();
+            try (var workspace = SearchWorkspace.acquire(topology.nodeCount(), integralCosts)) {
+                search(workspace, u, v, level - 1, level, cell);
+                for (int node = v; node != -1; node = workspace.previous(node)) {
+                    inner.add(node);
+                }
+            }
+            Collections.reverse(inner);
+            for (int i = 1; i < inner.size(); i++) {
+                appendUnpacked(path, inner.get(i - 1), inner.get(i), level - 1);
+            }
+        }
+
+        /**
+         * Dijkstra from {@code source} scanning arcs of {@code arcLevel}, restricted to {@code cell} at
+         * {@code cellLevel}; stops early once {@code target} is settled (pass {@code -1} to settle the cell).
+         */
+        void search(SearchWorkspace workspace, int source, int target, int arcLevel, int cellLevel, int cell) {
+            workspace.label(source, 0.0, -1, 0.0, 0L);
+            var queue = workspace.queue();
+            queue.insert(source, 0.0);
+            while (!queue.isEmpty()) {
+                int u = queue.extractMin();
+                if (u == target) {
+                    return;
+                }
+                relax(workspace, u, arcLevel, cellLevel, cell);
+            }
+        }
+
+        /**
+         * Relaxes the arcs of {@code u} at {@code level}: original edges at level {@code 0}, otherwise the
+         * clique of {@code u}'s cell plus original edges leaving that cell. Targets outside {@code cell} at
+         * {@code cellLevel} are skipped unless {@code cellLevel} is {@code 0}.
+         */
+        void relax(SearchWorkspace workspace, int u, int level, int cellLevel, int cell) {
+            double costU = workspace.cost(u);
+            int ownCell = -1;
+            if (level > 0) {
+                ownCell = partition.cell(level, u);
+                int[] boundary = partition.boundary(level, ownCell);
+                double[] clique = cliques[level - 1][ownCell];
+                int row = partition.boundaryIndex(level, u) * boundary.length;
+                for (int j = 0; j < boundary.length; j++) {
+                    relaxArc(workspace, u, boundary[j], costU + clique[row + j]);
+                }
+            }
+            for (int e = topology.edgesStart(u); e < topology.edgesEnd(u); e++) {
+                int v = topology.edgeTarget(e);
+                if (level > 0 && partition.cell(level, v) == ownCell) {
+                    continue;
+                }
+                if (cellLevel > 0 && partition.cell(cellLevel, v) != cell) {
+                    continue;
+                }
+                relaxArc(workspace, u, v, costU + edgeCosts[e]);
+            }
+        }
+
+        static void relaxArc(SearchWorkspace workspace, int u, int v, double alt) {
+            if (!(alt < workspace.cost(v))) {
+                return;
+            }
+            workspace.label(v, alt, u, 0.0, 0L);
+            var queue = workspace.queue();
+            if (queue.contains(v)) {
+                queue.decreaseKey(v, alt);
+            } else {
+                queue.insert(v, alt);
+            }
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.CsrGraph;
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.model.NodeId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Parallel delta-stepping single-source shortest paths (Meyer and Sanders) over a {@link CostLayer}, for
+ * whole-graph computations such as coverage maps or full shortest-path trees towards a dispatch centre.
+ *
+ * <p>Tentative distances are grouped into buckets of width {@code delta}. The smallest non-empty bucket is
+ * emptied in phases: every node in it relaxes its <em>light</em> edges (cost {@code <= delta}) in parallel,
+ * which may refill the same bucket, and once it stays empty the nodes settled in it relax their
+ * <em>heavy</em> edges in parallel. Distances are lowered with a compare-and-set on their bit patterns, so
+ * concurrent relaxations never lose an improvement. Bucket bookkeeping runs on the calling thread; small
+ * frontiers are relaxed there too. A small {@code delta} approaches Dijkstra, a large one Bellman-Ford.
+ *
+ * <p>Each distance is the minimum over all paths of the edge costs summed along the path, and does not
+ * depend on scheduling. Forward distances are summed from the source exactly as {@link DijkstraRouter}
+ * does and match its route costs bit for bit; backward distances are summed from the target, like any
+ * backward search, and may differ from a forward route cost in the last bit. Unreachable nodes get
+ * {@link Double#POSITIVE_INFINITY}.
+ */
+public final class DeltaSteppingShortestPaths {
+    private static final int MIN_PARALLEL_CHUNK = 512;
+
+    private final double delta;
+    private final ForkJoinPool pool;
+
+    /**
+     * Uses the common fork-join pool and picks {@code delta} per graph as the mean finite edge cost.
+     */
+    public DeltaSteppingShortestPaths() {
+        this.delta = Double.NaN;
+        this.pool = ForkJoinPool.commonPool();
+    }
+
+    /**
+     * @param delta bucket width, positive and finite
+     */
+    public DeltaSteppingShortestPaths(double delta, ForkJoinPool pool) {
+        if (!(delta > 0.0) || Double.isInfinite(delta)) {
+            throw new IllegalArgumentException("delta must be positive and finite");
+        }
+        this.delta = delta;
+        this.pool = Objects.requireNonNull(pool, "pool");
+    }
+
+    /** Distances from {@code source} to every node of {@code graph}. */
+    public Distances distancesFrom(GraphReadView graph, NodeId source, EdgeCostFunction costFunction) {
+        return distancesFrom(layerOf(graph, costFunction), source);
+    }
+
+    /** Distances from every node of {@code graph} to {@code target}, over incoming edges. */
+    public Distances distancesTo(GraphReadView graph, NodeId target, EdgeCostFunction costFunction) {
+        return distancesTo(layerOf(graph, costFunction), target);
+    }
+
+    public Distances distancesFrom(CostLayer layer, NodeId source) {
+        Objects.requireNonNull(layer, "layer");
+        Objects.requireNonNull(source, "source");
+        return run(layer.graph(), Adjacency.forward(layer), layer.graph().indexOf(source));
+    }
+
+    public Distances distancesTo(CostLayer layer, NodeId target) {
+        Objects.requireNonNull(layer, "layer");
+        Objects.requireNonNull(target, "target");
+        return run(layer.graph(), Adjacency.backward(layer), layer.graph().indexOf(target));
+    }
+
+    private static CostLayer layerOf(GraphReadView graph, EdgeCostFunction costFunction) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(costFunction, "costFunction");
+        return CostLayer.of(CsrGraph.of(graph), costFunction);
+    }
+
+    private Distances run(CsrGraph graph, Adjacency adjacency, int root) {
+        int n = graph.nodeCount();
+        AtomicLongArray dist = new AtomicLongArray(n);
+        long infinity = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+        for (int i = 0; i < n; i++) {
+            dist.set(i, infinity);
+        }
+        if (root < 0) {
+            return new Distances(graph, toArray(dist));
+        }
+
+        double width = Double.isNaN(delta) ? adjacency.meanFiniteCost() : delta;
+        TreeMap<Long, IntList> buckets = new TreeMap<>();
+        int[] stamps = new int[n];
+        int stamp = 0;
+
+        dist.set(root, Double.doubleToRawLongBits(0.0));
+        buckets.computeIfAbsent(0L, ignored -> new IntList()).add(root);
+
+        while (!buckets.isEmpty()) {
+            long bucket = buckets.firstKey();
+            IntList settled = new IntList();
+
+            while (buckets.containsKey(bucket)) {
+                IntList candidates = buckets.remove(bucket);
+                IntList frontier = new IntList();
+                stamp++;
+                for (int i = 0; i < candidates.size(); i++) {
+                    int u = candidates.get(i);
+                    if (stamps[u] != stamp && bucketOf(get(dist, u), width) == bucket) {
+                        stamps[u] = stamp;
+                        frontier.add(u);
+                    }
+                }
+                IntList updated = relax(adjacency, frontier, dist, width, true);
+                for (int i = 0; i < frontier.size(); i++) {
+                    settled.add(frontier.get(i));
+                }
+                stamp = enqueue(updated, dist, width, buckets, stamps, stamp);
+            }
+
+            // Nodes settled in this bucket relax their heavy edges once.
+            IntList distinctSettled = new IntList();
+            stamp++;
+            for (int i = 0; i < settled.size(); i++) {
+                int u = settled.get(i);
+                if (stamps[u] != stamp) {
+                    stamps[u] = stamp;
+                    distinctSettled.add(u);
+                }
+            }
+            IntList updated = relax(adjacency, distinctSettled, dist, width, false);
+            stamp = enqueue(updated, dist, width, buckets, stamps, stamp);
+        }
+        return new Distances(graph, toArray(dist));
+    }
+
+    /** Buckets every updated node once by its current distance; returns the stamp used. */
+    private static int enqueue(
+            IntList updated,
+            AtomicLongArray dist,
+            double width,
+            TreeMap<Long, IntList> buckets,
+            int[] stamps,
+            int stamp
+    ) {
+        int next = stamp + 1;
+        for (int i = 0; i < updated.size(); i++) {
+            int v = updated.get(i);
+            if (stamps[v] != next) {
+                stamps[v] = next;
+                buckets.computeIfAbsent(bucketOf(get(dist, v), width), ignored -> new IntList()).add(v);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Relaxes the light or heavy edges of every node in {@code frontier}; returns the nodes whose distance
+     * was lowered (possibly with repeats).
+     */
+    private IntList relax(Adjacency adjacency, IntList frontier, AtomicLongArray dist, double width, boolean light) {
+        int size = frontier.size();
+        int chunks = Math.min(pool.getParallelism(), size / MIN_PARALLEL_CHUNK);
+        if (chunks <= 1) {
+            return relaxRange(adjacency, frontier, 0, size, dist, width, light);
+        }
+
+        int chunkSize = (size + chunks - 1) / chunks;
+        List<Callable<IntList>> tasks = new ArrayList<>(chunks);
+        for (int from = 0; from < size; from += chunkSize) {
+            int start = from;
+            int end = Math.min(size, from + chunkSize);
+            tasks.add(() -> relaxRange(adjacency, frontier, start, end, dist, width, light));
+        }
+        IntList updated = new IntList();
+        for (Future<IntList> future : pool.invokeAll(tasks)) {
+            try {
+                updated.addAll(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted during relaxation", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException("Relaxation failed", e.getCause());
+            }
+        }
+        return updated;
+    }
+
+    private static IntList relaxRange(
+            Adjacency adjacency,
+            IntList frontier,
+            int from,
+            int to,
+            AtomicLongArray dist,
+            double width,
+            boolean light
+    ) {
+        IntList updated = new IntList();
+        for (int i = from; i < to; i++) {
+            int u = frontier.get(i);
+            double du = get(dist, u);
+            for (int e = adjacency.offsets[u]; e < adjacency.offsets[u + 1]; e++) {
+                double cost = adjacency.costs[e];
+                if ((cost <= width) != light || Double.isInfinite(cost)) {
+                    continue;
+                }
+                int v = adjacency.targets[e];
+                if (lower(dist, v, du + cost)) {
+                    updated.add(v);
+                }
+            }
+        }
+        return updated;
+    }
+
+    /** Atomically lowers {@code dist[v]} to {@code alt}; returns true if it did. */
+    private static boolean lower(AtomicLongArray dist, int v, double alt) {
+        long bits = Double.doubleToRawLongBits(alt);
+        long current = dist.get(v);
+        while (alt < Double.longBitsToDouble(current)) {
+            if (dist.compareAndSet(v, current, bits)) {
+                return true;
+            }
+            current = dist.get(v);
+        }
+        return false;
+    }
+
+    private static double get(AtomicLongArray dist, int node) {
+        return Double.longBitsToDouble(dist.get(node));
+    }
+
+    private static long bucketOf(double distance, double width) {
+        return (long) Math.floor(distance / width);
+    }
+
+    private static double[] toArray(AtomicLongArray dist) {
+        double[] result = new double[dist.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = get(dist, i);
+        }
+        return result;
+    }
+
+    /**
+     * Distances indexed like the {@link CsrGraph} they were computed on.
+     */
+    public static final class Distances {
+        private final CsrGraph graph;
+        private final double[] distances;
+
+        private Distances(CsrGraph graph, double[] distances) {
+            this.graph = graph;
+            this.distances = distances;
+        }
+
+        public CsrGraph graph() {
+            return graph;
+        }
+
+        /** Returns the distance of {@code nodeId}, or {@link Double#POSITIVE_INFINITY} if unknown or unreachable. */
+        public double get(NodeId nodeId) {
+            int index = graph.indexOf(Objects.requireNonNull(nodeId, "nodeId"));
+            return index < 0 ? Double.POSITIVE_INFINITY : distances[index];
+        }
+
+        /** Returns the distance of the node at {@code index} in {@link #graph()}. */
+        public double get(int index) {
+            return distances[index];
+        }
+
+        /** Number of nodes with a finite distance. */
+        public int reachableCount() {
+            return (int) Arrays.stream(distances).filter(d -> !Double.isInfinite(d)).count();
+        }
+    }
+
+    /** Edge targets and costs in CSR layout, either as stored or transposed. */
+    private static final class Adjacency {
+        private final int[] offsets;
+        private final int[] targets;
+        private final double[] costs;
+
+        private Adjacency(int[] offsets, int[] targets, double[] costs) {
+            this.offsets = offsets;
+            this.targets = targets;
+            this.costs = costs;
+        }
+
+        static Adjacency forward(CostLayer layer) {
+            CsrGraph csr = layer.graph();
+            int n = csr.nodeCount();
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[csr.edgeCount()];
+            double[] costs = new double[csr.edgeCount()];
+            for (int u = 0; u < n; u++) {
+                offsets[u + 1] = csr.edgesEnd(u);
+                for (int e = csr.edgesStart(u); e < csr.edgesEnd(u); e++) {
+                    targets[e] = csr.edgeTarget(e);
+                    costs[e] = layer.cost(e);
+                }
+            }
+            return new Adjacency(offsets, targets, costs);
+        }
+
+        static Adjacency backward(CostLayer layer) {
+            CsrGraph csr = layer.graph();
+            int n = csr.nodeCount();
+            int m = csr.edgeCount();
+            int[] offsets = new int[n + 1];
+            for (int e = 0; e < m; e++) {
+                offsets[csr.edgeTarget(e) + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] next = Arrays.copyOf(offsets, n);
+            int[] sources = new int[m];
+            double[] costs = new double[m];
+            for (int e = 0; e < m; e++) {
+                int slot = next[csr.edgeTarget(e)]++;
+                sources[slot] = csr.edgeSource(e);
+                costs[slot] = layer.cost(e);
+            }
+            return new Adjacency(offsets, sources, costs);
+        }
+
+        double meanFiniteCost() {
+            double sum = 0.0;
+            int count = 0;
+            for (double cost : costs) {
+                if (!Double.isInfinite(cost)) {
+                    sum += cost;
+                    count++;
+                }
+            }
+            return count == 0 || sum == 0.0 ? 1.0 : sum / count;
+        }
+    }
+
+    /** Growable int array, to keep frontiers unboxed. */
+    private static final class IntList {
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(IntList other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+}
@@ -1,19 +1,49 @@
 package com.neca.perds.routing;
 
-import com.neca.perds.ds.BinaryHeapIndexedMinPriorityQueue;
+import com.neca.perds.graph.CsrGraph;
 import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.graph.NodeIndex;
 import com.neca.perds.model.NodeId;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 
 public final class DijkstraRouter implements Router {
+    private final OneToManySearch oneToMany = new OneToManySearch();
+    private final CostLayerCache costLayers;
+    private final ArcFlags arcFlags;
+
+    public DijkstraRouter() {
+        this.costLayers = null;
+        this.arcFlags = null;
+    }
+
+    /**
+     * Creates a router whose point-to-point and nearest searches scan the CSR arrays of a {@link CostLayer}
+     * instead of calling the cost function per relaxation. Register {@code costLayers} as a graph change
+     * listener so layers are brought forward incrementally rather than rebuilt on every version. Cost functions
+     * that are not {@linkplain EdgeCostFunction#isTimeInvariant() time-invariant} bypass the layers.
+     */
+    public DijkstraRouter(CostLayerCache costLayers) {
+        this.costLayers = Objects.requireNonNull(costLayers, "costLayers");
+        this.arcFlags = null;
+    }
+
+    /**
+     * Creates a router that searches the cost layer of {@code arcFlags} and skips edges not flagged for the
+     * goal's region. Queries with another cost function fall back to the plain search. Register
+     * {@code arcFlags} as a graph change listener so only regions touched by edge updates are recomputed.
+     */
+    public DijkstraRouter(ArcFlags arcFlags) {
+        this.costLayers = null;
+        this.arcFlags = Objects.requireNonNull(arcFlags, "arcFlags");
+    }
+
     @Override
     public Optional<Route> findRoute(GraphReadView graph, NodeId start, NodeId goal, EdgeCostFunction costFunction) {
         Objects.requireNonNull(graph, "graph");
@@ -32,92 +62,207 @@ public final class DijkstraRouter implements Router {
             ));
         }
 
-        List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
-        Map<NodeId, Integer> indexByNodeId = new HashMap<>(nodeIds.size() * 2);
-        for (int i = 0; i < nodeIds.size(); i++) {
-            indexByNodeId.put(nodeIds.get(i), i);
-        }
-
-        Integer startIndex = indexByNodeId.get(start);
-        Integer goalIndex = indexByNodeId.get(goal);
-        if (startIndex == null || goalIndex == null) {
+        ArcFlags.Pruning pruning = arcFlags == null ? null : arcFlags.pruningFor(graph, costFunction, goal);
+        CostLayer layer = pruning != null ? pruning.layer() : layer(graph, costFunction);
+        NodeIndex nodeIndex = layer == null ? graph.nodeIndex() : layer.graph();
+        int startIndex = nodeIndex.indexOf(start);
+        int goalIndex = nodeIndex.indexOf(goal);
+        if (startIndex < 0 || goalIndex < 0) {
             return Optional.empty();
         }
+        int[] sourceIndices = {startIndex};
+        return layer == null
+                ? search(graph, nodeIndex, sourceIndices, goalIndex, costFunction)
+                : search(layer, sourceIndices, goalIndex, pruning);
+    }
+
+    /**
+     * Seeds one search with every source at cost 0; the first source settled on the way to the goal wins.
+     */
+    @Override
+    public Optional<Route> findNearest(
+            GraphReadView graph,
+            Collection<NodeId> sources,
+            NodeId goal,
+            EdgeCostFunction costFunction
+    ) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(sources, "sources");
+        Objects.requireNonNull(goal, "goal");
+        Objects.requireNonNull(costFunction, "costFunction");
 
-        double[] dist = new double[nodeIds.size()];
-        int[] prev = new int[nodeIds.size()];
-        double[] totalDistanceKm = new double[nodeIds.size()];
-        Duration[] totalTravelTime = new Duration[nodeIds.size()];
-        for (int i = 0; i < nodeIds.size(); i++) {
-            dist[i] = Double.POSITIVE_INFINITY;
-            prev[i] = -1;
-            totalDistanceKm[i] = 0.0;
-            totalTravelTime[i] = Duration.ZERO;
+        if (sources.contains(goal)) {
+            return Optional.of(new Route(List.of(goal), 0.0, 0.0, Duration.ZERO, graph.version()));
         }
+        ArcFlags.Pruning pruning = arcFlags == null ? null : arcFlags.pruningFor(graph, costFunction, goal);
+        CostLayer layer = pruning != null ? pruning.layer() : layer(graph, costFunction);
+        NodeIndex nodeIndex = layer == null ? graph.nodeIndex() : layer.graph();
+        int goalIndex = nodeIndex.indexOf(goal);
+        int[] sourceIndices = nodeIndex.indicesOf(sources);
+        if (goalIndex < 0 || sourceIndices.length == 0) {
+            return Optional.empty();
+        }
+        return layer == null
+                ? search(graph, nodeIndex, sourceIndices, goalIndex, costFunction)
+                : search(layer, sourceIndices, goalIndex, pruning);
+    }
 
-        dist[startIndex] = 0.0;
-        totalDistanceKm[startIndex] = 0.0;
-        totalTravelTime[startIndex] = Duration.ZERO;
+    /**
+     * Runs one search per source, or one backward search per target when there are fewer targets.
+     */
+    @Override
+    public TravelTimeTable travelTimeTable(
+            GraphReadView graph,
+            Collection<NodeId> sources,
+            Collection<NodeId> targets,
+            EdgeCostFunction costFunction
+    ) {
+        return oneToMany.compute(graph, sources, targets, costFunction);
+    }
 
-        var pq = new BinaryHeapIndexedMinPriorityQueue(nodeIds.size());
-        pq.insert(startIndex, 0.0);
+    private CostLayer layer(GraphReadView graph, EdgeCostFunction costFunction) {
+        return costLayers == null || !costFunction.isTimeInvariant() ? null : costLayers.layer(graph, costFunction);
+    }
 
-        while (!pq.isEmpty()) {
-            int u = pq.extractMin();
-            if (u == goalIndex) {
-                break;
+    private static Optional<Route> search(
+            GraphReadView graph,
+            NodeIndex nodeIndex,
+            int[] sourceIndices,
+            int goalIndex,
+            EdgeCostFunction costFunction
+    ) {
+        long graphVersion = graph.version();
+        try (var workspace = SearchWorkspace.acquire(nodeIndex.capacity(), costFunction.hasIntegralCosts())) {
+            var pq = workspace.queue();
+            for (int source : sourceIndices) {
+                workspace.label(source, 0.0, -1, 0.0, 0L);
+                pq.insert(source, 0.0);
             }
 
-            NodeId from = nodeIds.get(u);
-            for (var edge : graph.outgoingEdges(from)) {
-                Integer v = indexByNodeId.get(edge.to());
-                if (v == null) {
-                    continue;
+            while (!pq.isEmpty()) {
+                int u = pq.extractMin();
+                if (u == goalIndex) {
+                    break;
                 }
 
-                double edgeCost = costFunction.cost(edge);
-                if (Double.isNaN(edgeCost) || edgeCost < 0.0) {
-                    throw new IllegalArgumentException("Edge cost must be non-negative and not NaN");
+                NodeId from = nodeIndex.nodeIdAt(u);
+                double costU = workspace.cost(u);
+                for (var edge : graph.outgoingEdges(from)) {
+                    int v = nodeIndex.indexOf(edge.to());
+                    if (v < 0) {
+                        continue;
+                    }
+
+                    double edgeCost = costFunction.cost(edge);
+                    if (Double.isNaN(edgeCost) || edgeCost < 0.0) {
+                        throw new IllegalArgumentException("Edge cost must be non-negative and not NaN");
+                    }
+                    if (Double.isInfinite(edgeCost)) {
+                        continue;
+                    }
+
+                    double alt = costU + edgeCost;
+                    if (alt < workspace.cost(v)) {
+                        workspace.label(
+                                v,
+                                alt,
+                                u,
+                                workspace.distanceKm(u) + edge.weights().distanceKm(),
+                                workspace.travelTimeNanos(u) + edge.weights().travelTime().toNanos()
+                        );
+                        if (pq.contains(v)) {
+                            pq.decreaseKey(v, alt);
+                        } else {
+                            pq.insert(v, alt);
+                        }
+                    }
                 }
-                if (Double.isInfinite(edgeCost)) {
-                    continue;
+            }
+
+            if (!workspace.isLabelled(goalIndex)) {
+                return Optional.empty();
+            }
+
+            List<NodeId> path = reconstructPath(nodeIndex, workspace, goalIndex);
+            return Optional.of(new Route(
+                    List.copyOf(path),
+                    workspace.cost(goalIndex),
+                    workspace.distanceKm(goalIndex),
+                    Duration.ofNanos(workspace.travelTimeNanos(goalIndex)),
+                    graphVersion
+            ));
+        }
+    }
+
+    /**
+     * Same search over a cost layer: edges, targets and costs are array reads. With {@code pruning}, edges
+     * not flagged for the goal's region are skipped.
+     */
+    private static Optional<Route> search(
+            CostLayer layer,
+            int[] sourceIndices,
+            int goalIndex,
+            ArcFlags.Pruning pruning
+    ) {
+        CsrGraph csr = layer.graph();
+        try (var workspace = SearchWorkspace.acquire(csr.nodeCount(), layer.costFunction().hasIntegralCosts())) {
+            var pq = workspace.queue();
+            for (int source : sourceIndices) {
+                workspace.label(source, 0.0, -1, 0.0, 0L);
+                pq.insert(source, 0.0);
+            }
+
+            while (!pq.isEmpty()) {
+                int u = pq.extractMin();
+                if (u == goalIndex) {
+                    break;
                 }
 
-                double alt = dist[u] + edgeCost;
-                if (alt < dist[v]) {
-                    dist[v] = alt;
-                    prev[v] = u;
-                    totalDistanceKm[v] = totalDistanceKm[u] + edge.weights().distanceKm();
-                    totalTravelTime[v] = totalTravelTime[u].plus(edge.weights().travelTime());
-                    if (pq.contains(v)) {
-                        pq.decreaseKey(v, alt);
-                    } else {
-                        pq.insert(v, alt);
+                double costU = workspace.cost(u);
+                for (int e = csr.edgesStart(u); e < csr.edgesEnd(u); e++) {
+                    if (pruning != null && !pruning.allows(e)) {
+                        continue;
+                    }
+                    double alt = costU + layer.cost(e);
+                    int v = csr.edgeTarget(e);
+                    if (alt < workspace.cost(v)) {
+                        workspace.label(
+                                v,
+                                alt,
+                                u,
+                                workspace.distanceKm(u) + csr.edgeDistanceKm(e),
+                                workspace.travelTimeNanos(u) + csr.edgeTravelTimeNanos(e)
+                        );
+                        if (pq.contains(v)) {
+                            pq.decreaseKey(v, alt);
+                        } else {
+                            pq.insert(v, alt);
+                        }
                     }
                 }
             }
-        }
 
-        if (Double.isInfinite(dist[goalIndex])) {
-            return Optional.empty();
-        }
+            if (!workspace.isLabelled(goalIndex)) {
+                return Optional.empty();
+            }
 
-        List<NodeId> path = reconstructPath(nodeIds, prev, goalIndex);
-        return Optional.of(new Route(
-                List.copyOf(path),
-                dist[goalIndex],
-                totalDistanceKm[goalIndex],
-                totalTravelTime[goalIndex],
-                graphVersion
-        ));
+            List<NodeId> path = reconstructPath(csr, workspace, goalIndex);
+            return Optional.of(new Route(
+                    List.copyOf(path),
+                    workspace.cost(goalIndex),
+                    workspace.distanceKm(goalIndex),
+                    Duration.ofNanos(workspace.travelTimeNanos(goalIndex)),
+                    layer.version()
+            ));
+        }
     }
 
-    private static List<NodeId> reconstructPath(List<NodeId> nodeIds, int[] prev, int goalIndex) {
+    private static List<NodeId> reconstructPath(NodeIndex nodeIndex, SearchWorkspace workspace, int goalIndex) {
         List<NodeId> reversed = new ArrayList<>();
         int current = goalIndex;
         while (current != -1) {
-            reversed.add(nodeIds.get(current));
-            current = prev[current];
+            reversed.add(nodeIndex.nodeIdAt(current));
+            current = workspace.previous(current);
         }
         Collections.reverse(reversed);
         return reversed;
@@ -0,0 +1,32 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.model.NodeId;
+
+import java.util.Objects;
+
+/**
+ * Answers shortest-path cost queries without materialising a {@link Route}.
+ *
+ * <p>Scoring code that only ranks candidates by cost (return-to-base costs, zone coverage) can take an
+ * oracle instead of a {@link Router}, so a precomputed index such as {@link HubLabelOracle} can answer in
+ * time proportional to its label size rather than running a search per pair.
+ */
+@FunctionalInterface
+public interface DistanceOracle {
+    /**
+     * Returns the cheapest cost from {@code from} to {@code to} under {@code costFunction}, or
+     * {@link Double#POSITIVE_INFINITY} if {@code to} is unreachable or either node is unknown.
+     */
+    double distance(GraphReadView graph, NodeId from, NodeId to, EdgeCostFunction costFunction);
+
+    /**
+     * Adapts {@code router}: each query runs {@link Router#findRoute} and returns the route's total cost.
+     */
+    static DistanceOracle fromRouter(Router router) {
+        Objects.requireNonNull(router, "router");
+        return (graph, from, to, costFunction) -> router.findRoute(graph, from, to, costFunction)
+                .map(Route::totalCost)
+                .orElse(Double.POSITIVE_INFINITY);
+    }
+}
@@ -0,0 +1,329 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.ds.IndexedMinPriorityQueue;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.graph.GraphChangeListener;
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.graph.NodeIndex;
+import com.neca.perds.model.NodeId;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Router that keeps a shortest-path tree <em>towards</em> each recently queried goal and repairs it
+ * incrementally as edges change (Ramalingam–Reps style dynamic SSSP).
+ *
+ * <p>The first query for a goal runs one backward Dijkstra over incoming edges and keeps the distance and
+ * next hop of every node; later queries to the same goal from any start just follow next hops. Registered as
+ * a {@link GraphChangeListener}, the router repairs every tree on each edge change:
+ * <ul>
+ *   <li>a cheaper or new edge {@code a -> b} that improves {@code a} is propagated backwards from {@code a},
+ *       touching only nodes whose distance improves;</li>
+ *   <li>a more expensive, closed or removed edge that is a tree edge invalidates the subtree behind
+ *       {@code a}; only that subtree is re-seeded from its unaffected neighbours and re-settled.</li>
+ * </ul>
+ * Repair work is therefore proportional to the affected area rather than to the graph size. Node changes,
+ * missed changes and version mismatches drop all trees; they are rebuilt lazily. Queries with a different
+ * cost function or graph instance are answered by the fallback router.
+ *
+ * <p>Instances are thread-safe; queries and updates are serialized.
+ */
+public final class DynamicShortestPathRouter implements Router, GraphChangeListener {
+    private static final int DEFAULT_MAX_TREES = 64;
+
+    private final EdgeCostFunction costFunction;
+    private final Router fallback;
+    private final int maxTrees;
+    private final LinkedHashMap<NodeId, Tree> trees = new LinkedHashMap<>(16, 0.75f, true);
+
+    private GraphReadView graph;
+    private NodeIndex nodeIndex;
+    private boolean synced;
+    private long syncedVersion;
+    private long nodesRepaired;
+
+    public DynamicShortestPathRouter(EdgeCostFunction costFunction) {
+        this(costFunction, new DijkstraRouter());
+    }
+
+    public DynamicShortestPathRouter(EdgeCostFunction costFunction, Router fallback) {
+        this(costFunction, fallback, DEFAULT_MAX_TREES);
+    }
+
+    /**
+     * @param fallback router for queries this router cannot serve
+     * @param maxTrees number of goals to keep trees for; the least recently queried is dropped first
+     */
+    public DynamicShortestPathRouter(EdgeCostFunction costFunction, Router fallback, int maxTrees) {
+        this.costFunction = Objects.requireNonNull(costFunction, "costFunction");
+        this.fallback = Objects.requireNonNull(fallback, "fallback");
+        if (maxTrees < 1) {
+            throw new IllegalArgumentException("maxTrees must be >= 1");
+        }
+        this.maxTrees = maxTrees;
+    }
+
+    /** Drops the trees of all goals not in {@code goals}. */
+    public synchronized void retainGoals(Collection<NodeId> goals) {
+        Objects.requireNonNull(goals, "goals");
+        trees.keySet().retainAll(new HashSet<>(goals));
+    }
+
+    /** Goals that currently have a tree. */
+    public synchronized List<NodeId> trackedGoals() {
+        return List.copyOf(trees.keySet());
+    }
+
+    /** Total number of nodes settled by incremental repairs, excluding initial tree builds. */
+    synchronized long nodesRepaired() {
+        return nodesRepaired;
+    }
+
+    @Override
+    public synchronized Optional<Route> findRoute(
+            GraphReadView graph,
+            NodeId start,
+            NodeId goal,
+            EdgeCostFunction costFunction
+    ) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(start, "start");
+        Objects.requireNonNull(goal, "goal");
+        Objects.requireNonNull(costFunction, "costFunction");
+
+        if (costFunction != this.costFunction || (this.graph != null && graph != this.graph)) {
+            return fallback.findRoute(graph, start, goal, costFunction);
+        }
+        if (this.graph == null || !synced || syncedVersion != graph.version()) {
+            bind(graph);
+        }
+
+        long graphVersion = graph.version();
+        if (start.equals(goal)) {
+            return Optional.of(new Route(List.of(start), 0.0, 0.0, Duration.ZERO, graphVersion));
+        }
+        int source = nodeIndex.indexOf(start);
+        int target = nodeIndex.indexOf(goal);
+        if (source < 0 || target < 0) {
+            return Optional.empty();
+        }
+
+        Tree tree = trees.get(goal);
+        if (tree == null) {
+            tree = new Tree(target);
+            trees.put(goal, tree);
+            if (trees.size() > maxTrees) {
+                trees.remove(trees.keySet().iterator().next());
+            }
+        }
+        if (Double.isInfinite(tree.dist[source])) {
+            return Optional.empty();
+        }
+
+        List<NodeId> nodes = new ArrayList<>();
+        nodes.add(start);
+        double totalCost = 0.0;
+        double totalDistanceKm = 0.0;
+        long totalTravelTimeNanos = 0L;
+        for (int node = source; node != target; node = tree.next[node]) {
+            NodeId from = nodeIndex.nodeIdAt(node);
+            NodeId to = nodeIndex.nodeIdAt(tree.next[node]);
+            Edge edge = graph.getEdge(from, to)
+                    .orElseThrow(() -> new IllegalStateException("Tree edge not in graph: " + from + " -> " + to));
+            totalCost += costFunction.cost(edge);
+            totalDistanceKm += edge.weights().distanceKm();
+            totalTravelTimeNanos += edge.weights().travelTime().toNanos();
+            nodes.add(to);
+        }
+
+        return Optional.of(new Route(
+                List.copyOf(nodes),
+                totalCost,
+                totalDistanceKm,
+                Duration.ofNanos(totalTravelTimeNanos),
+                graphVersion
+        ));
+    }
+
+    @Override
+    public synchronized void onGraphChanged(GraphReadView graph, GraphChange change) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(change, "change");
+        if (graph != this.graph || !synced) {
+            return;
+        }
+        if (change.version() != syncedVersion + 1 || !(change instanceof GraphChange.EdgeChanged edgeChange)) {
+            synced = false;
+            trees.clear();
+            return;
+        }
+        syncedVersion = change.version();
+
+        double before = edgeChange.before().map(this::cost).orElse(Double.POSITIVE_INFINITY);
+        double after = edgeChange.after().map(this::cost).orElse(Double.POSITIVE_INFINITY);
+        int a = nodeIndex.indexOf(edgeChange.from());
+        int b = nodeIndex.indexOf(edgeChange.to());
+        if (a < 0 || b < 0 || a == b || before == after) {
+            return;
+        }
+        for (Tree tree : trees.values()) {
+            if (after < before) {
+                tree.edgeDecreased(a, b, after);
+            } else {
+                tree.edgeIncreased(a, b);
+            }
+        }
+    }
+
+    private void bind(GraphReadView graph) {
+        this.graph = graph;
+        this.nodeIndex = graph.nodeIndex();
+        this.syncedVersion = graph.version();
+        this.synced = true;
+        trees.clear();
+    }
+
+    private double cost(Edge edge) {
+        double cost = costFunction.cost(edge);
+        if (Double.isNaN(cost) || cost < 0.0) {
+            throw new IllegalArgumentException("Edge cost must be non-negative and not NaN");
+        }
+        return cost;
+    }
+
+    /**
+     * Distances to one target and the next hop on a shortest path, indexed by node index.
+     */
+    private final class Tree {
+        private final double[] dist;
+        private final int[] next;
+        private final int[] marks;
+        private int mark;
+
+        Tree(int target) {
+            int capacity = nodeIndex.capacity();
+            this.dist = new double[capacity];
+            this.next = new int[capacity];
+            this.marks = new int[capacity];
+            Arrays.fill(dist, Double.POSITIVE_INFINITY);
+            Arrays.fill(next, -1);
+            dist[target] = 0.0;
+            try (var workspace = SearchWorkspace.acquire(capacity, costFunction.hasIntegralCosts())) {
+                workspace.queue().insert(target, 0.0);
+                settle(workspace.queue(), false);
+            }
+        }
+
+        void edgeDecreased(int a, int b, double cost) {
+            double alt = dist[b] + cost;
+            if (!(alt < dist[a])) {
+                return;
+            }
+            dist[a] = alt;
+            next[a] = b;
+            try (var workspace = SearchWorkspace.acquire(dist.length, costFunction.hasIntegralCosts())) {
+                workspace.queue().insert(a, alt);
+                nodesRepaired += settle(workspace.queue(), false);
+            }
+        }
+
+        void edgeIncreased(int a, int b) {
+            if (next[a] != b) {
+                return;
+            }
+            if (++mark == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                mark = 1;
+            }
+
+            int[] affected = {a};
+            int count = 1;
+            marks[a] = mark;
+            for (int i = 0; i < count; i++) {
+                int x = affected[i];
+                for (Edge edge : incomingEdges(x)) {
+                    int y = nodeIndex.indexOf(edge.from());
+                    if (y >= 0 && marks[y] != mark && next[y] == x) {
+                        marks[y] = mark;
+                        if (count == affected.length) {
+                            affected = Arrays.copyOf(affected, count * 2);
+                        }
+                        affected[count++] = y;
+                    }
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                dist[affected[i]] = Double.POSITIVE_INFINITY;
+                next[affected[i]] = -1;
+            }
+
+            try (var workspace = SearchWorkspace.acquire(dist.length, costFunction.hasIntegralCosts())) {
+                var queue = workspace.queue();
+                for (int i = 0; i < count; i++) {
+                    int y = affected[i];
+                    for (Edge edge : graph.outgoingEdges(nodeIndex.nodeIdAt(y))) {
+                        int z = nodeIndex.indexOf(edge.to());
+                        if (z < 0 || marks[z] == mark) {
+                            continue;
+                        }
+                        double alt = dist[z] + cost(edge);
+                        if (alt < dist[y]) {
+                            dist[y] = alt;
+                            next[y] = z;
+                        }
+                    }
+                    if (!Double.isInfinite(dist[y])) {
+                        queue.insert(y, dist[y]);
+                    }
+                }
+                nodesRepaired += settle(queue, true);
+            }
+        }
+
+        /**
+         * Backward Dijkstra from the queued nodes; with {@code markedOnly}, only nodes marked in the current
+         * repair are relaxed. Returns the number of nodes settled.
+         */
+        private int settle(IndexedMinPriorityQueue queue, boolean markedOnly) {
+            int settled = 0;
+            while (!queue.isEmpty()) {
+                int x = queue.extractMin();
+                settled++;
+                for (Edge edge : incomingEdges(x)) {
+                    int y = nodeIndex.indexOf(edge.from());
+                    if (y < 0 || (markedOnly && marks[y] != mark)) {
+                        continue;
+                    }
+                    double edgeCost = cost(edge);
+                    if (Double.isInfinite(edgeCost)) {
+                        continue;
+                    }
+                    double alt = dist[x] + edgeCost;
+                    if (alt < dist[y]) {
+                        dist[y] = alt;
+                        next[y] = x;
+                        if (queue.contains(y)) {
+                            queue.decreaseKey(y, alt);
+                        } else {
+                            queue.insert(y, alt);
+                        }
+                    }
+                }
+            }
+            return settled;
+        }
+
+        private Collection<Edge> incomingEdges(int node) {
+            return graph.incomingEdges(nodeIndex.nodeIdAt(node));
+        }
+    }
+}
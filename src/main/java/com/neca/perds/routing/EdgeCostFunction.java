@@ -5,5 +5,21 @@ import com.neca.perds.graph.Edge;
 @FunctionalInterface
 public interface EdgeCostFunction {
     double cost(Edge edge);
-}
 
+    /**
+     * Whether every finite cost is a whole number. Routers use this to switch to a monotone integer
+     * priority queue; returning {@code true} for a function with fractional costs is an error.
+     */
+    default boolean hasIntegralCosts() {
+        return false;
+    }
+
+    /**
+     * Whether the cost of an edge depends only on the edge. Precomputed per-edge costs such as
+     * {@link CostLayer}s are only built for such functions; a function that also reads something else,
+     * such as the time of day, must return {@code false}.
+     */
+    default boolean isTimeInvariant() {
+        return true;
+    }
+}
@@ -0,0 +1,465 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.graph.GraphChangeListener;
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.model.NodeId;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Hub-label distance oracle derived from a {@link ContractionHierarchy}.
+ *
+ * <p>Every node gets a forward label (hubs it reaches upwards in the hierarchy, with costs) and a backward
+ * label (hubs that reach it). Labels are built top-down in decreasing rank from the labels of each node's
+ * upward neighbours, and an entry is dropped when the labels already built prove a cheaper route to its
+ * hub. A query merges the two sorted labels and takes the cheapest common hub, so it costs
+ * {@code O(|label|)} and touches no graph data. Each entry also records the next node towards its hub, which
+ * lets {@link #findRoute} unpack the path on demand through the hierarchy's shortcuts.
+ *
+ * <p>Labels are only exact for the graph version they were built for. Registered as a
+ * {@link GraphChangeListener}, the oracle keeps serving pairs whose labelled path avoids every edge changed
+ * since then, as long as all changes only made edges more expensive or removed them; other pairs go to the
+ * fallback router (a {@link DijkstraRouter} by default). Cheaper or new edges, node removals, missed changes,
+ * another graph instance or another cost function send every query to the fallback until the oracle is
+ * rebuilt.
+ *
+ * <p>Instances are thread-safe.
+ */
+public final class HubLabelOracle implements DistanceOracle, Router, GraphChangeListener {
+    private final GraphReadView graph;
+    private final EdgeCostFunction costFunction;
+    private final ContractionHierarchy hierarchy;
+    private final Router fallback;
+    private final Labels forward;
+    private final Labels backward;
+
+    private final Set<EdgeKey> modifiedEdges = new HashSet<>();
+    private long trackedVersion;
+    private boolean stale;
+    private long fallbacks;
+
+    private HubLabelOracle(
+            GraphReadView graph,
+            EdgeCostFunction costFunction,
+            ContractionHierarchy hierarchy,
+            Router fallback
+    ) {
+        this.graph = graph;
+        this.costFunction = costFunction;
+        this.hierarchy = hierarchy;
+        this.fallback = fallback;
+        this.trackedVersion = hierarchy.graphVersion();
+
+        int n = hierarchy.nodeCount();
+        Integer[] byRank = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            byRank[i] = i;
+        }
+        Arrays.sort(byRank, (a, b) -> Integer.compare(hierarchy.rank(b), hierarchy.rank(a)));
+
+        LabelBuilder forwardBuilder = new LabelBuilder(n);
+        LabelBuilder backwardBuilder = new LabelBuilder(n);
+        for (int v : byRank) {
+            forwardBuilder.build(v, hierarchy.upArcs(), backwardBuilder);
+            backwardBuilder.build(v, hierarchy.downArcs(), forwardBuilder);
+        }
+        this.forward = forwardBuilder.toLabels();
+        this.backward = backwardBuilder.toLabels();
+    }
+
+    /**
+     * Contracts {@code graph} under {@code costFunction} and labels the resulting hierarchy.
+     */
+    public static HubLabelOracle build(GraphReadView graph, EdgeCostFunction costFunction) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(costFunction, "costFunction");
+        return new HubLabelOracle(
+                graph,
+                costFunction,
+                ContractionHierarchy.build(graph, costFunction),
+                new DijkstraRouter()
+        );
+    }
+
+    /**
+     * Labels an existing hierarchy of {@code graph}'s current version.
+     *
+     * @throws IllegalArgumentException if {@code hierarchy} was built for another version, graph or cost function
+     */
+    public static HubLabelOracle build(
+            GraphReadView graph,
+            ContractionHierarchy hierarchy,
+            EdgeCostFunction costFunction,
+            Router fallback
+    ) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(hierarchy, "hierarchy");
+        Objects.requireNonNull(costFunction, "costFunction");
+        Objects.requireNonNull(fallback, "fallback");
+        if (hierarchy.graphVersion() != graph.version()
+                || hierarchy.fingerprint() != ContractionHierarchy.fingerprint(graph, costFunction)) {
+            throw new IllegalArgumentException("hierarchy was not built for this graph version and cost function");
+        }
+        return new HubLabelOracle(graph, costFunction, hierarchy, fallback);
+    }
+
+    /** The graph version the labels were built for. */
+    public long graphVersion() {
+        return hierarchy.graphVersion();
+    }
+
+    /** Total number of forward and backward label entries. */
+    public int labelEntryCount() {
+        return forward.size() + backward.size();
+    }
+
+    /** Number of queries answered by the fallback router, for tests and diagnostics. */
+    synchronized long fallbacks() {
+        return fallbacks;
+    }
+
+    @Override
+    public double distance(GraphReadView graph, NodeId from, NodeId to, EdgeCostFunction costFunction) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(from, "from");
+        Objects.requireNonNull(to, "to");
+        Objects.requireNonNull(costFunction, "costFunction");
+
+        int source = hierarchy.indexOf(from);
+        int target = hierarchy.indexOf(to);
+        Meeting meeting = source < 0 || target < 0 ? null : meet(source, target);
+        if (!canServe(graph, costFunction, source, target, meeting)) {
+            return fallback.findRoute(graph, from, to, costFunction)
+                    .map(Route::totalCost)
+                    .orElse(Double.POSITIVE_INFINITY);
+        }
+        return meeting == null ? Double.POSITIVE_INFINITY : meeting.cost();
+    }
+
+    @Override
+    public Optional<Route> findRoute(GraphReadView graph, NodeId start, NodeId goal, EdgeCostFunction costFunction) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(start, "start");
+        Objects.requireNonNull(goal, "goal");
+        Objects.requireNonNull(costFunction, "costFunction");
+
+        int source = hierarchy.indexOf(start);
+        int target = hierarchy.indexOf(goal);
+        Meeting meeting = source < 0 || target < 0 ? null : meet(source, target);
+        if (!canServe(graph, costFunction, source, target, meeting)) {
+            return fallback.findRoute(graph, start, goal, costFunction);
+        }
+        if (meeting == null) {
+            return Optional.empty();
+        }
+
+        int[] path = unpack(meeting);
+        List<NodeId> nodes = new ArrayList<>(path.length);
+        nodes.add(hierarchy.nodeIdAt(path[0]));
+        double totalCost = 0.0;
+        double totalDistanceKm = 0.0;
+        long totalTravelTimeNanos = 0L;
+        for (int i = 1; i < path.length; i++) {
+            NodeId from = hierarchy.nodeIdAt(path[i - 1]);
+            NodeId to = hierarchy.nodeIdAt(path[i]);
+            Edge edge = graph.getEdge(from, to)
+                    .orElseThrow(() -> new IllegalStateException("Labelled arc not in graph: " + from + " -> " + to));
+            totalCost += costFunction.cost(edge);
+            totalDistanceKm += edge.weights().distanceKm();
+            totalTravelTimeNanos += edge.weights().travelTime().toNanos();
+            nodes.add(to);
+        }
+
+        return Optional.of(new Route(
+                List.copyOf(nodes),
+                totalCost,
+                totalDistanceKm,
+                Duration.ofNanos(totalTravelTimeNanos),
+                graph.version()
+        ));
+    }
+
+    @Override
+    public synchronized void onGraphChanged(GraphReadView graph, GraphChange change) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(change, "change");
+        if (graph != this.graph || stale) {
+            return;
+        }
+        if (change.version() != trackedVersion + 1) {
+            stale = true;
+            return;
+        }
+        trackedVersion = change.version();
+
+        switch (change) {
+            // A new node has no edges yet; queries naming it are unknown to the labels and fall back anyway.
+            case GraphChange.NodeAdded ignored -> {
+            }
+            case GraphChange.NodeRemoved ignored -> stale = true;
+            case GraphChange.EdgeChanged edgeChange -> {
+                double before = edgeChange.before().map(costFunction::cost).orElse(Double.POSITIVE_INFINITY);
+                double after = edgeChange.after().map(costFunction::cost).orElse(Double.POSITIVE_INFINITY);
+                if (after < before) {
+                    stale = true;
+                } else {
+                    modifiedEdges.add(new EdgeKey(edgeChange.from(), edgeChange.to()));
+                }
+            }
+        }
+    }
+
+    /**
+     * True if the labelled answer {@code meeting} ({@code null} when unreachable) is exact for {@code graph}'s
+     * current version; otherwise the query is counted as a fallback.
+     */
+    private boolean canServe(
+            GraphReadView graph,
+            EdgeCostFunction costFunction,
+            int source,
+            int target,
+            Meeting meeting
+    ) {
+        boolean known = graph == this.graph && costFunction == this.costFunction && source >= 0 && target >= 0;
+        if (known && graph.version() == hierarchy.graphVersion()) {
+            return true;
+        }
+        synchronized (this) {
+            if (known && !stale && graph.version() == trackedVersion && avoidsModifiedEdges(meeting)) {
+                return true;
+            }
+            fallbacks++;
+            return false;
+        }
+    }
+
+    private boolean avoidsModifiedEdges(Meeting meeting) {
+        if (meeting == null || modifiedEdges.isEmpty()) {
+            return true;
+        }
+        int[] path = unpack(meeting);
+        for (int i = 1; i < path.length; i++) {
+            if (modifiedEdges.contains(new EdgeKey(hierarchy.nodeIdAt(path[i - 1]), hierarchy.nodeIdAt(path[i])))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Merges the forward label of {@code source} with the backward label of {@code target}. */
+    private Meeting meet(int source, int target) {
+        int i = forward.start(source);
+        int iEnd = forward.end(source);
+        int j = backward.start(target);
+        int jEnd = backward.end(target);
+        Meeting best = null;
+        while (i < iEnd && j < jEnd) {
+            int hubI = forward.hub(i);
+            int hubJ = backward.hub(j);
+            if (hubI < hubJ) {
+                i++;
+            } else if (hubI > hubJ) {
+                j++;
+            } else {
+                double cost = forward.cost(i) + backward.cost(j);
+                if (best == null || cost < best.cost()) {
+                    best = new Meeting(i, j, cost);
+                }
+                i++;
+                j++;
+            }
+        }
+        return best;
+    }
+
+    /** Expands a meeting into the node-index path over original edges. */
+    private int[] unpack(Meeting meeting) {
+        int hub = forward.hub(meeting.forwardEntry());
+
+        List<Integer> chPath = new ArrayList<>();
+        int entry = meeting.forwardEntry();
+        for (int node = forward.owner(entry); ; ) {
+            chPath.add(node);
+            if (node == hub) {
+                break;
+            }
+            node = forward.via(entry);
+            entry = forward.find(node, hub);
+        }
+
+        List<Integer> tail = new ArrayList<>();
+        entry = meeting.backwardEntry();
+        for (int node = backward.owner(entry); node != hub; ) {
+            tail.add(node);
+            node = backward.via(entry);
+            entry = backward.find(node, hub);
+        }
+        Collections.reverse(tail);
+        chPath.addAll(tail);
+        return hierarchy.unpack(chPath);
+    }
+
+    private record Meeting(int forwardEntry, int backwardEntry, double cost) {
+    }
+
+    private record EdgeKey(NodeId from, NodeId to) {
+    }
+
+    /**
+     * CSR label store: entries {@code [start(v), end(v))} belong to node {@code v}, sorted by hub. {@code via}
+     * is the next node from the owner towards the hub (forward) or from the hub towards the owner (backward),
+     * or {@code -1} for the owner's own entry.
+     */
+    private record Labels(int[] offsets, int[] owners, int[] hubs, double[] costs, int[] vias) {
+        int size() {
+            return hubs.length;
+        }
+
+        int start(int node) {
+            return offsets[node];
+        }
+
+        int end(int node) {
+            return offsets[node + 1];
+        }
+
+        int owner(int entry) {
+            return owners[entry];
+        }
+
+        int hub(int entry) {
+            return hubs[entry];
+        }
+
+        double cost(int entry) {
+            return costs[entry];
+        }
+
+        int via(int entry) {
+            return vias[entry];
+        }
+
+        int find(int node, int hub) {
+            int entry = Arrays.binarySearch(hubs, offsets[node], offsets[node + 1], hub);
+            if (entry < 0) {
+                throw new IllegalStateException("Missing label entry for hub " + hub + " at node " + node);
+            }
+            return entry;
+        }
+    }
+
+    /** Builds one direction's labels top-down; per-node arrays are flattened once every node is labelled. */
+    private static final class LabelBuilder {
+        private final int[][] hubs;
+        private final double[][] costs;
+        private final int[][] vias;
+        private final double[] candidateCost;
+        private final int[] candidateVia;
+        private final int[] touched;
+
+        private LabelBuilder(int n) {
+            this.hubs = new int[n][];
+            this.costs = new double[n][];
+            this.vias = new int[n][];
+            this.candidateCost = new double[n];
+            this.candidateVia = new int[n];
+            this.touched = new int[n];
+            Arrays.fill(candidateCost, Double.POSITIVE_INFINITY);
+        }
+
+        /**
+         * Labels {@code v} from the labels of its neighbours across {@code arcs}, all of which rank higher and
+         * are already labelled. {@code opposite} holds the other direction's labels of those higher nodes.
+         */
+        private void build(int v, ContractionHierarchy.ArcSet arcs, LabelBuilder opposite) {
+            int touchedCount = 0;
+            candidateCost[v] = 0.0;
+            candidateVia[v] = -1;
+            touched[touchedCount++] = v;
+            for (int a = arcs.start(v); a < arcs.end(v); a++) {
+                int w = arcs.endpoint(a);
+                double arcCost = arcs.cost(a);
+                int[] hubsOfW = hubs[w];
+                double[] costsOfW = costs[w];
+                for (int k = 0; k < hubsOfW.length; k++) {
+                    int hub = hubsOfW[k];
+                    double cost = arcCost + costsOfW[k];
+                    if (cost < candidateCost[hub]) {
+                        if (candidateCost[hub] == Double.POSITIVE_INFINITY) {
+                            touched[touchedCount++] = hub;
+                        }
+                        candidateCost[hub] = cost;
+                        candidateVia[hub] = w;
+                    }
+                }
+            }
+
+            Arrays.sort(touched, 0, touchedCount);
+            int[] labelHubs = new int[touchedCount];
+            double[] labelCosts = new double[touchedCount];
+            int[] labelVias = new int[touchedCount];
+            int size = 0;
+            for (int i = 0; i < touchedCount; i++) {
+                int hub = touched[i];
+                if (hub == v || !dominated(hub, opposite)) {
+                    labelHubs[size] = hub;
+                    labelCosts[size] = candidateCost[hub];
+                    labelVias[size] = candidateVia[hub];
+                    size++;
+                }
+            }
+            for (int i = 0; i < touchedCount; i++) {
+                candidateCost[touched[i]] = Double.POSITIVE_INFINITY;
+            }
+            hubs[v] = Arrays.copyOf(labelHubs, size);
+            costs[v] = Arrays.copyOf(labelCosts, size);
+            vias[v] = Arrays.copyOf(labelVias, size);
+        }
+
+        /**
+         * True if the candidates together with {@code hub}'s opposite label already give a strictly cheaper
+         * route between the node being labelled and {@code hub}, so the candidate entry is not a shortest path.
+         */
+        private boolean dominated(int hub, LabelBuilder opposite) {
+            double candidate = candidateCost[hub];
+            int[] hubsOfHub = opposite.hubs[hub];
+            double[] costsOfHub = opposite.costs[hub];
+            for (int k = 0; k < hubsOfHub.length; k++) {
+                if (hubsOfHub[k] != hub && candidateCost[hubsOfHub[k]] + costsOfHub[k] < candidate) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private Labels toLabels() {
+            int n = hubs.length;
+            int[] offsets = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] = offsets[v] + hubs[v].length;
+            }
+            int total = offsets[n];
+            int[] owners = new int[total];
+            int[] flatHubs = new int[total];
+            double[] flatCosts = new double[total];
+            int[] flatVias = new int[total];
+            for (int v = 0; v < n; v++) {
+                Arrays.fill(owners, offsets[v], offsets[v + 1], v);
+                System.arraycopy(hubs[v], 0, flatHubs, offsets[v], hubs[v].length);
+                System.arraycopy(costs[v], 0, flatCosts, offsets[v], costs[v].length);
+                System.arraycopy(vias[v], 0, flatVias, offsets[v], vias[v].length);
+            }
+            return new Labels(offsets, owners, flatHubs, flatCosts, flatVias);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.graph.NodeIndex;
+import com.neca.perds.model.NodeId;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The nodes reachable from any of a set of sources within a cost budget, with their arrival costs.
+ *
+ * <p>{@link #compute} runs one multi-source Dijkstra that never labels a node beyond the budget, so its cost
+ * depends on the size of the isochrone rather than the graph, and reuses the calling thread's pooled search
+ * workspace. The result keeps a bitset over the graph's {@link NodeIndex} indices plus the reachable indices
+ * and costs as sorted parallel arrays; nothing is stored for unreachable nodes.
+ *
+ * <p>Indices refer to the graph's node index when the isochrone was computed. Lookups by {@link NodeId}
+ * check the stored id, so a later change to the graph can make a node read as unreachable but never return
+ * another node's cost.
+ */
+public final class Isochrone {
+    private final NodeIndex nodeIndex;
+    private final double budget;
+    private final long graphVersion;
+    private final BitSet reachable;
+    private final int[] indices;
+    private final NodeId[] nodeIds;
+    private final double[] costs;
+
+    private Isochrone(
+            NodeIndex nodeIndex,
+            double budget,
+            long graphVersion,
+            BitSet reachable,
+            int[] indices,
+            NodeId[] nodeIds,
+            double[] costs
+    ) {
+        this.nodeIndex = nodeIndex;
+        this.budget = budget;
+        this.graphVersion = graphVersion;
+        this.reachable = reachable;
+        this.indices = indices;
+        this.nodeIds = nodeIds;
+        this.costs = costs;
+    }
+
+    /**
+     * Finds every node whose cheapest cost from any of {@code sources} is at most {@code budget}. Unknown
+     * sources are ignored; known sources are reachable at cost {@code 0}.
+     *
+     * @throws IllegalArgumentException if {@code budget} is negative or NaN, or an edge cost is negative or NaN
+     */
+    public static Isochrone compute(
+            GraphReadView graph,
+            Collection<NodeId> sources,
+            double budget,
+            EdgeCostFunction costFunction
+    ) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(sources, "sources");
+        Objects.requireNonNull(costFunction, "costFunction");
+        if (Double.isNaN(budget) || budget < 0.0) {
+            throw new IllegalArgumentException("budget must be >= 0 and not NaN");
+        }
+
+        NodeIndex nodeIndex = graph.nodeIndex();
+        BitSet reachable = new BitSet(nodeIndex.capacity());
+        try (var workspace = SearchWorkspace.acquire(nodeIndex.capacity(), costFunction.hasIntegralCosts())) {
+            var queue = workspace.queue();
+            for (int source : nodeIndex.indicesOf(sources)) {
+                workspace.label(source, 0.0, -1, 0.0, 0L);
+                queue.insert(source, 0.0);
+            }
+
+            while (!queue.isEmpty()) {
+                int u = queue.extractMin();
+                reachable.set(u);
+                double costU = workspace.cost(u);
+                for (var edge : graph.outgoingEdges(nodeIndex.nodeIdAt(u))) {
+                    int v = nodeIndex.indexOf(edge.to());
+                    if (v < 0) {
+                        continue;
+                    }
+                    double cost = costFunction.cost(edge);
+                    if (Double.isNaN(cost) || cost < 0.0) {
+                        throw new IllegalArgumentException("Edge cost must be non-negative and not NaN");
+                    }
+                    double alt = costU + cost;
+                    if (alt > budget || alt >= workspace.cost(v)) {
+                        continue;
+                    }
+                    workspace.label(v, alt, u, 0.0, 0L);
+                    if (queue.contains(v)) {
+                        queue.decreaseKey(v, alt);
+                    } else {
+                        queue.insert(v, alt);
+                    }
+                }
+            }
+
+            int count = reachable.cardinality();
+            int[] indices = new int[count];
+            NodeId[] nodeIds = new NodeId[count];
+            double[] costs = new double[count];
+            int i = 0;
+            for (int index = reachable.nextSetBit(0); index >= 0; index = reachable.nextSetBit(index + 1)) {
+                indices[i] = index;
+                nodeIds[i] = nodeIndex.nodeIdAt(index);
+                costs[i] = workspace.cost(index);
+                i++;
+            }
+            return new Isochrone(nodeIndex, budget, graph.version(), reachable, indices, nodeIds, costs);
+        }
+    }
+
+    public double budget() {
+        return budget;
+    }
+
+    public long graphVersion() {
+        return graphVersion;
+    }
+
+    public int reachableCount() {
+        return indices.length;
+    }
+
+    /** Returns a copy of the bitset of reachable node indices. */
+    public BitSet reachableIndices() {
+        return (BitSet) reachable.clone();
+    }
+
+    /** Returns the reachable nodes in index order. */
+    public List<NodeId> reachableNodes() {
+        return List.of(nodeIds);
+    }
+
+    public boolean contains(NodeId nodeId) {
+        return position(nodeId) >= 0;
+    }
+
+    /** Returns the arrival cost at {@code nodeId}, or {@link Double#POSITIVE_INFINITY} if it is not reachable. */
+    public double cost(NodeId nodeId) {
+        int position = position(nodeId);
+        return position < 0 ? Double.POSITIVE_INFINITY : costs[position];
+    }
+
+    /** Returns the arrival cost at node index {@code index}, or {@link Double#POSITIVE_INFINITY}. */
+    public double cost(int index) {
+        if (index < 0 || !reachable.get(index)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return costs[Arrays.binarySearch(indices, index)];
+    }
+
+    private int position(NodeId nodeId) {
+        Objects.requireNonNull(nodeId, "nodeId");
+        int index = nodeIndex.indexOf(nodeId);
+        if (index < 0 || !reachable.get(index)) {
+            return -1;
+        }
+        int position = Arrays.binarySearch(indices, index);
+        return nodeIds[position].equals(nodeId) ? position : -1;
+    }
+}
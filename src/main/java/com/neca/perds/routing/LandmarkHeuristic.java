@@ -0,0 +1,303 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.ds.BinaryHeapIndexedMinPriorityQueue;
+import com.neca.perds.graph.CsrGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.graph.GraphChangeListener;
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.model.NodeId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A* heuristic using landmarks and the triangle inequality (ALT).
+ * <p>
+ * A small set of landmarks is chosen by farthest-point selection, and the cost from each landmark to
+ * every node and from every node to each landmark is precomputed. For any landmark {@code L},
+ * {@code d(L, t) - d(L, v)} and {@code d(v, L) - d(t, L)} are lower bounds on {@code d(v, t)}; the
+ * estimate is the largest of them. Unlike {@link EuclideanHeuristic}, the bound is in the units of the
+ * cost function and needs no coordinates.
+ * </p>
+ * <p>
+ * The heuristic is only admissible for the cost function it was built with. Landmark distances are
+ * computed with every edge treated as {@link EdgeStatus#OPEN}, so later closures, removals and weight
+ * increases keep it admissible. Landmarks belong to the graph instance they were built from; any other
+ * graph forces a rebuild. They are re-selected lazily once {@link GraphReadView#version()} moves more than
+ * {@code versionTolerance} past their snapshot. Weight decreases and new edges can make stale bounds
+ * overestimate, so when the version moves the heuristic reads {@link GraphReadView#changesSince} and
+ * rebuilds if it finds one, or if the graph no longer knows the changes. Registering the heuristic as a
+ * {@link GraphChangeListener} marks it stale as soon as such a change is published. Nodes unknown to the
+ * snapshot estimate 0.
+ * </p>
+ */
+public final class LandmarkHeuristic implements Heuristic, GraphChangeListener {
+    private static final int DEFAULT_LANDMARK_COUNT = 8;
+    private static final long DEFAULT_VERSION_TOLERANCE = 256;
+
+    private final EdgeCostFunction costFunction;
+    private final int landmarkCount;
+    private final long versionTolerance;
+
+    private volatile Landmarks landmarks;
+    private volatile boolean stale;
+
+    public LandmarkHeuristic(EdgeCostFunction costFunction) {
+        this(costFunction, DEFAULT_LANDMARK_COUNT, DEFAULT_VERSION_TOLERANCE);
+    }
+
+    /**
+     * @param landmarkCount number of landmarks to select (at most the number of nodes)
+     * @param versionTolerance number of graph versions the landmarks may lag behind before re-selection
+     */
+    public LandmarkHeuristic(EdgeCostFunction costFunction, int landmarkCount, long versionTolerance) {
+        this.costFunction = Objects.requireNonNull(costFunction, "costFunction");
+        if (landmarkCount < 1) {
+            throw new IllegalArgumentException("landmarkCount must be >= 1");
+        }
+        if (versionTolerance < 0) {
+            throw new IllegalArgumentException("versionTolerance must be >= 0");
+        }
+        this.landmarkCount = landmarkCount;
+        this.versionTolerance = versionTolerance;
+    }
+
+    @Override
+    public double estimate(GraphReadView graph, NodeId from, NodeId to) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(from, "from");
+        Objects.requireNonNull(to, "to");
+
+        Landmarks current = landmarksFor(graph);
+        int v = current.snapshot.indexOf(from);
+        int t = current.snapshot.indexOf(to);
+        if (v < 0 || t < 0) {
+            return 0.0;
+        }
+
+        double best = 0.0;
+        for (int l = 0; l < current.fromLandmark.length; l++) {
+            double[] fromLandmark = current.fromLandmark[l];
+            double[] toLandmark = current.toLandmark[l];
+            best = Math.max(best, boundOrZero(fromLandmark[t], fromLandmark[v]));
+            best = Math.max(best, boundOrZero(toLandmark[v], toLandmark[t]));
+        }
+        return best;
+    }
+
+    @Override
+    public void onGraphChanged(GraphReadView graph, GraphChange change) {
+        Objects.requireNonNull(change, "change");
+        if (mayShortenRoutes(change)) {
+            stale = true;
+        }
+    }
+
+    /** The graph version the current landmarks were computed from, or {@code -1} if none yet. */
+    public long landmarksVersion() {
+        Landmarks current = landmarks;
+        return current == null ? -1 : current.snapshot.version();
+    }
+
+    /** The currently selected landmarks, in selection order. */
+    public List<NodeId> landmarkIds() {
+        Landmarks current = landmarks;
+        if (current == null) {
+            return List.of();
+        }
+        List<NodeId> ids = new ArrayList<>(current.ids.length);
+        for (int id : current.ids) {
+            ids.add(current.snapshot.nodeIdAt(id));
+        }
+        return List.copyOf(ids);
+    }
+
+    private Landmarks landmarksFor(GraphReadView graph) {
+        Landmarks current = landmarks;
+        long version = graph.version();
+        if (current != null && !stale && current.graph == graph && current.checkedVersion == version) {
+            return current;
+        }
+        synchronized (this) {
+            current = landmarks;
+            if (current == null || stale || !isFresh(current, graph, version)) {
+                stale = false;
+                current = select(graph, CsrGraph.of(graph));
+            } else if (current.checkedVersion != version) {
+                current = current.checkedAt(version);
+            }
+            landmarks = current;
+            return current;
+        }
+    }
+
+    /**
+     * True if {@code current} was built from {@code graph}, lags it by at most {@code versionTolerance}, and
+     * no change since its last check can have made a route cheaper.
+     */
+    private boolean isFresh(Landmarks current, GraphReadView graph, long version) {
+        if (current.graph != graph) {
+            return false;
+        }
+        long lag = version - current.snapshot.version();
+        if (lag < 0 || lag > versionTolerance) {
+            return false;
+        }
+        if (current.checkedVersion == version) {
+            return true;
+        }
+        return graph.changesSince(current.checkedVersion)
+                .map(changes -> changes.changes().stream().noneMatch(this::mayShortenRoutes))
+                .orElse(false);
+    }
+
+    /** True for a new edge or a cheaper one, the only changes that can make stale bounds overestimate. */
+    private boolean mayShortenRoutes(GraphChange change) {
+        if (!(change instanceof GraphChange.EdgeChanged edgeChange) || edgeChange.after().isEmpty()) {
+            return false;
+        }
+        return edgeChange.before()
+                .map(before -> relaxedCost(edgeChange.after().get()) < relaxedCost(before))
+                .orElse(true);
+    }
+
+    private Landmarks select(GraphReadView graph, CsrGraph snapshot) {
+        int n = snapshot.nodeCount();
+        int m = snapshot.edgeCount();
+        double[] costs = new double[m];
+        for (int e = 0; e < m; e++) {
+            costs[e] = relaxedCost(snapshot.edge(e));
+        }
+
+        int[] reverseOffsets = new int[n + 1];
+        int[] reverseTargets = new int[m];
+        double[] reverseCosts = new double[m];
+        for (int e = 0; e < m; e++) {
+            reverseOffsets[snapshot.edgeTarget(e) + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            reverseOffsets[i + 1] += reverseOffsets[i];
+        }
+        int[] fill = Arrays.copyOf(reverseOffsets, n);
+        for (int e = 0; e < m; e++) {
+            int slot = fill[snapshot.edgeTarget(e)]++;
+            reverseTargets[slot] = snapshot.edgeSource(e);
+            reverseCosts[slot] = costs[e];
+        }
+        int[] forwardOffsets = new int[n + 1];
+        int[] forwardTargets = new int[m];
+        for (int i = 0; i < n; i++) {
+            forwardOffsets[i + 1] = snapshot.edgesEnd(i);
+        }
+        for (int e = 0; e < m; e++) {
+            forwardTargets[e] = snapshot.edgeTarget(e);
+        }
+
+        int count = Math.min(landmarkCount, n);
+        int[] ids = new int[count];
+        Arrays.fill(ids, -1);
+        double[][] fromLandmark = new double[count][];
+        double[][] toLandmark = new double[count][];
+        double[] nearest = new double[n];
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+
+        int next = count == 0 ? -1 : farthest(distances(0, forwardOffsets, forwardTargets, costs), null);
+        for (int l = 0; l < count; l++) {
+            ids[l] = next;
+            fromLandmark[l] = distances(next, forwardOffsets, forwardTargets, costs);
+            toLandmark[l] = distances(next, reverseOffsets, reverseTargets, reverseCosts);
+            for (int i = 0; i < n; i++) {
+                nearest[i] = Math.min(nearest[i], Math.min(fromLandmark[l][i], toLandmark[l][i]));
+            }
+            next = farthest(nearest, ids);
+        }
+        return new Landmarks(graph, snapshot, snapshot.version(), ids, fromLandmark, toLandmark);
+    }
+
+    /** Cost of {@code edge} as if it were open, so that closures never invalidate the bounds. */
+    private double relaxedCost(Edge edge) {
+        Edge open = edge.status() == EdgeStatus.OPEN
+                ? edge
+                : new Edge(edge.from(), edge.to(), edge.weights(), EdgeStatus.OPEN);
+        double cost = costFunction.cost(open);
+        if (Double.isNaN(cost) || cost < 0.0) {
+            throw new IllegalArgumentException("Edge cost must be non-negative and not NaN");
+        }
+        return cost;
+    }
+
+    private static double boundOrZero(double minuend, double subtrahend) {
+        if (Double.isInfinite(minuend) || Double.isInfinite(subtrahend)) {
+            return 0.0;
+        }
+        return minuend - subtrahend;
+    }
+
+    /**
+     * Returns the index with the largest value (unreachable first), skipping already chosen indices.
+     */
+    private static int farthest(double[] values, int[] chosen) {
+        int best = -1;
+        for (int i = 0; i < values.length; i++) {
+            if (chosen != null && contains(chosen, i)) {
+                continue;
+            }
+            if (best < 0 || values[i] > values[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static boolean contains(int[] values, int value) {
+        for (int v : values) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double[] distances(int source, int[] offsets, int[] targets, double[] costs) {
+        int n = offsets.length - 1;
+        double[] dist = new double[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        dist[source] = 0.0;
+        var queue = new BinaryHeapIndexedMinPriorityQueue(n - 1);
+        queue.insert(source, 0.0);
+        while (!queue.isEmpty()) {
+            int u = queue.extractMin();
+            for (int a = offsets[u]; a < offsets[u + 1]; a++) {
+                int v = targets[a];
+                double alt = dist[u] + costs[a];
+                if (alt < dist[v]) {
+                    dist[v] = alt;
+                    if (queue.contains(v)) {
+                        queue.decreaseKey(v, alt);
+                    } else {
+                        queue.insert(v, alt);
+                    }
+                }
+            }
+        }
+        return dist;
+    }
+
+    /** {@code checkedVersion} is the latest graph version known not to invalidate the bounds. */
+    private record Landmarks(
+            GraphReadView graph,
+            CsrGraph snapshot,
+            long checkedVersion,
+            int[] ids,
+            double[][] fromLandmark,
+            double[][] toLandmark
+    ) {
+        Landmarks checkedAt(long version) {
+            return new Landmarks(graph, snapshot, version, ids, fromLandmark, toLandmark);
+        }
+    }
+}
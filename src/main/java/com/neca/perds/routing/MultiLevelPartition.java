@@ -0,0 +1,223 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.CsrGraph;
+
+import java.util.Arrays;
+
+/**
+ * Metric-independent nested partition of a graph's nodes into cells, used by {@link CustomizableRouter}.
+ *
+ * <p>Level {@code 1} groups nodes into connected cells of at most {@code cellSizes[0]} nodes by
+ * breadth-first region growing over the undirected topology. Each higher level {@code l} groups the
+ * cells of level {@code l - 1} the same way, up to {@code cellSizes[l - 1]} nodes per cell, so cells are
+ * nested. Edge status and weights are ignored: the partition only changes when the topology does.
+ *
+ * <p>A node is a <em>boundary</em> node of its level-{@code l} cell if any edge, in either direction,
+ * connects it to a node in a different level-{@code l} cell.
+ */
+final class MultiLevelPartition {
+    private final int levels;
+    private final int[][] cellOf;
+    private final int[][][] boundary;
+    private final int[][] boundaryIndex;
+
+    private MultiLevelPartition(int[][] cellOf, int[][][] boundary, int[][] boundaryIndex) {
+        this.levels = cellOf.length;
+        this.cellOf = cellOf;
+        this.boundary = boundary;
+        this.boundaryIndex = boundaryIndex;
+    }
+
+    /**
+     * Partitions {@code topology} into {@code cellSizes.length} levels.
+     *
+     * @param cellSizes maximum nodes per cell for each level, strictly increasing
+     */
+    static MultiLevelPartition build(CsrGraph topology, int[] cellSizes) {
+        int n = topology.nodeCount();
+        int[] adjacencyOffsets = new int[n + 1];
+        int[] adjacency = undirectedAdjacency(topology, adjacencyOffsets);
+
+        int levels = cellSizes.length;
+        int[][] cellOf = new int[levels][];
+        int[] nodeWeights = new int[n];
+        Arrays.fill(nodeWeights, 1);
+        cellOf[0] = grow(n, nodeWeights, adjacencyOffsets, adjacency, cellSizes[0]);
+
+        for (int level = 1; level < levels; level++) {
+            int[] lower = cellOf[level - 1];
+            int lowerCount = countCells(lower);
+            int[] lowerSizes = new int[lowerCount];
+            for (int node = 0; node < n; node++) {
+                lowerSizes[lower[node]]++;
+            }
+            int[] cellAdjacencyOffsets = new int[lowerCount + 1];
+            int[] cellAdjacency = cellAdjacency(lower, lowerCount, adjacencyOffsets, adjacency, cellAdjacencyOffsets);
+            int[] parent = grow(lowerCount, lowerSizes, cellAdjacencyOffsets, cellAdjacency, cellSizes[level]);
+
+            int[] cells = new int[n];
+            for (int node = 0; node < n; node++) {
+                cells[node] = parent[lower[node]];
+            }
+            cellOf[level] = cells;
+        }
+
+        int[][][] boundary = new int[levels][][];
+        int[][] boundaryIndex = new int[levels][];
+        for (int level = 0; level < levels; level++) {
+            int[] cells = cellOf[level];
+            int[] index = new int[n];
+            Arrays.fill(index, -1);
+            int[] boundaryCounts = new int[countCells(cells)];
+            for (int node = 0; node < n; node++) {
+                for (int a = adjacencyOffsets[node]; a < adjacencyOffsets[node + 1]; a++) {
+                    if (cells[adjacency[a]] != cells[node]) {
+                        index[node] = boundaryCounts[cells[node]]++;
+                        break;
+                    }
+                }
+            }
+            int[][] lists = new int[boundaryCounts.length][];
+            for (int cell = 0; cell < lists.length; cell++) {
+                lists[cell] = new int[boundaryCounts[cell]];
+            }
+            for (int node = 0; node < n; node++) {
+                if (index[node] >= 0) {
+                    lists[cells[node]][index[node]] = node;
+                }
+            }
+            boundary[level] = lists;
+            boundaryIndex[level] = index;
+        }
+
+        return new MultiLevelPartition(cellOf, boundary, boundaryIndex);
+    }
+
+    int levels() {
+        return levels;
+    }
+
+    /** Returns the cell containing {@code node} at {@code level} (1-based). */
+    int cell(int level, int node) {
+        return cellOf[level - 1][node];
+    }
+
+    int cellCount(int level) {
+        return boundary[level - 1].length;
+    }
+
+    /** Boundary nodes of {@code cell} at {@code level}; do not modify. */
+    int[] boundary(int level, int cell) {
+        return boundary[level - 1][cell];
+    }
+
+    /** Position of {@code node} in its cell's {@link #boundary(int, int)} list at {@code level}, or {@code -1}. */
+    int boundaryIndex(int level, int node) {
+        return boundaryIndex[level - 1][node];
+    }
+
+    /**
+     * Returns the highest level at which {@code node} lies in neither the source's nor the target's cell,
+     * or {@code 0} if it shares a level-1 cell with one of them.
+     */
+    int queryLevel(int node, int source, int target) {
+        for (int level = levels; level >= 1; level--) {
+            int[] cells = cellOf[level - 1];
+            if (cells[node] != cells[source] && cells[node] != cells[target]) {
+                return level;
+            }
+        }
+        return 0;
+    }
+
+    private static int[] undirectedAdjacency(CsrGraph topology, int[] offsets) {
+        int n = topology.nodeCount();
+        int m = topology.edgeCount();
+        for (int e = 0; e < m; e++) {
+            offsets[topology.edgeSource(e) + 1]++;
+            offsets[topology.edgeTarget(e) + 1]++;
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] fill = Arrays.copyOf(offsets, n);
+        int[] adjacency = new int[2 * m];
+        for (int e = 0; e < m; e++) {
+            int from = topology.edgeSource(e);
+            int to = topology.edgeTarget(e);
+            adjacency[fill[from]++] = to;
+            adjacency[fill[to]++] = from;
+        }
+        return adjacency;
+    }
+
+    private static int[] cellAdjacency(int[] cells, int cellCount, int[] nodeOffsets, int[] nodeAdjacency, int[] offsets) {
+        long[] pairs = new long[nodeAdjacency.length];
+        int size = 0;
+        for (int node = 0; node < cells.length; node++) {
+            for (int a = nodeOffsets[node]; a < nodeOffsets[node + 1]; a++) {
+                int other = cells[nodeAdjacency[a]];
+                if (other != cells[node]) {
+                    pairs[size++] = ((long) cells[node] << 32) | other;
+                }
+            }
+        }
+        Arrays.sort(pairs, 0, size);
+
+        int[] adjacency = new int[size];
+        int unique = 0;
+        for (int i = 0; i < size; i++) {
+            if (i > 0 && pairs[i] == pairs[i - 1]) {
+                continue;
+            }
+            offsets[(int) (pairs[i] >>> 32) + 1]++;
+            adjacency[unique++] = (int) pairs[i];
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            offsets[cell + 1] += offsets[cell];
+        }
+        return Arrays.copyOf(adjacency, unique);
+    }
+
+    /**
+     * Assigns each of {@code count} items to a group by breadth-first growth from the lowest unassigned
+     * item, adding neighbours while the group's total weight stays within {@code maxWeight}.
+     */
+    private static int[] grow(int count, int[] weights, int[] offsets, int[] neighbours, int maxWeight) {
+        int[] group = new int[count];
+        Arrays.fill(group, -1);
+        int[] queue = new int[count];
+        int groups = 0;
+        for (int seed = 0; seed < count; seed++) {
+            if (group[seed] >= 0) {
+                continue;
+            }
+            int id = groups++;
+            group[seed] = id;
+            int weight = weights[seed];
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = seed;
+            while (head < tail) {
+                int item = queue[head++];
+                for (int a = offsets[item]; a < offsets[item + 1]; a++) {
+                    int next = neighbours[a];
+                    if (group[next] < 0 && weight + weights[next] <= maxWeight) {
+                        group[next] = id;
+                        weight += weights[next];
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        return group;
+    }
+
+    private static int countCells(int[] cells) {
+        int max = -1;
+        for (int cell : cells) {
+            max = Math.max(max, cell);
+        }
+        return max + 1;
+    }
+}
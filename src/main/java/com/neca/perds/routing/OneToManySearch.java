@@ -0,0 +1,159 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.graph.NodeIndex;
+import com.neca.perds.model.NodeId;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Computes a {@link TravelTimeTable} with one Dijkstra search per row or column, whichever is fewer.
+ *
+ * <p>With no more sources than targets, a forward search runs from each source until every target is
+ * settled. Otherwise a backward search over incoming edges runs from each target until every source is
+ * settled, so "all units to one incident" costs a single search. Before its workspace is released, each
+ * search records the node ids along the path to every reached leaf, so the table holds no more than the
+ * sum of its path lengths and stays valid when the graph later reuses a removed node's index.
+ */
+final class OneToManySearch {
+    TravelTimeTable compute(
+            GraphReadView graph,
+            Collection<NodeId> sources,
+            Collection<NodeId> targets,
+            EdgeCostFunction costFunction
+    ) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(sources, "sources");
+        Objects.requireNonNull(targets, "targets");
+        Objects.requireNonNull(costFunction, "costFunction");
+
+        List<NodeId> sourceList = List.copyOf(sources);
+        List<NodeId> targetList = List.copyOf(targets);
+        int targetCount = targetList.size();
+        int size = sourceList.size() * targetCount;
+        double[] costs = new double[size];
+        double[] distanceKm = new double[size];
+        long[] travelTimeNanos = new long[size];
+        Arrays.fill(costs, Double.POSITIVE_INFINITY);
+        Arrays.fill(distanceKm, Double.POSITIVE_INFINITY);
+        Arrays.fill(travelTimeNanos, Long.MAX_VALUE);
+
+        boolean backward = sourceList.size() > targetCount;
+        List<NodeId> roots = backward ? targetList : sourceList;
+        List<NodeId> leaves = backward ? sourceList : targetList;
+        NodeIndex nodeIndex = graph.nodeIndex();
+
+        int[] leafIndices = new int[leaves.size()];
+        for (int i = 0; i < leafIndices.length; i++) {
+            leafIndices[i] = nodeIndex.indexOf(leaves.get(i));
+        }
+        int[] pendingLeaves = Arrays.stream(leafIndices).filter(index -> index >= 0).sorted().distinct().toArray();
+
+        NodeId[][] paths = new NodeId[size][];
+        for (int r = 0; r < roots.size(); r++) {
+            int root = nodeIndex.indexOf(roots.get(r));
+            if (root < 0 || pendingLeaves.length == 0) {
+                continue;
+            }
+            try (var workspace = SearchWorkspace.acquire(nodeIndex.capacity(), costFunction.hasIntegralCosts())) {
+                search(graph, backward, nodeIndex, workspace, root, pendingLeaves, costFunction);
+                for (int l = 0; l < leafIndices.length; l++) {
+                    int leaf = leafIndices[l];
+                    if (leaf < 0 || !workspace.isLabelled(leaf)) {
+                        continue;
+                    }
+                    int cell = backward ? l * targetCount + r : r * targetCount + l;
+                    costs[cell] = workspace.cost(leaf);
+                    distanceKm[cell] = workspace.distanceKm(leaf);
+                    travelTimeNanos[cell] = workspace.travelTimeNanos(leaf);
+                    paths[cell] = path(nodeIndex, workspace, leaf, backward);
+                }
+            }
+        }
+
+        return new TravelTimeTable(
+                sourceList,
+                targetList,
+                costs,
+                distanceKm,
+                travelTimeNanos,
+                graph.version(),
+                (s, t) -> Arrays.asList(paths[s * targetCount + t])
+        );
+    }
+
+    private static void search(
+            GraphReadView graph,
+            boolean backward,
+            NodeIndex nodeIndex,
+            SearchWorkspace workspace,
+            int root,
+            int[] pendingLeaves,
+            EdgeCostFunction costFunction
+    ) {
+        workspace.label(root, 0.0, -1, 0.0, 0L);
+        var queue = workspace.queue();
+        queue.insert(root, 0.0);
+        int remaining = pendingLeaves.length;
+
+        while (!queue.isEmpty()) {
+            int u = queue.extractMin();
+            if (Arrays.binarySearch(pendingLeaves, u) >= 0 && --remaining == 0) {
+                return;
+            }
+
+            NodeId uId = nodeIndex.nodeIdAt(u);
+            double costU = workspace.cost(u);
+            for (Edge edge : backward ? graph.incomingEdges(uId) : graph.outgoingEdges(uId)) {
+                int v = nodeIndex.indexOf(backward ? edge.from() : edge.to());
+                if (v < 0) {
+                    continue;
+                }
+                double edgeCost = costFunction.cost(edge);
+                if (Double.isNaN(edgeCost) || edgeCost < 0.0) {
+                    throw new IllegalArgumentException("Edge cost must be non-negative and not NaN");
+                }
+                if (Double.isInfinite(edgeCost)) {
+                    continue;
+                }
+
+                double alt = costU + edgeCost;
+                if (alt < workspace.cost(v)) {
+                    workspace.label(
+                            v,
+                            alt,
+                            u,
+                            workspace.distanceKm(u) + edge.weights().distanceKm(),
+                            workspace.travelTimeNanos(u) + edge.weights().travelTime().toNanos()
+                    );
+                    if (queue.contains(v)) {
+                        queue.decreaseKey(v, alt);
+                    } else {
+                        queue.insert(v, alt);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Follows predecessors from {@code leaf} to the search root and returns the node ids in route order:
+     * leaf first for a backward search, root first for a forward one.
+     */
+    private static NodeId[] path(NodeIndex nodeIndex, SearchWorkspace workspace, int leaf, boolean backward) {
+        int length = 0;
+        for (int current = leaf; current != -1; current = workspace.previous(current)) {
+            length++;
+        }
+        NodeId[] path = new NodeId[length];
+        int i = 0;
+        for (int current = leaf; current != -1; current = workspace.previous(current), i++) {
+            path[backward ? i : length - 1 - i] = nodeIndex.nodeIdAt(current);
+        }
+        return path;
+    }
+}
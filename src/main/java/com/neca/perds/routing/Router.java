@@ -3,9 +3,58 @@ package com.neca.perds.routing;
 import com.neca.perds.graph.GraphReadView;
 import com.neca.perds.model.NodeId;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Objects;
 import java.util.Optional;
 
 public interface Router {
     Optional<Route> findRoute(GraphReadView graph, NodeId start, NodeId goal, EdgeCostFunction costFunction);
-}
 
+    /**
+     * Finds the cheapest route to {@code goal} from any of {@code sources}. The route starts at the winning
+     * source; unknown sources are ignored, and a goal that is itself a source yields a single-node route.
+     *
+     * <p>The default runs {@link #findRoute} once per distinct source and keeps the first cheapest.
+     * Label-setting routers override it to seed a single search with every source.
+     */
+    default Optional<Route> findNearest(
+            GraphReadView graph,
+            Collection<NodeId> sources,
+            NodeId goal,
+            EdgeCostFunction costFunction
+    ) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(sources, "sources");
+        Objects.requireNonNull(goal, "goal");
+        Objects.requireNonNull(costFunction, "costFunction");
+
+        Optional<Route> best = Optional.empty();
+        for (NodeId source : new LinkedHashSet<>(sources)) {
+            Optional<Route> route = findRoute(graph, source, goal, costFunction);
+            if (route.isPresent() && (best.isEmpty() || route.get().totalCost() < best.get().totalCost())) {
+                best = route;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Computes shortest-path costs from every source to every target in one call.
+     *
+     * <p>The default runs {@link #findRoute} once per pair. Routers with a one-to-many search override it
+     * so that, for example, all units to one incident costs a single search.
+     */
+    default TravelTimeTable travelTimeTable(
+            GraphReadView graph,
+            Collection<NodeId> sources,
+            Collection<NodeId> targets,
+            EdgeCostFunction costFunction
+    ) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(sources, "sources");
+        Objects.requireNonNull(targets, "targets");
+        Objects.requireNonNull(costFunction, "costFunction");
+        return TravelTimeTable.ofPairwiseRoutes(this, graph, sources, targets, costFunction);
+    }
+}
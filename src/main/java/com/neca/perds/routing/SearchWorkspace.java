@@ -0,0 +1,129 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.ds.BinaryHeapIndexedMinPriorityQueue;
+import com.neca.perds.ds.IndexedMinPriorityQueue;
+import com.neca.perds.ds.RadixHeapIndexedMinPriorityQueue;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Reusable per-thread scratch space for label-setting searches.
+ *
+ * <p>Labels are generation-stamped: a node's label is only valid if its stamp equals the current
+ * generation, so starting a new search is {@code O(1)} instead of an {@code O(N)} array reset.
+ * Travel time is accumulated as primitive nanoseconds to avoid boxing {@link java.time.Duration}s.
+ *
+ * <p>Workspaces are pooled per thread and must be returned with {@link #close()}, typically via
+ * try-with-resources. Nested searches on the same thread (e.g. a heuristic that runs its own search)
+ * simply acquire a second workspace.
+ *
+ * <p>Searches whose queue keys are whole numbers that never drop below the last extracted key (plain
+ * Dijkstra with {@link EdgeCostFunction#hasIntegralCosts()}) can ask for a radix heap instead of the
+ * binary heap.
+ */
+final class SearchWorkspace implements AutoCloseable {
+    private static final int MAX_POOLED_PER_THREAD = 4;
+    private static final ThreadLocal<ArrayDeque<SearchWorkspace>> POOL =
+            ThreadLocal.withInitial(ArrayDeque::new);
+
+    private int[] stamps = new int[0];
+    private double[] costs = new double[0];
+    private int[] previous = new int[0];
+    private double[] distanceKm = new double[0];
+    private long[] travelTimeNanos = new long[0];
+    private int generation;
+    private final BinaryHeapIndexedMinPriorityQueue binaryHeap = new BinaryHeapIndexedMinPriorityQueue();
+    private RadixHeapIndexedMinPriorityQueue radixHeap;
+    private IndexedMinPriorityQueue queue = binaryHeap;
+
+    private SearchWorkspace() {}
+
+    /**
+     * Returns a workspace from this thread's pool with room for indices in {@code [0, capacity)}
+     * and no labelled nodes.
+     */
+    static SearchWorkspace acquire(int capacity) {
+        return acquire(capacity, false);
+    }
+
+    /**
+     * Like {@link #acquire(int)}, but with {@code monotoneIntegerKeys} the queue is a radix heap, which
+     * rejects fractional keys and keys below the last extracted minimum.
+     */
+    static SearchWorkspace acquire(int capacity, boolean monotoneIntegerKeys) {
+        SearchWorkspace workspace = POOL.get().poll();
+        if (workspace == null) {
+            workspace = new SearchWorkspace();
+        }
+        workspace.reset(capacity);
+        if (monotoneIntegerKeys) {
+            if (workspace.radixHeap == null) {
+                workspace.radixHeap = new RadixHeapIndexedMinPriorityQueue();
+            }
+            workspace.queue = workspace.radixHeap;
+        } else {
+            workspace.queue = workspace.binaryHeap;
+        }
+        return workspace;
+    }
+
+    @Override
+    public void close() {
+        queue.clear();
+        ArrayDeque<SearchWorkspace> pool = POOL.get();
+        if (pool.size() < MAX_POOLED_PER_THREAD) {
+            pool.push(this);
+        }
+    }
+
+    IndexedMinPriorityQueue queue() {
+        return queue;
+    }
+
+    boolean isLabelled(int node) {
+        return stamps[node] == generation;
+    }
+
+    /** Returns the node's tentative cost, or {@link Double#POSITIVE_INFINITY} if it is unlabelled. */
+    double cost(int node) {
+        return stamps[node] == generation ? costs[node] : Double.POSITIVE_INFINITY;
+    }
+
+    /** Returns the node's predecessor, or {@code -1} if it is unlabelled or a search root. */
+    int previous(int node) {
+        return stamps[node] == generation ? previous[node] : -1;
+    }
+
+    double distanceKm(int node) {
+        return distanceKm[node];
+    }
+
+    long travelTimeNanos(int node) {
+        return travelTimeNanos[node];
+    }
+
+    void label(int node, double cost, int previousNode, double totalDistanceKm, long totalTravelTimeNanos) {
+        stamps[node] = generation;
+        costs[node] = cost;
+        previous[node] = previousNode;
+        distanceKm[node] = totalDistanceKm;
+        travelTimeNanos[node] = totalTravelTimeNanos;
+    }
+
+    private void reset(int capacity) {
+        if (capacity > stamps.length) {
+            int newLength = Math.max(capacity, stamps.length * 2);
+            stamps = Arrays.copyOf(stamps, newLength);
+            costs = Arrays.copyOf(costs, newLength);
+            previous = Arrays.copyOf(previous, newLength);
+            distanceKm = Arrays.copyOf(distanceKm, newLength);
+            travelTimeNanos = Arrays.copyOf(travelTimeNanos, newLength);
+        }
+        generation++;
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+    }
+}
@@ -3,8 +3,8 @@ package com.neca.perds.routing;
 import com.neca.perds.graph.Edge;
 
 import java.time.Instant;
-import java.time.LocalTime;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.util.Objects;
 import java.util.function.Supplier;
 
@@ -24,12 +24,19 @@ import java.util.function.Supplier;
  * }</pre>
  * 
  * <p>The effective cost is: {@code baseCost(edge) * congestionProfile.multiplierAt(timeOfDay)}
+ *
+ * <p>The profile is compiled into a {@link CompiledCongestionProfile} and the multiplier is cached per
+ * clock minute, so most calls cost one clock read and one comparison. Note that one multiplier, taken at
+ * query time, applies to the whole route; use {@link TimeDependentRouter} to evaluate each edge at the
+ * time it is actually reached.
  */
 public final class TimeAwareCostFunction implements EdgeCostFunction {
     private final EdgeCostFunction baseCostFunction;
     private final CongestionProfile congestionProfile;
     private final Supplier<Instant> timeSupplier;
     private final ZoneId zoneId;
+    private final CompiledCongestionProfile compiledProfile;
+    private volatile MultiplierSample lastSample;
 
     /**
      * Creates a time-aware cost function using the system default timezone.
@@ -64,6 +71,13 @@ public final class TimeAwareCostFunction implements EdgeCostFunction {
         this.congestionProfile = Objects.requireNonNull(congestionProfile, "congestionProfile");
         this.timeSupplier = Objects.requireNonNull(timeSupplier, "timeSupplier");
         this.zoneId = Objects.requireNonNull(zoneId, "zoneId");
+        this.compiledProfile = CompiledCongestionProfile.compile(congestionProfile);
+    }
+
+    /** Always {@code false}: the multiplier follows the clock. */
+    @Override
+    public boolean isTimeInvariant() {
+        return false;
     }
 
     @Override
@@ -75,11 +89,7 @@ public final class TimeAwareCostFunction implements EdgeCostFunction {
             return baseCost;
         }
         
-        Instant now = timeSupplier.get();
-        LocalTime timeOfDay = now.atZone(zoneId).toLocalTime();
-        double multiplier = congestionProfile.multiplierAt(timeOfDay);
-        
-        return baseCost * multiplier;
+        return baseCost * currentMultiplier();
     }
 
     /**
@@ -101,7 +111,22 @@ public final class TimeAwareCostFunction implements EdgeCostFunction {
      */
     public double currentMultiplier() {
         Instant now = timeSupplier.get();
-        LocalTime timeOfDay = now.atZone(zoneId).toLocalTime();
-        return congestionProfile.multiplierAt(timeOfDay);
+        long epochMinute = Math.floorDiv(now.getEpochSecond(), 60L);
+        MultiplierSample sample = lastSample;
+        if (sample != null && sample.epochMinute() == epochMinute) {
+            return sample.multiplier();
+        }
+
+        ZoneOffset offset = zoneId.getRules().getOffset(now);
+        double multiplier = compiledProfile.multiplierAt(now.atOffset(offset).toLocalTime());
+        // Offsets with a seconds part (historical local mean time) split an epoch minute across two
+        // local minutes, so those samples are not reusable.
+        if (offset.getTotalSeconds() % 60 == 0) {
+            lastSample = new MultiplierSample(epochMinute, multiplier);
+        }
+        return multiplier;
     }
+
+    /** Multiplier for one UTC minute; immutable so it can be published through a volatile field. */
+    private record MultiplierSample(long epochMinute, double multiplier) {}
 }
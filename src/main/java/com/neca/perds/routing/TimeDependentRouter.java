@@ -0,0 +1,183 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.graph.NodeIndex;
+import com.neca.perds.model.NodeId;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Time-dependent Dijkstra / A* over a {@link CompiledCongestionProfile}.
+ *
+ * <p>Unlike {@link TimeAwareCostFunction}, which scales a whole route by the multiplier at query time, every
+ * edge is evaluated at the time the search actually reaches it. The cost function passed to
+ * {@link #findRoute} gives each edge's free-flow traversal time in seconds (normally
+ * {@link CostFunctions#travelTimeSeconds()}; infinite means closed), and the profile turns it into a FIFO
+ * travel-time function of the entry time. Because edges are FIFO, the usual label-setting search stays
+ * exact. The returned route's cost and travel time are the elapsed seconds from departure to arrival.
+ *
+ * <p>With a {@link Heuristic} that is admissible for the free-flow cost, the search runs as A* with the
+ * estimate scaled by {@link CompiledCongestionProfile#minMultiplier()}, which keeps it admissible under
+ * congestion. Times of day follow the local clock at departure; an offset change during the trip is ignored.
+ */
+public final class TimeDependentRouter implements Router {
+    private static final Heuristic NO_HEURISTIC = (graph, from, to) -> 0.0;
+
+    private final CompiledCongestionProfile profile;
+    private final Supplier<Instant> departureTimeSupplier;
+    private final ZoneId zoneId;
+    private final Heuristic heuristic;
+
+    /**
+     * @param departureTimeSupplier departure time used by {@link #findRoute(GraphReadView, NodeId, NodeId, EdgeCostFunction)}
+     * @param zoneId the timezone used to convert departure instants to times of day
+     */
+    public TimeDependentRouter(CongestionProfile profile, Supplier<Instant> departureTimeSupplier, ZoneId zoneId) {
+        this(profile, departureTimeSupplier, zoneId, NO_HEURISTIC);
+    }
+
+    public TimeDependentRouter(
+            CongestionProfile profile,
+            Supplier<Instant> departureTimeSupplier,
+            ZoneId zoneId,
+            Heuristic heuristic
+    ) {
+        this.profile = CompiledCongestionProfile.compile(Objects.requireNonNull(profile, "profile"));
+        this.departureTimeSupplier = Objects.requireNonNull(departureTimeSupplier, "departureTimeSupplier");
+        this.zoneId = Objects.requireNonNull(zoneId, "zoneId");
+        this.heuristic = Objects.requireNonNull(heuristic, "heuristic");
+    }
+
+    public CompiledCongestionProfile profile() {
+        return profile;
+    }
+
+    /**
+     * Finds the earliest-arrival route when departing at the supplier's current time.
+     */
+    @Override
+    public Optional<Route> findRoute(GraphReadView graph, NodeId start, NodeId goal, EdgeCostFunction costFunction) {
+        return findRoute(graph, start, goal, costFunction, departureTimeSupplier.get());
+    }
+
+    /**
+     * Finds the earliest-arrival route when departing at {@code departure}.
+     */
+    public Optional<Route> findRoute(
+            GraphReadView graph,
+            NodeId start,
+            NodeId goal,
+            EdgeCostFunction costFunction,
+            Instant departure
+    ) {
+        Objects.requireNonNull(graph, "graph");
+        Objects.requireNonNull(start, "start");
+        Objects.requireNonNull(goal, "goal");
+        Objects.requireNonNull(costFunction, "costFunction");
+        Objects.requireNonNull(departure, "departure");
+
+        long graphVersion = graph.version();
+        if (start.equals(goal)) {
+            return Optional.of(new Route(List.of(start), 0.0, 0.0, Duration.ZERO, graphVersion));
+        }
+
+        NodeIndex nodeIndex = graph.nodeIndex();
+        int startIndex = nodeIndex.indexOf(start);
+        int goalIndex = nodeIndex.indexOf(goal);
+        if (startIndex < 0 || goalIndex < 0) {
+            return Optional.empty();
+        }
+
+        LocalTime localDeparture = departure.atZone(zoneId).toLocalTime();
+        double departureSecond = localDeparture.toSecondOfDay() + localDeparture.getNano() / 1e9;
+        double heuristicScale = profile.minMultiplier();
+
+        try (var workspace = SearchWorkspace.acquire(nodeIndex.capacity())) {
+            var openSet = workspace.queue();
+            workspace.label(startIndex, 0.0, -1, 0.0, 0L);
+            openSet.insert(startIndex, estimate(graph, start, goal, heuristicScale));
+
+            while (!openSet.isEmpty()) {
+                int u = openSet.extractMin();
+                if (u == goalIndex) {
+                    break;
+                }
+
+                NodeId from = nodeIndex.nodeIdAt(u);
+                double elapsedU = workspace.cost(u);
+                for (var edge : graph.outgoingEdges(from)) {
+                    int v = nodeIndex.indexOf(edge.to());
+                    if (v < 0) {
+                        continue;
+                    }
+
+                    double freeFlowSeconds = costFunction.cost(edge);
+                    if (Double.isNaN(freeFlowSeconds) || freeFlowSeconds < 0.0) {
+                        throw new IllegalArgumentException("Edge cost must be non-negative and not NaN");
+                    }
+                    if (Double.isInfinite(freeFlowSeconds)) {
+                        continue;
+                    }
+
+                    double elapsedV = elapsedU + profile.traversalSeconds(departureSecond + elapsedU, freeFlowSeconds);
+                    if (elapsedV < workspace.cost(v)) {
+                        workspace.label(
+                                v,
+                                elapsedV,
+                                u,
+                                workspace.distanceKm(u) + edge.weights().distanceKm(),
+                                Math.round(elapsedV * 1e9)
+                        );
+
+                        double fScore = elapsedV + estimate(graph, edge.to(), goal, heuristicScale);
+                        if (openSet.contains(v)) {
+                            openSet.decreaseKey(v, fScore);
+                        } else {
+                            openSet.insert(v, fScore);
+                        }
+                    }
+                }
+            }
+
+            if (!workspace.isLabelled(goalIndex)) {
+                return Optional.empty();
+            }
+
+            return Optional.of(new Route(
+                    reconstructPath(nodeIndex, workspace, goalIndex),
+                    workspace.cost(goalIndex),
+                    workspace.distanceKm(goalIndex),
+                    Duration.ofNanos(workspace.travelTimeNanos(goalIndex)),
+                    graphVersion
+            ));
+        }
+    }
+
+    private double estimate(GraphReadView graph, NodeId from, NodeId goal, double scale) {
+        double estimate = heuristic.estimate(graph, from, goal);
+        if (Double.isNaN(estimate) || estimate < 0.0) {
+            throw new IllegalArgumentException("Heuristic estimate must be non-negative and not NaN");
+        }
+        return estimate * scale;
+    }
+
+    private static List<NodeId> reconstructPath(NodeIndex nodeIndex, SearchWorkspace workspace, int goalIndex) {
+        List<NodeId> reversed = new ArrayList<>();
+        int current = goalIndex;
+        while (current != -1) {
+            reversed.add(nodeIndex.nodeIdAt(current));
+            current = workspace.previous(current);
+        }
+        Collections.reverse(reversed);
+        return List.copyOf(reversed);
+    }
+}
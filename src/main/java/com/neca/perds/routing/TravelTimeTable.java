@@ -0,0 +1,217 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.model.NodeId;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Shortest-path costs, distances and travel times between every source and every target, computed
+ * against one graph version by {@link Router#travelTimeTable}.
+ *
+ * <p>Totals are available immediately; the node sequence of a {@link Route} is only materialised when
+ * {@link #route(int, int)} is called for that pair, and then cached.
+ */
+public final class TravelTimeTable {
+    private final List<NodeId> sources;
+    private final List<NodeId> targets;
+    private final Map<NodeId, Integer> sourceIndex;
+    private final Map<NodeId, Integer> targetIndex;
+    private final double[] costs;
+    private final double[] distanceKm;
+    private final long[] travelTimeNanos;
+    private final long graphVersion;
+    private final PathResolver paths;
+    private final Route[] routes;
+
+    /**
+     * Resolves the node path for a reachable pair of a table.
+     */
+    @FunctionalInterface
+    interface PathResolver {
+        List<NodeId> path(int source, int target);
+    }
+
+    TravelTimeTable(
+            List<NodeId> sources,
+            List<NodeId> targets,
+            double[] costs,
+            double[] distanceKm,
+            long[] travelTimeNanos,
+            long graphVersion,
+            PathResolver paths
+    ) {
+        this.sources = List.copyOf(sources);
+        this.targets = List.copyOf(targets);
+        this.sourceIndex = firstIndexByNode(this.sources);
+        this.targetIndex = firstIndexByNode(this.targets);
+        this.costs = costs;
+        this.distanceKm = distanceKm;
+        this.travelTimeNanos = travelTimeNanos;
+        this.graphVersion = graphVersion;
+        this.paths = Objects.requireNonNull(paths, "paths");
+        this.routes = new Route[costs.length];
+    }
+
+    /**
+     * Builds a table from one point-to-point query per pair. Used by routers without a one-to-many search.
+     */
+    static TravelTimeTable ofPairwiseRoutes(
+            Router router,
+            GraphReadView graph,
+            Collection<NodeId> sources,
+            Collection<NodeId> targets,
+            EdgeCostFunction costFunction
+    ) {
+        List<NodeId> sourceList = List.copyOf(sources);
+        List<NodeId> targetList = List.copyOf(targets);
+        int size = sourceList.size() * targetList.size();
+        double[] costs = new double[size];
+        double[] distanceKm = new double[size];
+        long[] travelTimeNanos = new long[size];
+        List<List<NodeId>> paths = new ArrayList<>(size);
+        for (int s = 0; s < sourceList.size(); s++) {
+            for (int t = 0; t < targetList.size(); t++) {
+                int cell = s * targetList.size() + t;
+                Optional<Route> route = router.findRoute(graph, sourceList.get(s), targetList.get(t), costFunction);
+                costs[cell] = route.map(Route::totalCost).orElse(Double.POSITIVE_INFINITY);
+                distanceKm[cell] = route.map(Route::totalDistanceKm).orElse(Double.POSITIVE_INFINITY);
+                travelTimeNanos[cell] = route.map(r -> r.totalTravelTime().toNanos()).orElse(Long.MAX_VALUE);
+                paths.add(route.map(Route::nodes).orElse(null));
+            }
+        }
+        return new TravelTimeTable(
+                sourceList,
+                targetList,
+                costs,
+                distanceKm,
+                travelTimeNanos,
+                graph.version(),
+                (s, t) -> paths.get(s * targetList.size() + t)
+        );
+    }
+
+    /**
+     * Builds a table from already computed routes in row-major order, one per (source, target) pair.
+     */
+    static TravelTimeTable ofRoutes(
+            List<NodeId> sources,
+            List<NodeId> targets,
+            List<Optional<Route>> routes,
+            long graphVersion
+    ) {
+        int size = sources.size() * targets.size();
+        if (routes.size() != size) {
+            throw new IllegalArgumentException("routes must have one entry per (source, target) pair");
+        }
+        double[] costs = new double[size];
+        double[] distanceKm = new double[size];
+        long[] travelTimeNanos = new long[size];
+        for (int cell = 0; cell < size; cell++) {
+            Optional<Route> route = routes.get(cell);
+            costs[cell] = route.map(Route::totalCost).orElse(Double.POSITIVE_INFINITY);
+            distanceKm[cell] = route.map(Route::totalDistanceKm).orElse(Double.POSITIVE_INFINITY);
+            travelTimeNanos[cell] = route.map(r -> r.totalTravelTime().toNanos()).orElse(Long.MAX_VALUE);
+        }
+        return new TravelTimeTable(
+                sources,
+                targets,
+                costs,
+                distanceKm,
+                travelTimeNanos,
+                graphVersion,
+                (s, t) -> routes.get(s * targets.size() + t).orElseThrow().nodes()
+        );
+    }
+
+    public List<NodeId> sources() {
+        return sources;
+    }
+
+    public List<NodeId> targets() {
+        return targets;
+    }
+
+    public long graphVersionUsed() {
+        return graphVersion;
+    }
+
+    /** Position of {@code source} in {@link #sources()}, or {@code -1}. */
+    public int sourceIndex(NodeId source) {
+        return sourceIndex.getOrDefault(Objects.requireNonNull(source, "source"), -1);
+    }
+
+    /** Position of {@code target} in {@link #targets()}, or {@code -1}. */
+    public int targetIndex(NodeId target) {
+        return targetIndex.getOrDefault(Objects.requireNonNull(target, "target"), -1);
+    }
+
+    public boolean isReachable(int source, int target) {
+        return !Double.isInfinite(costs[cell(source, target)]);
+    }
+
+    /** Shortest-path cost, or {@link Double#POSITIVE_INFINITY} if the target is unreachable. */
+    public double cost(int source, int target) {
+        return costs[cell(source, target)];
+    }
+
+    /** Convenience lookup by node ids; {@link Double#POSITIVE_INFINITY} if unreachable or not in the table. */
+    public double cost(NodeId source, NodeId target) {
+        int s = sourceIndex(source);
+        int t = targetIndex(target);
+        return s < 0 || t < 0 ? Double.POSITIVE_INFINITY : cost(s, t);
+    }
+
+    /** Distance along the shortest path; only meaningful if {@link #isReachable(int, int)}. */
+    public double distanceKm(int source, int target) {
+        return distanceKm[cell(source, target)];
+    }
+
+    /** Travel time along the shortest path; only meaningful if {@link #isReachable(int, int)}. */
+    public Duration travelTime(int source, int target) {
+        return Duration.ofNanos(travelTimeNanos[cell(source, target)]);
+    }
+
+    /**
+     * Materialises the shortest route for one pair, or empty if the target is unreachable.
+     */
+    public Optional<Route> route(int source, int target) {
+        int cell = cell(source, target);
+        if (Double.isInfinite(costs[cell])) {
+            return Optional.empty();
+        }
+        Route route = routes[cell];
+        if (route == null) {
+            route = new Route(
+                    List.copyOf(paths.path(source, target)),
+                    costs[cell],
+                    distanceKm[cell],
+                    Duration.ofNanos(travelTimeNanos[cell]),
+                    graphVersion
+            );
+            routes[cell] = route;
+        }
+        return Optional.of(route);
+    }
+
+    private int cell(int source, int target) {
+        Objects.checkIndex(source, sources.size());
+        Objects.checkIndex(target, targets.size());
+        return source * targets.size() + target;
+    }
+
+    private static Map<NodeId, Integer> firstIndexByNode(List<NodeId> nodes) {
+        Map<NodeId, Integer> index = new HashMap<>(nodes.size() * 2);
+        for (int i = 0; i < nodes.size(); i++) {
+            index.putIfAbsent(nodes.get(i), i);
+        }
+        return index;
+    }
+}
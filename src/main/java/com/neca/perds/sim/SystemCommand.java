@@ -3,6 +3,7 @@ package com.neca.perds.sim;
 import com.neca.perds.graph.Edge;
 import com.neca.perds.graph.EdgeStatus;
 import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.graph.GraphMutation;
 import com.neca.perds.model.DispatchCentre;
 import com.neca.perds.model.Incident;
 import com.neca.perds.model.IncidentId;
@@ -13,6 +14,7 @@ import com.neca.perds.model.UnitId;
 import com.neca.perds.model.UnitStatus;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
 
 public sealed interface SystemCommand permits
@@ -23,6 +25,7 @@ public sealed interface SystemCommand permits
         SystemCommand.PutEdgeCommand,
         SystemCommand.RemoveEdgeCommand,
         SystemCommand.UpdateEdgeCommand,
+        SystemCommand.ApplyGraphBatchCommand,
         SystemCommand.RegisterUnitCommand,
         SystemCommand.SetUnitStatusCommand,
         SystemCommand.MoveUnitCommand,
@@ -75,6 +78,16 @@ public sealed interface SystemCommand permits
         }
     }
 
+    /**
+     * Applies several graph mutations as one atomic step, so that listeners, reroutes and dispatch react
+     * once for the whole batch.
+     */
+    record ApplyGraphBatchCommand(List<GraphMutation> mutations) implements SystemCommand {
+        public ApplyGraphBatchCommand {
+            mutations = List.copyOf(Objects.requireNonNull(mutations, "mutations"));
+        }
+    }
+
     record RegisterUnitCommand(ResponseUnit unit) implements SystemCommand {
         public RegisterUnitCommand {
             Objects.requireNonNull(unit, "unit");
@@ -0,0 +1,81 @@
+package com.neca.perds.app;
+
+import com.neca.perds.dispatch.DefaultDispatchEngine;
+import com.neca.perds.dispatch.NearestAvailableUnitPolicy;
+import com.neca.perds.dispatch.SeverityThenOldestPrioritizer;
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.metrics.InMemoryMetricsCollector;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import com.neca.perds.model.ResponseUnit;
+import com.neca.perds.model.UnitId;
+import com.neca.perds.model.UnitStatus;
+import com.neca.perds.model.UnitType;
+import com.neca.perds.prediction.NoOpDemandPredictor;
+import com.neca.perds.prediction.RepositionMove;
+import com.neca.perds.prediction.RepositionPlan;
+import com.neca.perds.sim.SystemCommand;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class PerdsControllerPrepositioningTest {
+    private static final Instant T0 = Instant.parse("2025-01-01T00:00:00Z");
+
+    private static final NodeId A = new NodeId("A");
+    private static final NodeId B = new NodeId("B");
+    private static final NodeId C = new NodeId("C");
+
+    @Test
+    void unitNamedByTwoMovesKeepsTheFirst() {
+        UnitId unitId = new UnitId("U1");
+        var plan = new RepositionPlan(List.of(
+                new RepositionMove(unitId, B, "first", Optional.empty()),
+                new RepositionMove(unitId, C, "second", Optional.empty())
+        ));
+        var controller = new PerdsController(
+                new AdjacencyMapGraph(),
+                new DefaultDispatchEngine(new SeverityThenOldestPrioritizer(), new NearestAvailableUnitPolicy()),
+                new NoOpDemandPredictor(),
+                (snapshot, forecast) -> plan,
+                new InMemoryMetricsCollector()
+        );
+        for (NodeId id : List.of(A, B, C)) {
+            controller.execute(new SystemCommand.AddNodeCommand(new Node(id, NodeType.CITY, Optional.empty(), id.value())), T0);
+        }
+        controller.execute(new SystemCommand.PutEdgeCommand(edge(A, B)), T0);
+        controller.execute(new SystemCommand.PutEdgeCommand(edge(A, C)), T0);
+        controller.execute(new SystemCommand.RegisterUnitCommand(new ResponseUnit(
+                unitId,
+                UnitType.AMBULANCE,
+                UnitStatus.AVAILABLE,
+                A,
+                Optional.empty(),
+                Optional.empty()
+        )), T0);
+
+        controller.execute(new SystemCommand.PrepositionUnitsCommand(Duration.ofHours(1)), T0);
+        Instant arrived = T0.plusSeconds(120);
+        controller.execute(new SystemCommand.AddNodeCommand(new Node(new NodeId("D"), NodeType.CITY, Optional.empty(), "D")), arrived);
+
+        ResponseUnit unit = controller.snapshot(arrived).units().stream()
+                .filter(u -> u.id().equals(unitId))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(B, unit.currentNodeId());
+        assertEquals(UnitStatus.AVAILABLE, unit.status());
+    }
+
+    private static Edge edge(NodeId from, NodeId to) {
+        return new Edge(from, to, new EdgeWeights(1.0, Duration.ofSeconds(60), 1.0), EdgeStatus.OPEN);
+    }
+}
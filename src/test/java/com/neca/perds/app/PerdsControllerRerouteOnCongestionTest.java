@@ -1,12 +1,15 @@
 package com.neca.perds.app;
 
 import com.neca.perds.dispatch.DefaultDispatchEngine;
+import com.neca.perds.dispatch.DispatchCommand;
 import com.neca.perds.dispatch.NearestAvailableUnitPolicy;
 import com.neca.perds.dispatch.SeverityThenOldestPrioritizer;
 import com.neca.perds.graph.AdjacencyMapGraph;
 import com.neca.perds.graph.Edge;
 import com.neca.perds.graph.EdgeStatus;
 import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.graph.GraphMutation;
 import com.neca.perds.metrics.InMemoryMetricsCollector;
 import com.neca.perds.model.Incident;
 import com.neca.perds.model.IncidentId;
@@ -26,12 +29,19 @@ import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 final class PerdsControllerRerouteOnCongestionTest {
+    private static final NodeId B = new NodeId("B");
+    private static final NodeId C = new NodeId("C");
+    private static final NodeId D = new NodeId("D");
+    private static final EdgeWeights CONGESTED = new EdgeWeights(5.0, Duration.ofSeconds(300), 1.0);
+
     @Test
     void reroutesActiveAssignmentWhenEdgeTravelTimeChanges() {
         Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
@@ -104,5 +114,117 @@ final class PerdsControllerRerouteOnCongestionTest {
         assertEquals(u1, updated.unitId());
         assertEquals(java.util.List.of(b, d, c), updated.route().nodes());
     }
-}
 
+    @Test
+    void batchedEdgeUpdatesRerouteOnceAndComputeDispatchOnce() {
+        Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
+
+        NodeId b = new NodeId("B");
+        NodeId c = new NodeId("C");
+        NodeId d = new NodeId("D");
+        NodeId e = new NodeId("E");
+
+        var graph = new AdjacencyMapGraph();
+        var metrics = new InMemoryMetricsCollector();
+        var controller = new PerdsController(
+                graph,
+                new DefaultDispatchEngine(new SeverityThenOldestPrioritizer(), new NearestAvailableUnitPolicy()),
+                new NoOpDemandPredictor(),
+                new NoOpPrepositioningStrategy(),
+                metrics
+        );
+        List<GraphChange> notified = new ArrayList<>();
+        controller.addGraphChangeListener((ignored, change) -> notified.add(change));
+
+        for (NodeId id : List.of(b, c, d, e)) {
+            controller.execute(new SystemCommand.AddNodeCommand(new Node(id, NodeType.CITY, Optional.empty(), id.value())), t0);
+        }
+        EdgeWeights fast = new EdgeWeights(5.0, Duration.ofSeconds(100), 1.0);
+        EdgeWeights slow = new EdgeWeights(5.0, Duration.ofSeconds(150), 1.0);
+        EdgeWeights congested = new EdgeWeights(5.0, Duration.ofSeconds(400), 1.0);
+        controller.execute(new SystemCommand.PutEdgeCommand(new Edge(b, c, fast, EdgeStatus.OPEN)), t0);
+        controller.execute(new SystemCommand.PutEdgeCommand(new Edge(c, e, fast, EdgeStatus.OPEN)), t0);
+        controller.execute(new SystemCommand.PutEdgeCommand(new Edge(b, d, slow, EdgeStatus.OPEN)), t0);
+        controller.execute(new SystemCommand.PutEdgeCommand(new Edge(d, e, slow, EdgeStatus.OPEN)), t0);
+
+        UnitId u1 = new UnitId("U1");
+        controller.execute(new SystemCommand.RegisterUnitCommand(new ResponseUnit(
+                u1, UnitType.AMBULANCE, UnitStatus.AVAILABLE, b, Optional.empty(), Optional.empty())), t0);
+        IncidentId incidentId = new IncidentId("I1");
+        controller.execute(new SystemCommand.ReportIncidentCommand(new Incident(
+                incidentId, e, IncidentSeverity.HIGH, Set.of(UnitType.AMBULANCE), IncidentStatus.REPORTED, t0, Optional.empty()
+        )), t0);
+        assertEquals(List.of(b, c, e), controller.snapshot(t0).assignments().stream().findFirst().orElseThrow().route().nodes());
+
+        int computations = metrics.computations().size();
+        int commands = metrics.commandsApplied().size();
+        notified.clear();
+        long version = graph.version();
+        Instant t1 = t0.plusSeconds(60);
+        controller.execute(new SystemCommand.ApplyGraphBatchCommand(List.of(
+                new GraphMutation.UpdateEdge(b, c, congested, EdgeStatus.OPEN),
+                new GraphMutation.UpdateEdge(c, e, congested, EdgeStatus.OPEN)
+        )), t1);
+
+        assertEquals(version + 2, graph.version());
+        assertEquals(List.of(version + 1, version + 2), notified.stream().map(GraphChange::version).toList());
+        assertEquals(computations + 1, metrics.computations().size());
+        var reroutes = metrics.commandsApplied().subList(commands, metrics.commandsApplied().size());
+        assertEquals(1, reroutes.size());
+        var reroute = (DispatchCommand.RerouteUnitCommand) reroutes.getFirst().command();
+        assertEquals(u1, reroute.unitId());
+        assertEquals(List.of(b, d, e), reroute.newRoute().nodes());
+        assertEquals(List.of(b, d, e), controller.snapshot(t1).assignments().stream().findFirst().orElseThrow().route().nodes());
+    }
+
+    @Test
+    void putEdgeOverwritingAssignedEdgeReroutes() {
+        Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
+        var controller = assignedOnDirectEdge(t0);
+
+        Instant t1 = t0.plusSeconds(60);
+        controller.execute(new SystemCommand.PutEdgeCommand(new Edge(B, C, CONGESTED, EdgeStatus.OPEN)), t1);
+
+        assertEquals(List.of(B, D, C), controller.snapshot(t1).assignments().stream().findFirst().orElseThrow().route().nodes());
+    }
+
+    @Test
+    void batchedPutEdgeOverwritingAssignedEdgeReroutes() {
+        Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
+        var controller = assignedOnDirectEdge(t0);
+
+        Instant t1 = t0.plusSeconds(60);
+        controller.execute(new SystemCommand.ApplyGraphBatchCommand(List.of(
+                new GraphMutation.PutEdge(new Edge(B, C, CONGESTED, EdgeStatus.OPEN))
+        )), t1);
+
+        assertEquals(List.of(B, D, C), controller.snapshot(t1).assignments().stream().findFirst().orElseThrow().route().nodes());
+    }
+
+    /** A unit at B assigned to an incident at C over the direct edge, with a slower route via D. */
+    private static PerdsController assignedOnDirectEdge(Instant t0) {
+        var controller = new PerdsController(
+                new AdjacencyMapGraph(),
+                new DefaultDispatchEngine(new SeverityThenOldestPrioritizer(), new NearestAvailableUnitPolicy()),
+                new NoOpDemandPredictor(),
+                new NoOpPrepositioningStrategy(),
+                new InMemoryMetricsCollector()
+        );
+        for (NodeId id : List.of(B, C, D)) {
+            controller.execute(new SystemCommand.AddNodeCommand(new Node(id, NodeType.CITY, Optional.empty(), id.value())), t0);
+        }
+        EdgeWeights direct = new EdgeWeights(5.0, Duration.ofSeconds(100), 1.0);
+        EdgeWeights viaD = new EdgeWeights(5.0, Duration.ofSeconds(80), 1.0);
+        controller.execute(new SystemCommand.PutEdgeCommand(new Edge(B, C, direct, EdgeStatus.OPEN)), t0);
+        controller.execute(new SystemCommand.PutEdgeCommand(new Edge(B, D, viaD, EdgeStatus.OPEN)), t0);
+        controller.execute(new SystemCommand.PutEdgeCommand(new Edge(D, C, viaD, EdgeStatus.OPEN)), t0);
+
+        controller.execute(new SystemCommand.RegisterUnitCommand(new ResponseUnit(
+                new UnitId("U1"), UnitType.AMBULANCE, UnitStatus.AVAILABLE, B, Optional.empty(), Optional.empty())), t0);
+        controller.execute(new SystemCommand.ReportIncidentCommand(new Incident(
+                new IncidentId("I1"), C, IncidentSeverity.HIGH, Set.of(UnitType.AMBULANCE), IncidentStatus.REPORTED, t0, Optional.empty()
+        )), t0);
+        assertEquals(List.of(B, C), controller.snapshot(t0).assignments().stream().findFirst().orElseThrow().route().nodes());
+        return controller;
+    }
+}
@@ -21,15 +21,19 @@ import com.neca.perds.model.UnitStatus;
 import com.neca.perds.model.UnitType;
 import com.neca.perds.prediction.NoOpDemandPredictor;
 import com.neca.perds.prediction.NoOpPrepositioningStrategy;
+import com.neca.perds.routing.AlternativeRouteFinder;
+import com.neca.perds.routing.DijkstraRouter;
 import com.neca.perds.sim.SystemCommand;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 final class PerdsControllerRouteInvalidationTest {
     @Test
@@ -112,5 +116,110 @@ final class PerdsControllerRouteInvalidationTest {
         assertEquals(u1, reassigned.unitId());
         assertEquals(java.util.List.of(a, c), reassigned.route().nodes());
     }
-}
 
+    @Test
+    void failsOverToPrecomputedAlternativeWhenAssignedRouteIsClosed() {
+        Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
+
+        NodeId b = new NodeId("B");
+        NodeId c = new NodeId("C");
+        NodeId d = new NodeId("D");
+
+        var graph = new AdjacencyMapGraph();
+        var controller = new PerdsController(
+                graph,
+                new DefaultDispatchEngine(new SeverityThenOldestPrioritizer(), new NearestAvailableUnitPolicy()),
+                new NoOpDemandPredictor(),
+                new NoOpPrepositioningStrategy(),
+                new InMemoryMetricsCollector()
+        );
+
+        controller.execute(new SystemCommand.AddNodeCommand(new Node(b, NodeType.CITY, Optional.empty(), "B")), t0);
+        controller.execute(new SystemCommand.AddNodeCommand(new Node(c, NodeType.CITY, Optional.empty(), "C")), t0);
+        controller.execute(new SystemCommand.AddNodeCommand(new Node(d, NodeType.CITY, Optional.empty(), "D")), t0);
+
+        EdgeWeights direct = new EdgeWeights(5.0, Duration.ofSeconds(100), 1.0);
+        EdgeWeights viaD = new EdgeWeights(3.0, Duration.ofSeconds(60), 1.0);
+        controller.execute(new SystemCommand.PutEdgeCommand(new Edge(b, c, direct, EdgeStatus.OPEN)), t0);
+        controller.execute(new SystemCommand.PutEdgeCommand(new Edge(b, d, viaD, EdgeStatus.OPEN)), t0);
+        controller.execute(new SystemCommand.PutEdgeCommand(new Edge(d, c, viaD, EdgeStatus.OPEN)), t0);
+
+        UnitId u1 = new UnitId("U1");
+        controller.execute(new SystemCommand.RegisterUnitCommand(new ResponseUnit(
+                u1,
+                UnitType.AMBULANCE,
+                UnitStatus.AVAILABLE,
+                b,
+                Optional.empty(),
+                Optional.empty()
+        )), t0);
+
+        IncidentId incidentId = new IncidentId("I1");
+        controller.execute(new SystemCommand.ReportIncidentCommand(new Incident(
+                incidentId,
+                c,
+                IncidentSeverity.HIGH,
+                Set.of(UnitType.AMBULANCE),
+                IncidentStatus.REPORTED,
+                t0,
+                Optional.empty()
+        )), t0);
+
+        var initial = controller.snapshot(t0).assignments().stream().findFirst().orElseThrow();
+        assertEquals(java.util.List.of(b, c), initial.route().nodes());
+        assertEquals(java.util.List.of(b, d, c), initial.alternatives().getFirst().nodes());
+
+        Instant t1 = t0.plusSeconds(60);
+        controller.execute(new SystemCommand.UpdateEdgeCommand(b, c, direct, EdgeStatus.CLOSED), t1);
+
+        var failedOver = controller.snapshot(t1).assignments().stream().findFirst().orElseThrow();
+        assertEquals(u1, failedOver.unitId());
+        assertEquals(java.util.List.of(b, d, c), failedOver.route().nodes());
+        assertEquals(Duration.ofSeconds(120), failedOver.route().totalTravelTime());
+        assertEquals(graph.version(), failedOver.route().graphVersionUsed());
+        assertTrue(failedOver.alternatives().stream().noneMatch(r -> r.nodes().equals(failedOver.route().nodes())));
+    }
+
+    @Test
+    void disabledAlternativesRerouteClosuresBySearch() {
+        Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
+
+        NodeId b = new NodeId("B");
+        NodeId c = new NodeId("C");
+        NodeId d = new NodeId("D");
+
+        var graph = new AdjacencyMapGraph();
+        var controller = new PerdsController(
+                graph,
+                new DefaultDispatchEngine(new SeverityThenOldestPrioritizer(), new NearestAvailableUnitPolicy()),
+                new NoOpDemandPredictor(),
+                new NoOpPrepositioningStrategy(),
+                new InMemoryMetricsCollector(),
+                new DijkstraRouter(),
+                AlternativeRouteFinder.disabled()
+        );
+
+        for (NodeId id : List.of(b, c, d)) {
+            controller.execute(new SystemCommand.AddNodeCommand(new Node(id, NodeType.CITY, Optional.empty(), id.value())), t0);
+        }
+        EdgeWeights direct = new EdgeWeights(5.0, Duration.ofSeconds(100), 1.0);
+        EdgeWeights viaD = new EdgeWeights(3.0, Duration.ofSeconds(60), 1.0);
+        controller.execute(new SystemCommand.PutEdgeCommand(new Edge(b, c, direct, EdgeStatus.OPEN)), t0);
+        controller.execute(new SystemCommand.PutEdgeCommand(new Edge(b, d, viaD, EdgeStatus.OPEN)), t0);
+        controller.execute(new SystemCommand.PutEdgeCommand(new Edge(d, c, viaD, EdgeStatus.OPEN)), t0);
+        controller.execute(new SystemCommand.RegisterUnitCommand(new ResponseUnit(
+                new UnitId("U1"), UnitType.AMBULANCE, UnitStatus.AVAILABLE, b, Optional.empty(), Optional.empty())), t0);
+        controller.execute(new SystemCommand.ReportIncidentCommand(new Incident(
+                new IncidentId("I1"), c, IncidentSeverity.HIGH, Set.of(UnitType.AMBULANCE), IncidentStatus.REPORTED, t0, Optional.empty()
+        )), t0);
+
+        var initial = controller.snapshot(t0).assignments().stream().findFirst().orElseThrow();
+        assertEquals(List.of(b, c), initial.route().nodes());
+        assertTrue(initial.alternatives().isEmpty());
+
+        Instant t1 = t0.plusSeconds(60);
+        controller.execute(new SystemCommand.UpdateEdgeCommand(b, c, direct, EdgeStatus.CLOSED), t1);
+
+        assertEquals(List.of(b, d, c), controller.snapshot(t1).assignments().stream().findFirst().orElseThrow().route().nodes());
+    }
+}
@@ -49,4 +49,22 @@ final class BinaryHeapIndexedMinPriorityQueueTest {
         assertEquals(7, min);
         assertFalse(pq.contains(7));
     }
+
+    @Test
+    void clear_removesAllEntriesAndAllowsReuse() {
+        var pq = new BinaryHeapIndexedMinPriorityQueue(10);
+
+        pq.insert(4, 4.0);
+        pq.insert(7, 1.0);
+        pq.clear();
+
+        assertTrue(pq.isEmpty());
+        assertFalse(pq.contains(4));
+        assertFalse(pq.contains(7));
+
+        pq.insert(7, 2.0);
+        pq.insert(4, 3.0);
+        assertEquals(7, pq.extractMin());
+        assertEquals(4, pq.extractMin());
+    }
 }
@@ -0,0 +1,80 @@
+package com.neca.perds.ds;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class DaryHeapIndexedMinPriorityQueueTest {
+    @Test
+    void insertDecreaseAndExtract_ordersByPriority() {
+        var pq = new DaryHeapIndexedMinPriorityQueue();
+
+        pq.insert(3, 3.0);
+        pq.insert(1, 5.0);
+        pq.insert(2, 2.0);
+        pq.decreaseKey(1, 1.0);
+
+        assertEquals(1.0, pq.priorityOf(1), 1e-9);
+        assertEquals(1, pq.peekMin());
+        assertEquals(1, pq.extractMin());
+        assertEquals(2, pq.extractMin());
+        assertEquals(3, pq.extractMin());
+        assertTrue(pq.isEmpty());
+        assertThrows(IllegalStateException.class, pq::extractMin);
+    }
+
+    @Test
+    void clear_removesAllEntriesAndAllowsReuse() {
+        var pq = new DaryHeapIndexedMinPriorityQueue(3, 10);
+
+        pq.insert(4, 4.0);
+        pq.insert(7, 1.0);
+        pq.clear();
+
+        assertTrue(pq.isEmpty());
+        assertFalse(pq.contains(4));
+        pq.insert(7, 2.0);
+        pq.insert(4, 3.0);
+        assertEquals(7, pq.extractMin());
+        assertEquals(4, pq.extractMin());
+    }
+
+    @Test
+    void randomOperations_matchReferenceModel() {
+        var random = new Random(1_234_567L);
+        for (int arity : new int[] {2, 3, 4, 8}) {
+            var pq = new DaryHeapIndexedMinPriorityQueue(arity, 4);
+            Map<Integer, Double> model = new HashMap<>();
+
+            for (int step = 0; step < 10_000; step++) {
+                int roll = random.nextInt(100);
+                if (model.isEmpty() || roll < 45) {
+                    int index = random.nextInt(500);
+                    if (model.containsKey(index)) {
+                        continue;
+                    }
+                    double priority = random.nextDouble() * 2_000.0 - 1_000.0;
+                    pq.insert(index, priority);
+                    model.put(index, priority);
+                } else if (roll < 75) {
+                    int index = model.keySet().iterator().next();
+                    double next = model.get(index) - random.nextDouble() * 250.0;
+                    pq.decreaseKey(index, next);
+                    model.put(index, next);
+                } else {
+                    double expected = model.values().stream().mapToDouble(Double::doubleValue).min().orElseThrow();
+                    int extracted = pq.extractMin();
+                    assertEquals(expected, model.remove(extracted), 0.0);
+                }
+                assertEquals(model.size(), pq.size());
+            }
+        }
+    }
+}
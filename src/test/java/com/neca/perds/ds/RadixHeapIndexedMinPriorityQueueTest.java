@@ -0,0 +1,99 @@
+package com.neca.perds.ds;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class RadixHeapIndexedMinPriorityQueueTest {
+    @Test
+    void insertDecreaseAndExtract_ordersByPriority() {
+        var pq = new RadixHeapIndexedMinPriorityQueue(10);
+
+        pq.insert(1, 500.0);
+        pq.insert(2, 20.0);
+        pq.insert(3, 30.0);
+        pq.decreaseKey(1, 10.0);
+
+        assertEquals(10.0, pq.priorityOf(1));
+        assertEquals(1, pq.peekMin());
+        assertEquals(1, pq.extractMin());
+        assertEquals(2, pq.extractMin());
+        pq.insert(4, 25.0);
+        assertEquals(4, pq.extractMin());
+        assertEquals(3, pq.extractMin());
+        assertTrue(pq.isEmpty());
+    }
+
+    @Test
+    void rejectsFractionalNegativeAndNonMonotoneKeys() {
+        var pq = new RadixHeapIndexedMinPriorityQueue(10);
+
+        assertThrows(IllegalArgumentException.class, () -> pq.insert(1, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> pq.insert(1, -1.0));
+        assertThrows(IllegalArgumentException.class, () -> pq.insert(1, Double.POSITIVE_INFINITY));
+
+        pq.insert(1, 10.0);
+        pq.insert(2, 20.0);
+        pq.extractMin();
+        assertThrows(IllegalArgumentException.class, () -> pq.insert(3, 9.0));
+        assertThrows(IllegalArgumentException.class, () -> pq.decreaseKey(2, 9.0));
+        assertThrows(IllegalArgumentException.class, () -> pq.decreaseKey(2, 21.0));
+    }
+
+    @Test
+    void clear_removesAllEntriesAndResetsBound() {
+        var pq = new RadixHeapIndexedMinPriorityQueue(10);
+
+        pq.insert(4, 40.0);
+        pq.insert(7, 70.0);
+        pq.extractMin();
+        pq.clear();
+
+        assertTrue(pq.isEmpty());
+        assertFalse(pq.contains(7));
+        pq.insert(7, 2.0);
+        pq.insert(4, 3.0);
+        assertEquals(7, pq.extractMin());
+        assertEquals(4, pq.extractMin());
+    }
+
+    @Test
+    void randomMonotoneOperations_matchReferenceModel() {
+        var random = new Random(8_675_309L);
+        var pq = new RadixHeapIndexedMinPriorityQueue(4);
+        Map<Integer, Long> model = new HashMap<>();
+        long lastMin = 0L;
+
+        for (int step = 0; step < 20_000; step++) {
+            int roll = random.nextInt(100);
+            if (model.isEmpty() || roll < 45) {
+                int index = random.nextInt(500);
+                if (model.containsKey(index)) {
+                    continue;
+                }
+                long priority = lastMin + random.nextInt(random.nextBoolean() ? 10 : 1_000_000);
+                pq.insert(index, priority);
+                model.put(index, priority);
+            } else if (roll < 75) {
+                int index = model.keySet().iterator().next();
+                long current = model.get(index);
+                long next = lastMin + (long) (random.nextDouble() * (current - lastMin));
+                pq.decreaseKey(index, next);
+                model.put(index, next);
+            } else {
+                long expected = model.values().stream().mapToLong(Long::longValue).min().orElseThrow();
+                int extracted = pq.extractMin();
+                assertEquals(expected, (long) model.remove(extracted));
+                lastMin = expected;
+            }
+            assertEquals(model.size(), pq.size());
+        }
+    }
+}
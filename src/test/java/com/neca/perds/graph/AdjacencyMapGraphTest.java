@@ -6,10 +6,16 @@ import com.neca.perds.model.NodeType;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 final class AdjacencyMapGraphTest {
     @Test
@@ -37,4 +43,118 @@ final class AdjacencyMapGraphTest {
         graph.addNode(new Node(b, NodeType.CITY, Optional.empty(), "B"));
         assertDoesNotThrow(() -> graph.putEdge(edge));
     }
+
+    @Test
+    void incomingEdges_mirrorOutgoingEdgesThroughEveryMutation() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = new NodeId("A");
+        NodeId b = new NodeId("B");
+        NodeId c = new NodeId("C");
+        graph.addNode(new Node(a, NodeType.CITY, Optional.empty(), "A"));
+        graph.addNode(new Node(b, NodeType.CITY, Optional.empty(), "B"));
+        graph.addNode(new Node(c, NodeType.CITY, Optional.empty(), "C"));
+        var weights = new EdgeWeights(1.0, Duration.ofSeconds(1), 1.0);
+        Edge ab = new Edge(a, b, weights, EdgeStatus.OPEN);
+        Edge cb = new Edge(c, b, weights, EdgeStatus.OPEN);
+        Edge bc = new Edge(b, c, weights, EdgeStatus.OPEN);
+        graph.putEdge(ab);
+        graph.putEdge(cb);
+        graph.putEdge(bc);
+
+        assertEquals(Set.of(ab, cb), new HashSet<>(graph.incomingEdges(b)));
+        assertEquals(Set.of(bc), new HashSet<>(graph.incomingEdges(c)));
+        assertTrue(graph.incomingEdges(a).isEmpty());
+        assertTrue(graph.incomingEdges(new NodeId("Z")).isEmpty());
+
+        graph.updateEdge(a, b, weights, EdgeStatus.CLOSED);
+        assertEquals(Set.of(new Edge(a, b, weights, EdgeStatus.CLOSED), cb), new HashSet<>(graph.incomingEdges(b)));
+
+        graph.removeEdge(c, b);
+        assertEquals(Set.of(new Edge(a, b, weights, EdgeStatus.CLOSED)), new HashSet<>(graph.incomingEdges(b)));
+
+        graph.removeNode(b);
+        assertTrue(graph.incomingEdges(b).isEmpty());
+        assertTrue(graph.incomingEdges(c).isEmpty());
+        assertTrue(graph.outgoingEdges(a).isEmpty());
+        assertTrue(graph.getEdge(a, b).isEmpty());
+    }
+
+    @Test
+    void applyBatch_compactsChangesAndAdvancesVersionOnce() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = new NodeId("A");
+        NodeId b = new NodeId("B");
+        NodeId c = new NodeId("C");
+        graph.addNode(new Node(a, NodeType.CITY, Optional.empty(), "A"));
+        graph.addNode(new Node(b, NodeType.CITY, Optional.empty(), "B"));
+        var slow = new EdgeWeights(1.0, Duration.ofSeconds(60), 1.0);
+        var fast = new EdgeWeights(1.0, Duration.ofSeconds(10), 1.0);
+        Edge ab = new Edge(a, b, slow, EdgeStatus.OPEN);
+        graph.putEdge(ab);
+        graph.putEdge(new Edge(b, a, slow, EdgeStatus.OPEN));
+        long base = graph.version();
+
+        GraphChangeSet changes = graph.applyBatch(List.of(
+                new GraphMutation.UpdateEdge(a, b, fast, EdgeStatus.OPEN),
+                new GraphMutation.UpdateEdge(a, b, fast, EdgeStatus.CLOSED),
+                new GraphMutation.UpdateEdge(b, a, fast, EdgeStatus.OPEN),
+                new GraphMutation.UpdateEdge(b, a, slow, EdgeStatus.OPEN),
+                new GraphMutation.AddNode(new Node(c, NodeType.CITY, Optional.empty(), "C")),
+                new GraphMutation.PutEdge(new Edge(b, c, fast, EdgeStatus.OPEN))
+        ));
+
+        assertEquals(base, changes.baseVersion());
+        assertEquals(base + 3, changes.version());
+        assertEquals(changes.version(), graph.version());
+        assertEquals(List.of(
+                new GraphChange.EdgeChanged(a, b, Optional.of(ab), Optional.of(new Edge(a, b, fast, EdgeStatus.CLOSED)), base + 1),
+                new GraphChange.NodeAdded(new Node(c, NodeType.CITY, Optional.empty(), "C"), base + 2),
+                new GraphChange.EdgeChanged(b, c, Optional.empty(), Optional.of(new Edge(b, c, fast, EdgeStatus.OPEN)), base + 3)
+        ), changes.changes());
+        assertEquals(Set.of(c), changes.touchedNodes());
+        assertEquals(2, changes.edgeChanges().size());
+        assertFalse(changes.isMetricOnly());
+
+        GraphChangeSet noOp = graph.applyBatch(List.of(
+                new GraphMutation.UpdateEdge(b, a, fast, EdgeStatus.OPEN),
+                new GraphMutation.UpdateEdge(b, a, slow, EdgeStatus.OPEN)
+        ));
+        assertTrue(noOp.isEmpty());
+        assertEquals(base + 3, graph.version());
+    }
+
+    @Test
+    void applyBatch_leavesGraphUnchangedWhenAMutationFails() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = new NodeId("A");
+        NodeId b = new NodeId("B");
+        NodeId c = new NodeId("C");
+        graph.addNode(new Node(a, NodeType.CITY, Optional.empty(), "A"));
+        graph.addNode(new Node(b, NodeType.CITY, Optional.empty(), "B"));
+        var weights = new EdgeWeights(1.0, Duration.ofSeconds(1), 1.0);
+        Edge ab = new Edge(a, b, weights, EdgeStatus.OPEN);
+        Edge ba = new Edge(b, a, weights, EdgeStatus.OPEN);
+        graph.putEdge(ab);
+        graph.putEdge(ba);
+        long version = graph.version();
+        int indexOfA = graph.nodeIndex().indexOf(a);
+
+        assertThrows(IllegalStateException.class, () -> graph.applyBatch(List.of(
+                new GraphMutation.UpdateEdge(a, b, weights, EdgeStatus.CLOSED),
+                new GraphMutation.RemoveNode(a),
+                new GraphMutation.AddNode(new Node(c, NodeType.CITY, Optional.empty(), "C")),
+                new GraphMutation.PutEdge(new Edge(b, c, weights, EdgeStatus.OPEN)),
+                new GraphMutation.RemoveEdge(b, c),
+                new GraphMutation.UpdateEdge(b, c, weights, EdgeStatus.OPEN)
+        )));
+
+        assertEquals(version, graph.version());
+        assertEquals(Set.of(a, b), Set.copyOf(graph.nodeIds()));
+        assertEquals(indexOfA, graph.nodeIndex().indexOf(a));
+        assertEquals(-1, graph.nodeIndex().indexOf(c));
+        assertEquals(Optional.of(ab), graph.getEdge(a, b));
+        assertEquals(Optional.of(ba), graph.getEdge(b, a));
+        assertEquals(Set.of(ba), Set.copyOf(graph.incomingEdges(a)));
+        assertEquals(Set.of(ab), Set.copyOf(graph.incomingEdges(b)));
+    }
 }
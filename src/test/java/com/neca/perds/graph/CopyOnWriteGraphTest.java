@@ -0,0 +1,199 @@
+package com.neca.perds.graph;
+
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class CopyOnWriteGraphTest {
+    private static final NodeId A = new NodeId("A");
+    private static final NodeId B = new NodeId("B");
+    private static final NodeId C = new NodeId("C");
+
+    @Test
+    void pinnedSnapshotsAreUnaffectedByLaterWrites() {
+        var graph = new CopyOnWriteGraph();
+        graph.addNode(node(A));
+        graph.addNode(node(B));
+        Edge ab = edge(A, B, 60);
+        graph.putEdge(ab);
+        CopyOnWriteGraph.Snapshot pinned = graph.pin();
+        int indexOfB = pinned.indexOf(B);
+
+        graph.updateEdge(A, B, ab.weights(), EdgeStatus.CLOSED);
+        graph.addNode(node(C));
+        graph.putEdge(edge(B, C, 10));
+        graph.removeNode(B);
+
+        assertEquals(3, pinned.version());
+        assertEquals(Set.of(A, B), Set.copyOf(pinned.nodeIds()));
+        assertEquals(Optional.of(ab), pinned.getEdge(A, B));
+        assertEquals(List.of(ab), List.copyOf(pinned.incomingEdges(B)));
+        assertTrue(pinned.outgoingEdges(B).isEmpty());
+        assertEquals(B, pinned.nodeIdAt(indexOfB));
+
+        CopyOnWriteGraph.Snapshot latest = graph.pin();
+        assertEquals(graph.version(), latest.version());
+        assertEquals(Set.of(A, C), Set.copyOf(latest.nodeIds()));
+        assertTrue(latest.getEdge(A, B).isEmpty());
+        assertTrue(latest.outgoingEdges(A).isEmpty());
+        assertEquals(-1, latest.indexOf(B));
+        assertNull(latest.nodeIdAt(indexOfB));
+
+        graph.addNode(node(new NodeId("D")));
+        assertEquals(indexOfB, graph.nodeIndex().indexOf(new NodeId("D")));
+    }
+
+    @Test
+    void matchesAdjacencyMapGraph_underRandomMutations() {
+        var random = new Random(9_191L);
+        var expected = new AdjacencyMapGraph();
+        var graph = new CopyOnWriteGraph();
+        List<NodeId> ids = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            ids.add(new NodeId("N" + i));
+        }
+
+        for (int step = 0; step < 6_000; step++) {
+            NodeId from = ids.get(random.nextInt(ids.size()));
+            NodeId to = ids.get(random.nextInt(ids.size()));
+            int action = random.nextInt(10);
+            if (action < 3) {
+                assertEquals(expected.addNode(node(from)), graph.addNode(node(from)));
+            } else if (action == 3) {
+                assertEquals(expected.removeNode(from), graph.removeNode(from));
+            } else if (action < 7) {
+                Edge edge = edge(from, to, 1 + random.nextInt(600));
+                if (expected.getNode(from).isPresent() && expected.getNode(to).isPresent()) {
+                    assertEquals(expected.putEdge(edge), graph.putEdge(edge));
+                } else {
+                    assertThrows(IllegalStateException.class, () -> graph.putEdge(edge));
+                }
+            } else if (action < 9 && expected.getEdge(from, to).isPresent()) {
+                var weights = new EdgeWeights(2.0, Duration.ofSeconds(1 + random.nextInt(600)), 1.0);
+                assertEquals(
+                        expected.updateEdge(from, to, weights, EdgeStatus.OPEN),
+                        graph.updateEdge(from, to, weights, EdgeStatus.OPEN)
+                );
+            } else {
+                assertEquals(expected.removeEdge(from, to), graph.removeEdge(from, to));
+            }
+        }
+
+        CopyOnWriteGraph.Snapshot snapshot = graph.pin();
+        assertEquals(expected.version(), snapshot.version());
+        assertEquals(Set.copyOf(expected.nodeIds()), Set.copyOf(snapshot.nodeIds()));
+        assertEquals(expected.nodeIds().size(), snapshot.nodeIds().size());
+        Set<Integer> indices = new HashSet<>();
+        for (NodeId id : ids) {
+            assertEquals(expected.getNode(id), snapshot.getNode(id));
+            assertEquals(new HashSet<>(expected.outgoingEdges(id)), new HashSet<>(snapshot.outgoingEdges(id)));
+            assertEquals(new HashSet<>(expected.incomingEdges(id)), new HashSet<>(snapshot.incomingEdges(id)));
+            int index = snapshot.indexOf(id);
+            assertEquals(expected.getNode(id).isPresent(), index >= 0);
+            if (index >= 0) {
+                assertTrue(indices.add(index));
+                assertTrue(index < snapshot.capacity());
+                assertEquals(id, snapshot.nodeIdAt(index));
+            }
+        }
+    }
+
+    @Test
+    void batchesPublishOneVersion_andFailedBatchesNothing() {
+        var graph = new CopyOnWriteGraph();
+        graph.addNode(node(A));
+        graph.addNode(node(B));
+        CopyOnWriteGraph.Snapshot before = graph.pin();
+
+        assertThrows(IllegalStateException.class, () -> graph.applyBatch(List.of(
+                new GraphMutation.PutEdge(edge(A, B, 60)),
+                new GraphMutation.AddNode(node(C)),
+                new GraphMutation.UpdateEdge(B, C, edge(B, C, 1).weights(), EdgeStatus.OPEN)
+        )));
+        assertSame(before, graph.pin());
+
+        GraphChangeSet changes = graph.applyBatch(List.of(
+                new GraphMutation.PutEdge(edge(A, B, 60)),
+                new GraphMutation.PutEdge(edge(A, B, 30)),
+                new GraphMutation.AddNode(node(C))
+        ));
+        assertEquals(before.version() + 2, graph.version());
+        assertEquals(changes, graph.changesSince(before.version()).orElseThrow());
+        assertEquals(Optional.of(edge(A, B, 30)), graph.getEdge(A, B));
+        assertTrue(before.getEdge(A, B).isEmpty());
+        assertFalse(before.getNode(C).isPresent());
+    }
+
+    @Test
+    void concurrentReadersAlwaysSeeAConsistentVersion() throws InterruptedException {
+        var graph = new CopyOnWriteGraph();
+        List<NodeId> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            NodeId id = new NodeId("N" + i);
+            ids.add(id);
+            graph.addNode(node(id));
+        }
+        for (int i = 1; i < ids.size(); i++) {
+            graph.putEdge(edge(ids.get(i - 1), ids.get(i), 1));
+        }
+
+        var stop = new AtomicBoolean();
+        var failure = new AtomicReference<String>();
+        List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            Thread reader = new Thread(() -> {
+                while (!stop.get() && failure.get() == null) {
+                    CopyOnWriteGraph.Snapshot snapshot = graph.pin();
+                    Set<Duration> times = new HashSet<>();
+                    for (int i = 1; i < ids.size(); i++) {
+                        times.add(snapshot.getEdge(ids.get(i - 1), ids.get(i)).orElseThrow().weights().travelTime());
+                    }
+                    if (times.size() != 1) {
+                        failure.set("mixed versions in snapshot " + snapshot.version() + ": " + times);
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+
+        for (int round = 2; round <= 200; round++) {
+            List<GraphMutation> batch = new ArrayList<>();
+            for (int i = 1; i < ids.size(); i++) {
+                batch.add(new GraphMutation.PutEdge(edge(ids.get(i - 1), ids.get(i), round)));
+            }
+            graph.applyBatch(batch);
+        }
+        stop.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+    }
+
+    private static Node node(NodeId id) {
+        return new Node(id, NodeType.CITY, Optional.empty(), id.value());
+    }
+
+    private static Edge edge(NodeId from, NodeId to, long seconds) {
+        return new Edge(from, to, new EdgeWeights(1.0, Duration.ofSeconds(seconds), 1.0), EdgeStatus.OPEN);
+    }
+}
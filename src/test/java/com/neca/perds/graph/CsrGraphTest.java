@@ -0,0 +1,119 @@
+package com.neca.perds.graph;
+
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class CsrGraphTest {
+    @Test
+    void snapshotMatchesSourceGraph() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = new NodeId("A");
+        NodeId b = new NodeId("B");
+        NodeId c = new NodeId("C");
+        graph.addNode(new Node(a, NodeType.CITY, Optional.empty(), "A"));
+        graph.addNode(new Node(b, NodeType.CITY, Optional.empty(), "B"));
+        graph.addNode(new Node(c, NodeType.CITY, Optional.empty(), "C"));
+
+        Edge ab = new Edge(a, b, new EdgeWeights(5.0, Duration.ofSeconds(300), 0.5), EdgeStatus.OPEN);
+        Edge ac = new Edge(a, c, new EdgeWeights(9.0, Duration.ofMillis(1500), 1.0), EdgeStatus.CLOSED);
+        Edge cb = new Edge(c, b, new EdgeWeights(1.0, Duration.ofSeconds(60), 1.0), EdgeStatus.OPEN);
+        graph.putEdge(ab);
+        graph.putEdge(ac);
+        graph.putEdge(cb);
+
+        CsrGraph csr = CsrGraph.of(graph);
+
+        assertEquals(graph.version(), csr.version());
+        assertEquals(3, csr.nodeCount());
+        assertEquals(3, csr.edgeCount());
+        assertEquals(Set.copyOf(graph.nodeIds()), Set.copyOf(csr.nodeIds()));
+        assertEquals(Set.of(ab, ac), new HashSet<>(csr.outgoingEdges(a)));
+        assertEquals(Optional.of(ac), csr.getEdge(a, c));
+        assertTrue(csr.getEdge(b, a).isEmpty());
+        assertTrue(csr.outgoingEdges(b).isEmpty());
+
+        int ai = csr.indexOf(a);
+        int ci = csr.indexOf(c);
+        int e = csr.edgeIndex(ai, ci);
+        assertEquals(ai, csr.edgeSource(e));
+        assertEquals(ci, csr.edgeTarget(e));
+        assertEquals(9.0, csr.edgeDistanceKm(e), 1e-9);
+        assertEquals(Duration.ofMillis(1500).toNanos(), csr.edgeTravelTimeNanos(e));
+        assertEquals(EdgeStatus.CLOSED, csr.edgeStatus(e));
+        assertEquals(ac, csr.edge(e));
+        assertEquals(2, csr.edgesEnd(ai) - csr.edgesStart(ai));
+        assertEquals(-1, csr.indexOf(new NodeId("Z")));
+
+        int bi = csr.indexOf(b);
+        Set<Edge> incomingB = new HashSet<>();
+        for (int k = csr.incomingStart(bi); k < csr.incomingEnd(bi); k++) {
+            assertEquals(bi, csr.edgeTarget(csr.incomingEdge(k)));
+            incomingB.add(csr.edge(csr.incomingEdge(k)));
+        }
+        assertEquals(Set.of(ab, cb), incomingB);
+        assertEquals(incomingB, new HashSet<>(csr.incomingEdges(b)));
+        assertTrue(csr.incomingEdges(a).isEmpty());
+    }
+
+    @Test
+    void snapshotIsUnaffectedByLaterMutations() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = new NodeId("A");
+        NodeId b = new NodeId("B");
+        graph.addNode(new Node(a, NodeType.CITY, Optional.empty(), "A"));
+        graph.addNode(new Node(b, NodeType.CITY, Optional.empty(), "B"));
+        graph.putEdge(new Edge(a, b, new EdgeWeights(1.0, Duration.ofSeconds(10), 1.0), EdgeStatus.OPEN));
+
+        CsrGraph csr = CsrGraph.of(graph);
+        long version = csr.version();
+        graph.updateEdge(a, b, new EdgeWeights(1.0, Duration.ofSeconds(99), 1.0), EdgeStatus.CLOSED);
+        graph.removeNode(b);
+
+        assertEquals(version, csr.version());
+        assertEquals(EdgeStatus.OPEN, csr.getEdge(a, b).orElseThrow().status());
+        assertEquals(Duration.ofSeconds(10), csr.getEdge(a, b).orElseThrow().weights().travelTime());
+        assertSame(csr, CsrGraph.of(csr));
+    }
+
+    @Test
+    void deriveAppliesMetricChangesAndRejectsTopologyChanges() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = new NodeId("A");
+        NodeId b = new NodeId("B");
+        graph.addNode(new Node(a, NodeType.CITY, Optional.empty(), "A"));
+        graph.addNode(new Node(b, NodeType.CITY, Optional.empty(), "B"));
+        Edge ab = new Edge(a, b, new EdgeWeights(1.0, Duration.ofSeconds(10), 1.0), EdgeStatus.OPEN);
+        graph.putEdge(ab);
+        CsrGraph csr = CsrGraph.of(graph);
+
+        Edge closed = new Edge(a, b, new EdgeWeights(2.0, Duration.ofSeconds(20), 0.5), EdgeStatus.CLOSED);
+        graph.putEdge(closed);
+        var update = new GraphChange.EdgeChanged(a, b, Optional.of(ab), Optional.of(closed), graph.version());
+        CsrGraph derived = csr.derive(List.of(update)).orElseThrow();
+
+        assertEquals(graph.version(), derived.version());
+        assertEquals(Optional.of(closed), derived.getEdge(a, b));
+        assertEquals(Optional.of(ab), csr.getEdge(a, b));
+        assertEquals(csr.indexOf(b), derived.indexOf(b));
+        assertSame(derived, derived.derive(List.of()).orElseThrow());
+
+        Edge ba = new Edge(b, a, ab.weights(), EdgeStatus.OPEN);
+        var added = new GraphChange.EdgeChanged(b, a, Optional.empty(), Optional.of(ba), derived.version() + 1);
+        assertTrue(derived.derive(List.of(added)).isEmpty());
+        assertTrue(derived.derive(List.of(new GraphChange.NodeRemoved(b, derived.version() + 1))).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> csr.derive(List.of(added)));
+    }
+}
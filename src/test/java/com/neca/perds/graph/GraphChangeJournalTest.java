@@ -0,0 +1,77 @@
+package com.neca.perds.graph;
+
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class GraphChangeJournalTest {
+    private static final NodeId A = new NodeId("A");
+    private static final NodeId B = new NodeId("B");
+
+    @Test
+    void changesSince_replaysMutationsUntilOverwritten() {
+        var graph = new AdjacencyMapGraph(4);
+        graph.addNode(new Node(A, NodeType.CITY, Optional.empty(), "A"));
+        graph.addNode(new Node(B, NodeType.CITY, Optional.empty(), "B"));
+        Edge slow = edge(60);
+        graph.putEdge(slow);
+        long afterPut = graph.version();
+        graph.updateEdge(A, B, edge(30).weights(), EdgeStatus.CLOSED);
+
+        GraphChangeSet changes = graph.changesSince(afterPut - 1).orElseThrow();
+        assertEquals(graph.version(), changes.version());
+        assertEquals(List.of(
+                new GraphChange.EdgeChanged(A, B, Optional.empty(), Optional.of(slow), afterPut),
+                new GraphChange.EdgeChanged(A, B, Optional.of(slow), graph.getEdge(A, B), afterPut + 1)
+        ), changes.changes());
+        assertTrue(graph.changesSince(graph.version()).orElseThrow().isEmpty());
+        assertEquals(4, graph.changesSince(0L).orElseThrow().changes().size());
+
+        graph.removeEdge(A, B);
+        assertTrue(graph.changesSince(0L).isEmpty());
+        assertEquals(3, graph.changesSince(2L).orElseThrow().changes().size());
+        assertThrows(IllegalArgumentException.class, () -> graph.changesSince(graph.version() + 1));
+    }
+
+    @Test
+    void batchesAreJournalledAsTheirCompactedChanges() {
+        var graph = new AdjacencyMapGraph();
+        graph.addNode(new Node(A, NodeType.CITY, Optional.empty(), "A"));
+        graph.addNode(new Node(B, NodeType.CITY, Optional.empty(), "B"));
+        long base = graph.version();
+
+        GraphChangeSet batch = graph.applyBatch(List.of(
+                new GraphMutation.PutEdge(edge(60)),
+                new GraphMutation.PutEdge(edge(30)),
+                new GraphMutation.RemoveNode(B)
+        ));
+
+        assertEquals(batch, graph.changesSince(base).orElseThrow());
+        assertEquals(2, batch.changes().size());
+    }
+
+    @Test
+    void rejectsOutOfOrderChanges_andKeepsNothingAtZeroCapacity() {
+        var journal = new GraphChangeJournal(0, 5L);
+        journal.append(new GraphChange.NodeRemoved(A, 6L));
+
+        assertEquals(6L, journal.latestVersion());
+        assertTrue(journal.changesSince(5L).isEmpty());
+        assertTrue(journal.changesSince(6L).orElseThrow().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> journal.append(new GraphChange.NodeRemoved(A, 8L)));
+        assertThrows(IllegalArgumentException.class, () -> new GraphChangeJournal(-1, 0L));
+    }
+
+    private static Edge edge(long seconds) {
+        return new Edge(A, B, new EdgeWeights(1.0, Duration.ofSeconds(seconds), 1.0), EdgeStatus.OPEN);
+    }
+}
@@ -0,0 +1,57 @@
+package com.neca.perds.graph;
+
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+final class NodeIndexRegistryTest {
+    @Test
+    void indicesAreStableAndReleasedSlotsAreReused() {
+        var registry = new NodeIndexRegistry();
+        NodeId a = new NodeId("A");
+        NodeId b = new NodeId("B");
+        NodeId c = new NodeId("C");
+
+        int ai = registry.register(a);
+        int bi = registry.register(b);
+        assertEquals(ai, registry.register(a));
+        assertEquals(2, registry.capacity());
+
+        assertEquals(ai, registry.release(a));
+        assertEquals(-1, registry.indexOf(a));
+        assertNull(registry.nodeIdAt(ai));
+        assertEquals(-1, registry.release(a));
+
+        int ci = registry.register(c);
+        assertEquals(ai, ci);
+        assertEquals(c, registry.nodeIdAt(ci));
+        assertEquals(bi, registry.indexOf(b));
+        assertEquals(2, registry.capacity());
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    void adjacencyMapGraphKeepsIndexInStepWithNodes() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = new NodeId("A");
+        NodeId b = new NodeId("B");
+        graph.addNode(new Node(a, NodeType.CITY, Optional.empty(), "A"));
+        graph.addNode(new Node(b, NodeType.CITY, Optional.empty(), "B"));
+
+        NodeIndex index = graph.nodeIndex();
+        int bi = index.indexOf(b);
+        graph.removeNode(a);
+        assertEquals(-1, index.indexOf(a));
+        assertEquals(bi, index.indexOf(b));
+
+        graph.addNode(new Node(a, NodeType.CITY, Optional.empty(), "A again"));
+        assertEquals(a, index.nodeIdAt(index.indexOf(a)));
+        assertEquals(2, index.capacity());
+    }
+}
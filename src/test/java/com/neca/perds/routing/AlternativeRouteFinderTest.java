@@ -0,0 +1,180 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class AlternativeRouteFinderTest {
+    private static final double COST_EPSILON = 1e-9;
+
+    @Test
+    void findsDistinctAlternativesWithinStretch_onGrid() {
+        AdjacencyMapGraph graph = grid(6);
+        var costFunction = CostFunctions.travelTimeSeconds();
+        NodeId start = id(0, 0);
+        NodeId goal = id(5, 5);
+        Route primary = new DijkstraRouter().findRoute(graph, start, goal, costFunction).orElseThrow();
+
+        var finder = new AlternativeRouteFinder(new DijkstraRouter(), 3, 2.0, 1.5, 0.8);
+        List<Route> alternatives = finder.findAlternatives(graph, primary, costFunction);
+
+        assertEquals(3, alternatives.size());
+        Set<List<NodeId>> distinct = new HashSet<>();
+        distinct.add(primary.nodes());
+        for (Route alternative : alternatives) {
+            assertTrue(distinct.add(alternative.nodes()));
+            assertEquals(start, alternative.nodes().getFirst());
+            assertEquals(goal, alternative.nodes().getLast());
+            assertTrue(alternative.totalCost() <= primary.totalCost() * 1.5 + COST_EPSILON);
+            assertEquals(graph.version(), alternative.graphVersionUsed());
+        }
+    }
+
+    @Test
+    void returnsNoAlternatives_whenOnlyOnePathExists() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A");
+        NodeId b = addNode(graph, "B");
+        NodeId c = addNode(graph, "C");
+        graph.putEdge(edge(a, b, 60));
+        graph.putEdge(edge(b, c, 60));
+        var costFunction = CostFunctions.travelTimeSeconds();
+        Route primary = new DijkstraRouter().findRoute(graph, a, c, costFunction).orElseThrow();
+
+        assertTrue(new AlternativeRouteFinder().findAlternatives(graph, primary, costFunction).isEmpty());
+    }
+
+    @Test
+    void rejectsAlternativesBeyondMaxStretch() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A");
+        NodeId b = addNode(graph, "B");
+        NodeId c = addNode(graph, "C");
+        graph.putEdge(edge(a, c, 100));
+        graph.putEdge(edge(a, b, 100));
+        graph.putEdge(edge(b, c, 100));
+        var costFunction = CostFunctions.travelTimeSeconds();
+        Route primary = new DijkstraRouter().findRoute(graph, a, c, costFunction).orElseThrow();
+
+        assertTrue(new AlternativeRouteFinder().findAlternatives(graph, primary, costFunction).isEmpty());
+        List<Route> relaxed = new AlternativeRouteFinder(new DijkstraRouter(), 2, 2.0, 2.0, 0.8)
+                .findAlternatives(graph, primary, costFunction);
+        assertEquals(List.of(List.of(a, b, c)), relaxed.stream().map(Route::nodes).toList());
+    }
+
+    @Test
+    void bestValid_skipsClosedAlternativesAndStartsAtCurrentNode() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A");
+        NodeId b = addNode(graph, "B");
+        NodeId c = addNode(graph, "C");
+        NodeId d = addNode(graph, "D");
+        graph.putEdge(edge(a, b, 10));
+        graph.putEdge(edge(b, c, 20));
+        graph.putEdge(edge(b, d, 5));
+        graph.putEdge(edge(d, c, 5));
+        var costFunction = CostFunctions.travelTimeSeconds();
+        Route viaC = AlternativeRouteFinder.routeAlong(graph, List.of(a, b, c), costFunction).orElseThrow();
+        Route viaD = AlternativeRouteFinder.routeAlong(graph, List.of(a, b, d, c), costFunction).orElseThrow();
+
+        Route best = AlternativeRouteFinder.bestValid(graph, List.of(viaC, viaD), b, costFunction).orElseThrow();
+        assertEquals(List.of(b, d, c), best.nodes());
+        assertEquals(10.0, best.totalCost(), COST_EPSILON);
+
+        graph.updateEdge(d, c, new EdgeWeights(1.0, Duration.ofSeconds(5), 1.0), EdgeStatus.CLOSED);
+        best = AlternativeRouteFinder.bestValid(graph, List.of(viaC, viaD), b, costFunction).orElseThrow();
+        assertEquals(List.of(b, c), best.nodes());
+        assertNotEquals(viaC.graphVersionUsed(), best.graphVersionUsed());
+
+        graph.removeEdge(b, c);
+        assertFalse(AlternativeRouteFinder.bestValid(graph, List.of(viaC, viaD), b, costFunction).isPresent());
+        assertFalse(AlternativeRouteFinder.bestValid(graph, List.of(viaC), d, costFunction).isPresent());
+    }
+
+    @Test
+    void cachingAndLayeredRoutersFindTheSameAlternativesWithoutCachingPenalisedSearches() {
+        AdjacencyMapGraph graph = grid(6);
+        var costFunction = CostFunctions.travelTimeSeconds();
+        Route primary = new DijkstraRouter().findRoute(graph, id(0, 0), id(5, 5), costFunction).orElseThrow();
+        List<List<NodeId>> expected = new AlternativeRouteFinder(new DijkstraRouter(), 3, 2.0, 1.5, 0.8)
+                .findAlternatives(graph, primary, costFunction).stream().map(Route::nodes).toList();
+        assertEquals(3, expected.size());
+
+        var cache = new CachingRouter(new DijkstraRouter(new CostLayerCache()));
+        List<List<NodeId>> viaCache = new AlternativeRouteFinder(cache, 3, 2.0, 1.5, 0.8)
+                .findAlternatives(graph, primary, costFunction).stream().map(Route::nodes).toList();
+        assertEquals(expected, viaCache);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void disabledFinderReturnsNoAlternatives() {
+        AdjacencyMapGraph graph = grid(3);
+        var costFunction = CostFunctions.travelTimeSeconds();
+        Route primary = new DijkstraRouter().findRoute(graph, id(0, 0), id(2, 2), costFunction).orElseThrow();
+
+        assertTrue(AlternativeRouteFinder.disabled().findAlternatives(graph, primary, costFunction).isEmpty());
+    }
+
+    @Test
+    void validatesParameters() {
+        var router = new DijkstraRouter();
+        assertThrows(IllegalArgumentException.class, () -> new AlternativeRouteFinder(router, -1, 2.0, 1.5, 0.8));
+        assertThrows(IllegalArgumentException.class, () -> new AlternativeRouteFinder(router, 2, 1.0, 1.5, 0.8));
+        assertThrows(IllegalArgumentException.class, () -> new AlternativeRouteFinder(router, 2, 2.0, 0.9, 0.8));
+        assertThrows(IllegalArgumentException.class, () -> new AlternativeRouteFinder(router, 2, 2.0, 1.5, 1.1));
+    }
+
+    private static AdjacencyMapGraph grid(int size) {
+        var graph = new AdjacencyMapGraph();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                addNode(graph, id(x, y).value());
+            }
+        }
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (x + 1 < size) {
+                    graph.putEdge(edge(id(x, y), id(x + 1, y), 60 + (x * 7 + y * 3) % 11));
+                    graph.putEdge(edge(id(x + 1, y), id(x, y), 60 + (x * 7 + y * 3) % 11));
+                }
+                if (y + 1 < size) {
+                    graph.putEdge(edge(id(x, y), id(x, y + 1), 60 + (x * 5 + y * 2) % 13));
+                    graph.putEdge(edge(id(x, y + 1), id(x, y), 60 + (x * 5 + y * 2) % 13));
+                }
+            }
+        }
+        return graph;
+    }
+
+    private static NodeId id(int x, int y) {
+        return new NodeId("N" + x + "_" + y);
+    }
+
+    private static NodeId addNode(AdjacencyMapGraph graph, String id) {
+        NodeId nodeId = new NodeId(id);
+        graph.addNode(new Node(nodeId, NodeType.CITY, Optional.empty(), id));
+        return nodeId;
+    }
+
+    private static Edge edge(NodeId from, NodeId to, long seconds) {
+        return new Edge(from, to, new EdgeWeights(1.0, Duration.ofSeconds(seconds), 1.0), EdgeStatus.OPEN);
+    }
+}
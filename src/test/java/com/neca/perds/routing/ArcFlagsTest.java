@@ -0,0 +1,164 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class ArcFlagsTest {
+    private static final double COST_EPSILON = 1e-9;
+    private static final Heuristic ZERO = (graph, from, to) -> 0.0;
+
+    @Test
+    void prunedRoutersMatchDijkstra_onRandomGraphs() {
+        var random = new Random(4_242L);
+        var dijkstra = new DijkstraRouter();
+        List<EdgeCostFunction> costFunctions = List.of(CostFunctions.travelTimeSeconds(), CostFunctions.distanceKm());
+
+        for (int g = 0; g < 12; g++) {
+            AdjacencyMapGraph graph = RoutingTestGraphs.randomGraph(random, 10 + random.nextInt(60), 0.03, 0.1, 0.15);
+            EdgeCostFunction costFunction = costFunctions.get(g % 2);
+            var arcFlags = new ArcFlags(costFunction, 1 + random.nextInt(12));
+            List<Router> pruned = List.of(new DijkstraRouter(arcFlags), new AStarRouter(ZERO, arcFlags));
+            List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
+
+            for (int p = 0; p < 40; p++) {
+                NodeId start = nodeIds.get(random.nextInt(nodeIds.size()));
+                NodeId goal = nodeIds.get(random.nextInt(nodeIds.size()));
+                List<NodeId> sources = List.of(start, nodeIds.get(random.nextInt(nodeIds.size())));
+                double expected = cost(dijkstra.findRoute(graph, start, goal, costFunction));
+                double expectedNearest = cost(dijkstra.findNearest(graph, sources, goal, costFunction));
+                for (Router router : pruned) {
+                    Optional<Route> route = router.findRoute(graph, start, goal, costFunction);
+                    assertEquals(expected, cost(route), COST_EPSILON);
+                    route.ifPresent(r -> assertEquals(graph.version(), r.graphVersionUsed()));
+                    assertEquals(expectedNearest, cost(router.findNearest(graph, sources, goal, costFunction)), COST_EPSILON);
+                }
+            }
+        }
+    }
+
+    @Test
+    void staysExact_underNotifiedCostChanges() {
+        var random = new Random(77L);
+        var dijkstra = new DijkstraRouter();
+        var costFunction = CostFunctions.travelTimeSeconds();
+        AdjacencyMapGraph graph = RoutingTestGraphs.randomGraph(random, 60, 0.03, 0.1, 0.15);
+        var arcFlags = new ArcFlags(costFunction, 8);
+        var router = new DijkstraRouter(arcFlags);
+        List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
+
+        for (int round = 0; round < 20; round++) {
+            NodeId from = nodeIds.get(random.nextInt(nodeIds.size()));
+            List<Edge> edges = new ArrayList<>(graph.outgoingEdges(from));
+            if (edges.isEmpty()) {
+                continue;
+            }
+            Edge before = edges.get(random.nextInt(edges.size()));
+            long seconds = random.nextBoolean()
+                    ? before.weights().travelTime().toSeconds() * (2 + random.nextInt(5))
+                    : 1 + random.nextInt(10);
+            Edge after = new Edge(
+                    before.from(),
+                    before.to(),
+                    new EdgeWeights(before.weights().distanceKm(), Duration.ofSeconds(seconds), 1.0),
+                    random.nextInt(4) == 0 ? EdgeStatus.CLOSED : EdgeStatus.OPEN
+            );
+            long version = graph.putEdge(after);
+            arcFlags.onGraphChanged(graph, new GraphChange.EdgeChanged(
+                    before.from(), before.to(), Optional.of(before), Optional.of(after), version));
+
+            for (int p = 0; p < 30; p++) {
+                NodeId start = nodeIds.get(random.nextInt(nodeIds.size()));
+                NodeId goal = nodeIds.get(random.nextInt(nodeIds.size()));
+                double expected = cost(dijkstra.findRoute(graph, start, goal, costFunction));
+                assertEquals(expected, cost(router.findRoute(graph, start, goal, costFunction)), COST_EPSILON);
+            }
+        }
+    }
+
+    @Test
+    void recomputesOnlyRegionsTouchedByUpdates() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A");
+        NodeId b = addNode(graph, "B");
+        NodeId c = addNode(graph, "C");
+        NodeId x = addNode(graph, "X");
+        NodeId y = addNode(graph, "Y");
+        graph.putEdge(edge(a, b, 60));
+        graph.putEdge(edge(b, c, 60));
+        graph.putEdge(edge(x, y, 60));
+        var costFunction = CostFunctions.travelTimeSeconds();
+        var arcFlags = new ArcFlags(costFunction, 8);
+        var router = new DijkstraRouter(arcFlags);
+
+        assertEquals(120.0, router.findRoute(graph, a, c, costFunction).orElseThrow().totalCost(), COST_EPSILON);
+        router.findRoute(graph, b, c, costFunction);
+        assertEquals(1, arcFlags.regionsComputed());
+
+        notifyChange(graph, arcFlags, edge(x, y, 600));
+        assertEquals(120.0, router.findRoute(graph, a, c, costFunction).orElseThrow().totalCost(), COST_EPSILON);
+        assertEquals(1, arcFlags.regionsComputed());
+
+        notifyChange(graph, arcFlags, edge(a, b, 600));
+        assertEquals(660.0, router.findRoute(graph, a, c, costFunction).orElseThrow().totalCost(), COST_EPSILON);
+        assertEquals(2, arcFlags.regionsComputed());
+
+        notifyChange(graph, arcFlags, edge(a, b, 30));
+        assertEquals(90.0, router.findRoute(graph, a, c, costFunction).orElseThrow().totalCost(), COST_EPSILON);
+        assertEquals(3, arcFlags.regionsComputed());
+
+        graph.putEdge(edge(a, c, 10));
+        assertEquals(10.0, router.findRoute(graph, a, c, costFunction).orElseThrow().totalCost(), COST_EPSILON);
+        assertEquals(4, arcFlags.regionsComputed());
+    }
+
+    @Test
+    void fallsBackForOtherCostFunctions_andRejectsInvalidRegionSize() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A");
+        NodeId b = addNode(graph, "B");
+        graph.putEdge(edge(a, b, 60));
+        var arcFlags = new ArcFlags(CostFunctions.travelTimeSeconds());
+
+        Route route = new DijkstraRouter(arcFlags).findRoute(graph, a, b, CostFunctions.distanceKm()).orElseThrow();
+        assertEquals(1.0, route.totalCost(), COST_EPSILON);
+        assertEquals(0, arcFlags.regionsComputed());
+        assertThrows(IllegalArgumentException.class, () -> new ArcFlags(CostFunctions.distanceKm(), 0));
+    }
+
+    private static void notifyChange(AdjacencyMapGraph graph, ArcFlags arcFlags, Edge after) {
+        Edge before = graph.getEdge(after.from(), after.to()).orElseThrow();
+        long version = graph.putEdge(after);
+        arcFlags.onGraphChanged(graph, new GraphChange.EdgeChanged(
+                after.from(), after.to(), Optional.of(before), Optional.of(after), version));
+    }
+
+    private static double cost(Optional<Route> route) {
+        return route.map(Route::totalCost).orElse(Double.POSITIVE_INFINITY);
+    }
+
+    private static NodeId addNode(AdjacencyMapGraph graph, String id) {
+        NodeId nodeId = new NodeId(id);
+        graph.addNode(new Node(nodeId, NodeType.CITY, Optional.empty(), id));
+        return nodeId;
+    }
+
+    private static Edge edge(NodeId from, NodeId to, long seconds) {
+        return new Edge(from, to, new EdgeWeights(1.0, Duration.ofSeconds(seconds), 1.0), EdgeStatus.OPEN);
+    }
+}
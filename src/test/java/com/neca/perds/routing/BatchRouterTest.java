@@ -0,0 +1,79 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class BatchRouterTest {
+    @Test
+    void parallelBatchMatchesSequentialResultsInRequestOrder() {
+        var random = new Random(9_001L);
+        var graph = new AdjacencyMapGraph();
+        List<NodeId> ids = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            NodeId id = new NodeId("N" + i);
+            ids.add(id);
+            graph.addNode(new Node(id, NodeType.CITY, Optional.empty(), id.value()));
+        }
+        for (int i = 0; i < 240; i++) {
+            NodeId from = ids.get(random.nextInt(ids.size()));
+            NodeId to = ids.get(random.nextInt(ids.size()));
+            graph.putEdge(new Edge(from, to,
+                    new EdgeWeights(1.0, Duration.ofSeconds(1 + random.nextInt(900)), 1.0), EdgeStatus.OPEN));
+        }
+        List<BatchRouter.Request> requests = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            requests.add(new BatchRouter.Request(ids.get(random.nextInt(ids.size())), ids.get(random.nextInt(ids.size()))));
+        }
+        var router = new DijkstraRouter();
+        var costFunction = CostFunctions.travelTimeSeconds();
+
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Optional<Route>> batch = new BatchRouter(router, executor, 5).findRoutes(graph, requests, costFunction);
+
+            assertEquals(requests.size(), batch.size());
+            for (int i = 0; i < requests.size(); i++) {
+                BatchRouter.Request request = requests.get(i);
+                assertEquals(router.findRoute(graph, request.start(), request.goal(), costFunction), batch.get(i));
+            }
+            assertTrue(new BatchRouter(router, executor, 5).findRoutes(graph, List.of(), costFunction).isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void workerFailureIsRethrown() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = new NodeId("A");
+        NodeId b = new NodeId("B");
+        graph.addNode(new Node(a, NodeType.CITY, Optional.empty(), "A"));
+        graph.addNode(new Node(b, NodeType.CITY, Optional.empty(), "B"));
+        graph.putEdge(new Edge(a, b, new EdgeWeights(1.0, Duration.ofSeconds(1), 1.0), EdgeStatus.OPEN));
+        List<BatchRouter.Request> requests = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            requests.add(new BatchRouter.Request(i < 12 ? b : a, b));
+        }
+
+        var batchRouter = new BatchRouter(new DijkstraRouter(), Runnable::run, 4);
+        assertThrows(IllegalArgumentException.class,
+                () -> batchRouter.findRoutes(graph, requests, edge -> -1.0));
+    }
+}
@@ -0,0 +1,97 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class BidirectionalRouterTest {
+    private static final double COST_EPSILON = 1e-9;
+
+    @Test
+    void matchDijkstra_onRandomGraphs() {
+        var random = new Random(8_675_309L);
+        var costFunction = CostFunctions.travelTimeSeconds();
+        var dijkstra = new DijkstraRouter();
+        var bidirectionalDijkstra = new BidirectionalDijkstraRouter();
+
+        for (int g = 0; g < 30; g++) {
+            AdjacencyMapGraph graph = RoutingTestGraphs.randomGraph(random, 2 + random.nextInt(70), 0.03, 0.15, 0.15);
+            var bidirectionalAStar = new BidirectionalAStarRouter(new LandmarkHeuristic(costFunction, 4, 0));
+            List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
+
+            for (int p = 0; p < 40; p++) {
+                NodeId start = nodeIds.get(random.nextInt(nodeIds.size()));
+                NodeId goal = nodeIds.get(random.nextInt(nodeIds.size()));
+                Optional<Route> expected = dijkstra.findRoute(graph, start, goal, costFunction);
+                for (Router router : List.of(bidirectionalDijkstra, bidirectionalAStar)) {
+                    Optional<Route> actual = router.findRoute(graph, start, goal, costFunction);
+                    assertEquals(expected.isPresent(), actual.isPresent());
+                    if (expected.isPresent()) {
+                        assertEquals(expected.orElseThrow().totalCost(), actual.orElseThrow().totalCost(), COST_EPSILON);
+                        assertConsistentRoute(graph, start, goal, actual.orElseThrow(), costFunction);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void seesEdgeChangesMadeBetweenQueries() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = new NodeId("A");
+        NodeId b = new NodeId("B");
+        NodeId c = new NodeId("C");
+        graph.addNode(new Node(a, NodeType.CITY, Optional.empty(), "A"));
+        graph.addNode(new Node(b, NodeType.CITY, Optional.empty(), "B"));
+        graph.addNode(new Node(c, NodeType.CITY, Optional.empty(), "C"));
+        graph.putEdge(new Edge(a, b, new EdgeWeights(1.0, Duration.ofSeconds(60), 1.0), EdgeStatus.OPEN));
+        graph.putEdge(new Edge(b, c, new EdgeWeights(1.0, Duration.ofSeconds(60), 1.0), EdgeStatus.OPEN));
+
+        var router = new BidirectionalDijkstraRouter();
+        var costFunction = CostFunctions.travelTimeSeconds();
+        assertEquals(List.of(a, b, c), router.findRoute(graph, a, c, costFunction).orElseThrow().nodes());
+
+        graph.putEdge(new Edge(a, c, new EdgeWeights(5.0, Duration.ofSeconds(30), 1.0), EdgeStatus.OPEN));
+        Route route = router.findRoute(graph, a, c, costFunction).orElseThrow();
+        assertEquals(List.of(a, c), route.nodes());
+        assertEquals(30.0, route.totalCost(), COST_EPSILON);
+        assertEquals(5.0, route.totalDistanceKm(), COST_EPSILON);
+        assertEquals(graph.version(), route.graphVersionUsed());
+    }
+
+    private static void assertConsistentRoute(
+            AdjacencyMapGraph graph,
+            NodeId start,
+            NodeId goal,
+            Route route,
+            EdgeCostFunction costFunction
+    ) {
+        assertEquals(start, route.nodes().getFirst());
+        assertEquals(goal, route.nodes().getLast());
+        double cost = 0.0;
+        double distanceKm = 0.0;
+        Duration travelTime = Duration.ZERO;
+        for (int i = 1; i < route.nodes().size(); i++) {
+            Edge edge = graph.getEdge(route.nodes().get(i - 1), route.nodes().get(i)).orElseThrow();
+            cost += costFunction.cost(edge);
+            distanceKm += edge.weights().distanceKm();
+            travelTime = travelTime.plus(edge.weights().travelTime());
+        }
+        assertEquals(cost, route.totalCost(), COST_EPSILON);
+        assertEquals(distanceKm, route.totalDistanceKm(), COST_EPSILON);
+        assertEquals(travelTime, route.totalTravelTime());
+    }
+}
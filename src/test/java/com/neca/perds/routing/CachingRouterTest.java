@@ -0,0 +1,235 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.graph.GraphReadView;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class CachingRouterTest {
+    private static final double COST_EPSILON = 1e-9;
+
+    private static final NodeId A = new NodeId("A");
+    private static final NodeId B = new NodeId("B");
+    private static final NodeId C = new NodeId("C");
+    private static final NodeId D = new NodeId("D");
+
+    @Test
+    void increaseOnCrossedEdgeInvalidatesOnlyRoutesUsingIt() {
+        var graph = diamond();
+        var delegate = new CountingRouter();
+        var cache = new CachingRouter(delegate);
+        var costFunction = CostFunctions.travelTimeSeconds();
+
+        assertEquals(List.of(A, B, D), cache.findRoute(graph, A, D, costFunction).orElseThrow().nodes());
+        assertEquals(List.of(A, C), cache.findRoute(graph, A, C, costFunction).orElseThrow().nodes());
+        assertEquals(2, delegate.calls);
+
+        putEdge(graph, cache, B, D, 1_000);
+
+        assertEquals(List.of(A, C), cache.findRoute(graph, A, C, costFunction).orElseThrow().nodes());
+        assertEquals(2, delegate.calls);
+        Route rerouted = cache.findRoute(graph, A, D, costFunction).orElseThrow();
+        assertEquals(List.of(A, C, D), rerouted.nodes());
+        assertEquals(graph.version(), rerouted.graphVersionUsed());
+        assertEquals(3, delegate.calls);
+    }
+
+    @Test
+    void hitsAreStampedWithCurrentVersion() {
+        var graph = diamond();
+        var delegate = new CountingRouter();
+        var cache = new CachingRouter(delegate);
+        var costFunction = CostFunctions.travelTimeSeconds();
+
+        cache.findRoute(graph, A, D, costFunction);
+        putEdge(graph, cache, C, D, 20);
+
+        Route route = cache.findRoute(graph, A, D, costFunction).orElseThrow();
+        assertEquals(1, delegate.calls);
+        assertEquals(1, cache.hits());
+        assertEquals(graph.version(), route.graphVersionUsed());
+    }
+
+    @Test
+    void distanceOnlyChangeOnCrossedEdgeEvictsRoute() {
+        var graph = diamond();
+        var delegate = new CountingRouter();
+        var cache = new CachingRouter(delegate);
+        var costFunction = CostFunctions.travelTimeSeconds();
+
+        Route before = cache.findRoute(graph, A, D, costFunction).orElseThrow();
+        assertEquals(2.0, before.totalDistanceKm(), COST_EPSILON);
+        cache.findRoute(graph, A, C, costFunction);
+
+        Optional<Edge> old = graph.getEdge(B, D);
+        graph.updateEdge(B, D, new EdgeWeights(7.0, Duration.ofSeconds(10), 1.0), EdgeStatus.OPEN);
+        cache.onGraphChanged(graph, new GraphChange.EdgeChanged(B, D, old, graph.getEdge(B, D), graph.version()));
+
+        Route after = cache.findRoute(graph, A, D, costFunction).orElseThrow();
+        assertEquals(List.of(A, B, D), after.nodes());
+        assertEquals(8.0, after.totalDistanceKm(), COST_EPSILON);
+        assertEquals(3, delegate.calls);
+        cache.findRoute(graph, A, C, costFunction);
+        assertEquals(3, delegate.calls);
+    }
+
+    @Test
+    void unnotifiedVersionChangeFlushesEverything() {
+        var graph = diamond();
+        var delegate = new CountingRouter();
+        var cache = new CachingRouter(delegate);
+        var costFunction = CostFunctions.travelTimeSeconds();
+
+        cache.findRoute(graph, A, D, costFunction);
+        graph.putEdge(edge(A, D, 1));
+
+        assertEquals(List.of(A, D), cache.findRoute(graph, A, D, costFunction).orElseThrow().nodes());
+        assertEquals(2, delegate.calls);
+    }
+
+    @Test
+    void unnotifiedChangesAreReplayedFromTheGraphJournal() {
+        var graph = diamond();
+        var delegate = new CountingRouter();
+        var cache = new CachingRouter(delegate);
+        var costFunction = CostFunctions.travelTimeSeconds();
+
+        cache.findRoute(graph, A, D, costFunction);
+        graph.updateEdge(C, D, new EdgeWeights(1.0, Duration.ofSeconds(500), 1.0), EdgeStatus.OPEN);
+
+        assertEquals(List.of(A, B, D), cache.findRoute(graph, A, D, costFunction).orElseThrow().nodes());
+        assertEquals(1, delegate.calls);
+
+        var unjournalled = diamond(new AdjacencyMapGraph(0));
+        cache.findRoute(unjournalled, A, D, costFunction);
+        unjournalled.updateEdge(C, D, new EdgeWeights(1.0, Duration.ofSeconds(500), 1.0), EdgeStatus.OPEN);
+        cache.findRoute(unjournalled, A, D, costFunction);
+        assertEquals(3, delegate.calls);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        var graph = diamond();
+        var delegate = new CountingRouter();
+        var cache = new CachingRouter(delegate, 2);
+        var costFunction = CostFunctions.travelTimeSeconds();
+
+        cache.findRoute(graph, A, B, costFunction);
+        cache.findRoute(graph, A, C, costFunction);
+        cache.findRoute(graph, A, B, costFunction);
+        cache.findRoute(graph, A, D, costFunction);
+        assertEquals(2, cache.size());
+        assertEquals(3, delegate.calls);
+
+        cache.findRoute(graph, A, B, costFunction);
+        assertEquals(3, delegate.calls);
+        cache.findRoute(graph, A, C, costFunction);
+        assertEquals(4, delegate.calls);
+    }
+
+    @Test
+    void matchesDijkstraUnderRandomNotifiedChanges() {
+        var random = new Random(9_001L);
+        var costFunction = CostFunctions.travelTimeSeconds();
+        var dijkstra = new DijkstraRouter();
+
+        for (int g = 0; g < 10; g++) {
+            var graph = new AdjacencyMapGraph();
+            int nodeCount = 5 + random.nextInt(25);
+            List<NodeId> ids = new ArrayList<>();
+            for (int i = 0; i < nodeCount; i++) {
+                NodeId id = new NodeId("N" + i);
+                ids.add(id);
+                graph.addNode(new Node(id, NodeType.CITY, Optional.empty(), id.value()));
+            }
+            for (int i = 0; i < nodeCount * 3; i++) {
+                graph.putEdge(edge(ids.get(random.nextInt(nodeCount)), ids.get(random.nextInt(nodeCount)),
+                        1 + random.nextInt(300)));
+            }
+            var cache = new CachingRouter(new DijkstraRouter(), 64);
+
+            for (int step = 0; step < 200; step++) {
+                if (random.nextInt(3) == 0) {
+                    NodeId from = ids.get(random.nextInt(nodeCount));
+                    NodeId to = ids.get(random.nextInt(nodeCount));
+                    Optional<Edge> before = graph.getEdge(from, to);
+                    switch (random.nextInt(3)) {
+                        case 0 -> putEdge(graph, cache, from, to, 1 + random.nextInt(300));
+                        case 1 -> {
+                            graph.removeEdge(from, to);
+                            cache.onGraphChanged(graph, new GraphChange.EdgeChanged(
+                                    from, to, before, Optional.empty(), graph.version()));
+                        }
+                        default -> before.ifPresent(edge -> {
+                            EdgeStatus status = edge.status() == EdgeStatus.OPEN ? EdgeStatus.CLOSED : EdgeStatus.OPEN;
+                            graph.updateEdge(from, to, edge.weights(), status);
+                            cache.onGraphChanged(graph, new GraphChange.EdgeChanged(
+                                    from, to, before, graph.getEdge(from, to), graph.version()));
+                        });
+                    }
+                }
+                NodeId start = ids.get(random.nextInt(nodeCount));
+                NodeId goal = ids.get(random.nextInt(nodeCount));
+                Optional<Route> expected = dijkstra.findRoute(graph, start, goal, costFunction);
+                Optional<Route> actual = cache.findRoute(graph, start, goal, costFunction);
+                assertEquals(expected.isPresent(), actual.isPresent());
+                if (expected.isPresent()) {
+                    assertEquals(expected.orElseThrow().totalCost(), actual.orElseThrow().totalCost(), COST_EPSILON);
+                    assertEquals(graph.version(), actual.orElseThrow().graphVersionUsed());
+                }
+            }
+            assertTrue(cache.hits() > 0);
+        }
+    }
+
+    private static AdjacencyMapGraph diamond() {
+        return diamond(new AdjacencyMapGraph());
+    }
+
+    private static AdjacencyMapGraph diamond(AdjacencyMapGraph graph) {
+        for (NodeId id : List.of(A, B, C, D)) {
+            graph.addNode(new Node(id, NodeType.CITY, Optional.empty(), id.value()));
+        }
+        graph.putEdge(edge(A, B, 10));
+        graph.putEdge(edge(B, D, 10));
+        graph.putEdge(edge(A, C, 15));
+        graph.putEdge(edge(C, D, 15));
+        return graph;
+    }
+
+    private static void putEdge(AdjacencyMapGraph graph, CachingRouter cache, NodeId from, NodeId to, int seconds) {
+        Optional<Edge> before = graph.getEdge(from, to);
+        graph.putEdge(edge(from, to, seconds));
+        cache.onGraphChanged(graph, new GraphChange.EdgeChanged(from, to, before, graph.getEdge(from, to), graph.version()));
+    }
+
+    private static Edge edge(NodeId from, NodeId to, int seconds) {
+        return new Edge(from, to, new EdgeWeights(1.0, Duration.ofSeconds(seconds), 1.0), EdgeStatus.OPEN);
+    }
+
+    private static final class CountingRouter implements Router {
+        private final Router delegate = new DijkstraRouter();
+        private int calls;
+
+        @Override
+        public Optional<Route> findRoute(GraphReadView graph, NodeId start, NodeId goal, EdgeCostFunction costFunction) {
+            calls++;
+            return delegate.findRoute(graph, start, goal, costFunction);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class ChainCompressedGraphViewTest {
+    private static final double COST_EPSILON = 1e-9;
+
+    @Test
+    void routesOverViewMatchGraph_andExpandToGraphPaths() {
+        var random = new Random(321L);
+        var router = new DijkstraRouter();
+        List<EdgeCostFunction> costFunctions = List.of(CostFunctions.travelTimeSeconds(), CostFunctions.distanceKm());
+
+        for (int g = 0; g < 10; g++) {
+            List<NodeId> junctions = new ArrayList<>();
+            AdjacencyMapGraph graph = subdividedGraph(random, 8 + random.nextInt(12), junctions);
+            var view = ChainCompressedGraphView.of(graph);
+            EdgeCostFunction costFunction = costFunctions.get(g % 2);
+            assertTrue(view.hiddenNodeCount() > 0);
+            assertEquals(graph.version(), view.version());
+
+            for (int p = 0; p < 30; p++) {
+                NodeId start = junctions.get(random.nextInt(junctions.size()));
+                NodeId goal = junctions.get(random.nextInt(junctions.size()));
+                Optional<Route> expected = router.findRoute(graph, start, goal, costFunction);
+                Optional<Route> compressed = router.findRoute(view, start, goal, costFunction);
+                assertEquals(expected.isPresent(), compressed.isPresent());
+                if (expected.isEmpty()) {
+                    continue;
+                }
+                Route expanded = view.expand(compressed.orElseThrow());
+                assertEquals(expected.get().totalCost(), expanded.totalCost(), COST_EPSILON);
+                Route replayed = AlternativeRouteFinder.routeAlong(graph, expanded.nodes(), costFunction).orElseThrow();
+                assertEquals(expanded.totalCost(), replayed.totalCost(), COST_EPSILON);
+                assertEquals(expanded.totalDistanceKm(), replayed.totalDistanceKm(), COST_EPSILON);
+                assertEquals(expanded.totalTravelTime(), replayed.totalTravelTime());
+            }
+        }
+    }
+
+    @Test
+    void collapsesOneWayAndTwoWayChains_andExpandsRoutes() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A", NodeType.DISPATCH_CENTRE);
+        NodeId x = addNode(graph, "X", NodeType.CITY);
+        NodeId y = addNode(graph, "Y", NodeType.CITY);
+        NodeId b = addNode(graph, "B", NodeType.INCIDENT_SITE);
+        NodeId z = addNode(graph, "Z", NodeType.CITY);
+        NodeId c = addNode(graph, "C", NodeType.DISPATCH_CENTRE);
+        graph.putEdge(edge(a, x, 10));
+        graph.putEdge(edge(x, a, 10));
+        graph.putEdge(edge(x, y, 20));
+        graph.putEdge(edge(y, x, 20));
+        graph.putEdge(edge(y, b, 30));
+        graph.putEdge(edge(b, y, 30));
+        graph.putEdge(edge(b, z, 5));
+        graph.putEdge(edge(z, c, 5));
+        var view = ChainCompressedGraphView.of(graph);
+
+        assertEquals(3, view.hiddenNodeCount());
+        assertEquals(Set.of(a, b, c), Set.copyOf(view.nodeIds()));
+        assertEquals(Duration.ofSeconds(60), view.getEdge(a, b).orElseThrow().weights().travelTime());
+        assertEquals(Duration.ofSeconds(60), view.getEdge(b, a).orElseThrow().weights().travelTime());
+        assertEquals(-1, view.nodeIndex().indexOf(x));
+        assertFalse(view.getNode(z).isPresent());
+
+        var costFunction = CostFunctions.travelTimeSeconds();
+        Route route = new DijkstraRouter().findRoute(view, a, b, costFunction).orElseThrow();
+        assertEquals(List.of(a, b), route.nodes());
+        assertEquals(List.of(a, x, y, b), view.expand(route).nodes());
+        Route onward = new DijkstraRouter().findRoute(view, a, c, costFunction).orElseThrow();
+        assertEquals(List.of(a, x, y, b, z, c), view.expand(onward).nodes());
+        assertEquals(70.0, onward.totalCost(), COST_EPSILON);
+    }
+
+    @Test
+    void routesNotifiedSegmentUpdatesToOwningSuperEdge() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A", NodeType.DISPATCH_CENTRE);
+        NodeId x = addNode(graph, "X", NodeType.CITY);
+        NodeId y = addNode(graph, "Y", NodeType.CITY);
+        NodeId b = addNode(graph, "B", NodeType.INCIDENT_SITE);
+        graph.putEdge(edge(a, x, 10));
+        graph.putEdge(edge(x, y, 20));
+        graph.putEdge(edge(y, b, 30));
+        var view = ChainCompressedGraphView.of(graph);
+        Edge superEdge = view.getEdge(a, b).orElseThrow();
+        assertEquals(Optional.of(superEdge), view.viewEdgeFor(x, y));
+
+        Edge before = graph.getEdge(x, y).orElseThrow();
+        long version = graph.updateEdge(x, y, new EdgeWeights(1.0, Duration.ofSeconds(200), 0.5), EdgeStatus.OPEN);
+        view.onGraphChanged(graph, new GraphChange.EdgeChanged(x, y, Optional.of(before), graph.getEdge(x, y), version));
+
+        Edge updated = view.viewEdgeFor(x, y).orElseThrow();
+        assertEquals(a, updated.from());
+        assertEquals(b, updated.to());
+        assertEquals(Duration.ofSeconds(240), updated.weights().travelTime());
+        assertEquals(0.5, updated.weights().resourceAvailability());
+        assertEquals(version, view.version());
+
+        before = graph.getEdge(y, b).orElseThrow();
+        version = graph.updateEdge(y, b, before.weights(), EdgeStatus.CLOSED);
+        view.onGraphChanged(graph, new GraphChange.EdgeChanged(y, b, Optional.of(before), graph.getEdge(y, b), version));
+        assertEquals(EdgeStatus.CLOSED, view.getEdge(a, b).orElseThrow().status());
+        assertTrue(new DijkstraRouter().findRoute(view, a, b, CostFunctions.travelTimeSeconds()).isEmpty());
+    }
+
+    @Test
+    void rebuildsAfterUnnotifiedTopologyChange() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A", NodeType.DISPATCH_CENTRE);
+        NodeId x = addNode(graph, "X", NodeType.CITY);
+        NodeId b = addNode(graph, "B", NodeType.INCIDENT_SITE);
+        graph.putEdge(edge(a, x, 10));
+        graph.putEdge(edge(x, b, 10));
+        var view = ChainCompressedGraphView.of(graph, id -> false);
+        assertEquals(1, view.hiddenNodeCount());
+
+        NodeId c = addNode(graph, "C", NodeType.INCIDENT_SITE);
+        graph.putEdge(edge(x, c, 5));
+
+        assertEquals(0, view.hiddenNodeCount());
+        assertEquals(graph.version(), view.version());
+        Route route = new DijkstraRouter().findRoute(view, a, c, CostFunctions.travelTimeSeconds()).orElseThrow();
+        assertEquals(List.of(a, x, c), route.nodes());
+    }
+
+    @Test
+    void keepsChainsThatWouldDuplicateAnEdge_andKeptNodes() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A", NodeType.DISPATCH_CENTRE);
+        NodeId x = addNode(graph, "X", NodeType.CITY);
+        NodeId y = addNode(graph, "Y", NodeType.CITY);
+        NodeId w = addNode(graph, "W", NodeType.CITY);
+        NodeId b = addNode(graph, "B", NodeType.INCIDENT_SITE);
+        graph.putEdge(edge(a, b, 100));
+        graph.putEdge(edge(a, x, 10));
+        graph.putEdge(edge(x, b, 10));
+        graph.putEdge(edge(b, y, 10));
+        graph.putEdge(edge(y, w, 10));
+        graph.putEdge(edge(w, a, 10));
+
+        var view = ChainCompressedGraphView.of(graph, w::equals);
+
+        assertTrue(view.getNode(x).isPresent());
+        assertTrue(view.getNode(w).isPresent());
+        assertFalse(view.getNode(y).isPresent());
+        assertEquals(100.0, view.getEdge(a, b).orElseThrow().weights().travelTime().toSeconds());
+        Route route = new DijkstraRouter().findRoute(view, b, a, CostFunctions.travelTimeSeconds()).orElseThrow();
+        assertEquals(List.of(b, w, a), route.nodes());
+        assertEquals(List.of(b, y, w, a), view.expand(route).nodes());
+    }
+
+    private static NodeId addNode(AdjacencyMapGraph graph, String id, NodeType type) {
+        NodeId nodeId = new NodeId(id);
+        graph.addNode(new Node(nodeId, type, Optional.empty(), id));
+        return nodeId;
+    }
+
+    private static Edge edge(NodeId from, NodeId to, long seconds) {
+        return new Edge(from, to, new EdgeWeights(1.0, Duration.ofSeconds(seconds), 1.0), EdgeStatus.OPEN);
+    }
+
+    /**
+     * Random junction graph whose roads are subdivided into chains of city nodes, some one-way and some
+     * two-way. Junctions are incident sites so they are always kept.
+     */
+    private static AdjacencyMapGraph subdividedGraph(Random random, int junctionCount, List<NodeId> junctions) {
+        var graph = new AdjacencyMapGraph();
+        for (int i = 0; i < junctionCount; i++) {
+            junctions.add(addNode(graph, "J" + i, NodeType.INCIDENT_SITE));
+        }
+        int next = 0;
+        for (NodeId from : junctions) {
+            for (NodeId to : junctions) {
+                if (from.equals(to) || random.nextDouble() >= 0.15) {
+                    continue;
+                }
+                boolean twoWay = random.nextBoolean();
+                List<NodeId> road = new ArrayList<>();
+                road.add(from);
+                for (int s = random.nextInt(4); s > 0; s--) {
+                    road.add(addNode(graph, "S" + next++, NodeType.CITY));
+                }
+                road.add(to);
+                for (int i = 1; i < road.size(); i++) {
+                    var weights = new EdgeWeights(
+                            1.0 + random.nextInt(20),
+                            Duration.ofSeconds(1 + random.nextInt(300)),
+                            1.0
+                    );
+                    EdgeStatus status = random.nextDouble() < 0.05 ? EdgeStatus.CLOSED : EdgeStatus.OPEN;
+                    graph.putEdge(new Edge(road.get(i - 1), road.get(i), weights, status));
+                    if (twoWay) {
+                        graph.putEdge(new Edge(road.get(i), road.get(i - 1), weights, status));
+                    }
+                }
+            }
+        }
+        return graph;
+    }
+}
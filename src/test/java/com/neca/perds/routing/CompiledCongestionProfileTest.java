@@ -0,0 +1,67 @@
+package com.neca.perds.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class CompiledCongestionProfileTest {
+    private static final double EPSILON = 1e-6;
+
+    private final CongestionProfile profile = CongestionProfile.builder()
+            .period(LocalTime.of(7, 0), LocalTime.of(9, 0), 1.5)
+            .period(LocalTime.of(17, 0), LocalTime.of(19, 0), 1.7)
+            .period(LocalTime.of(23, 0), LocalTime.of(1, 0), 0.5)
+            .build();
+    private final CompiledCongestionProfile compiled = CompiledCongestionProfile.compile(profile);
+
+    @Test
+    void multiplierTableMatchesProfileEveryMinute() {
+        for (int minute = 0; minute < 1_440; minute++) {
+            LocalTime time = LocalTime.ofSecondOfDay(minute * 60L + 59);
+            assertEquals(profile.multiplierAt(time), compiled.multiplierAt(time), time.toString());
+        }
+        assertEquals(0.5, compiled.minMultiplier());
+        assertThrows(IllegalArgumentException.class, () -> compiled.multiplierAtMinute(1_440));
+    }
+
+    @Test
+    void traversalWithinOnePeriodScalesByItsMultiplier() {
+        assertEquals(900.0, compiled.traversalSeconds(hours(7.5), 600.0), EPSILON);
+        assertEquals(600.0, compiled.traversalSeconds(hours(12), 600.0), EPSILON);
+        assertEquals(Double.POSITIVE_INFINITY, compiled.traversalSeconds(hours(12), Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void traversalSlowsDownOnlyOnceRushHourStarts() {
+        // 600 s at 1.0 until 07:00, then the remaining 600 free-flow seconds at 1.5.
+        assertEquals(600.0 + 900.0, compiled.traversalSeconds(hours(7) - 600.0, 1_200.0), EPSILON);
+        // Leaving rush hour: 900 s at 1.5 covers 600 free-flow seconds, the rest runs at 1.0.
+        assertEquals(900.0 + 600.0, compiled.traversalSeconds(hours(9) - 900.0, 1_200.0), EPSILON);
+        // Next day, 00:30: 1800 s at 0.5 cover 3600 free-flow seconds until 01:00, the rest runs at 1.0.
+        assertEquals(1_800.0 + 600.0, compiled.traversalSeconds(hours(24.5), 3_600.0 + 600.0), EPSILON);
+        assertEquals(1_800.0 + 600.0, compiled.traversalSeconds(hours(0.5), 3_600.0 + 600.0), EPSILON);
+    }
+
+    @Test
+    void arrivalTimeIsFifo() {
+        var random = new Random(424_242L);
+        for (int i = 0; i < 10_000; i++) {
+            double departure = random.nextDouble() * 2 * CompiledCongestionProfile.SECONDS_PER_DAY;
+            double later = departure + random.nextDouble() * 3_600.0;
+            double freeFlow = random.nextDouble() * 20_000.0;
+            double arrival = departure + compiled.traversalSeconds(departure, freeFlow);
+            double laterArrival = later + compiled.traversalSeconds(later, freeFlow);
+            assertTrue(laterArrival >= arrival - EPSILON, "departure " + departure + " vs " + later);
+            assertTrue(compiled.traversalSeconds(departure, freeFlow) >= freeFlow * compiled.minMultiplier() - EPSILON);
+        }
+    }
+
+    private static double hours(double hours) {
+        return hours * 3_600.0;
+    }
+}
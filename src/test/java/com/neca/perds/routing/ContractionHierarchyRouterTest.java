@@ -0,0 +1,196 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class ContractionHierarchyRouterTest {
+    private static final double COST_EPSILON = 1e-6;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void matchesDijkstra_onRandomGraphs() {
+        var random = new Random(4_711L);
+        var dijkstra = new DijkstraRouter();
+        var costFunction = CostFunctions.travelTimeSeconds();
+
+        for (int g = 0; g < 25; g++) {
+            AdjacencyMapGraph graph = RoutingTestGraphs.randomGraph(random, 2 + random.nextInt(60));
+            var router = new ContractionHierarchyRouter(ContractionHierarchy.build(graph, costFunction), costFunction);
+            List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
+
+            for (int p = 0; p < 40; p++) {
+                NodeId start = nodeIds.get(random.nextInt(nodeIds.size()));
+                NodeId goal = nodeIds.get(random.nextInt(nodeIds.size()));
+                Optional<Route> expected = dijkstra.findRoute(graph, start, goal, costFunction);
+                Optional<Route> actual = router.findRoute(graph, start, goal, costFunction);
+
+                assertEquals(expected.isPresent(), actual.isPresent());
+                if (expected.isEmpty()) {
+                    continue;
+                }
+                Route route = actual.orElseThrow();
+                assertEquals(expected.orElseThrow().totalCost(), route.totalCost(), COST_EPSILON);
+                assertEquals(start, route.nodes().getFirst());
+                assertEquals(goal, route.nodes().getLast());
+                assertEquals(graph.version(), route.graphVersionUsed());
+                for (int i = 1; i < route.nodes().size(); i++) {
+                    Edge edge = graph.getEdge(route.nodes().get(i - 1), route.nodes().get(i)).orElseThrow();
+                    assertEquals(EdgeStatus.OPEN, edge.status());
+                }
+            }
+        }
+    }
+
+    @Test
+    void savedHierarchyIsReusedWhileGraphIsUnchanged() throws Exception {
+        var costFunction = CostFunctions.travelTimeSeconds();
+        AdjacencyMapGraph graph = RoutingTestGraphs.randomGraph(new Random(99L), 40);
+        Path file = tempDir.resolve("graph.ch");
+
+        ContractionHierarchy built = ContractionHierarchy.loadOrBuild(file, graph, costFunction);
+        ContractionHierarchy loaded = ContractionHierarchy.load(file);
+
+        assertEquals(built.graphVersion(), loaded.graphVersion());
+        assertEquals(built.fingerprint(), loaded.fingerprint());
+        assertEquals(built.nodeCount(), loaded.nodeCount());
+        assertEquals(built.arcCount(), loaded.arcCount());
+
+        var fromBuilt = new ContractionHierarchyRouter(built, costFunction);
+        var fromLoaded = new ContractionHierarchyRouter(loaded, costFunction);
+        List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
+        for (NodeId start : nodeIds) {
+            NodeId goal = nodeIds.get(nodeIds.size() - 1);
+            assertEquals(
+                    fromBuilt.findRoute(graph, start, goal, costFunction),
+                    fromLoaded.findRoute(graph, start, goal, costFunction)
+            );
+        }
+
+        graph.putEdge(new Edge(
+                nodeIds.get(0),
+                nodeIds.get(1),
+                new EdgeWeights(1.0, Duration.ofSeconds(1), 1.0),
+                EdgeStatus.OPEN
+        ));
+        ContractionHierarchy rebuilt = ContractionHierarchy.loadOrBuild(file, graph, costFunction);
+        assertEquals(graph.version(), rebuilt.graphVersion());
+        assertNotEquals(built.fingerprint(), rebuilt.fingerprint());
+    }
+
+    @Test
+    void unreadableSavedHierarchyIsRebuilt() throws Exception {
+        var costFunction = CostFunctions.travelTimeSeconds();
+        AdjacencyMapGraph graph = RoutingTestGraphs.randomGraph(new Random(7L), 30);
+        Path file = tempDir.resolve("graph.ch");
+        ContractionHierarchy.build(graph, costFunction).save(file);
+        byte[] saved = Files.readAllBytes(file);
+        long expectedFingerprint = ContractionHierarchy.fingerprint(graph, costFunction);
+
+        ByteBuffer otherFormat = ByteBuffer.allocate(8).putInt(0x50434831).putInt(99);
+        List<byte[]> unreadable = List.of(
+                Arrays.copyOf(saved, saved.length / 2),
+                "not a hierarchy".getBytes(StandardCharsets.UTF_8),
+                otherFormat.array()
+        );
+        for (byte[] contents : unreadable) {
+            Files.write(file, contents);
+
+            ContractionHierarchy rebuilt = ContractionHierarchy.loadOrBuild(file, graph, costFunction);
+
+            assertEquals(graph.version(), rebuilt.graphVersion());
+            assertEquals(expectedFingerprint, rebuilt.fingerprint());
+            assertEquals(expectedFingerprint, ContractionHierarchy.load(file).fingerprint());
+        }
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    @Test
+    void fallsBackToDijkstraAfterGraphChanges() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = new NodeId("A");
+        NodeId b = new NodeId("B");
+        NodeId c = new NodeId("C");
+        graph.addNode(new Node(a, NodeType.CITY, Optional.empty(), "A"));
+        graph.addNode(new Node(b, NodeType.CITY, Optional.empty(), "B"));
+        graph.addNode(new Node(c, NodeType.CITY, Optional.empty(), "C"));
+        graph.putEdge(new Edge(a, b, new EdgeWeights(1.0, Duration.ofSeconds(60), 1.0), EdgeStatus.OPEN));
+        graph.putEdge(new Edge(b, c, new EdgeWeights(1.0, Duration.ofSeconds(60), 1.0), EdgeStatus.OPEN));
+        graph.putEdge(new Edge(a, c, new EdgeWeights(5.0, Duration.ofSeconds(600), 1.0), EdgeStatus.OPEN));
+
+        var costFunction = CostFunctions.travelTimeSeconds();
+        var router = new ContractionHierarchyRouter(ContractionHierarchy.build(graph, costFunction), costFunction);
+        assertTrue(router.canServe(graph, costFunction));
+        assertEquals(List.of(a, b, c), router.findRoute(graph, a, c, costFunction).orElseThrow().nodes());
+
+        graph.updateEdge(a, b, new EdgeWeights(1.0, Duration.ofSeconds(60), 1.0), EdgeStatus.CLOSED);
+
+        assertFalse(router.canServe(graph, costFunction));
+        Route route = router.findRoute(graph, a, c, costFunction).orElseThrow();
+        assertEquals(List.of(a, c), route.nodes());
+        assertEquals(graph.version(), route.graphVersionUsed());
+        assertFalse(router.canServe(graph, CostFunctions.distanceKm()));
+    }
+
+    @Test
+    void otherGraphAtSameVersionFallsBack() {
+        NodeId a = new NodeId("A");
+        NodeId b = new NodeId("B");
+        NodeId c = new NodeId("C");
+        var costFunction = CostFunctions.travelTimeSeconds();
+        AdjacencyMapGraph built = triangle(a, b, c, 60);
+        AdjacencyMapGraph other = triangle(a, b, c, 900);
+        assertEquals(built.version(), other.version());
+
+        var router = new ContractionHierarchyRouter(ContractionHierarchy.build(built, costFunction), costFunction);
+        assertTrue(router.canServe(built, costFunction));
+        assertFalse(router.canServe(other, costFunction));
+        assertEquals(List.of(a, c), router.findRoute(other, a, c, costFunction).orElseThrow().nodes());
+        assertEquals(List.of(a, b, c), router.findRoute(built, a, c, costFunction).orElseThrow().nodes());
+
+        built.removeEdge(a, c);
+        var pathRouter = new ContractionHierarchyRouter(ContractionHierarchy.build(built, costFunction), costFunction);
+        var view = ChainCompressedGraphView.of(built, id -> !id.equals(b));
+        assertEquals(built.version(), view.version());
+        assertTrue(pathRouter.canServe(built, costFunction));
+        assertFalse(pathRouter.canServe(view, costFunction));
+        assertEquals(List.of(a, c), pathRouter.findRoute(view, a, c, costFunction).orElseThrow().nodes());
+    }
+
+    private static AdjacencyMapGraph triangle(NodeId a, NodeId b, NodeId c, int viaBSeconds) {
+        var graph = new AdjacencyMapGraph();
+        for (NodeId id : List.of(a, b, c)) {
+            graph.addNode(new Node(id, NodeType.CITY, Optional.empty(), id.value()));
+        }
+        graph.putEdge(new Edge(a, b, new EdgeWeights(1.0, Duration.ofSeconds(viaBSeconds), 1.0), EdgeStatus.OPEN));
+        graph.putEdge(new Edge(b, c, new EdgeWeights(1.0, Duration.ofSeconds(viaBSeconds), 1.0), EdgeStatus.OPEN));
+        graph.putEdge(new Edge(a, c, new EdgeWeights(5.0, Duration.ofSeconds(600), 1.0), EdgeStatus.OPEN));
+        return graph;
+    }
+}
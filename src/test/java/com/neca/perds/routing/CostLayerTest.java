@@ -0,0 +1,163 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.CsrGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class CostLayerTest {
+    private static final double COST_EPSILON = 1e-9;
+
+    @Test
+    void layerStoresValidatedCostsInEdgeOrder() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A");
+        NodeId b = addNode(graph, "B");
+        NodeId c = addNode(graph, "C");
+        graph.putEdge(new Edge(a, b, new EdgeWeights(1.0, Duration.ofSeconds(30), 1.0), EdgeStatus.OPEN));
+        graph.putEdge(new Edge(a, c, new EdgeWeights(1.0, Duration.ofSeconds(30), 1.0), EdgeStatus.CLOSED));
+        CsrGraph csr = CsrGraph.of(graph);
+
+        CostLayer layer = CostLayer.of(csr, CostFunctions.travelTimeSeconds());
+        assertEquals(30.0, layer.cost(csr.edgeIndex(csr.indexOf(a), csr.indexOf(b))));
+        assertEquals(Double.POSITIVE_INFINITY, layer.cost(csr.edgeIndex(csr.indexOf(a), csr.indexOf(c))));
+        assertEquals(graph.version(), layer.version());
+        assertThrows(IllegalArgumentException.class, () -> CostLayer.of(csr, edge -> -1.0));
+    }
+
+    @Test
+    void cachedLayersTrackNotifiedAndUnnotifiedChanges() {
+        var random = new Random(77_001L);
+        var costFunction = CostFunctions.travelTimeSeconds();
+        var plain = new DijkstraRouter();
+
+        for (int g = 0; g < 10; g++) {
+            var graph = new AdjacencyMapGraph();
+            List<NodeId> ids = new ArrayList<>();
+            int nodeCount = 3 + random.nextInt(30);
+            for (int i = 0; i < nodeCount; i++) {
+                ids.add(addNode(graph, "N" + i));
+            }
+            List<Edge> edges = new ArrayList<>();
+            for (int i = 0; i < nodeCount * 3; i++) {
+                NodeId from = ids.get(random.nextInt(nodeCount));
+                NodeId to = ids.get(random.nextInt(nodeCount));
+                if (!from.equals(to) && graph.getEdge(from, to).isEmpty()) {
+                    Edge edge = new Edge(from, to, weights(random), EdgeStatus.OPEN);
+                    graph.putEdge(edge);
+                    edges.add(edge);
+                }
+            }
+            var cache = new CostLayerCache();
+            var layered = new DijkstraRouter(cache);
+            cache.layer(graph, costFunction);
+            long rebuilds = cache.rebuilds();
+
+            for (int step = 0; step < 60 && !edges.isEmpty(); step++) {
+                Edge before = edges.get(random.nextInt(edges.size()));
+                Edge current = graph.getEdge(before.from(), before.to()).orElseThrow();
+                EdgeStatus status = random.nextInt(4) == 0 ? EdgeStatus.CLOSED : EdgeStatus.OPEN;
+                Edge after = new Edge(current.from(), current.to(), weights(random), status);
+                graph.putEdge(after);
+                boolean notified = random.nextInt(5) != 0;
+                if (notified) {
+                    cache.onGraphChanged(graph, new GraphChange.EdgeChanged(
+                            after.from(), after.to(), Optional.of(current), Optional.of(after), graph.version()));
+                }
+
+                CostLayer layer = cache.layer(graph, costFunction);
+                CostLayer rebuilt = CostLayer.of(CsrGraph.of(graph), costFunction);
+                assertEquals(graph.version(), layer.version());
+                for (int e = 0; e < rebuilt.graph().edgeCount(); e++) {
+                    CsrGraph csr = rebuilt.graph();
+                    int mine = layer.graph().edgeIndex(
+                            layer.graph().indexOf(csr.nodeIdAt(csr.edgeSource(e))),
+                            layer.graph().indexOf(csr.nodeIdAt(csr.edgeTarget(e))));
+                    assertEquals(rebuilt.cost(e), layer.cost(mine));
+                }
+                assertEquals(rebuilds, cache.rebuilds());
+
+                NodeId start = ids.get(random.nextInt(nodeCount));
+                NodeId goal = ids.get(random.nextInt(nodeCount));
+                Optional<Route> expected = plain.findRoute(graph, start, goal, costFunction);
+                Optional<Route> actual = layered.findRoute(graph, start, goal, costFunction);
+                assertEquals(expected.isPresent(), actual.isPresent());
+                if (expected.isPresent()) {
+                    assertEquals(expected.get().totalCost(), actual.get().totalCost(), COST_EPSILON);
+                    assertEquals(expected.get().graphVersionUsed(), actual.get().graphVersionUsed());
+                }
+            }
+        }
+    }
+
+    @Test
+    void topologyChangeForcesRebuild() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A");
+        NodeId b = addNode(graph, "B");
+        Edge ab = new Edge(a, b, new EdgeWeights(1.0, Duration.ofSeconds(30), 1.0), EdgeStatus.OPEN);
+        graph.putEdge(ab);
+        var cache = new CostLayerCache();
+        var costFunction = CostFunctions.travelTimeSeconds();
+        CostLayer first = cache.layer(graph, costFunction);
+        assertSame(first, cache.layer(graph, costFunction));
+
+        Edge ba = new Edge(b, a, ab.weights(), EdgeStatus.OPEN);
+        graph.putEdge(ba);
+        cache.onGraphChanged(graph, new GraphChange.EdgeChanged(b, a, Optional.empty(), Optional.of(ba), graph.version()));
+
+        CostLayer second = cache.layer(graph, costFunction);
+        assertEquals(2, second.graph().edgeCount());
+        assertEquals(2, cache.rebuilds());
+    }
+
+    private static EdgeWeights weights(Random random) {
+        return new EdgeWeights(1.0, Duration.ofSeconds(1 + random.nextInt(500)), 1.0);
+    }
+
+    @Test
+    void timeVaryingCostFunctionsBypassLayers() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A");
+        NodeId b = addNode(graph, "B");
+        graph.putEdge(new Edge(a, b, new EdgeWeights(1.0, Duration.ofSeconds(100), 1.0), EdgeStatus.OPEN));
+        var profile = CongestionProfile.builder().period(LocalTime.of(8, 0), LocalTime.of(9, 0), 2.0).build();
+        var clock = new AtomicReference<>(Instant.parse("2025-01-01T07:30:00Z"));
+        var costFunction = new TimeAwareCostFunction(CostFunctions.travelTimeSeconds(), profile, clock::get, ZoneOffset.UTC);
+        var cache = new CostLayerCache();
+        var router = new DijkstraRouter(cache);
+
+        assertEquals(100.0, router.findRoute(graph, a, b, costFunction).orElseThrow().totalCost(), COST_EPSILON);
+        clock.set(Instant.parse("2025-01-01T08:30:00Z"));
+        assertEquals(200.0, router.findRoute(graph, a, b, costFunction).orElseThrow().totalCost(), COST_EPSILON);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.layer(graph, costFunction));
+        assertThrows(IllegalArgumentException.class, () -> new ArcFlags(costFunction));
+    }
+
+    private static NodeId addNode(AdjacencyMapGraph graph, String id) {
+        NodeId nodeId = new NodeId(id);
+        graph.addNode(new Node(nodeId, NodeType.CITY, Optional.empty(), id));
+        return nodeId;
+    }
+}
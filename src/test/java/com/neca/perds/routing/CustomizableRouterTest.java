@@ -0,0 +1,173 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.model.NodeId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class CustomizableRouterTest {
+    private static final double COST_EPSILON = 1e-6;
+
+    @Test
+    void matchesDijkstra_onRandomGraphs() {
+        var random = new Random(20_240_611L);
+        var costFunction = CostFunctions.travelTimeSeconds();
+
+        for (int g = 0; g < 20; g++) {
+            int nodeCount = 2 + random.nextInt(80);
+            AdjacencyMapGraph graph = RoutingTestGraphs.randomConnectedGraph(random, nodeCount, nodeCount * 2, 0.15);
+            var router = new CustomizableRouter(costFunction, 3, 9, 27);
+            assertMatchesDijkstra(random, graph, router, costFunction);
+        }
+    }
+
+    @Test
+    void edgeUpdatesRecustomizeOnlyAffectedCells() {
+        var random = new Random(7L);
+        var costFunction = CostFunctions.travelTimeSeconds();
+        AdjacencyMapGraph graph = RoutingTestGraphs.randomConnectedGraph(random, 120, 240, 0.15);
+        var router = new CustomizableRouter(costFunction, 4, 32);
+        router.prepare(graph);
+
+        for (int update = 0; update < 60; update++) {
+            Edge edge = randomEdge(random, graph);
+            var weights = new EdgeWeights(
+                    edge.weights().distanceKm(),
+                    Duration.ofSeconds(1 + random.nextInt(900)),
+                    edge.weights().resourceAvailability()
+            );
+            EdgeStatus status = random.nextDouble() < 0.2 ? EdgeStatus.CLOSED : EdgeStatus.OPEN;
+
+            long before = router.cellsCustomized();
+            long version = graph.updateEdge(edge.from(), edge.to(), weights, status);
+            router.onGraphChanged(graph, new GraphChange.EdgeChanged(
+                    edge.from(), edge.to(), Optional.of(edge), graph.getEdge(edge.from(), edge.to()), version));
+
+            long after = router.cellsCustomized();
+            assertTrue(after - before <= 2);
+            assertMatchesDijkstra(random, graph, router, costFunction);
+            assertEquals(after, router.cellsCustomized());
+        }
+    }
+
+    @Test
+    void rebuildsAfterTopologyChangeOrMissedNotification() {
+        var random = new Random(11L);
+        var costFunction = CostFunctions.travelTimeSeconds();
+        AdjacencyMapGraph graph = RoutingTestGraphs.randomConnectedGraph(random, 50, 100, 0.15);
+        var router = new CustomizableRouter(costFunction, 4, 16);
+        router.prepare(graph);
+
+        List<NodeId> ids = new ArrayList<>(graph.nodeIds());
+        NodeId from = ids.get(0);
+        NodeId to = ids.get(ids.size() - 1);
+        graph.removeEdge(from, to);
+        long version = graph.putEdge(new Edge(from, to, new EdgeWeights(1.0, Duration.ofSeconds(1), 1.0), EdgeStatus.OPEN));
+        router.onGraphChanged(graph, new GraphChange.EdgeChanged(
+                from, to, Optional.empty(), graph.getEdge(from, to), version));
+        assertMatchesDijkstra(random, graph, router, costFunction);
+
+        Edge edge = randomEdge(random, graph);
+        graph.updateEdge(edge.from(), edge.to(), edge.weights(), EdgeStatus.CLOSED);
+        assertMatchesDijkstra(random, graph, router, costFunction);
+    }
+
+    @Test
+    void queriesRunConcurrently() throws Exception {
+        AdjacencyMapGraph graph = RoutingTestGraphs.randomConnectedGraph(new Random(3L), 40, 80, 0.15);
+        var barrier = new CyclicBarrier(2);
+        var permits = new AtomicInteger();
+        EdgeCostFunction costFunction = edge -> {
+            if (permits.getAndDecrement() > 0) {
+                try {
+                    barrier.await(10, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException("queries did not overlap", e);
+                }
+            }
+            return CostFunctions.travelTimeSeconds().cost(edge);
+        };
+        var router = new CustomizableRouter(costFunction, 4, 16);
+        router.prepare(graph);
+
+        List<NodeId> ids = new ArrayList<>(graph.nodeIds());
+        NodeId start = ids.get(0);
+        NodeId goal = ids.get(1);
+        Route expected = new DijkstraRouter().findRoute(graph, start, goal, costFunction).orElseThrow();
+        assertTrue(expected.nodes().size() > 1);
+
+        // Each query blocks in its first cost evaluation until the other one gets there too, which
+        // only happens if neither holds a lock the other needs.
+        permits.set(2);
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Optional<Route>>> results = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                results.add(executor.submit(() -> router.findRoute(graph, start, goal, costFunction)));
+            }
+            for (Future<Optional<Route>> result : results) {
+                assertEquals(expected.totalCost(), result.get(30, TimeUnit.SECONDS).orElseThrow().totalCost(),
+                        COST_EPSILON);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertMatchesDijkstra(
+            Random random,
+            AdjacencyMapGraph graph,
+            CustomizableRouter router,
+            EdgeCostFunction costFunction
+    ) {
+        var dijkstra = new DijkstraRouter();
+        List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
+        for (int p = 0; p < 40; p++) {
+            NodeId start = nodeIds.get(random.nextInt(nodeIds.size()));
+            NodeId goal = nodeIds.get(random.nextInt(nodeIds.size()));
+            Optional<Route> expected = dijkstra.findRoute(graph, start, goal, costFunction);
+            Optional<Route> actual = router.findRoute(graph, start, goal, costFunction);
+
+            assertEquals(expected.isPresent(), actual.isPresent());
+            if (expected.isEmpty()) {
+                continue;
+            }
+            Route route = actual.orElseThrow();
+            assertEquals(expected.orElseThrow().totalCost(), route.totalCost(), COST_EPSILON);
+            assertEquals(start, route.nodes().getFirst());
+            assertEquals(goal, route.nodes().getLast());
+            assertEquals(graph.version(), route.graphVersionUsed());
+            for (int i = 1; i < route.nodes().size(); i++) {
+                Edge edge = graph.getEdge(route.nodes().get(i - 1), route.nodes().get(i)).orElseThrow();
+                assertEquals(EdgeStatus.OPEN, edge.status());
+            }
+        }
+    }
+
+    private static Edge randomEdge(Random random, AdjacencyMapGraph graph) {
+        List<Edge> edges = new ArrayList<>();
+        for (NodeId id : graph.nodeIds()) {
+            edges.addAll(graph.outgoingEdges(id));
+        }
+        edges.sort(Comparator.comparing((Edge e) -> e.from().value()).thenComparing(e -> e.to().value()));
+        return edges.get(random.nextInt(edges.size()));
+    }
+}
@@ -0,0 +1,88 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class DeltaSteppingShortestPathsTest {
+    @Test
+    void distancesMatchDijkstraForAnyBucketWidth() {
+        var random = new Random(12_345L);
+        var dijkstra = new DijkstraRouter();
+        var pool = new ForkJoinPool(4);
+        try {
+            for (int g = 0; g < 8; g++) {
+                int nodeCount = g < 6 ? 2 + random.nextInt(40) : 3_000;
+                var graph = new AdjacencyMapGraph();
+                List<NodeId> ids = new ArrayList<>();
+                for (int i = 0; i < nodeCount; i++) {
+                    NodeId id = new NodeId("N" + i);
+                    ids.add(id);
+                    graph.addNode(new Node(id, NodeType.CITY, Optional.empty(), id.value()));
+                }
+                for (int i = 0; i < nodeCount * 4; i++) {
+                    EdgeStatus status = random.nextInt(10) == 0 ? EdgeStatus.CLOSED : EdgeStatus.OPEN;
+                    graph.putEdge(new Edge(ids.get(random.nextInt(nodeCount)), ids.get(random.nextInt(nodeCount)),
+                            new EdgeWeights(1.0, Duration.ofMillis(random.nextInt(600_000)), 1.0), status));
+                }
+                // Fractional costs make the check sensitive to summation order.
+                EdgeCostFunction costFunction = edge -> edge.status() == EdgeStatus.CLOSED
+                        ? Double.POSITIVE_INFINITY
+                        : edge.weights().travelTime().toMillis() / 1000.0;
+                NodeId root = ids.get(random.nextInt(nodeCount));
+
+                for (var solver : List.of(
+                        new DeltaSteppingShortestPaths(),
+                        new DeltaSteppingShortestPaths(0.5, pool),
+                        new DeltaSteppingShortestPaths(50.0, pool),
+                        new DeltaSteppingShortestPaths(1e9, pool))) {
+                    var from = solver.distancesFrom(graph, root, costFunction);
+                    var to = solver.distancesTo(graph, root, costFunction);
+                    for (int i = 0; i < nodeCount; i += Math.max(1, nodeCount / 50)) {
+                        NodeId other = ids.get(i);
+                        assertEquals(cost(dijkstra, graph, root, other, costFunction), from.get(other));
+                        double expectedTo = cost(dijkstra, graph, other, root, costFunction);
+                        assertEquals(expectedTo, to.get(other), Math.ulp(expectedTo) * nodeCount);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void unknownRootLeavesEverythingUnreachable() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = new NodeId("A");
+        graph.addNode(new Node(a, NodeType.CITY, Optional.empty(), "A"));
+        var distances = new DeltaSteppingShortestPaths()
+                .distancesFrom(graph, new NodeId("Z"), CostFunctions.travelTimeSeconds());
+
+        assertEquals(0, distances.reachableCount());
+        assertEquals(Double.POSITIVE_INFINITY, distances.get(a));
+        assertThrows(IllegalArgumentException.class, () -> new DeltaSteppingShortestPaths(0.0, ForkJoinPool.commonPool()));
+    }
+
+    private static double cost(DijkstraRouter dijkstra, AdjacencyMapGraph graph, NodeId start, NodeId goal,
+                               EdgeCostFunction costFunction) {
+        return dijkstra.findRoute(graph, start, goal, costFunction)
+                .map(Route::totalCost)
+                .orElse(Double.POSITIVE_INFINITY);
+    }
+}
@@ -0,0 +1,130 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class DynamicShortestPathRouterTest {
+    private static final double COST_EPSILON = 1e-9;
+
+    @Test
+    void repairedTreesMatchDijkstraUnderRandomEdgeChanges() {
+        var random = new Random(5_551_212L);
+        var costFunction = CostFunctions.travelTimeSeconds();
+        var dijkstra = new DijkstraRouter();
+
+        for (int g = 0; g < 15; g++) {
+            int nodeCount = 5 + random.nextInt(35);
+            var graph = new AdjacencyMapGraph();
+            List<NodeId> ids = new ArrayList<>();
+            for (int i = 0; i < nodeCount; i++) {
+                NodeId id = new NodeId("N" + i);
+                ids.add(id);
+                graph.addNode(new Node(id, NodeType.CITY, Optional.empty(), id.value()));
+            }
+            for (int i = 0; i < nodeCount * 3; i++) {
+                putEdge(graph, null, ids.get(random.nextInt(nodeCount)), ids.get(random.nextInt(nodeCount)),
+                        1 + random.nextInt(300), EdgeStatus.OPEN);
+            }
+            var router = new DynamicShortestPathRouter(costFunction, dijkstra, 3);
+            List<NodeId> goals = List.of(ids.get(0), ids.get(1), ids.get(2));
+
+            for (int step = 0; step < 150; step++) {
+                NodeId from = ids.get(random.nextInt(nodeCount));
+                NodeId to = ids.get(random.nextInt(nodeCount));
+                switch (random.nextInt(3)) {
+                    case 0 -> putEdge(graph, router, from, to, 1 + random.nextInt(300), EdgeStatus.OPEN);
+                    case 1 -> {
+                        Optional<Edge> before = graph.getEdge(from, to);
+                        graph.removeEdge(from, to);
+                        router.onGraphChanged(graph, new GraphChange.EdgeChanged(
+                                from, to, before, Optional.empty(), graph.version()));
+                    }
+                    default -> graph.getEdge(from, to).ifPresent(edge -> putEdge(graph, router, from, to,
+                            (int) edge.weights().travelTime().toSeconds(),
+                            edge.status() == EdgeStatus.OPEN ? EdgeStatus.CLOSED : EdgeStatus.OPEN));
+                }
+
+                NodeId start = ids.get(random.nextInt(nodeCount));
+                NodeId goal = goals.get(random.nextInt(goals.size()));
+                Optional<Route> expected = dijkstra.findRoute(graph, start, goal, costFunction);
+                Optional<Route> actual = router.findRoute(graph, start, goal, costFunction);
+                assertEquals(expected.isPresent(), actual.isPresent());
+                if (expected.isPresent()) {
+                    Route route = actual.orElseThrow();
+                    assertEquals(expected.orElseThrow().totalCost(), route.totalCost(), COST_EPSILON);
+                    assertEquals(start, route.nodes().getFirst());
+                    assertEquals(goal, route.nodes().getLast());
+                }
+            }
+        }
+    }
+
+    @Test
+    void closureRepairsOnlyTheAffectedSubtree() {
+        int width = 40;
+        var graph = new AdjacencyMapGraph();
+        for (int i = 0; i < width * width; i++) {
+            graph.addNode(new Node(node(i), NodeType.CITY, Optional.empty(), node(i).value()));
+        }
+        for (int i = 0; i < width * width; i++) {
+            if (i % width + 1 < width) {
+                putEdge(graph, null, node(i), node(i + 1), 10, EdgeStatus.OPEN);
+                putEdge(graph, null, node(i + 1), node(i), 10, EdgeStatus.OPEN);
+            }
+            if (i + width < width * width) {
+                putEdge(graph, null, node(i), node(i + width), 10, EdgeStatus.OPEN);
+                putEdge(graph, null, node(i + width), node(i), 10, EdgeStatus.OPEN);
+            }
+        }
+        var costFunction = CostFunctions.travelTimeSeconds();
+        var router = new DynamicShortestPathRouter(costFunction);
+        NodeId goal = node(0);
+        NodeId start = node(width * width - 1);
+        Route initial = router.findRoute(graph, start, goal, costFunction).orElseThrow();
+
+        NodeId from = initial.nodes().get(0);
+        NodeId to = initial.nodes().get(1);
+        putEdge(graph, router, from, to, 10, EdgeStatus.CLOSED);
+
+        Route rerouted = router.findRoute(graph, start, goal, costFunction).orElseThrow();
+        Route expected = new DijkstraRouter().findRoute(graph, start, goal, costFunction).orElseThrow();
+        assertEquals(expected.totalCost(), rerouted.totalCost(), COST_EPSILON);
+        assertTrue(router.nodesRepaired() < width, "repaired " + router.nodesRepaired());
+    }
+
+    private static NodeId node(int i) {
+        return new NodeId("N" + i);
+    }
+
+    private static void putEdge(
+            AdjacencyMapGraph graph,
+            DynamicShortestPathRouter router,
+            NodeId from,
+            NodeId to,
+            int seconds,
+            EdgeStatus status
+    ) {
+        Optional<Edge> before = graph.getEdge(from, to);
+        graph.putEdge(new Edge(from, to, new EdgeWeights(1.0, Duration.ofSeconds(seconds), 1.0), status));
+        if (router != null) {
+            router.onGraphChanged(graph, new GraphChange.EdgeChanged(
+                    from, to, before, graph.getEdge(from, to), graph.version()));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class FindNearestTest {
+    private static final double COST_EPSILON = 1e-9;
+
+    @Test
+    void multiSourceSearchMatchesBestSingleSourceRoute() {
+        var random = new Random(31_337L);
+        var costFunction = CostFunctions.travelTimeSeconds();
+        var dijkstra = new DijkstraRouter();
+
+        for (int g = 0; g < 25; g++) {
+            AdjacencyMapGraph graph = RoutingTestGraphs.randomGraph(random, 2 + random.nextInt(40), 0.05, 0.2, 0.1);
+            List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
+            var landmarks = new LandmarkHeuristic(costFunction, 3, 0);
+            List<Router> routers = List.of(
+                    dijkstra,
+                    new AStarRouter(landmarks),
+                    new BidirectionalDijkstraRouter(),
+                    new BidirectionalAStarRouter(landmarks),
+                    new CustomizableRouter(costFunction, 4, 16)
+            );
+
+            for (int q = 0; q < 10; q++) {
+                List<NodeId> sources = new ArrayList<>();
+                for (int i = 0; i < 1 + random.nextInt(6); i++) {
+                    sources.add(nodeIds.get(random.nextInt(nodeIds.size())));
+                }
+                NodeId goal = nodeIds.get(random.nextInt(nodeIds.size()));
+
+                double expected = Double.POSITIVE_INFINITY;
+                for (NodeId source : sources) {
+                    expected = Math.min(expected, dijkstra.findRoute(graph, source, goal, costFunction)
+                            .map(Route::totalCost)
+                            .orElse(Double.POSITIVE_INFINITY));
+                }
+
+                for (Router router : routers) {
+                    Optional<Route> nearest = router.findNearest(graph, sources, goal, costFunction);
+                    assertEquals(!Double.isInfinite(expected), nearest.isPresent(), router.getClass().getSimpleName());
+                    if (nearest.isEmpty()) {
+                        continue;
+                    }
+                    Route route = nearest.get();
+                    assertEquals(expected, route.totalCost(), COST_EPSILON, router.getClass().getSimpleName());
+                    assertTrue(sources.contains(route.nodes().getFirst()));
+                    assertEquals(goal, route.nodes().getLast());
+                    double cost = 0.0;
+                    for (int i = 1; i < route.nodes().size(); i++) {
+                        cost += costFunction.cost(graph.getEdge(route.nodes().get(i - 1), route.nodes().get(i)).orElseThrow());
+                    }
+                    assertEquals(route.totalCost(), cost, COST_EPSILON);
+                }
+            }
+        }
+    }
+
+    @Test
+    void multiSourceBidirectionalAStarOnlyEstimatesTowardsTheGoal() {
+        var random = new Random(4_242L);
+        var costFunction = CostFunctions.travelTimeSeconds();
+        AdjacencyMapGraph graph = RoutingTestGraphs.randomGraph(random, 40, 0.05, 0.2, 0.1);
+        List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
+        List<NodeId> sources = nodeIds.subList(0, 6);
+        NodeId goal = nodeIds.getLast();
+        var landmarks = new LandmarkHeuristic(costFunction, 3, 0);
+        var estimates = new AtomicInteger();
+        Heuristic towardsGoalOnly = (g, from, to) -> {
+            assertEquals(goal, to);
+            estimates.incrementAndGet();
+            return landmarks.estimate(g, from, to);
+        };
+
+        Optional<Route> expected = new DijkstraRouter().findNearest(graph, sources, goal, costFunction);
+        Optional<Route> actual = new BidirectionalAStarRouter(towardsGoalOnly).findNearest(graph, sources, goal, costFunction);
+
+        assertEquals(expected.map(Route::totalCost), actual.map(Route::totalCost));
+        assertTrue(estimates.get() > 0);
+    }
+
+    @Test
+    void unknownSourcesAreIgnoredAndGoalAsSourceIsTrivial() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = new NodeId("A");
+        NodeId b = new NodeId("B");
+        graph.addNode(new Node(a, NodeType.CITY, Optional.empty(), "A"));
+        graph.addNode(new Node(b, NodeType.CITY, Optional.empty(), "B"));
+        graph.putEdge(new Edge(a, b, new EdgeWeights(1.0, Duration.ofSeconds(30), 1.0), EdgeStatus.OPEN));
+        var router = new DijkstraRouter();
+        var costFunction = CostFunctions.travelTimeSeconds();
+
+        assertEquals(List.of(a, b),
+                router.findNearest(graph, List.of(new NodeId("Z"), a), b, costFunction).orElseThrow().nodes());
+        assertEquals(List.of(b), router.findNearest(graph, List.of(a, b), b, costFunction).orElseThrow().nodes());
+        assertTrue(router.findNearest(graph, List.of(new NodeId("Z")), b, costFunction).isEmpty());
+        assertTrue(router.findNearest(graph, List.of(b), a, costFunction).isEmpty());
+    }
+}
@@ -0,0 +1,188 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class HubLabelOracleTest {
+    private static final double COST_EPSILON = 1e-6;
+
+    @Test
+    void matchesDijkstra_onRandomGraphs() {
+        var random = new Random(8_111L);
+        var dijkstra = new DijkstraRouter();
+        var costFunction = CostFunctions.travelTimeSeconds();
+
+        for (int g = 0; g < 25; g++) {
+            AdjacencyMapGraph graph = RoutingTestGraphs.randomGraph(random, 2 + random.nextInt(60));
+            var oracle = HubLabelOracle.build(graph, costFunction);
+            List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
+
+            for (int p = 0; p < 40; p++) {
+                NodeId start = nodeIds.get(random.nextInt(nodeIds.size()));
+                NodeId goal = nodeIds.get(random.nextInt(nodeIds.size()));
+                Optional<Route> expected = dijkstra.findRoute(graph, start, goal, costFunction);
+
+                double distance = oracle.distance(graph, start, goal, costFunction);
+                Optional<Route> actual = oracle.findRoute(graph, start, goal, costFunction);
+                assertEquals(expected.isPresent(), actual.isPresent());
+                if (expected.isEmpty()) {
+                    assertEquals(Double.POSITIVE_INFINITY, distance);
+                    continue;
+                }
+                Route route = actual.orElseThrow();
+                assertEquals(expected.orElseThrow().totalCost(), distance, COST_EPSILON);
+                assertEquals(distance, route.totalCost(), COST_EPSILON);
+                assertEquals(start, route.nodes().getFirst());
+                assertEquals(goal, route.nodes().getLast());
+                for (int i = 1; i < route.nodes().size(); i++) {
+                    Edge edge = graph.getEdge(route.nodes().get(i - 1), route.nodes().get(i)).orElseThrow();
+                    assertEquals(EdgeStatus.OPEN, edge.status());
+                }
+            }
+            assertEquals(0L, oracle.fallbacks());
+        }
+    }
+
+    @Test
+    void staysExact_underNotifiedCostIncreases() {
+        var random = new Random(515L);
+        var dijkstra = new DijkstraRouter();
+        var costFunction = CostFunctions.travelTimeSeconds();
+        AdjacencyMapGraph graph = RoutingTestGraphs.randomGraph(random, 60);
+        var oracle = HubLabelOracle.build(graph, costFunction);
+        List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
+
+        for (int round = 0; round < 10; round++) {
+            NodeId from = nodeIds.get(random.nextInt(nodeIds.size()));
+            List<Edge> edges = new ArrayList<>(graph.outgoingEdges(from));
+            if (edges.isEmpty()) {
+                continue;
+            }
+            Edge before = edges.get(random.nextInt(edges.size()));
+            Edge after = new Edge(
+                    before.from(),
+                    before.to(),
+                    new EdgeWeights(
+                            before.weights().distanceKm(),
+                            before.weights().travelTime().multipliedBy(2 + random.nextInt(10)),
+                            1.0
+                    ),
+                    random.nextBoolean() ? EdgeStatus.CLOSED : before.status()
+            );
+            long version = graph.putEdge(after);
+            oracle.onGraphChanged(graph, new GraphChange.EdgeChanged(
+                    before.from(), before.to(), Optional.of(before), Optional.of(after), version));
+
+            for (int p = 0; p < 40; p++) {
+                NodeId start = nodeIds.get(random.nextInt(nodeIds.size()));
+                NodeId goal = nodeIds.get(random.nextInt(nodeIds.size()));
+                double expected = dijkstra.findRoute(graph, start, goal, costFunction)
+                        .map(Route::totalCost)
+                        .orElse(Double.POSITIVE_INFINITY);
+                assertEquals(expected, oracle.distance(graph, start, goal, costFunction), COST_EPSILON);
+            }
+        }
+    }
+
+    @Test
+    void fallsBack_onlyForPairsTouchingModifiedEdges() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A");
+        NodeId b = addNode(graph, "B");
+        NodeId c = addNode(graph, "C");
+        NodeId d = addNode(graph, "D");
+        NodeId e = addNode(graph, "E");
+        Edge ab = edge(a, b, 60);
+        graph.putEdge(ab);
+        graph.putEdge(edge(b, c, 60));
+        graph.putEdge(edge(a, c, 600));
+        graph.putEdge(edge(d, e, 30));
+
+        var costFunction = CostFunctions.travelTimeSeconds();
+        var oracle = HubLabelOracle.build(graph, costFunction);
+        assertEquals(120.0, oracle.distance(graph, a, c, costFunction), COST_EPSILON);
+
+        Edge closed = new Edge(a, b, ab.weights(), EdgeStatus.CLOSED);
+        long version = graph.putEdge(closed);
+        oracle.onGraphChanged(graph, new GraphChange.EdgeChanged(a, b, Optional.of(ab), Optional.of(closed), version));
+
+        assertEquals(30.0, oracle.distance(graph, d, e, costFunction), COST_EPSILON);
+        assertEquals(60.0, oracle.distance(graph, b, c, costFunction), COST_EPSILON);
+        assertEquals(0L, oracle.fallbacks());
+
+        assertEquals(600.0, oracle.distance(graph, a, c, costFunction), COST_EPSILON);
+        assertEquals(List.of(a, c), oracle.findRoute(graph, a, c, costFunction).orElseThrow().nodes());
+        assertEquals(2L, oracle.fallbacks());
+    }
+
+    @Test
+    void fallsBackForEveryPair_afterCheaperOrUnnotifiedChanges() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A");
+        NodeId b = addNode(graph, "B");
+        NodeId c = addNode(graph, "C");
+        graph.putEdge(edge(a, b, 60));
+        graph.putEdge(edge(b, c, 60));
+
+        var costFunction = CostFunctions.travelTimeSeconds();
+        var oracle = HubLabelOracle.build(graph, costFunction);
+
+        Edge shortcut = edge(a, c, 10);
+        long version = graph.putEdge(shortcut);
+        oracle.onGraphChanged(graph, new GraphChange.EdgeChanged(a, c, Optional.empty(), Optional.of(shortcut), version));
+        assertEquals(10.0, oracle.distance(graph, a, c, costFunction), COST_EPSILON);
+        assertEquals(60.0, oracle.distance(graph, b, c, costFunction), COST_EPSILON);
+        assertEquals(2L, oracle.fallbacks());
+
+        var unnotified = HubLabelOracle.build(graph, costFunction);
+        graph.putEdge(edge(a, b, 5));
+        assertEquals(5.0, unnotified.distance(graph, a, b, costFunction), COST_EPSILON);
+        assertEquals(1L, unnotified.fallbacks());
+        assertEquals(1.0, unnotified.distance(graph, a, b, CostFunctions.distanceKm()), COST_EPSILON);
+        assertEquals(2L, unnotified.fallbacks());
+        assertTrue(unnotified.labelEntryCount() >= 2 * graph.nodeIds().size());
+    }
+
+    @Test
+    void rejectsHierarchyOfAnotherVersion() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A");
+        NodeId b = addNode(graph, "B");
+        graph.putEdge(edge(a, b, 60));
+        var costFunction = CostFunctions.travelTimeSeconds();
+        var hierarchy = ContractionHierarchy.build(graph, costFunction);
+        graph.putEdge(edge(b, a, 60));
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> HubLabelOracle.build(graph, hierarchy, costFunction, new DijkstraRouter())
+        );
+    }
+
+    private static NodeId addNode(AdjacencyMapGraph graph, String id) {
+        NodeId nodeId = new NodeId(id);
+        graph.addNode(new Node(nodeId, NodeType.CITY, Optional.empty(), id));
+        return nodeId;
+    }
+
+    private static Edge edge(NodeId from, NodeId to, long seconds) {
+        return new Edge(from, to, new EdgeWeights(1.0, Duration.ofSeconds(seconds), 1.0), EdgeStatus.OPEN);
+    }
+}
@@ -0,0 +1,110 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class IsochroneTest {
+    @Test
+    void matchesNearestSourceCostsWithinBudget_onRandomGraphs() {
+        var random = new Random(2_024L);
+        var dijkstra = new DijkstraRouter();
+        List<EdgeCostFunction> costFunctions = List.of(CostFunctions.travelTimeSeconds(), CostFunctions.distanceKm());
+
+        for (int g = 0; g < 20; g++) {
+            AdjacencyMapGraph graph = RoutingTestGraphs.randomGraph(random, 2 + random.nextInt(50));
+            List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
+            List<NodeId> sources = new ArrayList<>();
+            for (int s = 0; s < 1 + random.nextInt(3); s++) {
+                sources.add(nodeIds.get(random.nextInt(nodeIds.size())));
+            }
+            EdgeCostFunction costFunction = costFunctions.get(g % 2);
+            double budget = g % 2 == 0 ? 300 + random.nextInt(900) : 5 + random.nextInt(30);
+
+            Isochrone isochrone = Isochrone.compute(graph, sources, budget, costFunction);
+
+            int reachable = 0;
+            BitSet indices = isochrone.reachableIndices();
+            for (NodeId node : nodeIds) {
+                double expected = dijkstra.findNearest(graph, sources, node, costFunction)
+                        .map(Route::totalCost)
+                        .orElse(Double.POSITIVE_INFINITY);
+                if (expected <= budget) {
+                    reachable++;
+                    assertTrue(isochrone.contains(node));
+                    assertEquals(expected, isochrone.cost(node), 1e-9);
+                    assertTrue(indices.get(graph.nodeIndex().indexOf(node)));
+                } else {
+                    assertFalse(isochrone.contains(node));
+                    assertEquals(Double.POSITIVE_INFINITY, isochrone.cost(node));
+                }
+            }
+            assertEquals(reachable, isochrone.reachableCount());
+            assertEquals(reachable, indices.cardinality());
+            assertEquals(reachable, isochrone.reachableNodes().size());
+            assertEquals(graph.version(), isochrone.graphVersion());
+        }
+    }
+
+    @Test
+    void includesNodesExactlyAtBudget_andIgnoresUnknownSources() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A");
+        NodeId b = addNode(graph, "B");
+        NodeId c = addNode(graph, "C");
+        graph.putEdge(edge(a, b, 480));
+        graph.putEdge(edge(b, c, 1));
+
+        Isochrone isochrone = Isochrone.compute(
+                graph,
+                List.of(a, new NodeId("UNKNOWN")),
+                480,
+                CostFunctions.travelTimeSeconds()
+        );
+
+        assertEquals(List.of(a, b), isochrone.reachableNodes());
+        assertEquals(0.0, isochrone.cost(a));
+        assertEquals(480.0, isochrone.cost(b));
+        assertFalse(isochrone.contains(c));
+        assertEquals(480.0, isochrone.cost(graph.nodeIndex().indexOf(b)));
+        assertEquals(Double.POSITIVE_INFINITY, isochrone.cost(-1));
+    }
+
+    @Test
+    void rejectsInvalidBudget() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A");
+        var costFunction = CostFunctions.travelTimeSeconds();
+
+        assertThrows(IllegalArgumentException.class, () -> Isochrone.compute(graph, List.of(a), -1.0, costFunction));
+        assertThrows(IllegalArgumentException.class, () -> Isochrone.compute(graph, List.of(a), Double.NaN, costFunction));
+        assertEquals(1, Isochrone.compute(graph, List.of(a), 0.0, costFunction).reachableCount());
+    }
+
+    private static NodeId addNode(AdjacencyMapGraph graph, String id) {
+        NodeId nodeId = new NodeId(id);
+        graph.addNode(new Node(nodeId, NodeType.CITY, Optional.empty(), id));
+        return nodeId;
+    }
+
+    private static Edge edge(NodeId from, NodeId to, long seconds) {
+        return new Edge(from, to, new EdgeWeights(1.0, Duration.ofSeconds(seconds), 1.0), EdgeStatus.OPEN);
+    }
+}
@@ -0,0 +1,137 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.graph.GraphChange;
+import com.neca.perds.model.NodeId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class LandmarkHeuristicTest {
+    private static final double COST_EPSILON = 1e-9;
+
+    @Test
+    void isAdmissibleAndAStarMatchesDijkstra_underClosuresAndNotifiedDecreases() {
+        var random = new Random(31_337L);
+        var costFunction = CostFunctions.travelTimeSeconds();
+        var dijkstra = new DijkstraRouter();
+
+        for (int g = 0; g < 15; g++) {
+            int nodeCount = 2 + random.nextInt(60);
+            AdjacencyMapGraph graph = RoutingTestGraphs.randomConnectedGraph(random, nodeCount, nodeCount, 0.0);
+            var heuristic = new LandmarkHeuristic(costFunction, 4, 1_000);
+            var aStar = new AStarRouter(heuristic);
+            List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
+
+            for (int step = 0; step < 30; step++) {
+                NodeId start = nodeIds.get(random.nextInt(nodeIds.size()));
+                NodeId goal = nodeIds.get(random.nextInt(nodeIds.size()));
+                Optional<Route> expected = dijkstra.findRoute(graph, start, goal, costFunction);
+                Optional<Route> actual = aStar.findRoute(graph, start, goal, costFunction);
+
+                assertEquals(expected.isPresent(), actual.isPresent());
+                if (expected.isPresent()) {
+                    double cost = expected.orElseThrow().totalCost();
+                    assertEquals(cost, actual.orElseThrow().totalCost(), COST_EPSILON);
+                    assertTrue(heuristic.estimate(graph, start, goal) <= cost + COST_EPSILON);
+                }
+
+                Edge edge = randomEdge(random, graph);
+                if (random.nextBoolean()) {
+                    graph.updateEdge(edge.from(), edge.to(), edge.weights(), EdgeStatus.CLOSED);
+                } else {
+                    var faster = new EdgeWeights(edge.weights().distanceKm(), Duration.ofSeconds(1), 1.0);
+                    long version = graph.updateEdge(edge.from(), edge.to(), faster, EdgeStatus.OPEN);
+                    heuristic.onGraphChanged(graph, new GraphChange.EdgeChanged(
+                            edge.from(), edge.to(), Optional.of(edge), graph.getEdge(edge.from(), edge.to()), version));
+                }
+            }
+        }
+    }
+
+    @Test
+    void reselectsLandmarksOnlyAfterVersionTolerance() {
+        var random = new Random(5L);
+        var costFunction = CostFunctions.travelTimeSeconds();
+        AdjacencyMapGraph graph = RoutingTestGraphs.randomConnectedGraph(random, 30, 30, 0.0);
+        var heuristic = new LandmarkHeuristic(costFunction, 3, 2);
+        List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
+
+        heuristic.estimate(graph, nodeIds.get(0), nodeIds.get(1));
+        long built = heuristic.landmarksVersion();
+        assertEquals(graph.version(), built);
+        assertEquals(3, heuristic.landmarkIds().size());
+
+        for (int i = 0; i < 2; i++) {
+            Edge edge = randomEdge(random, graph);
+            graph.updateEdge(edge.from(), edge.to(), edge.weights(), EdgeStatus.CLOSED);
+            heuristic.estimate(graph, nodeIds.get(0), nodeIds.get(1));
+            assertEquals(built, heuristic.landmarksVersion());
+        }
+
+        Edge edge = randomEdge(random, graph);
+        graph.updateEdge(edge.from(), edge.to(), edge.weights(), EdgeStatus.CLOSED);
+        heuristic.estimate(graph, nodeIds.get(0), nodeIds.get(1));
+        assertEquals(graph.version(), heuristic.landmarksVersion());
+    }
+
+    @Test
+    void rebuildsOnUnnotifiedDecreaseOrOtherGraph() {
+        var random = new Random(17L);
+        var costFunction = CostFunctions.travelTimeSeconds();
+        var dijkstra = new DijkstraRouter();
+        AdjacencyMapGraph graph = RoutingTestGraphs.randomConnectedGraph(random, 40, 40, 0.0);
+        var heuristic = new LandmarkHeuristic(costFunction, 4, 1_000);
+        var aStar = new AStarRouter(heuristic);
+        List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
+
+        heuristic.estimate(graph, nodeIds.get(0), nodeIds.get(1));
+        long built = heuristic.landmarksVersion();
+        Edge closed = randomEdge(random, graph);
+        graph.updateEdge(closed.from(), closed.to(), closed.weights(), EdgeStatus.CLOSED);
+        heuristic.estimate(graph, nodeIds.get(0), nodeIds.get(1));
+        assertEquals(built, heuristic.landmarksVersion());
+
+        for (int step = 0; step < 30; step++) {
+            Edge edge = randomEdge(random, graph);
+            var faster = new EdgeWeights(edge.weights().distanceKm(), Duration.ofSeconds(1), 1.0);
+            graph.updateEdge(edge.from(), edge.to(), faster, EdgeStatus.OPEN);
+
+            NodeId start = nodeIds.get(random.nextInt(nodeIds.size()));
+            NodeId goal = nodeIds.get(random.nextInt(nodeIds.size()));
+            Optional<Route> expected = dijkstra.findRoute(graph, start, goal, costFunction);
+            Optional<Route> actual = aStar.findRoute(graph, start, goal, costFunction);
+            assertEquals(expected.isPresent(), actual.isPresent());
+            if (expected.isPresent()) {
+                assertEquals(expected.orElseThrow().totalCost(), actual.orElseThrow().totalCost(), COST_EPSILON);
+            }
+        }
+        assertTrue(heuristic.landmarksVersion() > built);
+
+        AdjacencyMapGraph other = RoutingTestGraphs.randomConnectedGraph(new Random(18L), 40, 40, 0.0);
+        heuristic.estimate(other, nodeIds.get(0), nodeIds.get(1));
+        assertEquals(other.version(), heuristic.landmarksVersion());
+        heuristic.estimate(graph, nodeIds.get(0), nodeIds.get(1));
+        assertEquals(graph.version(), heuristic.landmarksVersion());
+    }
+
+    private static Edge randomEdge(Random random, AdjacencyMapGraph graph) {
+        List<Edge> edges = new ArrayList<>();
+        for (NodeId id : graph.nodeIds()) {
+            edges.addAll(graph.outgoingEdges(id));
+        }
+        edges.sort(Comparator.comparing((Edge e) -> e.from().value()).thenComparing(e -> e.to().value()));
+        return edges.get(random.nextInt(edges.size()));
+    }
+}
@@ -0,0 +1,96 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+/** Random graphs shared by the router property tests. */
+final class RoutingTestGraphs {
+    private RoutingTestGraphs() {
+    }
+
+    /**
+     * Nodes {@code N0..N(nodeCount-1)}, with each ordered pair joined with a probability drawn from
+     * [0.05, 0.25); 15% of the edges are closed.
+     */
+    static AdjacencyMapGraph randomGraph(Random random, int nodeCount) {
+        return randomGraph(random, nodeCount, 0.05, 0.2, 0.15);
+    }
+
+    /**
+     * Nodes {@code N0..N(nodeCount-1)}, with each ordered pair joined with a probability drawn from
+     * [minEdgeProbability, minEdgeProbability + edgeProbabilityRange).
+     */
+    static AdjacencyMapGraph randomGraph(
+            Random random,
+            int nodeCount,
+            double minEdgeProbability,
+            double edgeProbabilityRange,
+            double closedProbability
+    ) {
+        var graph = new AdjacencyMapGraph();
+        List<NodeId> ids = addNodes(graph, nodeCount);
+        double edgeProbability = minEdgeProbability + random.nextDouble() * edgeProbabilityRange;
+        for (NodeId from : ids) {
+            for (NodeId to : ids) {
+                if (from.equals(to) || random.nextDouble() >= edgeProbability) {
+                    continue;
+                }
+                EdgeStatus status = random.nextDouble() < closedProbability ? EdgeStatus.CLOSED : EdgeStatus.OPEN;
+                graph.putEdge(new Edge(from, to, randomWeights(random), status));
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Nodes {@code N0..N(nodeCount-1)} joined by a random spanning tree of open edges in both directions,
+     * plus up to {@code extraEdges} random edges, each closed with probability {@code closedProbability}.
+     * Every node can reach every other.
+     */
+    static AdjacencyMapGraph randomConnectedGraph(Random random, int nodeCount, int extraEdges, double closedProbability) {
+        var graph = new AdjacencyMapGraph();
+        List<NodeId> ids = addNodes(graph, nodeCount);
+        for (int i = 1; i < nodeCount; i++) {
+            NodeId other = ids.get(random.nextInt(i));
+            graph.putEdge(new Edge(ids.get(i), other, randomWeights(random), EdgeStatus.OPEN));
+            graph.putEdge(new Edge(other, ids.get(i), randomWeights(random), EdgeStatus.OPEN));
+        }
+        for (int i = 0; i < extraEdges; i++) {
+            NodeId from = ids.get(random.nextInt(nodeCount));
+            NodeId to = ids.get(random.nextInt(nodeCount));
+            if (from.equals(to)) {
+                continue;
+            }
+            EdgeStatus status = closedProbability > 0.0 && random.nextDouble() < closedProbability
+                    ? EdgeStatus.CLOSED
+                    : EdgeStatus.OPEN;
+            graph.putEdge(new Edge(from, to, randomWeights(random), status));
+        }
+        return graph;
+    }
+
+    private static List<NodeId> addNodes(AdjacencyMapGraph graph, int nodeCount) {
+        List<NodeId> ids = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            NodeId id = new NodeId("N" + i);
+            ids.add(id);
+            graph.addNode(new Node(id, NodeType.CITY, Optional.empty(), id.value()));
+        }
+        return ids;
+    }
+
+    private static EdgeWeights randomWeights(Random random) {
+        return new EdgeWeights(1.0 + random.nextInt(20), Duration.ofSeconds(1 + random.nextInt(600)), 1.0);
+    }
+}
@@ -0,0 +1,126 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.model.GeoPoint;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TimeDependentRouterTest {
+    private static final ZoneId UTC = ZoneId.of("UTC");
+    private static final double EPSILON = 1e-6;
+
+    @Test
+    void evaluatesEachEdgeAtItsArrivalTime() {
+        // A -> B -> C is 30 + 30 minutes free flow; A -> C is a single 65 minute edge.
+        var graph = new AdjacencyMapGraph();
+        NodeId a = addNode(graph, "A");
+        NodeId b = addNode(graph, "B");
+        NodeId c = addNode(graph, "C");
+        putEdge(graph, a, b, 1_800);
+        putEdge(graph, b, c, 1_800);
+        putEdge(graph, a, c, 3_900);
+
+        var profile = CongestionProfile.builder()
+                .period(LocalTime.of(7, 0), LocalTime.of(9, 0), 1.5)
+                .build();
+        var router = new TimeDependentRouter(profile, () -> at(6, 30), UTC);
+        var costFunction = CostFunctions.travelTimeSeconds();
+
+        Route early = router.findRoute(graph, a, c, costFunction, at(5, 0)).orElseThrow();
+        assertEquals(List.of(a, b, c), early.nodes());
+        assertEquals(3_600.0, early.totalCost(), EPSILON);
+
+        // 1800 s to B, then 1800 s of free flow at 1.5 -> 2700 s, 4500 s total. The bypass enters rush
+        // hour after 1800 s too: 1800 + 2100 * 1.5 = 4950 s. The two-leg route still wins.
+        Route atRush = router.findRoute(graph, a, c, costFunction).orElseThrow();
+        assertEquals(List.of(a, b, c), atRush.nodes());
+        assertEquals(4_500.0, atRush.totalCost(), EPSILON);
+        assertEquals(Duration.ofSeconds(4_500), atRush.totalTravelTime());
+
+        // Departing at 08:30, a departure-time multiplier would charge the whole trip at 1.5 (5400 s). Here
+        // the first 1800 s at 1.5 cover 1200 free-flow seconds, rush hour ends, and 600 + 1800 s remain.
+        Route lateRush = router.findRoute(graph, a, c, costFunction, at(8, 30)).orElseThrow();
+        assertEquals(1_800.0 + 600.0 + 1_800.0, lateRush.totalCost(), EPSILON);
+    }
+
+    @Test
+    void constantProfileMatchesStaticDijkstraAndAStarMatchesDijkstra() {
+        var random = new Random(2_024L);
+        var costFunction = CostFunctions.travelTimeSeconds();
+        var rushHour = CongestionProfile.standardRushHour();
+        Heuristic zero = (graph, from, to) -> 0.0;
+
+        for (int g = 0; g < 20; g++) {
+            var graph = new AdjacencyMapGraph();
+            List<NodeId> ids = new ArrayList<>();
+            int nodeCount = 2 + random.nextInt(30);
+            for (int i = 0; i < nodeCount; i++) {
+                ids.add(addNode(graph, "N" + i));
+            }
+            for (int i = 0; i < nodeCount * 3; i++) {
+                NodeId from = ids.get(random.nextInt(nodeCount));
+                NodeId to = ids.get(random.nextInt(nodeCount));
+                if (!from.equals(to)) {
+                    putEdge(graph, from, to, 60 + random.nextInt(7_200));
+                }
+            }
+
+            Instant departure = at(random.nextInt(24), random.nextInt(60));
+            var staticRouter = new TimeDependentRouter(CongestionProfile.none(), () -> departure, UTC);
+            var dijkstra = new TimeDependentRouter(rushHour, () -> departure, UTC);
+            var landmarks = new LandmarkHeuristic(costFunction, 3, 0);
+            var aStar = new TimeDependentRouter(rushHour, () -> departure, UTC, landmarks);
+
+            for (int q = 0; q < 10; q++) {
+                NodeId start = ids.get(random.nextInt(nodeCount));
+                NodeId goal = ids.get(random.nextInt(nodeCount));
+                Optional<Route> expectedStatic = new DijkstraRouter().findRoute(graph, start, goal, costFunction);
+                Optional<Route> actualStatic = staticRouter.findRoute(graph, start, goal, costFunction);
+                assertEquals(expectedStatic.map(Route::totalCost), actualStatic.map(Route::totalCost));
+
+                Optional<Route> expected = dijkstra.findRoute(graph, start, goal, costFunction);
+                Optional<Route> actual = aStar.findRoute(graph, start, goal, costFunction);
+                assertEquals(expected.isPresent(), actual.isPresent());
+                if (expected.isPresent()) {
+                    assertEquals(expected.get().totalCost(), actual.get().totalCost(), EPSILON);
+                    assertTrue(expected.get().totalCost() >= expectedStatic.orElseThrow().totalCost() - EPSILON);
+                }
+                assertEquals(expected.map(Route::totalCost),
+                        new TimeDependentRouter(rushHour, () -> departure, UTC, zero)
+                                .findRoute(graph, start, goal, costFunction).map(Route::totalCost));
+            }
+        }
+    }
+
+    private static Instant at(int hour, int minute) {
+        return ZonedDateTime.of(2025, 1, 1, hour, minute, 0, 0, UTC).toInstant();
+    }
+
+    private static NodeId addNode(AdjacencyMapGraph graph, String id) {
+        NodeId nodeId = new NodeId(id);
+        graph.addNode(new Node(nodeId, NodeType.CITY, Optional.of(new GeoPoint(0.0, 0.0)), id));
+        return nodeId;
+    }
+
+    private static void putEdge(AdjacencyMapGraph graph, NodeId from, NodeId to, int seconds) {
+        graph.putEdge(new Edge(from, to, new EdgeWeights(1.0, Duration.ofSeconds(seconds), 1.0), EdgeStatus.OPEN));
+    }
+}
@@ -0,0 +1,127 @@
+package com.neca.perds.routing;
+
+import com.neca.perds.graph.AdjacencyMapGraph;
+import com.neca.perds.graph.Edge;
+import com.neca.perds.graph.EdgeStatus;
+import com.neca.perds.graph.EdgeWeights;
+import com.neca.perds.model.Node;
+import com.neca.perds.model.NodeId;
+import com.neca.perds.model.NodeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class TravelTimeTableTest {
+    private static final double COST_EPSILON = 1e-9;
+
+    @Test
+    void oneToManyTablesMatchPointToPointRoutes_inBothDirections() {
+        var random = new Random(424_242L);
+        var costFunction = CostFunctions.travelTimeSeconds();
+        var dijkstra = new DijkstraRouter();
+
+        for (int g = 0; g < 20; g++) {
+            AdjacencyMapGraph graph = RoutingTestGraphs.randomGraph(random, 2 + random.nextInt(50), 0.03, 0.2, 0.15);
+            List<NodeId> nodeIds = new ArrayList<>(graph.nodeIds());
+            List<NodeId> many = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(8); i++) {
+                many.add(nodeIds.get(random.nextInt(nodeIds.size())));
+            }
+            List<NodeId> one = List.of(nodeIds.get(random.nextInt(nodeIds.size())));
+
+            for (Router router : List.of(dijkstra, new BidirectionalDijkstraRouter())) {
+                assertMatchesPointToPoint(graph, router.travelTimeTable(graph, many, one, costFunction), costFunction);
+                assertMatchesPointToPoint(graph, router.travelTimeTable(graph, one, many, costFunction), costFunction);
+                assertMatchesPointToPoint(graph, router.travelTimeTable(graph, many, many, costFunction), costFunction);
+            }
+        }
+    }
+
+    @Test
+    void unknownAndUnreachableNodesAreInfinite() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = new NodeId("A");
+        NodeId b = new NodeId("B");
+        NodeId c = new NodeId("C");
+        graph.addNode(new Node(a, NodeType.CITY, Optional.empty(), "A"));
+        graph.addNode(new Node(b, NodeType.CITY, Optional.empty(), "B"));
+        graph.addNode(new Node(c, NodeType.CITY, Optional.empty(), "C"));
+        graph.putEdge(new Edge(a, b, new EdgeWeights(2.0, Duration.ofSeconds(120), 1.0), EdgeStatus.OPEN));
+
+        NodeId missing = new NodeId("Z");
+        TravelTimeTable table = new DijkstraRouter().travelTimeTable(
+                graph, List.of(a, c, missing), List.of(b), CostFunctions.travelTimeSeconds());
+
+        assertEquals(graph.version(), table.graphVersionUsed());
+        assertEquals(120.0, table.cost(a, b), COST_EPSILON);
+        assertEquals(Duration.ofSeconds(120), table.travelTime(0, 0));
+        assertEquals(List.of(a, b), table.route(0, 0).orElseThrow().nodes());
+        assertFalse(table.isReachable(1, 0));
+        assertTrue(table.route(1, 0).isEmpty());
+        assertTrue(Double.isInfinite(table.cost(missing, b)));
+        assertEquals(-1, table.sourceIndex(b));
+    }
+
+    @Test
+    void routesKeepTheirNodeIdsAfterTheGraphReusesIndices() {
+        var graph = new AdjacencyMapGraph();
+        NodeId a = new NodeId("A");
+        NodeId b = new NodeId("B");
+        NodeId c = new NodeId("C");
+        for (NodeId id : List.of(a, b, c)) {
+            graph.addNode(new Node(id, NodeType.CITY, Optional.empty(), id.value()));
+        }
+        var weights = new EdgeWeights(1.0, Duration.ofSeconds(60), 1.0);
+        graph.putEdge(new Edge(a, b, weights, EdgeStatus.OPEN));
+        graph.putEdge(new Edge(b, c, weights, EdgeStatus.OPEN));
+
+        TravelTimeTable table = new DijkstraRouter().travelTimeTable(
+                graph, List.of(a), List.of(c), CostFunctions.travelTimeSeconds());
+        graph.removeNode(b);
+        graph.addNode(new Node(new NodeId("X"), NodeType.CITY, Optional.empty(), "X"));
+
+        assertEquals(List.of(a, b, c), table.route(0, 0).orElseThrow().nodes());
+    }
+
+    private static void assertMatchesPointToPoint(
+            AdjacencyMapGraph graph,
+            TravelTimeTable table,
+            EdgeCostFunction costFunction
+    ) {
+        var dijkstra = new DijkstraRouter();
+        for (int s = 0; s < table.sources().size(); s++) {
+            for (int t = 0; t < table.targets().size(); t++) {
+                NodeId source = table.sources().get(s);
+                NodeId target = table.targets().get(t);
+                Optional<Route> expected = dijkstra.findRoute(graph, source, target, costFunction);
+                assertEquals(expected.isPresent(), table.isReachable(s, t));
+                if (expected.isEmpty()) {
+                    continue;
+                }
+                assertEquals(expected.orElseThrow().totalCost(), table.cost(s, t), COST_EPSILON);
+
+                Route route = table.route(s, t).orElseThrow();
+                assertEquals(source, route.nodes().getFirst());
+                assertEquals(target, route.nodes().getLast());
+                double cost = 0.0;
+                Duration travelTime = Duration.ZERO;
+                for (int i = 1; i < route.nodes().size(); i++) {
+                    Edge edge = graph.getEdge(route.nodes().get(i - 1), route.nodes().get(i)).orElseThrow();
+                    cost += costFunction.cost(edge);
+                    travelTime = travelTime.plus(edge.weights().travelTime());
+                }
+                assertEquals(table.cost(s, t), cost, COST_EPSILON);
+                assertEquals(table.travelTime(s, t), travelTime);
+                assertEquals(route.totalTravelTime(), travelTime);
+            }
+        }
+    }
+}